@@ -0,0 +1,420 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.exceptions.CParserException;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+/**
+ * On-disk cache for fully post-processed CFAs, which allows to skip parsing and CFA construction
+ * when the same program is analyzed several times with different configurations.
+ *
+ * <p>A CFA is identified by a hash over the format version of the cache, the CPAchecker version,
+ * the names of the input files, the program that is actually parsed (i.e., the output of the
+ * preprocessor if it is used, such that changes of included headers are detected), and all
+ * configuration options that influence the CFA (cf. {@link #isRelevantOption(String)}). The stored
+ * CFA contains everything that {@link ImmutableCFA} contains, i.e., also the loop structure, the
+ * variable classification, the dependence graph, and the reverse-postorder ids of the nodes.
+ *
+ * <p>The object graph of the CFA is encoded with Java serialization, like the existing export of
+ * option {@code cfa.serialize}, because there is no other encoding for all AST, type, and edge
+ * classes. The CPAchecker version alone does not identify the code of these classes (e.g., for
+ * development builds), so each file additionally contains a fingerprint of the class files of all
+ * classes that occur in the stored object graph, and a file is only loaded if none of these
+ * classes has changed. Files are read with memory mapping.
+ *
+ * <p>Each CFA is stored uncompressed in its own file, which is written to a temporary file first
+ * and then moved atomically, such that several concurrent runs can share the cache. CFAs with
+ * live-variable information are not stored because {@link
+ * org.sosy_lab.cpachecker.util.LiveVariables} is not serializable.
+ */
+@Options(prefix = "cfa.cache")
+class CFACache implements Statistics {
+
+  /** Version of the file format, needs to be changed for incompatible changes of this class. */
+  private static final int FORMAT_VERSION = 2;
+
+  private static final int MAGIC = 0x43464143; // "CFAC"
+
+  private static final String FILE_SUFFIX = ".cfa";
+
+  @Option(
+    secure = true,
+    description =
+        "Directory for caching created CFAs across runs of CPAchecker. "
+            + "A CFA is reused if the input files and all options that influence the CFA are "
+            + "equal. Use an absolute path to share the cache between runs with different "
+            + "output directories. If not set, no cache is used."
+  )
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path directory = null;
+
+  private final LogManager logger;
+  private final String relevantOptions;
+
+  private final StatTimer keyTimer = new StatTimer("Time for hashing input files");
+  private final StatTimer loadTimer = new StatTimer("Time for loading CFA");
+  private final StatTimer storeTimer = new StatTimer("Time for storing CFA");
+  private final StatCounter loadedCfas = new StatCounter("Number of loaded CFAs");
+  private final StatCounter storedCfas = new StatCounter("Number of stored CFAs");
+
+  CFACache(Configuration pConfig, LogManager pLogger) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = checkNotNull(pLogger);
+    relevantOptions = getRelevantOptions(pConfig);
+  }
+
+  boolean isEnabled() {
+    return directory != null;
+  }
+
+  /**
+   * Return whether an option may change the CFA that is created. This is the case for all options
+   * of the parser and of the CFA post-processings, but not for options that only control the
+   * export of the CFA.
+   */
+  private static boolean isRelevantOption(String pName) {
+    if (pName.startsWith("cfa.cache.")
+        || pName.startsWith("cfa.export")
+        || pName.startsWith("cfa.callgraph.")
+        || pName.startsWith("cfa.serialize")
+        || pName.equals("cfa.file")
+        || pName.equals("cfa.pixelGraphicFile")) {
+      return false;
+    }
+    return pName.startsWith("cfa.")
+        || pName.startsWith("parser.")
+        || pName.startsWith("dependenceGraph.")
+        || pName.startsWith("dependencegraph.")
+        || pName.startsWith("liveVar.")
+        || pName.equals("language")
+        || pName.equals("analysis.entryFunction")
+        || pName.equals("analysis.machineModel")
+        || pName.equals("analysis.interprocedural")
+        || pName.equals("analysis.functionPointerCalls")
+        || pName.equals("analysis.threadOperationsTransform")
+        || pName.equals("analysis.useGlobalVars")
+        || pName.equals("analysis.useLoopStructure");
+  }
+
+  private static String getRelevantOptions(Configuration pConfig) {
+    TreeSet<String> options = new TreeSet<>();
+    try (Scanner s = new Scanner(pConfig.asPropertiesString())) {
+      while (s.hasNextLine()) {
+        String line = s.nextLine();
+        int separator = line.indexOf('=');
+        if (separator > 0 && isRelevantOption(line.substring(0, separator).trim())) {
+          options.add(line);
+        }
+      }
+    }
+    return String.join("\n", options);
+  }
+
+  /**
+   * Compute the key of the CFA for the given input files.
+   *
+   * @param pPreprocessor the preprocessor that is applied to the input files before parsing, if
+   *     any. Its output is hashed instead of the input files.
+   */
+  HashCode computeKey(List<String> pSourceFiles, @Nullable CPreprocessor pPreprocessor)
+      throws IOException, CParserException, InterruptedException {
+    keyTimer.start();
+    try {
+      Hasher hasher = Hashing.sha256().newHasher();
+      hasher
+          .putInt(FORMAT_VERSION)
+          .putString(CPAchecker.getCPAcheckerVersion(), UTF_8)
+          .putString(relevantOptions, UTF_8);
+      for (String sourceFile : pSourceFiles) {
+        hasher.putString(sourceFile, UTF_8).putByte((byte) 0);
+        if (pPreprocessor != null) {
+          hasher.putString(pPreprocessor.preprocess(sourceFile), UTF_8);
+        } else {
+          MoreFiles.asByteSource(Paths.get(sourceFile)).copyTo(Funnels.asOutputStream(hasher));
+        }
+      }
+      return hasher.hash();
+    } finally {
+      keyTimer.stop();
+    }
+  }
+
+  private Path getFile(HashCode pKey) {
+    return directory.resolve(pKey + FILE_SUFFIX);
+  }
+
+  /**
+   * Load the CFA with the given key, if it is present in the cache and all classes of the stored
+   * objects are unchanged.
+   */
+  Optional<CFA> load(HashCode pKey) {
+    Path file = getFile(pKey);
+    if (!Files.isReadable(file)) {
+      return Optional.empty();
+    }
+
+    loadTimer.start();
+    try (FileChannel channel = FileChannel.open(file)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        logger.log(Level.FINE, "Not loading CFA from", file, "because it is too large to map");
+        return Optional.empty();
+      }
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+
+      // layout: magic, format version, object stream, class fingerprint, offset of fingerprint
+      if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+        logger.log(Level.FINE, "Ignoring cached CFA in", file, "with unknown format");
+        return Optional.empty();
+      }
+      int fingerprintOffset = (int) buffer.getLong(buffer.limit() - Long.BYTES);
+      ByteBuffer fingerprint = buffer.duplicate();
+      fingerprint.position(fingerprintOffset).limit(buffer.limit() - Long.BYTES);
+      if (!isFingerprintValid(fingerprint)) {
+        logger.log(Level.FINE, "Ignoring cached CFA in", file, "because classes have changed");
+        return Optional.empty();
+      }
+      ByteBuffer objectStream = buffer.duplicate();
+      objectStream.position(2 * Integer.BYTES).limit(fingerprintOffset);
+
+      CFA cfa;
+      try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(objectStream))) {
+        cfa = (CFA) in.readObject();
+      }
+
+      // nodes created from now on must not get the numbers of the loaded nodes
+      cfa.getAllNodes()
+          .stream()
+          .mapToInt(CFANode::getNodeNumber)
+          .max()
+          .ifPresent(CFANode::ensureFreshNodeNumbersAbove);
+
+      loadedCfas.inc();
+      logger.log(Level.FINE, "Loaded CFA from", file);
+      return Optional.of(cfa);
+
+    } catch (IOException
+        | ClassNotFoundException
+        | ClassCastException
+        | IllegalArgumentException
+        | IndexOutOfBoundsException e) {
+      logger.logUserException(Level.WARNING, e, "Could not load CFA from cache");
+      return Optional.empty();
+    } finally {
+      loadTimer.stop();
+    }
+  }
+
+  /** Store a CFA with the given key. Errors are only logged. */
+  void store(HashCode pKey, CFA pCfa) {
+    if (pCfa.getLiveVariables().isPresent()) {
+      logger.log(Level.FINE, "Not caching CFA because live variables cannot be stored");
+      return;
+    }
+
+    Path file = getFile(pKey);
+    storeTimer.start();
+    try {
+      MoreFiles.createParentDirectories(file);
+      Path tmpFile = Files.createTempFile(directory, pKey.toString(), ".tmp");
+      try {
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tmpFile));
+            DataOutputStream out = new DataOutputStream(fileOut)) {
+          out.writeInt(MAGIC);
+          out.writeInt(FORMAT_VERSION);
+
+          Set<String> classes = new TreeSet<>();
+          ObjectOutputStream objects =
+              new ObjectOutputStream(out) {
+                @Override
+                protected void annotateClass(Class<?> pClass) {
+                  classes.add(pClass.getName());
+                }
+              };
+          objects.writeObject(pCfa);
+          objects.flush();
+
+          int fingerprintOffset = out.size();
+          writeFingerprint(out, classes);
+          out.writeLong(fingerprintOffset);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+      storedCfas.inc();
+
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not store CFA in cache");
+    } finally {
+      storeTimer.stop();
+    }
+  }
+
+  /**
+   * Write the names of the given classes together with a hash over their class files. Classes of
+   * the JDK are ignored, their serialized form is stable.
+   */
+  private static void writeFingerprint(DataOutputStream pOut, Set<String> pClasses)
+      throws IOException {
+    List<String> classes = new ArrayList<>();
+    for (String className : pClasses) {
+      if (!className.startsWith("java")
+          && !className.startsWith("sun.")
+          && !className.startsWith("jdk.")
+          && !className.startsWith("[")) {
+        classes.add(className);
+      }
+    }
+    pOut.writeInt(classes.size());
+    for (String className : classes) {
+      pOut.writeUTF(className);
+    }
+    pOut.write(hashClassFiles(classes).asBytes());
+  }
+
+  private static boolean isFingerprintValid(ByteBuffer pFingerprint) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(pFingerprint))) {
+      int size = in.readInt();
+      List<String> classes = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        classes.add(in.readUTF());
+      }
+      byte[] storedHash = new byte[Hashing.sha256().bits() / Byte.SIZE];
+      in.readFully(storedHash);
+      return HashCode.fromBytes(storedHash).equals(hashClassFiles(classes));
+    }
+  }
+
+  /** Hash the class files of the given classes, as they are found by the current class loader. */
+  private static HashCode hashClassFiles(List<String> pClasses) throws IOException {
+    ClassLoader classLoader = CFACache.class.getClassLoader();
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (String className : pClasses) {
+      URL classFile = classLoader.getResource(className.replace('.', '/') + ".class");
+      if (classFile == null) {
+        throw new IOException("Class file of " + className + " not found");
+      }
+      hasher.putString(className, UTF_8);
+      try (InputStream in = classFile.openStream()) {
+        ByteStreams.copy(in, Funnels.asOutputStream(hasher));
+      }
+    }
+    return hasher.hash();
+  }
+
+  /** Input stream that reads the remaining bytes of a buffer, e.g., of a memory-mapped file. */
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer pBuffer) {
+      buffer = pBuffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] pBytes, int pOffset, int pLength) {
+      if (pLength == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int length = Math.min(pLength, buffer.remaining());
+      buffer.get(pBytes, pOffset, length);
+      return length;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    put(pOut, 0, loadedCfas);
+    put(pOut, 0, storedCfas);
+    put(pOut, 0, keyTimer);
+    put(pOut, 0, loadTimer);
+    put(pOut, 0, storeTimer);
+  }
+
+  @Override
+  public String getName() {
+    return "CFA cache";
+  }
+}
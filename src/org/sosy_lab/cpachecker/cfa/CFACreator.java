@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
 import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -45,6 +46,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -323,6 +325,8 @@ private boolean classifyNodes = false;
 
   private final CFACreatorStatistics stats;
   private final Configuration config;
+  private final CFACache cache;
+  private @Nullable CPreprocessor preprocessor = null;
 
   public CFACreator(Configuration config, LogManager logger, ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
@@ -333,6 +337,10 @@ private boolean classifyNodes = false;
     this.logger = logger;
     this.shutdownNotifier = pShutdownNotifier;
     this.stats = new CFACreatorStatistics(logger);
+    this.cache = new CFACache(config, logger);
+    if (cache.isEnabled()) {
+      stats.statisticsCollection.add(cache);
+    }
 
     stats.parserInstantiationTime.start();
 
@@ -349,7 +357,7 @@ private boolean classifyNodes = false;
               config, logger, outerParser, readLineDirectives || usePreprocessor);
 
       if (usePreprocessor) {
-        CPreprocessor preprocessor = new CPreprocessor(config, logger);
+        preprocessor = new CPreprocessor(config, logger);
         outerParser = new CParserWithPreprocessor(outerParser, preprocessor);
       }
 
@@ -412,6 +420,18 @@ private boolean classifyNodes = false;
 
     stats.totalTime.start();
     try {
+      HashCode cacheKey = null;
+      if (cache.isEnabled() && language == Language.C) {
+        // for Java, the input is a class name and not a file that we could hash
+        checkIfValidFiles(sourceFiles);
+        cacheKey = cache.computeKey(sourceFiles, preprocessor);
+        Optional<CFA> cachedCfa = cache.load(cacheKey);
+        if (cachedCfa.isPresent()) {
+          exportCFAIfNecessary(cachedCfa.get());
+          return cachedCfa.get();
+        }
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
@@ -432,7 +452,11 @@ private boolean classifyNodes = false;
         throw new AssertionError();
       }
 
-      return createCFA(c, mainFunction);
+      CFA cfa = createCFA(c, mainFunction);
+      if (cacheKey != null) {
+        cache.store(cacheKey, cfa);
+      }
+      return cfa;
 
     } finally {
       stats.totalTime.stop();
@@ -556,12 +580,7 @@ private boolean classifyNodes = false;
     assert CFACheck.check(mainFunction, null);
     stats.checkTime.stop();
 
-    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
-        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
-        || ((serializeCfaFile != null) && serializeCfa)
-        || (exportCfaPixelFile != null)) {
-      exportCFAAsync(immutableCFA);
-    }
+    exportCFAIfNecessary(immutableCFA);
 
     logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
 
@@ -949,6 +968,15 @@ v.addInitializer(initializer);
     }
   }
 
+  private void exportCFAIfNecessary(final CFA cfa) {
+    if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
+        || ((exportFunctionCallsFile != null) && exportFunctionCalls)
+        || ((serializeCfaFile != null) && serializeCfa)
+        || (exportCfaPixelFile != null)) {
+      exportCFAAsync(cfa);
+    }
+  }
+
   private void exportCFAAsync(final CFA cfa) {
     // Execute asynchronously, this may take several seconds for large programs on slow disks.
     // This is safe because we don't modify the CFA from this point on.
@@ -26,18 +26,18 @@ package org.sosy_lab.cpachecker.cfa.model;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 
-import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CFANode implements Comparable<CFANode>, Serializable {
 
   private static final long serialVersionUID = 5168350921309486536L;
 
-  private static final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
+  private static final AtomicInteger idGenerator = new AtomicInteger();
 
   private final int nodeNumber;
 
@@ -63,7 +63,15 @@ public class CFANode implements Comparable<CFANode>, Serializable {
     assert !pFunctionName.isEmpty();
 
     functionName = pFunctionName;
-    nodeNumber = idGenerator.getFreshId();
+    nodeNumber = idGenerator.getAndIncrement();
+  }
+
+  /**
+   * Ensure that all nodes that are created from now on have a number larger than the given one.
+   * This is necessary after nodes were read from disk.
+   */
+  public static void ensureFreshNodeNumbersAbove(int pNodeNumber) {
+    idGenerator.accumulateAndGet(pNodeNumber + 1, Math::max);
   }
 
   public int getNodeNumber() {
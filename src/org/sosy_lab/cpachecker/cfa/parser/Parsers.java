@@ -32,6 +32,7 @@ import java.util.logging.Level;
 import java.util.regex.Pattern;
 import org.sosy_lab.common.Classes;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -76,6 +77,15 @@ public class Parsers {
     @Option(secure = true, description = "simplify simple const expressions like 1+2")
     private boolean simplifyConstExpressions = true;
 
+    @Option(
+      secure = true,
+      description =
+          "Number of threads that are used for parsing several input files in parallel. "
+              + "The CFA is still built sequentially in the order of the input files."
+    )
+    @IntegerOption(min = 1)
+    private int parserThreads = 1;
+
     public boolean initializeAllVariables() {
       return initializeAllVariables;
     }
@@ -91,6 +101,10 @@ public class Parsers {
     public boolean simplifyConstExpressions() {
       return simplifyConstExpressions;
     }
+
+    public int getParallelParsingThreads() {
+      return parserThreads;
+    }
   }
 
   private Parsers() { }
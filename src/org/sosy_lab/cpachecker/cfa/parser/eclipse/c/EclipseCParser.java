@@ -28,10 +28,12 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -43,6 +45,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import org.eclipse.cdt.core.dom.ast.IASTCompoundStatement;
 import org.eclipse.cdt.core.dom.ast.IASTDeclaration;
 import org.eclipse.cdt.core.dom.ast.IASTFunctionDefinition;
@@ -64,6 +73,7 @@ import org.eclipse.cdt.internal.core.parser.InternalParserUtil;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContentProvider;
 import org.eclipse.core.runtime.CoreException;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.log.LogManagerWithoutDuplicates;
 import org.sosy_lab.common.time.Timer;
@@ -146,18 +156,9 @@ class EclipseCParser implements CParser {
       throws CParserException {
 
     Preconditions.checkNotNull(pInput);
-    Preconditions.checkNotNull(pSourceOriginMapping);
     Preconditions.checkNotNull(pWrapperFunction);
 
-    Map<String, String> fileNameMapping = new HashMap<>();
-    for (FileToParse f : pInput) {
-      fileNameMapping.put(fixPath(f.getFileName()), f.getFileName());
-    }
-    FixedPathSourceOriginMapping sourceOriginMapping =
-        new FixedPathSourceOriginMapping(pSourceOriginMapping, fileNameMapping);
-    ParseContext parseContext =
-        new ParseContext(createNiceFileNameFunction(fileNameMapping.keySet()), sourceOriginMapping);
-
+    ParseContext parseContext = createParseContext(pInput, pSourceOriginMapping);
     List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
 
     for (FileToParse f : pInput) {
@@ -173,8 +174,95 @@ class EclipseCParser implements CParser {
     return buildCFA(astUnits, parseContext, scope);
   }
 
+  private ParseContext createParseContext(
+      List<? extends FileToParse> pInput, CSourceOriginMapping pSourceOriginMapping) {
+    Preconditions.checkNotNull(pSourceOriginMapping);
+
+    Map<String, String> fileNameMapping = new HashMap<>();
+    for (FileToParse f : pInput) {
+      fileNameMapping.put(fixPath(f.getFileName()), f.getFileName());
+    }
+    FixedPathSourceOriginMapping sourceOriginMapping =
+        new FixedPathSourceOriginMapping(pSourceOriginMapping, fileNameMapping);
+    return new ParseContext(
+        createNiceFileNameFunction(fileNameMapping.keySet()), sourceOriginMapping);
+  }
+
+  /**
+   * Parse the given files concurrently. The result is in the same order as the input, such that
+   * the CFA that is built from it does not depend on the scheduling of the threads.
+   */
+  private List<IASTTranslationUnit> parseInParallel(
+      List<FileToParse> pInput, ParseContext pParseContext, int pThreads)
+      throws CParserException, InterruptedException {
+
+    // Timer is not thread-safe, so each thread measures its own parsing time.
+    Map<String, Timer> parseTimePerThread = new ConcurrentHashMap<>();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(pThreads, pInput.size()),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("c-parser-%d").build());
+
+    parseTimer.start();
+    try {
+      List<Future<IASTTranslationUnit>> futures = new ArrayList<>(pInput.size());
+      for (FileToParse f : pInput) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  Timer threadTimer =
+                      parseTimePerThread.computeIfAbsent(
+                          Thread.currentThread().getName(), name -> new Timer());
+                  threadTimer.start();
+                  try {
+                    return parseWithoutTiming(wrapFile(fixPath(f.getFileName())), pParseContext);
+                  } finally {
+                    threadTimer.stop();
+                  }
+                }));
+      }
+
+      List<IASTTranslationUnit> astUnits = new ArrayList<>(pInput.size());
+      for (Future<IASTTranslationUnit> future : futures) {
+        astUnits.add(future.get());
+      }
+      return astUnits;
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw new CParserException("IO failed!", cause);
+      }
+      Throwables.propagateIfPossible(cause, CParserException.class);
+      throw new UnexpectedCheckedException("parsing", cause);
+
+    } finally {
+      executor.shutdownNow();
+      parseTimer.stop();
+      for (Map.Entry<String, Timer> entry : new TreeMap<>(parseTimePerThread).entrySet()) {
+        logger.log(
+            Level.FINE,
+            "Parser thread",
+            entry.getKey(),
+            "parsed",
+            entry.getValue().getNumberOfIntervals(),
+            "file(s) in",
+            entry.getValue());
+      }
+    }
+  }
+
   @Override
-  public ParseResult parseFile(List<String> pFilenames) throws CParserException {
+  public ParseResult parseFile(List<String> pFilenames)
+      throws CParserException, InterruptedException {
+
+    int threads = options.getParallelParsingThreads();
+    if (threads > 1 && pFilenames.size() > 1) {
+      List<FileToParse> input = Lists.transform(pFilenames, FileToParse::new);
+      ParseContext parseContext = createParseContext(input, new CSourceOriginMapping());
+      return buildCFA(
+          parseInParallel(input, parseContext, threads), parseContext, CProgramScope.empty());
+    }
 
     return parseSomething(
         Lists.transform(pFilenames, FileToParse::new),
@@ -201,7 +289,8 @@ class EclipseCParser implements CParser {
 
   /** This method parses a single file where no prefix for static variables is needed. */
   @Override
-  public ParseResult parseFile(String pFileName) throws CParserException, IOException {
+  public ParseResult parseFile(String pFileName)
+      throws CParserException, IOException, InterruptedException {
 
     return parseFile(ImmutableList.of(pFileName));
   }
@@ -307,6 +396,15 @@ class EclipseCParser implements CParser {
   private IASTTranslationUnit parse(FileContent codeReader, ParseContext parseContext)
       throws CParserException {
     parseTimer.start();
+    try {
+      return parseWithoutTiming(codeReader, parseContext);
+    } finally {
+      parseTimer.stop();
+    }
+  }
+
+  private IASTTranslationUnit parseWithoutTiming(FileContent codeReader, ParseContext parseContext)
+      throws CParserException {
     try {
       IASTTranslationUnit result = getASTTranslationUnit(codeReader);
 
@@ -333,8 +431,6 @@ class EclipseCParser implements CParser {
 
     } catch (CFAGenerationRuntimeException | CoreException e) {
       throw new CParserException(e);
-    } finally {
-      parseTimer.stop();
     }
   }
 
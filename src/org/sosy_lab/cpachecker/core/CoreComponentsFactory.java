@@ -447,7 +447,8 @@ public class CoreComponentsFactory {
 
       if (useTestCaseGeneratorAlgorithm) {
         algorithm =
-            new TestCaseGeneratorAlgorithm(algorithm, cfa, config, cpa, logger, shutdownNotifier);
+            new TestCaseGeneratorAlgorithm(
+                algorithm, cfa, config, cpa, specification, logger, shutdownNotifier);
       }
 
       if (collectAssumptions) {
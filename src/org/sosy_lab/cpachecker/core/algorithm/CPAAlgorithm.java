@@ -24,6 +24,9 @@
 package org.sosy_lab.cpachecker.core.algorithm;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,12 +36,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -57,7 +65,9 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ConcurrentPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PseudoPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
@@ -65,11 +75,14 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
 public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
@@ -83,6 +96,13 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private Timer stopTimer          = new Timer();
     private Timer addTimer           = new Timer();
     private Timer forcedCoveringTimer = new Timer();
+    private Timer parallelSuccessorTimer = new Timer();
+
+    // these timers are used by the worker threads in parallel mode
+    private final ThreadSafeTimerContainer workerPrecisionTimer =
+        new ThreadSafeTimerContainer("Time for precision adjustment (all worker threads)");
+    private final ThreadSafeTimerContainer workerTransferTimer =
+        new ThreadSafeTimerContainer("Time for transfer relation (all worker threads)");
 
     private int   countIterations   = 0;
     private int   maxWaitlistSize   = 0;
@@ -90,8 +110,10 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private int   countSuccessors   = 0;
     private int   maxSuccessors     = 0;
     private int   countMerge        = 0;
+    private long  countMergeCandidates = 0;
     private int   countStop         = 0;
     private int   countBreak        = 0;
+    private int   countDropped      = 0;
 
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
@@ -117,17 +139,27 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       }
       out.println("Number of computed successors:   " + countSuccessors);
       out.println("Max successors for one state:    " + maxSuccessors);
+      out.println("Number of merge candidates:      " + countMergeCandidates);
       out.println("Number of times merged:          " + countMerge);
       out.println("Number of times stopped:         " + countStop);
       out.println("Number of times breaked:         " + countBreak);
+      if (parallelSuccessorTimer.getNumberOfIntervals() > 0) {
+        out.println("Number of dropped batch states:  " + countDropped);
+      }
       out.println();
       out.println("Total time for CPA algorithm:     " + totalTimer + " (Max: " + totalTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ")");
       out.println("  Time for choose from waitlist:  " + chooseTimer);
       if (forcedCoveringTimer.getNumberOfIntervals() > 0) {
         out.println("  Time for forced covering:       " + forcedCoveringTimer);
       }
-      out.println("  Time for precision adjustment:  " + precisionTimer);
-      out.println("  Time for transfer relation:     " + transferTimer);
+      if (parallelSuccessorTimer.getNumberOfIntervals() > 0) {
+        out.println("  Time for parallel successors:   " + parallelSuccessorTimer);
+        out.println("    Time for precision adjustment: " + workerPrecisionTimer + " (sum of all threads)");
+        out.println("    Time for transfer relation:    " + workerTransferTimer + " (sum of all threads)");
+      } else {
+        out.println("  Time for precision adjustment:  " + precisionTimer);
+        out.println("  Time for transfer relation:     " + transferTimer);
+      }
       if (mergeTimer.getNumberOfIntervals() > 0) {
         out.println("  Time for merge operator:        " + mergeTimer);
       }
@@ -152,7 +184,21 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+      secure = true,
+      name = "algorithm.threads",
+      description =
+          "Number of threads that compute successors of states from the waitlist in parallel."
+              + " Merge and stop are still applied by a single thread."
+              + " Values larger than 1 are only used if all CPAs are thread-safe"
+              + " (i.e., implement ThreadSafeConfigurableProgramAnalysis)"
+              + " and no forced covering is used."
+    )
+    @IntegerOption(min = 1)
+    private int threads = 1;
+
     private final ForcedCovering forcedCovering;
+    private final int numberOfThreads;
 
     private final ConfigurableProgramAnalysis cpa;
     private final LogManager logger;
@@ -172,11 +218,39 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         forcedCovering = null;
       }
 
+      numberOfThreads = threads > 1 && canRunInParallel() ? threads : 1;
+    }
+
+    private boolean canRunInParallel() {
+      if (forcedCovering != null) {
+        logger.log(
+            Level.WARNING,
+            "Forced covering is not supported by the parallel CPA algorithm,",
+            "using only one thread.");
+        return false;
+      }
+      ImmutableList<String> unsafeCpas =
+          CPAs.asIterable(cpa)
+              .filter(
+                  c ->
+                      !(c instanceof ThreadSafeConfigurableProgramAnalysis)
+                          || !((ThreadSafeConfigurableProgramAnalysis) c).isThreadSafe())
+              .transform(c -> c.getClass().getSimpleName())
+              .toList();
+      if (!unsafeCpas.isEmpty()) {
+        logger.log(
+            Level.WARNING,
+            "The following CPAs are not thread-safe, using only one thread for the CPA algorithm:",
+            unsafeCpas);
+        return false;
+      }
+      return true;
     }
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      return new CPAAlgorithm(
+          cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown, numberOfThreads);
     }
   }
 
@@ -202,10 +276,27 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
   private final AlgorithmStatus status;
 
+  /** Number of worker threads, the sequential algorithm is used if this is 1. */
+  private final int threads;
+
+  /**
+   * The transfer relation and precision adjustment used by the worker threads in parallel mode,
+   * each worker retrieves its own instances from the CPA.
+   */
+  private final ThreadLocal<TransferRelation> workerTransferRelation;
+
+  private final ThreadLocal<PrecisionAdjustment> workerPrecisionAdjustment;
+
+  private final ThreadLocal<TimerWrapper> workerPrecisionTimer =
+      ThreadLocal.withInitial(stats.workerPrecisionTimer::getNewTimer);
+  private final ThreadLocal<TimerWrapper> workerTransferTimer =
+      ThreadLocal.withInitial(stats.workerTransferTimer::getNewTimer);
+
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pThreads) {
 
     transferRelation = cpa.getTransferRelation();
     mergeOperator = cpa.getMergeOperator();
@@ -215,12 +306,18 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+    threads = pThreads;
+    workerTransferRelation = ThreadLocal.withInitial(cpa::getTransferRelation);
+    workerPrecisionAdjustment = ThreadLocal.withInitial(cpa::getPrecisionAdjustment);
   }
 
   @Override
   public AlgorithmStatus run(final ReachedSet reachedSet) throws CPAException, InterruptedException {
     stats.totalTimer.start();
     try {
+      if (threads > 1) {
+        return runParallel(reachedSet);
+      }
       return run0(reachedSet);
     } finally {
       stats.totalTimer.stopIfRunning();
@@ -231,12 +328,15 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       stats.stopTimer.stopIfRunning();
       stats.addTimer.stopIfRunning();
       stats.forcedCoveringTimer.stopIfRunning();
+      stats.parallelSuccessorTimer.stopIfRunning();
 
       Map<String, ? extends AbstractStatValue> reachedSetStats;
       if (reachedSet instanceof PartitionedReachedSet) {
         reachedSetStats = ((PartitionedReachedSet) reachedSet).getStatistics();
       } else if (reachedSet instanceof PseudoPartitionedReachedSet) {
         reachedSetStats = ((PseudoPartitionedReachedSet) reachedSet).getStatistics();
+      } else if (reachedSet instanceof ConcurrentPartitionedReachedSet) {
+        reachedSetStats = ((ConcurrentPartitionedReachedSet) reachedSet).getStatistics();
       } else {
         reachedSetStats = null;
       }
@@ -305,6 +405,202 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return status;
   }
 
+  /**
+   * Parallel variant of {@link #run0(ReachedSet)}. In each iteration, up to {@link #threads}
+   * states are taken from the waitlist, and their successors (including the precision adjustment)
+   * are computed concurrently. Afterwards, merge and stop are applied to the successors by the
+   * current thread in the same order in which the states were taken from the waitlist. States
+   * that were removed from the reached set by a merge in the meantime are dropped together with
+   * their successors, just like the sequential algorithm would never have expanded them.
+   */
+  private AlgorithmStatus runParallel(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final ExecutorService workers =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("CPAAlgorithm-worker-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      while (reachedSet.hasWaitingState()) {
+        shutdownNotifier.shutdownIfNecessary();
+
+        stats.chooseTimer.start();
+        final List<AbstractState> batch = new ArrayList<>(threads);
+        final List<Precision> precisions = new ArrayList<>(threads);
+        while (batch.size() < threads && reachedSet.hasWaitingState()) {
+          stats.countIterations++;
+          int size = reachedSet.getWaitlist().size();
+          if (size >= stats.maxWaitlistSize) {
+            stats.maxWaitlistSize = size;
+          }
+          stats.countWaitlistSize += size;
+
+          final AbstractState state = reachedSet.popFromWaitlist();
+          batch.add(state);
+          precisions.add(reachedSet.getPrecision(state));
+        }
+        stats.chooseTimer.stop();
+
+        logger.log(Level.FINER, "Retrieved", batch.size(), "states from waitlist");
+        final List<List<Optional<PrecisionAdjustmentResult>>> results;
+        stats.parallelSuccessorTimer.start();
+        try {
+          // the reached set is not modified while the workers are running
+          final List<Future<List<Optional<PrecisionAdjustmentResult>>>> futures =
+              new ArrayList<>(batch.size());
+          for (int i = 0; i < batch.size(); i++) {
+            final AbstractState state = batch.get(i);
+            final Precision precision = precisions.get(i);
+            futures.add(workers.submit(() -> computeSuccessors(state, precision, reachedSet)));
+          }
+          results = waitForSuccessors(futures);
+        } catch (CPAException | InterruptedException | RuntimeException e) {
+          // none of the states was handled, so all of them need to go back to the waitlist
+          batch.forEach(reachedSet::reAddToWaitlist);
+          throw e;
+        } finally {
+          stats.parallelSuccessorTimer.stop();
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+          final AbstractState state = batch.get(i);
+          if (!reachedSet.contains(state)) {
+            // The state was merged into a successor of a previous state from this batch.
+            // The sequential algorithm would have removed it from the waitlist.
+            stats.countDropped++;
+            continue;
+          }
+          try {
+            if (handleSuccessors(state, results.get(i), reachedSet)) {
+              // Prec operator requested break
+              reAddRemainingStates(batch.subList(i + 1, batch.size()), reachedSet);
+              return status;
+            }
+          } catch (Exception e) {
+            // re-add the old states to the waitlist, there might be unhandled successors left
+            // that otherwise would be forgotten (which would be unsound)
+            reachedSet.reAddToWaitlist(state);
+            reAddRemainingStates(batch.subList(i + 1, batch.size()), reachedSet);
+            throw e;
+          }
+        }
+      }
+
+      return status;
+
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  /**
+   * Wait for all given futures and return their results in the same order. If one of the futures
+   * fails, the remaining ones are still waited for (such that no worker accesses the reached set
+   * afterwards) and the first exception is rethrown.
+   */
+  private static <T> List<T> waitForSuccessors(List<Future<T>> futures)
+      throws CPAException, InterruptedException {
+    List<T> results = new ArrayList<>(futures.size());
+    Throwable failure = null;
+    for (Future<T> future : futures) {
+      try {
+        if (failure == null) {
+          results.add(future.get());
+        } else {
+          future.get();
+        }
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        futures.forEach(f -> f.cancel(true));
+        throw e;
+      }
+    }
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, CPAException.class, InterruptedException.class);
+      throw new AssertionError("Unexpected checked exception from worker thread", failure);
+    }
+    return results;
+  }
+
+  private void reAddRemainingStates(List<AbstractState> states, ReachedSet reachedSet) {
+    for (AbstractState state : states) {
+      if (reachedSet.contains(state)) {
+        reachedSet.reAddToWaitlist(state);
+      }
+    }
+  }
+
+  /**
+   * Compute the successors of a state and apply the precision adjustment to each of them. This
+   * method is called concurrently by the worker threads in parallel mode and must not modify the
+   * reached set.
+   */
+  private List<Optional<PrecisionAdjustmentResult>> computeSuccessors(
+      final AbstractState state,
+      final Precision precision,
+      final UnmodifiableReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+
+    TimerWrapper transferTimer = workerTransferTimer.get();
+    transferTimer.start();
+    Collection<? extends AbstractState> successors;
+    try {
+      successors = workerTransferRelation.get().getAbstractSuccessors(state, precision);
+    } finally {
+      transferTimer.stop();
+    }
+
+    PrecisionAdjustment precAdjustment = workerPrecisionAdjustment.get();
+    TimerWrapper precisionTimer = workerPrecisionTimer.get();
+    List<Optional<PrecisionAdjustmentResult>> result = new ArrayList<>(successors.size());
+    for (AbstractState successor : successors) {
+      shutdownNotifier.shutdownIfNecessary();
+      precisionTimer.start();
+      try {
+        result.add(
+            precAdjustment.prec(
+                successor, precision, reachedSet, Functions.identity(), successor));
+      } finally {
+        precisionTimer.stop();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Handle the precomputed successors of one state from the waitlist in parallel mode.
+   *
+   * @return true if analysis should terminate, false if analysis should continue with next state
+   */
+  private boolean handleSuccessors(
+      final AbstractState state,
+      final List<Optional<PrecisionAdjustmentResult>> successors,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    int numSuccessors = successors.size();
+    logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
+    stats.countSuccessors += numSuccessors;
+    stats.maxSuccessors = Math.max(numSuccessors, stats.maxSuccessors);
+
+    for (Iterator<Optional<PrecisionAdjustmentResult>> it = successors.iterator(); it.hasNext(); ) {
+      Optional<PrecisionAdjustmentResult> precAdjustmentOptional = it.next();
+      shutdownNotifier.shutdownIfNecessary();
+      logger.log(Level.FINER, "Considering successor of current state");
+
+      if (precAdjustmentOptional.isPresent()
+          && handleSuccessor(state, precAdjustmentOptional.get(), it.hasNext(), reachedSet)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Handle one state from the waitlist, i.e., produce successors etc.
    * @param state The abstract state that was taken out of the waitlist
@@ -353,120 +649,147 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       logger.log(Level.ALL, "Successor of", state, "\nis", successor);
 
       stats.precisionTimer.start();
-      PrecisionAdjustmentResult precAdjustmentResult;
+      Optional<PrecisionAdjustmentResult> precAdjustmentOptional;
       try {
-        Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
+        precAdjustmentOptional =
             precisionAdjustment.prec(
                 successor, precision, reachedSet, Functions.identity(), successor);
-        if (!precAdjustmentOptional.isPresent()) {
-          continue;
-        }
-        precAdjustmentResult = precAdjustmentOptional.get();
       } finally {
         stats.precisionTimer.stop();
       }
 
-      successor = precAdjustmentResult.abstractState();
-      Precision successorPrecision = precAdjustmentResult.precision();
-      Action action = precAdjustmentResult.action();
+      if (precAdjustmentOptional.isPresent()
+          && handleSuccessor(state, precAdjustmentOptional.get(), it.hasNext(), reachedSet)) {
+        return true;
+      }
+    }
 
-      if (action == Action.BREAK) {
-        stats.stopTimer.start();
-        boolean stop;
-        try {
-          stop = stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
-        } finally {
-          stats.stopTimer.stop();
-        }
+    return false;
+  }
 
-        if (AbstractStates.isTargetState(successor) && stop) {
-          // don't signal BREAK for covered states
-          // no need to call merge and stop either, so just ignore this state
-          // and handle next successor
-          stats.countStop++;
-          logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
-          continue;
+  /**
+   * Handle one successor after the precision adjustment, i.e., apply merge and stop and add it to
+   * the reached set.
+   *
+   * @param state The abstract state that was taken out of the waitlist
+   * @param precAdjustmentResult The result of the precision adjustment for the successor.
+   * @param hasMoreSuccessors Whether there are more successors of the state that were not yet
+   *     handled.
+   * @param reachedSet The reached set.
+   * @return true if analysis should terminate, false if analysis should continue
+   */
+  private boolean handleSuccessor(
+      final AbstractState state,
+      final PrecisionAdjustmentResult precAdjustmentResult,
+      final boolean hasMoreSuccessors,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    AbstractState successor = precAdjustmentResult.abstractState();
+    Precision successorPrecision = precAdjustmentResult.precision();
+    Action action = precAdjustmentResult.action();
 
-        } else {
-          stats.countBreak++;
-          logger.log(Level.FINER, "Break signalled, CPAAlgorithm will stop.");
+    if (action == Action.BREAK) {
+      stats.stopTimer.start();
+      boolean stop;
+      try {
+        stop = stopOperator.stop(successor, reachedSet.getReached(successor), successorPrecision);
+      } finally {
+        stats.stopTimer.stop();
+      }
 
-          // add the new state
-          reachedSet.add(successor, successorPrecision);
+      if (AbstractStates.isTargetState(successor) && stop) {
+        // don't signal BREAK for covered states
+        // no need to call merge and stop either, so just ignore this state
+        // and handle next successor
+        stats.countStop++;
+        logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
+        return false;
 
-          if (it.hasNext()) {
-            // re-add the old state to the waitlist, there are unhandled
-            // successors left that otherwise would be forgotten
-            reachedSet.reAddToWaitlist(state);
-          }
+      } else {
+        stats.countBreak++;
+        logger.log(Level.FINER, "Break signalled, CPAAlgorithm will stop.");
+
+        // add the new state
+        reachedSet.add(successor, successorPrecision);
 
-          return true;
+        if (hasMoreSuccessors) {
+          // re-add the old state to the waitlist, there are unhandled
+          // successors left that otherwise would be forgotten
+          reachedSet.reAddToWaitlist(state);
         }
+
+        return true;
       }
-      assert action == Action.CONTINUE : "Enum Action has unhandled values!";
+    }
+    assert action == Action.CONTINUE : "Enum Action has unhandled values!";
 
-      Collection<AbstractState> reached = reachedSet.getReached(successor);
+    Collection<AbstractState> reached = reachedSet.getReached(successor);
 
-      // An optimization, we don't bother merging if we know that the
-      // merge operator won't do anything (i.e., it is merge-sep).
-      if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
-        stats.mergeTimer.start();
+    // An optimization, we don't bother merging if we know that the
+    // merge operator won't do anything (i.e., it is merge-sep).
+    if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+      stats.mergeTimer.start();
+      try {
+        List<AbstractState> toRemove = new ArrayList<>();
+        List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
         try {
-          List<AbstractState> toRemove = new ArrayList<>();
-          List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
-          try {
-            logger.log(
-                Level.FINER, "Considering", reached.size(), "states from reached set for merge");
-            for (AbstractState reachedState : reached) {
-              shutdownNotifier.shutdownIfNecessary();
-              AbstractState mergedState =
-                  mergeOperator.merge(successor, reachedState, successorPrecision);
-
-              if (!mergedState.equals(reachedState)) {
-                logger.log(Level.FINER, "Successor was merged with state from reached set");
-                logger.log(
-                    Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
-                stats.countMerge++;
-
-                toRemove.add(reachedState);
-                toAdd.add(Pair.of(mergedState, successorPrecision));
-              }
+          // might be a (much) smaller set than 'reached' if the reached set has an index
+          Collection<AbstractState> mergeCandidates = reachedSet.getMergeCandidates(successor);
+          logger.log(
+              Level.FINER,
+              "Considering",
+              mergeCandidates.size(),
+              "states from reached set for merge");
+          stats.countMergeCandidates += mergeCandidates.size();
+          for (AbstractState reachedState : mergeCandidates) {
+            shutdownNotifier.shutdownIfNecessary();
+            AbstractState mergedState =
+                mergeOperator.merge(successor, reachedState, successorPrecision);
+
+            if (!mergedState.equals(reachedState)) {
+              logger.log(Level.FINER, "Successor was merged with state from reached set");
+              logger.log(
+                  Level.ALL, "Merged", successor, "\nand", reachedState, "\n-->", mergedState);
+              stats.countMerge++;
+
+              toRemove.add(reachedState);
+              toAdd.add(Pair.of(mergedState, successorPrecision));
             }
-          } finally {
-            // If we terminate, we should still update the reachedSet if necessary
-            // because ARGCPA doesn't like states in toRemove to be in the reachedSet.
-            reachedSet.removeAll(toRemove);
-            reachedSet.addAll(toAdd);
-          }
-
-          if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
-            ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(reachedSet);
           }
-
         } finally {
-          stats.mergeTimer.stop();
+          // If we terminate, we should still update the reachedSet if necessary
+          // because ARGCPA doesn't like states in toRemove to be in the reachedSet.
+          reachedSet.removeAll(toRemove);
+          reachedSet.addAll(toAdd);
+        }
+
+        if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
+          ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(reachedSet);
         }
-      }
 
-      stats.stopTimer.start();
-      boolean stop;
-      try {
-        stop = stopOperator.stop(successor, reached, successorPrecision);
       } finally {
-        stats.stopTimer.stop();
+        stats.mergeTimer.stop();
       }
+    }
 
-      if (stop) {
-        logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
-        stats.countStop++;
+    stats.stopTimer.start();
+    boolean stop;
+    try {
+      stop = stopOperator.stop(successor, reached, successorPrecision);
+    } finally {
+      stats.stopTimer.stop();
+    }
 
-      } else {
-        logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
+    if (stop) {
+      logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
+      stats.countStop++;
 
-        stats.addTimer.start();
-        reachedSet.add(successor, successorPrecision);
-        stats.addTimer.stop();
-      }
+    } else {
+      logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
+
+      stats.addTimer.start();
+      reachedSet.add(successor, successorPrecision);
+      stats.addTimer.stop();
     }
 
     return false;
@@ -24,17 +24,21 @@
 package org.sosy_lab.cpachecker.core.algorithm;
 
 import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition.getDefaultPartition;
 import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.io.Writer;
 import java.net.URI;
 import java.nio.channels.ClosedByInterruptException;
@@ -51,14 +55,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.zip.ZipOutputStream;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.Appender;
+import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -92,6 +104,9 @@ import org.sosy_lab.cpachecker.cfa.types.c.CElaboratedType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
 import org.sosy_lab.cpachecker.cfa.types.java.JSimpleType;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.CoreComponentsFactory;
+import org.sosy_lab.cpachecker.core.Specification;
 import org.sosy_lab.cpachecker.core.counterexample.AssumptionToEdgeAllocator;
 import org.sosy_lab.cpachecker.core.counterexample.CFAEdgeWithAssumptions;
 import org.sosy_lab.cpachecker.core.counterexample.CounterexampleInfo;
@@ -99,7 +114,9 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.arg.ARGUtils;
@@ -109,6 +126,7 @@ import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetProvider;
 import org.sosy_lab.cpachecker.cpa.testtargets.TestTargetTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAEnabledAnalysisPropertyViolationException;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.CompoundException;
 import org.sosy_lab.cpachecker.exceptions.CounterexampleAnalysisFailed;
 import org.sosy_lab.cpachecker.exceptions.InfeasibleCounterexampleException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
@@ -117,6 +135,7 @@ import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.harness.HarnessExporter;
 import org.sosy_lab.cpachecker.util.harness.PredefinedTypes;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 @Options(prefix = "testcase")
 public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider {
@@ -149,26 +168,46 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
   )
   private boolean printTestTargetInfoInStats = false;
 
+  @Option(
+    secure = true,
+    name = "parallel.workers",
+    description =
+        "Number of analyses that generate test cases in parallel. The test targets are "
+            + "partitioned by function and each analysis explores one partition with its own "
+            + "reached set. A test target that is covered by one analysis "
+            + "is removed for all analyses."
+  )
+  @IntegerOption(min = 1)
+  private int parallelWorkers = 1;
+
   private final Algorithm algorithm;
   private final AssumptionToEdgeAllocator assumptionToEdgeAllocator;
   private final ConfigurableProgramAnalysis cpa;
   private final CFA cfa;
+  private final Configuration config;
+  private final Specification specification;
   private final HarnessExporter harnessExporter;
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private final Set<CFAEdge> testTargets;
   private FileSystem zipFS = null;
 
+  // statistics of the analyses in runInParallel
+  private final Collection<Statistics> workerStatistics = new ConcurrentLinkedQueue<>();
+
   public TestCaseGeneratorAlgorithm(
       Algorithm pAlgorithm,
       CFA pCfa,
       Configuration pConfig,
       ConfigurableProgramAnalysis pCpa,
+      Specification pSpecification,
       LogManager pLogger,
       ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
     pConfig.inject(this);
     cfa = pCfa;
+    config = pConfig;
+    specification = pSpecification;
     CPAs.retrieveCPAOrFail(pCpa, ARGCPA.class, TestCaseGeneratorAlgorithm.class);
     algorithm = pAlgorithm;
     cpa = pCpa;
@@ -185,11 +224,19 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
     Preconditions.checkState(
         !isZippedTestCaseWritingEnabled() || testValueZip != null,
         "Need to specify testcase.values.zip if test case values are compressed.");
+    if (parallelWorkers > 1 && isZippedTestCaseWritingEnabled()) {
+      throw new InvalidConfigurationException(
+          "Compressed test values are not supported with testcase.parallel.workers.");
+    }
   }
 
   @Override
   public AlgorithmStatus run(final ReachedSet pReached)
       throws CPAException, InterruptedException, CPAEnabledAnalysisPropertyViolationException {
+    if (parallelWorkers > 1) {
+      return runInParallel(pReached);
+    }
+
     int uncoveredGoalsAtStart = testTargets.size();
     // clean up ARG
     if (pReached.getWaitlist().size() > 1
@@ -317,6 +364,106 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
     return AlgorithmStatus.SOUND_AND_PRECISE;
   }
 
+  /**
+   * Start one analysis per partition of the test targets and wait until all of them are finished.
+   * Each analysis creates its own CPA, algorithm, and reached set from the configuration, and
+   * writes the test cases for the test targets it covers immediately.
+   */
+  private AlgorithmStatus runInParallel(final ReachedSet pReached)
+      throws CPAException, InterruptedException {
+    int uncoveredGoalsAtStart = testTargets.size();
+    ShutdownManager workersShutdown = ShutdownManager.createWithParent(shutdownNotifier);
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelWorkers,
+            new ThreadFactoryBuilder().setNameFormat("test-generation-%d").setDaemon(true).build());
+
+    try {
+      List<Future<AlgorithmStatus>> futures = new ArrayList<>(parallelWorkers);
+      for (int partition = 0; partition < parallelWorkers; partition++) {
+        futures.add(executor.submit(createWorker(partition, workersShutdown.getNotifier())));
+      }
+
+      AlgorithmStatus status = AlgorithmStatus.SOUND_AND_PRECISE;
+      List<CPAException> exceptions = new ArrayList<>();
+      for (Future<AlgorithmStatus> future : futures) {
+        try {
+          status = status.update(future.get());
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          Throwables.propagateIfPossible(cause, InterruptedException.class);
+          if (!(cause instanceof CPAException)) {
+            throw new CPAException("Test-case generation failed", cause);
+          }
+          logger.logUserException(Level.WARNING, cause, "Analysis of partition not completed.");
+          exceptions.add((CPAException) cause);
+          // the test targets of this partition may not have been explored completely
+          status = status.withSound(false);
+        }
+      }
+
+      if (exceptions.size() == parallelWorkers) {
+        throw exceptions.size() == 1 ? exceptions.get(0) : new CompoundException(exceptions);
+      }
+      cleanUpIfNoTestTargetsRemain(pReached);
+      return status;
+
+    } finally {
+      workersShutdown.requestShutdown("Test-case generation finished");
+      executor.shutdownNow();
+      if (uncoveredGoalsAtStart != testTargets.size()) {
+        logger.log(Level.WARNING, TestTargetProvider.getCoverageInfo());
+      }
+    }
+  }
+
+  private Callable<AlgorithmStatus> createWorker(
+      final int pPartition, final ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    Configuration workerConfig =
+        Configuration.builder()
+            .copyFrom(config)
+            .setOption("testcase.parallel.workers", "1")
+            .setOption("cpa.testtargets.partition", Integer.toString(pPartition))
+            .setOption("cpa.testtargets.numberOfPartitions", Integer.toString(parallelWorkers))
+            .build();
+    LogManager workerLogger = logger.withComponentName("TestGenerationWorker" + pPartition);
+    CoreComponentsFactory coreComponents =
+        new CoreComponentsFactory(
+            workerConfig, workerLogger, pShutdownNotifier, new AggregatedReachedSets());
+
+    return () -> {
+      ConfigurableProgramAnalysis workerCpa = coreComponents.createCPA(cfa, specification);
+      try {
+        Algorithm workerAlgorithm =
+            coreComponents.createAlgorithm(workerCpa, cfa, specification);
+        ReachedSet reached = coreComponents.createReachedSet();
+        CFANode mainFunction = cfa.getMainFunction();
+        reached.add(
+            workerCpa.getInitialState(mainFunction, getDefaultPartition()),
+            workerCpa.getInitialPrecision(mainFunction, getDefaultPartition()));
+
+        WorkerStatistics stats = new WorkerStatistics(pPartition, reached, workerLogger);
+        if (workerCpa instanceof StatisticsProvider) {
+          ((StatisticsProvider) workerCpa).collectStatistics(stats.subStatistics);
+        }
+        if (workerAlgorithm instanceof StatisticsProvider) {
+          ((StatisticsProvider) workerAlgorithm).collectStatistics(stats.subStatistics);
+        }
+        workerStatistics.add(stats);
+
+        AlgorithmStatus status = workerAlgorithm.run(reached);
+        if (reached.hasWaitingState()) {
+          // the analysis stopped before all test targets of the partition were explored
+          status = status.withSound(false);
+        }
+        return status;
+      } finally {
+        CPAs.closeCpaIfPossible(workerCpa, workerLogger);
+      }
+    };
+  }
+
   private void cleanUpIfNoTestTargetsRemain(final ReachedSet pReached) {
     if (testTargets.isEmpty()) {
       List<AbstractState> waitlist = new ArrayList<>(pReached.getWaitlist());
@@ -593,5 +740,35 @@ public class TestCaseGeneratorAlgorithm implements Algorithm, StatisticsProvider
   @Override
   public void collectStatistics(final Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(TestTargetProvider.getTestTargetStatisitics(printTestTargetInfoInStats));
+    pStatsCollection.addAll(workerStatistics);
+  }
+
+  /** Statistics of the CPA and algorithm of one parallel worker. */
+  private static class WorkerStatistics implements Statistics {
+
+    private final int partition;
+    private final ReachedSet reached;
+    private final LogManager logger;
+    private final Collection<Statistics> subStatistics = new ArrayList<>();
+
+    private WorkerStatistics(int pPartition, ReachedSet pReached, LogManager pLogger) {
+      partition = pPartition;
+      reached = pReached;
+      logger = pLogger;
+    }
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      for (Statistics s : subStatistics) {
+        StatisticsUtils.printStatistics(s, pOut, logger, pResult, reached);
+      }
+    }
+
+    // no output files, because the workers would overwrite each other's files
+
+    @Override
+    public String getName() {
+      return "Test-case generation for partition " + partition;
+    }
   }
 }
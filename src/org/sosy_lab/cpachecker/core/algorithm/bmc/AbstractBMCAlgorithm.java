@@ -440,6 +440,8 @@ abstract class AbstractBMCAlgorithm
 
     final int k = CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
 
+    importSharedCandidates(candidateGenerator);
+
     Set<Object> checkedKeys = getCheckedKeys(reachedSet);
     Predicate<CandidateInvariant> isApplicable =
         getCandidateApplicabilityPredicate(reachedSet, checkedKeys);
@@ -478,11 +480,7 @@ abstract class AbstractBMCAlgorithm
               InvariantStrengthenings.noStrengthening(),
               lifting);
       if (inductionResult.isSuccessful()) {
-        Iterables.addAll(
-            confirmedCandidates,
-            CandidateInvariantCombination.getConjunctiveParts(candidate));
-        candidateGenerator.confirmCandidates(
-            CandidateInvariantCombination.getConjunctiveParts(candidate));
+        confirmCandidate(candidateGenerator, candidate);
         if (candidate == TargetLocationCandidateInvariant.INSTANCE) {
           sound = true;
           break;
@@ -503,11 +501,7 @@ abstract class AbstractBMCAlgorithm
                     InvariantStrengthenings.noStrengthening(),
                     lifting);
             if (inductionResult.isSuccessful()) {
-              Iterables.addAll(
-                  confirmedCandidates,
-                  CandidateInvariantCombination.getConjunctiveParts(weakening));
-              candidateGenerator.confirmCandidates(
-                  CandidateInvariantCombination.getConjunctiveParts(weakening));
+              confirmCandidate(candidateGenerator, weakening);
               break;
             }
           }
@@ -925,6 +919,44 @@ abstract class AbstractBMCAlgorithm
 
   }
 
+  /**
+   * Returns the pool for sharing proven candidates with other k-induction procedures running
+   * concurrently, if any.
+   */
+  protected @Nullable ConfirmedCandidatePool getSharedCandidatePool() {
+    return null;
+  }
+
+  private void confirmCandidate(
+      CandidateGenerator pCandidateGenerator, CandidateInvariant pCandidate) {
+    Iterable<CandidateInvariant> parts =
+        CandidateInvariantCombination.getConjunctiveParts(pCandidate);
+    Iterables.addAll(confirmedCandidates, parts);
+    pCandidateGenerator.confirmCandidates(parts);
+    ConfirmedCandidatePool sharedCandidates = getSharedCandidatePool();
+    if (sharedCandidates != null) {
+      sharedCandidates.publish(parts);
+    }
+  }
+
+  /** Take over the candidates that were proven by other k-induction procedures in the meantime. */
+  private void importSharedCandidates(CandidateGenerator pCandidateGenerator) {
+    ConfirmedCandidatePool sharedCandidates = getSharedCandidatePool();
+    if (sharedCandidates == null) {
+      return;
+    }
+    List<CandidateInvariant> newCandidates =
+        from(sharedCandidates.getConfirmedCandidates())
+            .filter(c -> !confirmedCandidates.contains(c))
+            .toList();
+    if (!newCandidates.isEmpty()) {
+      logger.log(
+          Level.FINEST, "Using", newCandidates.size(), "invariants proven by other procedures");
+      confirmedCandidates.addAll(newCandidates);
+      pCandidateGenerator.confirmCandidates(newCandidates);
+    }
+  }
+
   protected FluentIterable<CandidateInvariant> getConfirmedCandidates(final CFANode pLocation) {
     return from(confirmedCandidates)
         .filter(pConfirmedCandidate -> pConfirmedCandidate.appliesTo(pLocation));
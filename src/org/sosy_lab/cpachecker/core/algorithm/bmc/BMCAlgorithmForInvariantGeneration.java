@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.core.algorithm.bmc;
 import com.google.common.base.Verify;
 import java.util.Objects;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -58,6 +59,8 @@ public class BMCAlgorithmForInvariantGeneration extends AbstractBMCAlgorithm {
 
   private ExpressionTreeSupplier locationInvariantExpressionTreeProvider = ExpressionTreeSupplier.TrivialInvariantSupplier.INSTANCE;
 
+  private @Nullable ConfirmedCandidatePool sharedCandidatePool = null;
+
   public BMCAlgorithmForInvariantGeneration(
       Algorithm pAlgorithm,
       ConfigurableProgramAnalysis pCPA,
@@ -99,6 +102,19 @@ public class BMCAlgorithmForInvariantGeneration extends AbstractBMCAlgorithm {
     return invariantGenerator.isProgramSafe();
   }
 
+  /**
+   * Share the proven invariants with other k-induction procedures using the given pool, and use
+   * the invariants they prove. Must be called before the algorithm is run.
+   */
+  public void setSharedCandidatePool(ConfirmedCandidatePool pSharedCandidatePool) {
+    sharedCandidatePool = Objects.requireNonNull(pSharedCandidatePool);
+  }
+
+  @Override
+  protected @Nullable ConfirmedCandidatePool getSharedCandidatePool() {
+    return sharedCandidatePool;
+  }
+
   @Override
   protected CandidateGenerator getCandidateInvariants() {
     return candidateGenerator;
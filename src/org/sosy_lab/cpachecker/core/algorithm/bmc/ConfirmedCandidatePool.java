@@ -0,0 +1,67 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of candidate invariants that were proven by one of several concurrently running k-induction
+ * procedures. The others read the pool before their next step-case check, use the proven
+ * invariants as auxiliary invariants and no longer check them themselves.
+ *
+ * <p>The procedures must analyze the program in the same way and may only differ in the solver,
+ * otherwise an invariant proven by one of them need not hold for the others. The pool is
+ * lock-free, and only candidates that do not depend on the formula manager of a specific procedure
+ * are shared.
+ */
+public final class ConfirmedCandidatePool {
+
+  private final Set<CandidateInvariant> confirmedCandidates = ConcurrentHashMap.newKeySet();
+
+  /** Add the given proven candidates to the pool, ignoring those that cannot be shared. */
+  public void publish(Iterable<? extends CandidateInvariant> pCandidates) {
+    for (CandidateInvariant candidate : pCandidates) {
+      if (isShareable(candidate)) {
+        confirmedCandidates.add(candidate);
+      }
+    }
+  }
+
+  /** Returns a live, weakly consistent view of the proven candidates. */
+  public Set<CandidateInvariant> getConfirmedCandidates() {
+    return Collections.unmodifiableSet(confirmedCandidates);
+  }
+
+  public int size() {
+    return confirmedCandidates.size();
+  }
+
+  private static boolean isShareable(CandidateInvariant pCandidate) {
+    return pCandidate instanceof ExpressionTreeLocationInvariant
+        || pCandidate instanceof EdgeFormulaNegation
+        || pCandidate instanceof TargetLocationCandidateInvariant;
+  }
+}
@@ -39,6 +39,8 @@ import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.math.BigInteger;
 import java.nio.file.Path;
@@ -47,7 +49,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -57,6 +61,7 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
@@ -66,6 +71,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.LazyFutureTask;
 import org.sosy_lab.common.ShutdownManager;
@@ -111,6 +118,7 @@ import org.sosy_lab.cpachecker.core.algorithm.bmc.BMCAlgorithmForInvariantGenera
 import org.sosy_lab.cpachecker.core.algorithm.bmc.BMCStatistics;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.CandidateGenerator;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.CandidateInvariant;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.ConfirmedCandidatePool;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.EdgeFormulaNegation;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.ExpressionTreeLocationInvariant;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.ExpressionTreeLocationInvariant.ManagerKey;
@@ -175,6 +183,18 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
       description = "Check candidate invariants in a separate thread asynchronously."
     )
     private boolean async = true;
+
+    @FileOption(Type.OPTIONAL_INPUT_FILE)
+    @Option(
+      secure = true,
+      description =
+          "Configuration files for additional k-induction procedures that check the same"
+              + " candidate invariants in parallel with a different solver. Invariants proven by"
+              + " one of the procedures are shared with all others, so the configurations must"
+              + " not differ in any other option that affects the analysis."
+              + " Only supported for a static set of candidates."
+    )
+    private List<Path> parallelConfigFiles = ImmutableList.of();
   }
 
   private static class KInductionInvariantGeneratorStatistics extends BMCStatistics {
@@ -185,6 +205,8 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
     private int numberOfConfirmedCandidates = 0;
 
+    private @Nullable ConfirmedCandidatePool sharedCandidatePool = null;
+
     @Override
     public void printStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
       StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(out);
@@ -193,6 +215,9 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
         writer.put("Total number of candidates", totalNumberOfCandidates);
       }
       writer.put("Number of confirmed candidates", numberOfConfirmedCandidates);
+      if (sharedCandidatePool != null) {
+        writer.put("Number of candidates shared between procedures", sharedCandidatePool.size());
+      }
       super.printStatistics(out, result, reached);
     }
 
@@ -213,6 +238,9 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
 
   private final boolean async;
 
+  /** Additional k-induction procedures that share their proven invariants with the main one. */
+  private final List<ParallelProcedure> parallelProcedures = new ArrayList<>();
+
   // After start(), this will hold a Future for the final result of the invariant generation.
   // We use a Future instead of just the atomic reference below
   // to be able to ask for termination and see thrown exceptions.
@@ -248,6 +276,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
         specification,
         pReachedSetFactory,
         options.async,
+        options.parallelConfigFiles,
         getCandidateInvariants(
             options,
             pConfig,
@@ -278,6 +307,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
         specification,
         pReachedSetFactory,
         pAsync,
+        ImmutableList.of(),
         candidateGenerator,
         new AggregatedReachedSets());
   }
@@ -290,6 +320,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
       final Specification specification,
       final ReachedSetFactory pReachedSetFactory,
       final boolean pAsync,
+      final List<Path> pParallelConfigFiles,
       final CandidateGenerator pCandidateGenerator,
       final AggregatedReachedSets pAggregatedReachedSets)
       throws InvalidConfigurationException, CPAException {
@@ -381,6 +412,30 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
             stats,
             statisticsCandidateGenerator,
             pAggregatedReachedSets);
+
+    if (!pParallelConfigFiles.isEmpty()) {
+      if (!(pCandidateGenerator instanceof StaticCandidateProvider)) {
+        throw new InvalidConfigurationException(
+            "Parallel k-induction procedures are only supported for a static set of candidates.");
+      }
+      Set<CandidateInvariant> allCandidates =
+          ((StaticCandidateProvider) pCandidateGenerator).getAllCandidates();
+      ConfirmedCandidatePool sharedCandidatePool = new ConfirmedCandidatePool();
+      algorithm.setSharedCandidatePool(sharedCandidatePool);
+      stats.sharedCandidatePool = sharedCandidatePool;
+
+      for (Path configFile : pParallelConfigFiles) {
+        parallelProcedures.add(
+            new ParallelProcedure(
+                configFile,
+                config,
+                cfa,
+                specification,
+                allCandidates,
+                sharedCandidatePool,
+                pAggregatedReachedSets));
+      }
+    }
   }
 
   @Override
@@ -390,6 +445,20 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
     Callable<Pair<InvariantSupplier, ExpressionTreeSupplier>> task =
         new InvariantGenerationTask(initialLocation);
 
+    if (!parallelProcedures.isEmpty()) {
+      ExecutorService executor =
+          Executors.newFixedThreadPool(
+              parallelProcedures.size(),
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("k-induction-invariant-generator-%d")
+                  .build());
+      for (ParallelProcedure procedure : parallelProcedures) {
+        executor.submit(procedure.asTask(initialLocation));
+      }
+      executor.shutdown(); // will shutdown after all tasks are finished
+    }
+
     if (async) {
       // start invariant generation asynchronously
       ExecutorService executor = Executors.newSingleThreadExecutor();
@@ -500,12 +569,132 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
         throw new CPAException("Solver Failure", e);
       } finally {
         stats.invariantGeneration.stop();
+        for (ParallelProcedure procedure : parallelProcedures) {
+          procedure.shutdownManager.requestShutdown("Main k-induction procedure finished");
+        }
         CPAs.closeCpaIfPossible(cpa, logger);
         CPAs.closeIfPossible(algorithm, logger);
       }
     }
   }
 
+  /**
+   * An additional k-induction procedure with its own configuration that checks the same candidates
+   * as the main procedure. It only contributes to the result by sharing the invariants it proves,
+   * so its failures are logged but otherwise ignored.
+   */
+  private class ParallelProcedure {
+
+    private final LogManager procedureLogger;
+    private final ShutdownManager shutdownManager;
+    private final ConfigurableProgramAnalysis procedureCPA;
+    private final BMCAlgorithmForInvariantGeneration procedureAlgorithm;
+
+    private ParallelProcedure(
+        Path pConfigFile,
+        Configuration pConfig,
+        CFA pCFA,
+        Specification pSpecification,
+        Set<CandidateInvariant> pCandidates,
+        ConfirmedCandidatePool pSharedCandidatePool,
+        AggregatedReachedSets pAggregatedReachedSets)
+        throws InvalidConfigurationException, CPAException {
+      Configuration procedureConfig;
+      try {
+        procedureConfig =
+            Configuration.builder().copyFrom(pConfig).loadFromFile(pConfigFile).build();
+      } catch (IOException e) {
+        throw new InvalidConfigurationException(
+            "Cannot read configuration file " + pConfigFile + ": " + e.getMessage(), e);
+      }
+      Set<String> differentOptions =
+          Sets.symmetricDifference(getSharedOptions(pConfig), getSharedOptions(procedureConfig));
+      if (!differentOptions.isEmpty()) {
+        throw new InvalidConfigurationException(
+            "Parallel k-induction procedure from "
+                + pConfigFile
+                + " may only use a different solver, but it also differs in "
+                + FluentIterable.from(differentOptions)
+                    .transform(option -> option.substring(0, option.indexOf('=')).trim())
+                    .toSortedSet(Comparator.naturalOrder()));
+      }
+      procedureLogger =
+          logger.withComponentName("KInductionInvariantGenerator:" + pConfigFile.getFileName());
+      shutdownManager =
+          ShutdownManager.createWithParent(
+              KInductionInvariantGenerator.this.shutdownManager.getNotifier());
+
+      CPABuilder builder =
+          new CPABuilder(
+              procedureConfig, procedureLogger, shutdownManager.getNotifier(), reachedSetFactory);
+      procedureCPA = builder.buildCPAs(pCFA, pSpecification, pAggregatedReachedSets);
+      Algorithm cpaAlgorithm =
+          CPAAlgorithm.create(
+              procedureCPA, procedureLogger, procedureConfig, shutdownManager.getNotifier());
+      procedureAlgorithm =
+          new BMCAlgorithmForInvariantGeneration(
+              cpaAlgorithm,
+              procedureCPA,
+              procedureConfig,
+              procedureLogger,
+              reachedSetFactory,
+              shutdownManager,
+              pCFA,
+              pSpecification,
+              new BMCStatistics(),
+              new StaticCandidateProvider(pCandidates),
+              pAggregatedReachedSets);
+      procedureAlgorithm.setSharedCandidatePool(pSharedCandidatePool);
+    }
+
+    /**
+     * Return the options (as "key = value" lines) that must be equal in all procedures for their
+     * proven invariants to be valid for each other, i.e., all options except those of the solver
+     * and those that only control output.
+     */
+    private Set<String> getSharedOptions(Configuration pConfig) {
+      Set<String> options = new HashSet<>();
+      try (Scanner s = new Scanner(pConfig.asPropertiesString())) {
+        while (s.hasNextLine()) {
+          String line = s.nextLine();
+          int separator = line.indexOf('=');
+          if (separator > 0) {
+            String name = line.substring(0, separator).trim();
+            if (!(name.startsWith("solver.")
+                || name.startsWith("output.")
+                || name.startsWith("statistics.")
+                || name.startsWith("log."))) {
+              options.add(line);
+            }
+          }
+        }
+      }
+      return options;
+    }
+
+    private Runnable asTask(CFANode pInitialLocation) {
+      return () -> {
+        try {
+          ReachedSet reachedSet = reachedSetFactory.create();
+          reachedSet.add(
+              procedureCPA.getInitialState(
+                  pInitialLocation, StateSpacePartition.getDefaultPartition()),
+              procedureCPA.getInitialPrecision(
+                  pInitialLocation, StateSpacePartition.getDefaultPartition()));
+          procedureAlgorithm.run(reachedSet);
+        } catch (InterruptedException e) {
+          // shutdown was requested, the main procedure does not depend on us
+        } catch (CPAException | SolverException | RuntimeException e) {
+          procedureLogger.logUserException(
+              Level.WARNING, e, "Parallel k-induction procedure failed");
+        } finally {
+          CPAs.closeCpaIfPossible(procedureCPA, procedureLogger);
+          CPAs.closeIfPossible(procedureAlgorithm, procedureLogger);
+        }
+      };
+    }
+  }
+
   public static CandidateGenerator getCandidateInvariants(
       KInductionInvariantGeneratorOptions pOptions,
       Configuration pConfig,
@@ -144,7 +144,7 @@ class LocalizedRefinablePrecision extends RefinablePrecision {
 
     out.writeInt(rawPrecision.size());
     for (Entry<CFANode, MemoryLocation> e : rawPrecision.entries()) {
-      out.writeInt(e.getKey().getNodeNumber());
+      out.writeInt(CFAInfo.getSerialNumber(e.getKey()));
       out.writeObject(e.getValue());
     }
   }
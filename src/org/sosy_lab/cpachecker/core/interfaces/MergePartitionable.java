@@ -0,0 +1,56 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import javax.annotation.Nullable;
+
+/**
+ * This interface can be implemented by abstract states whose merge operator only combines states
+ * that agree on some part of the state, e.g., on the abstraction formula in predicate analysis.
+ * The reached set can use this to index the states of each partition and return only the
+ * relevant candidates for merging (cf. {@link
+ * org.sosy_lab.cpachecker.core.reachedset.ReachedSet#getMergeCandidates(AbstractState)}), which
+ * avoids calling the merge operator for all states of a partition.
+ *
+ * <p>In contrast to {@link Partitionable}, the key is not used for coverage checks, so states with
+ * different keys may still cover each other.
+ */
+public interface MergePartitionable {
+
+  /**
+   * Returns a key such that the merge operator of the CPA does not change a reached state if the
+   * key of the reached state differs from the key of the state that is merged into it. States
+   * with equal keys may or may not be merged.
+   *
+   * <p>Merging is optional for the correctness of an analysis, so a key that is too fine-grained
+   * is sound, but it reduces the number of merges. The key needs to be stable, it must not change
+   * while the state is in the reached set. For more implementation detail of a good key, see
+   * {@link Partitionable#getPartitionKey()}.
+   *
+   * @return a key indicating the states this state could be merged with, or null if this state
+   *     could be merged with any state of its partition
+   */
+  @Nullable
+  Object getMergePartitionKey();
+}
@@ -0,0 +1,49 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * This interface tells the {@link org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm} that the
+ * transfer relation and the precision adjustment of this CPA may be used concurrently from several
+ * threads, as long as each call operates on a different abstract state.
+ *
+ * <p>Each worker thread retrieves its own instances via {@link #getTransferRelation()} and {@link
+ * #getPrecisionAdjustment()}. A CPA thus either has to return fresh instances from these methods,
+ * or the returned instances have to be thread-safe. In both cases, all state that is shared
+ * between the instances (e.g., statistics) has to be thread-safe.
+ *
+ * <p>Merge and stop operators are still called from a single thread only. Wrapper CPAs should
+ * only implement this interface if they do not keep mutable state themselves, the wrapped CPAs
+ * are checked separately.
+ */
+public interface ThreadSafeConfigurableProgramAnalysis extends ConfigurableProgramAnalysis {
+
+  /**
+   * Check whether the current configuration of this CPA allows the concurrent usage described
+   * above. CPAs that support it only for some of their options can override this method.
+   */
+  default boolean isThreadSafe() {
+    return true;
+  }
+}
@@ -0,0 +1,535 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.FluentIterable.from;
+import static org.sosy_lab.cpachecker.util.AbstractStates.IS_TARGET_STATE;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Property;
+import org.sosy_lab.cpachecker.core.interfaces.Targetable;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+
+/**
+ * Thread-safe implementation of the reached set that partitions the set like {@link
+ * PartitionedReachedSet} (or, if requested, like {@link LocationMappedReachedSet}).
+ *
+ * <p>Instead of one global lock, there is one lock per partition. All modifications of a state
+ * (adding, removing, updating its precision) are done while holding the lock of the partition of
+ * this state, so threads working on states in different partitions do not block each other. The
+ * order of states is determined by a lock-free counter, and the first and last state are the
+ * states with the lowest and highest position in this order. Only the waitlist, which is not
+ * thread-safe itself, is guarded by a separate lock. This lock is held only during the access to
+ * the waitlist, and it is always acquired after a partition lock.
+ *
+ * <p>All collections returned by this class are weakly consistent views: they can be iterated
+ * while other threads modify the reached set, and they reflect some (but not necessarily all)
+ * modifications done after the iteration started. The insertion order of states is preserved.
+ *
+ * <p>The method {@link #clear()} must not be called concurrently with other modifications.
+ */
+public class ConcurrentPartitionedReachedSet implements ReachedSet {
+
+  /** Replacement for the partition key null, which is not supported by concurrent maps. */
+  private static final Object NULL_KEY = new Object();
+
+  /** The precision of a state and the number that determines its position in the order. */
+  private static final class ReachedEntry {
+    private final long id;
+    private final Precision precision;
+
+    private ReachedEntry(long pId, Precision pPrecision) {
+      id = pId;
+      precision = pPrecision;
+    }
+  }
+
+  /** The states of one partition in insertion order. Modifications need to hold the lock. */
+  private static final class Partition {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ConcurrentNavigableMap<Long, AbstractState> states =
+        new ConcurrentSkipListMap<>();
+    private final Collection<AbstractState> view =
+        Collections.unmodifiableCollection(states.values());
+  }
+
+  private final boolean partitionByLocation;
+
+  private final AtomicLong nextId = new AtomicLong();
+  private final ConcurrentMap<AbstractState, ReachedEntry> reached = new ConcurrentHashMap<>();
+  private final ConcurrentNavigableMap<Long, AbstractState> orderedStates =
+      new ConcurrentSkipListMap<>();
+  private final ConcurrentMap<Object, Partition> partitions = new ConcurrentHashMap<>();
+  private final Set<AbstractState> unmodifiableReached = new ReachedStatesView();
+
+  private final ReentrantLock waitlistLock = new ReentrantLock();
+  private final Waitlist waitlist; // guarded by waitlistLock
+
+  private final StatCounter partitionLocks =
+      new StatCounter("Number of partition lock acquisitions");
+  private final StatCounter contendedPartitionLocks =
+      new StatCounter("Number of contended partition lock acquisitions");
+  private final StatCounter waitlistLocks = new StatCounter("Number of waitlist lock acquisitions");
+  private final StatCounter contendedWaitlistLocks =
+      new StatCounter("Number of contended waitlist lock acquisitions");
+
+  /**
+   * Create a reached set that is partitioned by the keys of {@link Partitionable} states.
+   *
+   * @param waitlistFactory The factory for the waitlist, the waitlist itself does not need to be
+   *     thread-safe.
+   */
+  public ConcurrentPartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    this(waitlistFactory, false);
+  }
+
+  /**
+   * Create a reached set that is partitioned either by the keys of {@link Partitionable} states
+   * or by the program location of the states.
+   *
+   * @param waitlistFactory The factory for the waitlist, the waitlist itself does not need to be
+   *     thread-safe.
+   * @param pPartitionByLocation Whether to use the location as partition key.
+   */
+  public ConcurrentPartitionedReachedSet(
+      WaitlistFactory waitlistFactory, boolean pPartitionByLocation) {
+    waitlist = waitlistFactory.createWaitlistInstance();
+    partitionByLocation = pPartitionByLocation;
+  }
+
+  @Override
+  public void add(AbstractState state, Precision precision) throws IllegalArgumentException {
+    checkNotNull(state);
+    checkNotNull(precision);
+
+    Partition partition = getPartition(state);
+    lockPartition(partition);
+    try {
+      ReachedEntry previous = reached.get(state);
+      if (previous != null) {
+        // State was already in the reached set, see DefaultReachedSet#add for why nothing is done.
+        checkArgument(
+            precision.equals(previous.precision),
+            "State added to reached set which is already contained, "
+                + "but with a different precision");
+        return;
+      }
+
+      long id = nextId.getAndIncrement();
+      reached.put(state, new ReachedEntry(id, precision));
+      orderedStates.put(id, state);
+      partition.states.put(id, state);
+
+      lockWaitlist();
+      try {
+        waitlist.add(state);
+      } finally {
+        waitlistLock.unlock();
+      }
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> toAdd) {
+    for (Pair<AbstractState, Precision> pair : toAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState s) {
+    checkNotNull(s);
+    Partition partition = getPartition(s);
+    lockPartition(partition);
+    try {
+      checkArgument(reached.containsKey(s), "State has to be in the reached set");
+
+      lockWaitlist();
+      try {
+        if (!waitlist.contains(s)) {
+          waitlist.add(s);
+        }
+      } finally {
+        waitlistLock.unlock();
+      }
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void updatePrecision(AbstractState s, Precision newPrecision) {
+    checkNotNull(s);
+    checkNotNull(newPrecision);
+    Partition partition = getPartition(s);
+    lockPartition(partition);
+    try {
+      ReachedEntry oldEntry = reached.get(s);
+      checkArgument(
+          oldEntry != null,
+          "State needs to be in the reached set in order to change the precision.");
+      reached.put(s, new ReachedEntry(oldEntry.id, newPrecision));
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void remove(AbstractState state) {
+    checkNotNull(state);
+    Partition partition = getPartition(state);
+    lockPartition(partition);
+    try {
+      ReachedEntry entry = reached.remove(state);
+      if (entry != null) {
+        orderedStates.remove(entry.id);
+        partition.states.remove(entry.id);
+      }
+
+      lockWaitlist();
+      try {
+        waitlist.remove(state);
+      } finally {
+        waitlistLock.unlock();
+      }
+    } finally {
+      partition.lock.unlock();
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> toRemove) {
+    for (AbstractState state : toRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState state) {
+    checkNotNull(state);
+    lockWaitlist();
+    try {
+      waitlist.remove(state);
+    } finally {
+      waitlistLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lockWaitlist();
+    try {
+      waitlist.clear();
+      partitions.clear();
+      orderedStates.clear();
+      reached.clear();
+    } finally {
+      waitlistLock.unlock();
+    }
+  }
+
+  @Override
+  public AbstractState popFromWaitlist() {
+    lockWaitlist();
+    try {
+      return waitlist.pop();
+    } finally {
+      waitlistLock.unlock();
+    }
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return unmodifiableReached;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return unmodifiableReached.iterator();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned collection is a snapshot and does not reflect later changes.
+   */
+  @Override
+  public Collection<Precision> getPrecisions() {
+    ImmutableList.Builder<Precision> precisions = ImmutableList.builder();
+    forEach((state, precision) -> precisions.add(precision));
+    return precisions.build();
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState state) {
+    return getPartitionView(getPartitionKey(state));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode location) {
+    checkNotNull(location);
+    if (partitionByLocation) {
+      return getPartitionView(location);
+    }
+    return unmodifiableReached;
+  }
+
+  @Override
+  public AbstractState getFirstState() {
+    Map.Entry<Long, AbstractState> first = orderedStates.firstEntry();
+    checkState(first != null);
+    return first.getValue();
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    Map.Entry<Long, AbstractState> last = orderedStates.lastEntry();
+    return last == null ? null : last.getValue();
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    lockWaitlist();
+    try {
+      return !waitlist.isEmpty();
+    } finally {
+      waitlistLock.unlock();
+    }
+  }
+
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    return new AbstractCollection<AbstractState>() {
+
+      @Override
+      public Iterator<AbstractState> iterator() {
+        // the waitlist itself is not thread-safe, so we iterate over a copy
+        lockWaitlist();
+        try {
+          return ImmutableList.copyOf(waitlist).iterator();
+        } finally {
+          waitlistLock.unlock();
+        }
+      }
+
+      @Override
+      public boolean contains(Object obj) {
+        if (!(obj instanceof AbstractState)) {
+          return false;
+        }
+        lockWaitlist();
+        try {
+          return waitlist.contains((AbstractState) obj);
+        } finally {
+          waitlistLock.unlock();
+        }
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return !hasWaitingState();
+      }
+
+      @Override
+      public int size() {
+        lockWaitlist();
+        try {
+          return waitlist.size();
+        } finally {
+          waitlistLock.unlock();
+        }
+      }
+    };
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState state) {
+    checkNotNull(state);
+    ReachedEntry entry = reached.get(state);
+    checkArgument(entry != null, "State not in reached set:\n%s", state);
+    return entry.precision;
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    checkNotNull(pAction);
+    for (AbstractState state : orderedStates.values()) {
+      ReachedEntry entry = reached.get(state);
+      if (entry != null) { // could have been removed concurrently
+        pAction.accept(state, entry.precision);
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(AbstractState state) {
+    checkNotNull(state);
+    return reached.containsKey(state);
+  }
+
+  @Override
+  public int size() {
+    return reached.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return reached.isEmpty();
+  }
+
+  @Override
+  public boolean hasViolatedProperties() {
+    return from(unmodifiableReached).anyMatch(IS_TARGET_STATE);
+  }
+
+  @Override
+  public Collection<Property> getViolatedProperties() {
+    return from(unmodifiableReached)
+        .filter(IS_TARGET_STATE)
+        .filter(Targetable.class)
+        .transformAndConcat(Targetable::getViolatedProperties)
+        .toSet();
+  }
+
+  @Override
+  public String toString() {
+    return unmodifiableReached.toString();
+  }
+
+  public int getNumberOfPartitions() {
+    return partitions.size();
+  }
+
+  public Map<String, ? extends AbstractStatValue> getStatistics() {
+    ImmutableMap.Builder<String, AbstractStatValue> stats = ImmutableMap.builder();
+    for (StatCounter counter :
+        ImmutableList.of(
+            partitionLocks, contendedPartitionLocks, waitlistLocks, contendedWaitlistLocks)) {
+      stats.put(counter.getTitle(), counter);
+    }
+    lockWaitlist();
+    try {
+      if (waitlist instanceof AbstractSortedWaitlist) {
+        stats.putAll(((AbstractSortedWaitlist<?>) waitlist).getDelegationCounts());
+      }
+    } finally {
+      waitlistLock.unlock();
+    }
+    return stats.build();
+  }
+
+  private Object getPartitionKey(AbstractState pState) {
+    checkNotNull(pState);
+    final Object key;
+    if (partitionByLocation) {
+      key = AbstractStates.extractLocation(pState);
+      checkNotNull(key, "Location information necessary for location-mapped reached set");
+    } else {
+      assert pState instanceof Partitionable
+          : "Partitionable states necessary for ConcurrentPartitionedReachedSet";
+      key = ((Partitionable) pState).getPartitionKey();
+    }
+    return key == null ? NULL_KEY : key;
+  }
+
+  /**
+   * Return the states of a partition without creating it if it does not exist. In this case, the
+   * returned empty collection does not reflect states that are added later.
+   */
+  private Collection<AbstractState> getPartitionView(Object pKey) {
+    Partition partition = partitions.get(pKey);
+    return partition == null ? Collections.emptySet() : partition.view;
+  }
+
+  private Partition getPartition(AbstractState pState) {
+    return partitions.computeIfAbsent(getPartitionKey(pState), k -> new Partition());
+  }
+
+  private void lockPartition(Partition pPartition) {
+    partitionLocks.inc();
+    if (!pPartition.lock.tryLock()) {
+      contendedPartitionLocks.inc();
+      pPartition.lock.lock();
+    }
+  }
+
+  private void lockWaitlist() {
+    waitlistLocks.inc();
+    if (!waitlistLock.tryLock()) {
+      contendedWaitlistLocks.inc();
+      waitlistLock.lock();
+    }
+  }
+
+  /** Unmodifiable view of all states in insertion order. */
+  private class ReachedStatesView extends AbstractSet<AbstractState> {
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return Iterators.unmodifiableIterator(orderedStates.values().iterator());
+    }
+
+    @Override
+    public boolean contains(Object pO) {
+      return pO != null && reached.containsKey(pO);
+    }
+
+    @Override
+    public int size() {
+      return reached.size();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+import org.sosy_lab.cpachecker.util.Pair;
+
+public class ConcurrentPartitionedReachedSetTest {
+
+  private static final int THREADS = 4;
+  private static final int STATES_PER_THREAD = 1000;
+
+  private static final Precision PRECISION = SingletonPrecision.getInstance();
+
+  private static class TestState implements AbstractState, Partitionable {
+    private final Object key;
+
+    private TestState(Object pKey) {
+      key = pKey;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return key;
+    }
+  }
+
+  private ConcurrentPartitionedReachedSet reached;
+
+  @Before
+  public void init() {
+    reached = new ConcurrentPartitionedReachedSet(TraversalMethod.BFS);
+  }
+
+  @Test
+  public void partitionsAndOrder() {
+    TestState a1 = new TestState("a");
+    TestState b1 = new TestState("b");
+    TestState a2 = new TestState("a");
+    TestState n = new TestState(null);
+    reached.addAll(
+        ImmutableList.of(
+            Pair.of(a1, PRECISION),
+            Pair.of(b1, PRECISION),
+            Pair.of(a2, PRECISION),
+            Pair.of(n, PRECISION)));
+
+    assertThat(reached).containsExactly(a1, b1, a2, n).inOrder();
+    assertThat(reached.getReached(new TestState("a"))).containsExactly(a1, a2).inOrder();
+    assertThat(reached.getReached(new TestState(null))).containsExactly(n);
+    // querying a partition does not create it
+    assertThat(reached.getReached(new TestState("c"))).isEmpty();
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(3);
+    assertThat(reached.getFirstState()).isSameAs(a1);
+    assertThat(reached.getLastState()).isSameAs(n);
+    assertThat(reached.popFromWaitlist()).isSameAs(a1);
+
+    reached.remove(a1);
+    assertThat(reached.getReached(a2)).containsExactly(a2);
+    assertThat(reached.contains(a1)).isFalse();
+    assertThat(reached.getWaitlist()).containsExactly(b1, a2, n);
+  }
+
+  @Test
+  public void concurrentAdd() throws Exception {
+    ExecutorService exec = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < THREADS; t++) {
+        futures.add(
+            exec.submit(
+                () -> {
+                  for (int i = 0; i < STATES_PER_THREAD; i++) {
+                    reached.add(new TestState(i % 10), PRECISION);
+                    // iterating while other threads add states must not fail
+                    assertThat(reached.getReached(new TestState(i % 10))).isNotEmpty();
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      exec.shutdownNow();
+    }
+
+    assertThat(reached.size()).isEqualTo(THREADS * STATES_PER_THREAD);
+    assertThat(reached.asCollection()).hasSize(THREADS * STATES_PER_THREAD);
+    assertThat(reached.getWaitlist()).hasSize(THREADS * STATES_PER_THREAD);
+    assertThat(reached.getNumberOfPartitions()).isEqualTo(10);
+    assertThat(reached.getFirstState()).isSameAs(Iterables.getFirst(reached, null));
+    assertThat(reached.getLastState()).isSameAs(Iterables.getLast(reached));
+    int sum = 0;
+    for (int i = 0; i < 10; i++) {
+      sum += reached.getReached(new TestState(i)).size();
+    }
+    assertThat(sum).isEqualTo(THREADS * STATES_PER_THREAD);
+  }
+}
@@ -78,6 +78,11 @@ public class ForwardingReachedSet implements ReachedSet, StatisticsProvider {
     return delegate.getReached(pState);
   }
 
+  @Override
+  public Collection<AbstractState> getMergeCandidates(AbstractState pState) {
+    return delegate.getMergeCandidates(pState);
+  }
+
   @Override
   public Collection<AbstractState> getReached(CFANode pLocation) {
     return delegate.getReached(pLocation);
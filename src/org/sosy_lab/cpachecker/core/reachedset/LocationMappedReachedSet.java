@@ -45,6 +45,11 @@ public class LocationMappedReachedSet extends PartitionedReachedSet {
     super(waitlistFactory);
   }
 
+  public LocationMappedReachedSet(
+      WaitlistFactory waitlistFactory, boolean pIndexMergeCandidates) {
+    super(waitlistFactory, pIndexMergeCandidates);
+  }
+
   @Override
   public Collection<AbstractState> getReached(CFANode location) {
     checkNotNull(location);
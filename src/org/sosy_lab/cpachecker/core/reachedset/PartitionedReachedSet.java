@@ -25,15 +25,18 @@ package org.sosy_lab.cpachecker.core.reachedset;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.MergePartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
@@ -52,6 +55,10 @@ import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
  * for merging and coverage checks), it will return a subset of the set of all
  * reached states. This subset contains exactly those states, whose partition
  * key is equal to the key of the state given as a parameter.
+ *
+ * Optionally, the states of each partition can additionally be indexed by the key
+ * of {@link MergePartitionable}, such that {@link #getMergeCandidates(AbstractState)}
+ * returns only the states of the partition that have the same merge-partition key.
  */
 public class PartitionedReachedSet extends DefaultReachedSet {
 
@@ -60,22 +67,57 @@ public class PartitionedReachedSet extends DefaultReachedSet {
   @SuppressFBWarnings("SE_BAD_FIELD")
   private final Multimap<Object, AbstractState> partitionedReached = LinkedHashMultimap.create(100, 1);
 
+  /**
+   * Maps each partition key to the states of this partition, grouped by their merge-partition key.
+   * Only states implementing {@link MergePartitionable} are contained. This is null if the index
+   * is disabled.
+   */
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final @Nullable Map<Object, Multimap<Object, AbstractState>> mergeIndex;
+
   public PartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    this(waitlistFactory, false);
+  }
+
+  /**
+   * @param waitlistFactory the factory for the waitlist
+   * @param pIndexMergeCandidates whether to index the states by {@link MergePartitionable}
+   */
+  public PartitionedReachedSet(WaitlistFactory waitlistFactory, boolean pIndexMergeCandidates) {
     super(waitlistFactory);
+    mergeIndex = pIndexMergeCandidates ? new HashMap<>() : null;
   }
 
   @Override
   public void add(AbstractState pState, Precision pPrecision) {
     super.add(pState, pPrecision);
 
-    partitionedReached.put(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    partitionedReached.put(key, pState);
+
+    if (mergeIndex != null && pState instanceof MergePartitionable) {
+      mergeIndex
+          .computeIfAbsent(key, k -> LinkedHashMultimap.create())
+          .put(((MergePartitionable) pState).getMergePartitionKey(), pState);
+    }
   }
 
   @Override
   public void remove(AbstractState pState) {
     super.remove(pState);
 
-    partitionedReached.remove(getPartitionKey(pState), pState);
+    Object key = getPartitionKey(pState);
+    partitionedReached.remove(key, pState);
+
+    if (mergeIndex != null && pState instanceof MergePartitionable) {
+      Multimap<Object, AbstractState> partition = mergeIndex.get(key);
+      if (partition != null) {
+        partition.remove(((MergePartitionable) pState).getMergePartitionKey(), pState);
+        if (partition.isEmpty()) {
+          mergeIndex.remove(key);
+        }
+      }
+    }
   }
 
   @Override
@@ -83,6 +125,9 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     super.clear();
 
     partitionedReached.clear();
+    if (mergeIndex != null) {
+      mergeIndex.clear();
+    }
   }
 
   @Override
@@ -90,6 +135,25 @@ public class PartitionedReachedSet extends DefaultReachedSet {
     return getReachedForKey(getPartitionKey(pState));
   }
 
+  @Override
+  public Collection<AbstractState> getMergeCandidates(AbstractState pState) {
+    if (mergeIndex == null || !(pState instanceof MergePartitionable)) {
+      return getReached(pState);
+    }
+
+    Object mergeKey = ((MergePartitionable) pState).getMergePartitionKey();
+    if (mergeKey == null) {
+      // the state may be merged with any state of its partition
+      return getReached(pState);
+    }
+
+    Multimap<Object, AbstractState> partition = mergeIndex.get(getPartitionKey(pState));
+    if (partition == null) {
+      return ImmutableSet.of();
+    }
+    return Collections.unmodifiableCollection(partition.get(mergeKey));
+  }
+
   public int getNumberOfPartitions() {
     return partitionedReached.keySet().size();
   }
@@ -23,10 +23,12 @@
  */
 package org.sosy_lab.cpachecker.core.reachedset;
 
+import java.util.Collection;
 import java.util.Set;
 
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.MergePartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 
 /**
@@ -44,6 +46,20 @@ public interface ReachedSet extends UnmodifiableReachedSet {
   @Override
   Set<AbstractState> asCollection();
 
+  /**
+   * Returns a subset of {@link #getReached(AbstractState)}, which contains at least all abstract
+   * states that the merge operator could combine with the given state. Implementations may use
+   * {@link MergePartitionable} to restrict the returned states.
+   *
+   * <p>The returned set is unmodifiable and should be iterated before the reached set is modified.
+   *
+   * @param state An abstract state that should be merged with states from the reached set.
+   * @return A subset of the reached set.
+   */
+  default Collection<AbstractState> getMergeCandidates(AbstractState state) {
+    return getReached(state);
+  }
+
   /**
    * Add a state with a precision to the reached set and to the waitlist.
    * If the state is already in the reached set and the precisions are equal,
@@ -54,7 +54,13 @@ import org.sosy_lab.cpachecker.cpa.usage.UsageReachedSet;
 public class ReachedSetFactory {
 
   private enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL,
+    LOCATIONMAPPED,
+    PARTITIONED,
+    PSEUDOPARTITIONED,
+    CONCURRENTPARTITIONED,
+    CONCURRENTLOCATIONMAPPED,
+    USAGE
   }
 
   @Option(
@@ -189,9 +195,22 @@ public class ReachedSetFactory {
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
+            + "\nCONCURRENTPARTITIONED: like PARTITIONED, but thread-safe with one lock per partition"
+            + "\nCONCURRENTLOCATIONMAPPED: like LOCATIONMAPPED, but thread-safe with one lock per "
+            + "location"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
+  @Option(
+    secure = true,
+    name = "reachedSet.indexMergeCandidates",
+    description =
+        "index the states of each partition by the key of MergePartitionable, such that the merge "
+            + "operator is only called for states that it could actually merge "
+            + "(only for PARTITIONED and LOCATIONMAPPED)"
+  )
+  private boolean indexMergeCandidates = false;
+
   private final Configuration config;
   private @Nullable BlockConfiguration blockConfig;
   private final LogManager logger;
@@ -263,13 +282,19 @@ public class ReachedSetFactory {
 
     switch (reachedSet) {
     case PARTITIONED:
-      return new PartitionedReachedSet(waitlistFactory);
+      return new PartitionedReachedSet(waitlistFactory, indexMergeCandidates);
 
     case PSEUDOPARTITIONED:
       return new PseudoPartitionedReachedSet(waitlistFactory);
 
     case LOCATIONMAPPED:
-      return new LocationMappedReachedSet(waitlistFactory);
+      return new LocationMappedReachedSet(waitlistFactory, indexMergeCandidates);
+
+    case CONCURRENTPARTITIONED:
+      return new ConcurrentPartitionedReachedSet(waitlistFactory);
+
+    case CONCURRENTLOCATIONMAPPED:
+      return new ConcurrentPartitionedReachedSet(waitlistFactory, true);
 
     case USAGE:
       return new UsageReachedSet(waitlistFactory, config, logger);
@@ -57,6 +57,7 @@ import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
 import org.sosy_lab.cpachecker.core.interfaces.Reducer;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -64,7 +65,7 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 @Options
 public class ARGCPA extends AbstractSingleWrapperCPA implements
-    ConfigurableProgramAnalysisWithBAM, ProofChecker {
+    ConfigurableProgramAnalysisWithBAM, ProofChecker, ThreadSafeConfigurableProgramAnalysis {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ARGCPA.class);
@@ -122,6 +123,18 @@ public class ARGCPA extends AbstractSingleWrapperCPA implements
     return new FlatLatticeDomain();
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    // Each worker thread only modifies the ARG below the state it expands,
+    // but the following features access the whole ARG during successor computation.
+    // With merge-join, a state whose successors were already computed in parallel
+    // may be replaced in the ARG afterwards, and its precomputed children would be
+    // moved to the merged state although they were never added to the reached set.
+    return merge == MergeSepOperator.getInstance()
+        && !inCPAEnabledAnalysis
+        && !stats.dumpsArgInEachIteration();
+  }
+
   @Override
   public TransferRelation getTransferRelation() {
     return new ARGTransferRelation(getWrappedCpa().getTransferRelation());
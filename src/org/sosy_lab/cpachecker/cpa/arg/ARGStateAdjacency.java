@@ -0,0 +1,150 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+
+/**
+ * Helper methods for the compact representation of the parents and children of an {@link
+ * ARGState}. Most states have exactly one parent and few children, so instead of a collection
+ * object we store either null (no elements), the single element itself, or an array of exactly
+ * the required length. All methods take the current value and return the new one.
+ *
+ * <p>Set semantics are enforced by the callers in {@link ARGState}.
+ */
+final class ARGStateAdjacency {
+
+  private static final ARGState[] EMPTY = new ARGState[0];
+
+  /* Estimated sizes for a 64-bit JVM with compressed oops. */
+  private static final int REFERENCE_SIZE = 4;
+  private static final int ARRAY_HEADER_SIZE = 16;
+
+  private ARGStateAdjacency() {}
+
+  static int size(@Nullable Object pElements) {
+    if (pElements == null) {
+      return 0;
+    } else if (pElements instanceof ARGState) {
+      return 1;
+    } else {
+      return ((ARGState[]) pElements).length;
+    }
+  }
+
+  static boolean contains(@Nullable Object pElements, ARGState pState) {
+    if (pElements == null) {
+      return false;
+    } else if (pElements instanceof ARGState) {
+      return pElements == pState;
+    } else {
+      for (ARGState element : (ARGState[]) pElements) {
+        if (element == pState) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  static Object add(@Nullable Object pElements, ARGState pState) {
+    if (pElements == null) {
+      return pState;
+    } else if (pElements instanceof ARGState) {
+      return new ARGState[] {(ARGState) pElements, pState};
+    } else {
+      ARGState[] elements = (ARGState[]) pElements;
+      ARGState[] result = Arrays.copyOf(elements, elements.length + 1);
+      result[elements.length] = pState;
+      return result;
+    }
+  }
+
+  static @Nullable Object remove(@Nullable Object pElements, ARGState pState) {
+    if (pElements == null) {
+      return null;
+    } else if (pElements instanceof ARGState) {
+      return pElements == pState ? null : pElements;
+    }
+
+    ARGState[] elements = (ARGState[]) pElements;
+    int index = -1;
+    for (int i = 0; i < elements.length; i++) {
+      if (elements[i] == pState) {
+        index = i;
+        break;
+      }
+    }
+    if (index < 0) {
+      return pElements;
+    } else if (elements.length == 2) {
+      return elements[1 - index];
+    }
+    ARGState[] result = new ARGState[elements.length - 1];
+    System.arraycopy(elements, 0, result, 0, index);
+    System.arraycopy(elements, index + 1, result, index, result.length - index);
+    return result;
+  }
+
+  static Iterator<ARGState> iterator(@Nullable Object pElements) {
+    if (pElements == null) {
+      return Collections.emptyIterator();
+    } else if (pElements instanceof ARGState) {
+      return Iterators.singletonIterator((ARGState) pElements);
+    } else {
+      return Iterators.forArray((ARGState[]) pElements);
+    }
+  }
+
+  /**
+   * Returns the elements as array that is not affected by later modifications. The returned array
+   * must not be modified.
+   */
+  static ARGState[] toArray(@Nullable Object pElements) {
+    if (pElements == null) {
+      return EMPTY;
+    } else if (pElements instanceof ARGState) {
+      return new ARGState[] {(ARGState) pElements};
+    } else {
+      // arrays are never modified in place, so no copy is necessary
+      return (ARGState[]) pElements;
+    }
+  }
+
+  /**
+   * Estimate the number of bytes needed for storing the given elements, including the reference
+   * to them from the owning state.
+   */
+  static long estimateSize(@Nullable Object pElements) {
+    if (pElements instanceof ARGState[]) {
+      int arraySize = ARRAY_HEADER_SIZE + REFERENCE_SIZE * ((ARGState[]) pElements).length;
+      return REFERENCE_SIZE + ((arraySize + 7) / 8) * 8;
+    }
+    return REFERENCE_SIZE;
+  }
+}
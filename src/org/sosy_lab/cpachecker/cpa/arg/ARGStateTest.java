@@ -0,0 +1,90 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collection;
+import org.junit.Test;
+
+public class ARGStateTest {
+
+  @Test
+  public void testAddAndRemoveParents() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    ARGState child2 = new ARGState(null, root);
+    ARGState child3 = new ARGState(null, root);
+    assertThat(root.getChildren()).containsExactly(child1, child2, child3).inOrder();
+    assertThat(child1.getParents()).containsExactly(root);
+
+    child3.addParent(child1);
+    child3.addParent(root); // duplicate
+    assertThat(child3.getParents()).containsExactly(root, child1).inOrder();
+    assertThat(child1.getChildren()).containsExactly(child3);
+
+    child3.removeParent(root);
+    assertThat(child3.getParents()).containsExactly(child1);
+    assertThat(root.getChildren()).containsExactly(child1, child2).inOrder();
+
+    child2.removeParent(root);
+    assertThat(root.getChildren()).containsExactly(child1);
+    assertThat(child2.getParents()).isEmpty();
+  }
+
+  @Test
+  public void testLiveView() {
+    ARGState root = new ARGState(null, null);
+    ARGState child1 = new ARGState(null, root);
+    Collection<ARGState> children = root.getChildren();
+    assertThat(children).containsExactly(child1);
+
+    ARGState child2 = new ARGState(null, root);
+    assertThat(children).containsExactly(child1, child2).inOrder();
+    assertThat(children.contains(child2)).isTrue();
+
+    // iterating while modifying the ARG does not affect the iteration
+    for (ARGState child : children) {
+      child.removeFromARG();
+    }
+    assertThat(children).isEmpty();
+  }
+
+  @Test
+  public void testReplaceInARG() {
+    ARGState root = new ARGState(null, null);
+    ARGState state = new ARGState(null, root);
+    ARGState child1 = new ARGState(null, state);
+    ARGState child2 = new ARGState(null, state);
+    ARGState replacement = new ARGState(null, null);
+
+    state.replaceInARGWith(replacement);
+    assertThat(state.isDestroyed()).isTrue();
+    assertThat(root.getChildren()).containsExactly(replacement);
+    assertThat(replacement.getParents()).containsExactly(root);
+    assertThat(replacement.getChildren()).containsExactly(child1, child2).inOrder();
+    assertThat(child1.getParents()).containsExactly(replacement);
+    assertThat(child2.getParents()).containsExactly(replacement);
+  }
+}
@@ -38,6 +38,9 @@ import com.google.common.collect.SetMultimap;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
@@ -79,6 +82,8 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.cwriter.ARGToCTranslator;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
 
 @Options(prefix="cpa.arg")
 public class ARGStatistics implements Statistics {
@@ -177,6 +182,10 @@ public class ARGStatistics implements Statistics {
   private ARGToAutomatonConverter argToAutomatonSplitter;
   protected final LogManager logger;
 
+  // the final correctness witness is exported while printing statistics
+  private final StatTimer witnessExportTime = new StatTimer("Time for correctness witness export");
+  private boolean proofWitnessExported = false;
+
   public ARGStatistics(
       Configuration config,
       LogManager pLogger,
@@ -270,11 +279,59 @@ public class ARGStatistics implements Statistics {
 
   @Override
   public String getName() {
-    return null; // return null because we do not print statistics
+    return "ARG";
   }
 
   @Override
-  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {}
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    int numberOfStates = 0;
+    long adjacencySize = 0;
+    for (AbstractState state : pReached) {
+      ARGState argState = AbstractStates.extractStateByType(state, ARGState.class);
+      if (argState != null) {
+        numberOfStates++;
+        adjacencySize += argState.estimateAdjacencySize();
+      }
+    }
+
+    put(pOut, 0, "Number of ARG states in reached set", numberOfStates);
+    if (numberOfStates > 0) {
+      put(
+          pOut,
+          0,
+          "Avg. size of parent/child links (bytes/state)",
+          StatisticsUtils.div(adjacencySize, numberOfStates));
+    }
+
+    // The final correctness witness is written here instead of in writeOutputFiles(),
+    // which is called after this method, such that its costs are part of the statistics.
+    if (exportARG && proofWitness != null && pResult != Result.FALSE) {
+      witnessExportTime.start();
+      try {
+        for (ARGState rootState : getRootStates(pReached)) {
+          exportProofWitness(rootState);
+        }
+      } finally {
+        witnessExportTime.stop();
+      }
+      proofWitnessExported = true;
+      Runtime runtime = Runtime.getRuntime();
+      long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+      put(pOut, 0, witnessExportTime);
+      put(pOut, 1, "Used heap memory afterwards", (usedHeap >> 20) + "MB");
+      put(pOut, 1, "Peak heap memory of analysis so far", (getPeakHeapMemory() >> 20) + "MB");
+    }
+  }
+
+  private static long getPeakHeapMemory() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
 
   @Override
   public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
@@ -336,6 +393,12 @@ public class ARGStatistics implements Statistics {
       allTargetPathEdges.addAll(cex.getTargetPath().getStatePairs());
     }
 
+    for (ARGState rootState: getRootStates(pReached)) {
+      exportARG0(rootState, Predicates.in(allTargetPathEdges), pResult);
+    }
+  }
+
+  private static Set<ARGState> getRootStates(UnmodifiableReachedSet pReached) {
     // The state space might be partitioned ...
     // ... so we would export a separate ARG for each partition ...
     boolean partitionedArg =
@@ -343,12 +406,24 @@ public class ARGStatistics implements Statistics {
             || AbstractStates.extractStateByType(pReached.getFirstState(), PartitionState.class)
                 != null;
 
-    final Set<ARGState> rootStates = partitionedArg
+    return partitionedArg
         ? ARGUtils.getRootStates(pReached)
         : Collections.singleton(AbstractStates.extractStateByType(pReached.getFirstState(), ARGState.class));
+  }
 
-    for (ARGState rootState: rootStates) {
-      exportARG0(rootState, Predicates.in(allTargetPathEdges), pResult);
+  private void exportProofWitness(ARGState rootState) {
+    Path witnessFile = adjustPathNameForPartitioning(rootState, proofWitness);
+    Appender content = pAppendable -> argWitnessExporter.writeProofWitness(pAppendable, rootState, Predicates.alwaysTrue(),
+        Predicates.alwaysTrue());
+    try {
+      if (!compressWitness) {
+        IO.writeFile(witnessFile, StandardCharsets.UTF_8, content);
+      } else {
+        witnessFile = witnessFile.resolveSibling(witnessFile.getFileName() + ".gz");
+        IO.writeGZIPFile(witnessFile, StandardCharsets.UTF_8, content);
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
     }
   }
 
@@ -361,20 +436,8 @@ public class ARGStatistics implements Statistics {
         ARGUtils.projectARG(rootState, ARGState::getChildren, ARGUtils.RELEVANT_STATE);
     Function<ARGState, Collection<ARGState>> relevantSuccessorFunction = Functions.forMap(relevantSuccessorRelation.asMap(), ImmutableSet.<ARGState>of());
 
-    if (proofWitness != null && pResult != Result.FALSE) {
-      try {
-        Path witnessFile = adjustPathNameForPartitioning(rootState, proofWitness);
-        Appender content = pAppendable -> argWitnessExporter.writeProofWitness(pAppendable, rootState, Predicates.alwaysTrue(),
-            Predicates.alwaysTrue());
-        if (!compressWitness) {
-          IO.writeFile(witnessFile, StandardCharsets.UTF_8, content);
-        } else {
-          witnessFile = witnessFile.resolveSibling(witnessFile.getFileName() + ".gz");
-          IO.writeGZIPFile(witnessFile, StandardCharsets.UTF_8, content);
-        }
-      } catch (IOException e) {
-        logger.logUserException(Level.WARNING, e, "Could not write ARG to file");
-      }
+    if (proofWitness != null && pResult != Result.FALSE && !proofWitnessExported) {
+      exportProofWitness(rootState);
     }
 
     if (argFile != null) {
@@ -503,6 +566,11 @@ public class ARGStatistics implements Statistics {
     }
   }
 
+  /** Whether the ARG is exported after each iteration, which requires a single-threaded ARG. */
+  boolean dumpsArgInEachIteration() {
+    return dumpArgInEachCpaIteration;
+  }
+
   public void printIterationStatistics(UnmodifiableReachedSet pReached) {
     if (dumpArgInEachCpaIteration) {
       exportARG(pReached, getAllCounterexamples(pReached), CPAcheckerResult.Result.UNKNOWN);
@@ -90,6 +90,14 @@ class WitnessOptions {
   @Option(secure = true, description = "Always export source file name, even default")
   private boolean exportSourceFileName = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Verification witness: Write the GraphML output directly instead of building a DOM tree "
+            + "first. This needs less memory and time for large witnesses."
+  )
+  private boolean streamingExport = false;
+
   boolean exportFunctionCallsAndReturns() {
     return exportFunctionCallsAndReturns;
   }
@@ -137,4 +145,8 @@ class WitnessOptions {
   boolean exportSourceFileName() {
     return exportSourceFileName;
   }
+
+  boolean streamingExport() {
+    return streamingExport;
+  }
 }
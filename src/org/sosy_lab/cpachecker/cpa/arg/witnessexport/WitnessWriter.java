@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cpa.arg.witnessexport;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.AbstractStates.extractStateByType;
 import static org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.SINK_NODE_ID;
@@ -32,6 +33,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
@@ -43,6 +45,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -131,6 +134,7 @@ import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.AssumeCase;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlStreamWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
@@ -1185,14 +1189,18 @@ class WitnessWriter implements EdgeAppender {
     mergeRedundantSinkEdges();
 
     // Write elements
-    final GraphMlBuilder doc;
-    try {
-      doc = new GraphMlBuilder(graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
-    } catch (ParserConfigurationException e) {
-      throw new IOException(e);
-    }
-    writeElementsOfGraphToDoc(doc, entryStateNodeId);
-    doc.appendTo(pTarget);
+    if (witnessOptions.streamingExport()) {
+      writeElementsOfGraph(pTarget, entryStateNodeId);
+    } else {
+      final GraphMlBuilder doc;
+      try {
+        doc = new GraphMlBuilder(graphType, defaultSourcefileName, cfa, verificationTaskMetaData);
+      } catch (ParserConfigurationException e) {
+        throw new IOException(e);
+      }
+      writeElementsOfGraphToDoc(doc, entryStateNodeId);
+      doc.appendTo(pTarget);
+    }
   }
 
   /**
@@ -1338,6 +1346,74 @@ class WitnessWriter implements EdgeAppender {
     }
   }
 
+  /**
+   * Write the witness directly to the target, without building a DOM tree first. Nodes and edges
+   * are written as soon as they are visited. A first traversal of the graph determines the keys
+   * that have to be defined in the header of the document and the data that edges add to their
+   * target nodes, which would otherwise be known only after all edges were visited.
+   */
+  private void writeElementsOfGraph(Appendable pTarget, String entryStateNodeId)
+      throws IOException {
+    Set<KeyDef> usedKeys = EnumSet.noneOf(KeyDef.class);
+    ListMultimap<String, Pair<KeyDef, String>> dataFromEdges = ArrayListMultimap.create();
+    visitElementsOfGraph(
+        entryStateNodeId,
+        element -> {
+          for (Pair<KeyDef, String> data : element.data) {
+            usedKeys.add(data.getFirst());
+          }
+          for (Pair<KeyDef, String> data : element.targetNodeData) {
+            usedKeys.add(data.getFirst());
+            dataFromEdges.put(element.edge.getTarget(), data);
+          }
+        });
+
+    GraphMlStreamWriter writer =
+        new GraphMlStreamWriter(
+            pTarget, graphType, defaultSourcefileName, cfa, verificationTaskMetaData, usedKeys);
+    visitElementsOfGraph(
+        entryStateNodeId,
+        element -> {
+          if (element.isNode()) {
+            element.data.addAll(dataFromEdges.get(element.nodeId));
+            writer.writeNode(element.nodeId, NodeType.ONPATH, element.data);
+          } else {
+            writer.writeEdge(element.edge.getSource(), element.edge.getTarget(), element.data);
+          }
+        });
+    writer.finish();
+  }
+
+  /**
+   * Visit the nodes and edges of the witness in the same order as {@link
+   * #writeElementsOfGraphToDoc}. Each element is created only when it is visited.
+   */
+  private void visitElementsOfGraph(String entryStateNodeId, WitnessElementVisitor pVisitor)
+      throws IOException {
+    Set<String> visitedNodes = new HashSet<>();
+    Deque<String> waitlist = Queues.newArrayDeque();
+    waitlist.push(entryStateNodeId);
+    visitedNodes.add(entryStateNodeId);
+    WitnessElement entryNode = createNewNodeElement(entryStateNodeId);
+    addInvariantsData(entryNode, entryStateNodeId);
+    pVisitor.visit(entryNode);
+    while (!waitlist.isEmpty()) {
+      String source = waitlist.pop();
+      for (Edge edge : leavingEdges.get(source)) {
+        setLoopHeadInvariantIfApplicable(edge.getTarget());
+
+        if (visitedNodes.add(edge.getTarget())) {
+          WitnessElement targetNode = createNewNodeElement(edge.getTarget());
+          if (!ExpressionTrees.getFalse().equals(addInvariantsData(targetNode, edge.getTarget()))) {
+            waitlist.push(edge.getTarget());
+          }
+          pVisitor.visit(targetNode);
+        }
+        pVisitor.visit(createNewEdgeElement(edge));
+      }
+    }
+  }
+
   private void setLoopHeadInvariantIfApplicable(String pTarget) {
     if (!ExpressionTrees.getTrue().equals(getStateInvariant(pTarget))) {
       return;
@@ -1389,6 +1465,21 @@ class WitnessWriter implements EdgeAppender {
     return tree;
   }
 
+  private ExpressionTree<Object> addInvariantsData(WitnessElement pNode, String pStateId) {
+    if (!invariantExportStates.contains(pStateId)) {
+      return ExpressionTrees.getTrue();
+    }
+    ExpressionTree<Object> tree = getStateInvariant(pStateId);
+    if (!tree.equals(ExpressionTrees.getTrue())) {
+      pNode.addData(KeyDef.INVARIANT, tree.toString());
+      String scope = stateScopes.get(pStateId);
+      if (scope != null && !scope.isEmpty() && !tree.equals(ExpressionTrees.getFalse())) {
+        pNode.addData(KeyDef.INVARIANTSCOPE, scope);
+      }
+    }
+    return tree;
+  }
+
   private boolean hasFlagsOrProperties(String pNode) {
     return !nodeFlags.get(pNode).isEmpty() || !violatedProperties.get(pNode).isEmpty();
   }
@@ -1697,6 +1788,72 @@ class WitnessWriter implements EdgeAppender {
     return result;
   }
 
+  private WitnessElement createNewEdgeElement(Edge pEdge) {
+    WitnessElement edge = new WitnessElement(null, pEdge);
+    for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
+      KeyDef keyDef = entry.getKey();
+      String value = entry.getValue();
+      if (keyDef.keyFor.equals(ElementType.EDGE)) {
+        edge.addData(keyDef, value);
+      } else if (keyDef.keyFor.equals(ElementType.NODE)) {
+        edge.targetNodeData.add(Pair.of(keyDef, value));
+      }
+    }
+    return edge;
+  }
+
+  private WitnessElement createNewNodeElement(String pEntryStateNodeId) {
+    WitnessElement result = new WitnessElement(pEntryStateNodeId, null);
+
+    if (witnessOptions.exportNodeLabel()) {
+      // add a printable label that for example is shown in yEd
+      result.addData(KeyDef.LABEL, pEntryStateNodeId);
+    }
+
+    for (NodeFlag f : nodeFlags.get(pEntryStateNodeId)) {
+      result.addData(f.key, "true");
+    }
+    for (Property violation : violatedProperties.get(pEntryStateNodeId)) {
+      result.addData(KeyDef.VIOLATEDPROPERTY, violation.toString());
+    }
+
+    if (stateQuasiInvariants.containsKey(pEntryStateNodeId)) {
+      ExpressionTree<Object> tree = getQuasiInvariant(pEntryStateNodeId);
+      result.addData(KeyDef.INVARIANT, tree.toString());
+    }
+
+    return result;
+  }
+
+  /** A node or an edge of the witness, together with the data that are written for it. */
+  private static final class WitnessElement {
+
+    private final @Nullable String nodeId;
+    private final @Nullable Edge edge;
+    private final List<Pair<KeyDef, String>> data = new ArrayList<>(2);
+    // data of an edge that belong to its target node
+    private final List<Pair<KeyDef, String>> targetNodeData = new ArrayList<>(0);
+
+    private WitnessElement(@Nullable String pNodeId, @Nullable Edge pEdge) {
+      checkArgument((pNodeId == null) != (pEdge == null));
+      nodeId = pNodeId;
+      edge = pEdge;
+    }
+
+    private boolean isNode() {
+      return nodeId != null;
+    }
+
+    private void addData(KeyDef pKey, String pValue) {
+      data.add(Pair.of(pKey, pValue));
+    }
+  }
+
+  @FunctionalInterface
+  private interface WitnessElementVisitor {
+    void visit(WitnessElement pElement) throws IOException;
+  }
+
   private Collection<NodeFlag> extractNodeFlags(ARGState pState) {
     if (pState.isTarget() && graphType != WitnessType.CORRECTNESS_WITNESS) {
       return Collections.singleton(NodeFlag.ISVIOLATION);
@@ -87,6 +87,15 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
   abstract ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs)
       throws CPATransferException;
 
+  /**
+   * Returns whether the value of this expression only depends on the current CFA edge, i.e., not
+   * on automaton variables, transition variables, or the states of other CPAs. Such expressions
+   * can be evaluated once per CFA edge (cf. {@link AutomatonTransitionIndex}).
+   */
+  default boolean isEdgeOnly() {
+    return false;
+  }
+
   static enum MatchProgramExit implements AutomatonBoolExpr {
     INSTANCE;
 
@@ -99,6 +108,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "PROGRAM-EXIT";
@@ -158,6 +172,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "PROGRAM-ENTRY";
@@ -175,6 +194,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "LOOP-START";
@@ -197,6 +221,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "SUCCESSOR IN " + acceptedNodes;
@@ -378,6 +407,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FUNCTION CALL STATEMENT \"" + functionName + "\"";
@@ -418,6 +452,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FUNCTION CALL \"" + functionName + "\"";
@@ -475,6 +514,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public boolean equals(Object pOther) {
       if (this == pOther) {
@@ -535,6 +579,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH FUNCTION EXIT \"" + functionName + "\"";
@@ -575,6 +624,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
         }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH LABEL \"" + label + "\"";
@@ -620,6 +674,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH LABEL [" + pattern + "]";
@@ -702,6 +761,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH [" + pattern + "]";
@@ -735,6 +799,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH \"" + pattern + "\"";
@@ -764,6 +833,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH ASSERT";
@@ -778,6 +852,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return pArgs.getCfaEdge() instanceof AssumeEdge ? CONST_TRUE : CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH ASSUME EDGE";
@@ -809,6 +888,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH ASSUME CASE " + matchPositiveCase;
@@ -997,6 +1081,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       return AutomatonGraphmlCommon.isSplitDeclaration(edge) ? CONST_TRUE : CONST_FALSE;
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH SPLIT DECLARATION";
@@ -1028,6 +1117,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
           .anyMatch(matchDescriptor);
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return true;
+    }
+
     @Override
     public String toString() {
       return "MATCH " + matchDescriptor;
@@ -1246,6 +1340,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
           return CONST_TRUE;
         }
 
+        @Override
+        public boolean isEdgeOnly() {
+          return true;
+        }
+
         @Override
         public String toString() {
           return "TRUE";
@@ -1260,6 +1359,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
           return CONST_FALSE;
         }
 
+        @Override
+        public boolean isEdgeOnly() {
+          return true;
+        }
+
         @Override
         public String toString() {
           return "FALSE";
@@ -1446,6 +1550,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return a.isEdgeOnly();
+    }
+
     @Override
     public String toString() {
       return "!" + a;
@@ -1504,6 +1613,11 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       }
     }
 
+    @Override
+    public boolean isEdgeOnly() {
+      return a.isEdgeOnly() && b.isEdgeOnly();
+    }
+
     @Override
     public String toString() {
       return String.format("(%s %s %s)", a, repr, b);
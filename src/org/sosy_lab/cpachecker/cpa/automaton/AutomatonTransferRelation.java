@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
@@ -61,6 +62,7 @@ import org.sosy_lab.cpachecker.cpa.threading.ThreadingState;
 import org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -79,6 +81,8 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
   private final TimerWrapper actionTime;
   private final TimerWrapper totalStrengthenTime;
   private final StatIntHist automatonSuccessors;
+  private final StatCounter precomputedTransitionMatches;
+  private final @Nullable AutomatonTransitionIndex transitionIndex;
 
   public AutomatonTransferRelation(
       ControlAutomatonCPA pCpa, LogManager pLogger, MachineModel pMachineModel) {
@@ -92,6 +96,8 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     actionTime = pCpa.stats.actionTime.getNewTimer();
     totalStrengthenTime = pCpa.stats.totalStrengthenTime.getNewTimer();
     automatonSuccessors = pCpa.stats.automatonSuccessors;
+    precomputedTransitionMatches = pCpa.stats.precomputedTransitionMatches;
+    transitionIndex = pCpa.getTransitionIndex();
   }
 
   @Override
@@ -162,12 +168,35 @@ class AutomatonTransferRelation extends SingleEdgeTransferRelation {
     List<Pair<AutomatonTransition, Map<Integer, AAstNode>>> transitionsToBeTaken =
         new ArrayList<>(2);
 
+    // for each transition whether its trigger is already known to (not) match on this edge
+    final byte[] precomputedMatches;
+    if (transitionIndex != null) {
+      matchTime.start();
+      precomputedMatches = transitionIndex.getMatches(state.getInternalState(), edge);
+      matchTime.stop();
+    } else {
+      precomputedMatches = null;
+    }
+
+    int transitionIdx = -1;
     for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+      transitionIdx++;
       exprArgs.clearTransitionVariables();
 
-      matchTime.start();
-      ResultValue<Boolean> match = t.match(exprArgs);
-      matchTime.stop();
+      final ResultValue<Boolean> match;
+      if (precomputedMatches != null
+          && precomputedMatches[transitionIdx] != AutomatonTransitionIndex.UNKNOWN) {
+        precomputedTransitionMatches.inc();
+        if (precomputedMatches[transitionIdx] == AutomatonTransitionIndex.DOES_NOT_MATCH) {
+          failedMatches++;
+          continue;
+        }
+        match = AutomatonBoolExpr.CONST_TRUE;
+      } else {
+        matchTime.start();
+        match = t.match(exprArgs);
+        matchTime.stop();
+      }
 
       if (match.canNotEvaluate()) {
         if (failOnUnknownMatch) {
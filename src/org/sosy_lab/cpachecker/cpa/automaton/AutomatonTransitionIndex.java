@@ -0,0 +1,164 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.And;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.Negation;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.Or;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.ResultValue;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+
+/**
+ * Dispatch table that stores for each pair of automaton state and CFA edge which transitions of
+ * the state certainly match or certainly do not match on the edge.
+ *
+ * <p>Only the parts of a trigger that depend on nothing but the CFA edge (cf. {@link
+ * AutomatonBoolExpr#isEdgeOnly()}) are evaluated, so the result is valid for all automaton
+ * variables and all states of other CPAs. The table for a pair is computed when it is needed for
+ * the first time, because specification automata are typically small, but witness automata may
+ * have thousands of states, each of which only sees a small part of the CFA. Afterwards, the
+ * transfer relation does not need to evaluate the triggers (e.g., regular expressions over the
+ * raw statement of the edge) again.
+ *
+ * <p>This class is thread-safe.
+ */
+final class AutomatonTransitionIndex {
+
+  static final byte UNKNOWN = 0;
+  static final byte MATCHES = 1;
+  static final byte DOES_NOT_MATCH = 2;
+
+  private final LogManager logger;
+
+  /** Contains an entry for each automaton state, {@link #NO_INDEX} if nothing can be decided. */
+  private final Map<AutomatonInternalState, StateIndex> stateIndices = new ConcurrentHashMap<>();
+
+  private static final StateIndex NO_INDEX = new StateIndex();
+
+  private static final class StateIndex {
+    private final Map<CFAEdge, byte[]> matchesPerEdge = new ConcurrentHashMap<>();
+  }
+
+  AutomatonTransitionIndex(LogManager pLogger) {
+    logger = pLogger;
+  }
+
+  /**
+   * Returns for each transition of the given state whether its trigger {@link #MATCHES}, {@link
+   * #DOES_NOT_MATCH}, or needs to be evaluated ({@link #UNKNOWN}) on the given edge. The returned
+   * array must not be modified.
+   *
+   * @return the array, or null if no trigger of the state can be decided with the edge alone
+   */
+  @Nullable
+  byte[] getMatches(AutomatonInternalState pState, CFAEdge pEdge)
+      throws CPATransferException {
+    StateIndex stateIndex = stateIndices.computeIfAbsent(pState, this::createStateIndex);
+    if (stateIndex == NO_INDEX) {
+      return null;
+    }
+
+    byte[] matches = stateIndex.matchesPerEdge.get(pEdge);
+    if (matches == null) {
+      List<AutomatonTransition> transitions = pState.getTransitions();
+      matches = new byte[transitions.size()];
+      for (int i = 0; i < matches.length; i++) {
+        Boolean value = evalOnEdge(transitions.get(i).getTrigger(), pEdge);
+        if (value != null) {
+          matches[i] = value ? MATCHES : DOES_NOT_MATCH;
+        }
+      }
+      // concurrent computations produce the same result, so it does not matter which one is stored
+      stateIndex.matchesPerEdge.put(pEdge, matches);
+    }
+    return matches;
+  }
+
+  private StateIndex createStateIndex(AutomatonInternalState pState) {
+    for (AutomatonTransition transition : pState.getTransitions()) {
+      if (canBeDecidedOnEdge(transition.getTrigger())) {
+        return new StateIndex();
+      }
+    }
+    return NO_INDEX;
+  }
+
+  private static boolean canBeDecidedOnEdge(AutomatonBoolExpr pExpr) {
+    if (pExpr.isEdgeOnly()) {
+      return true;
+    } else if (pExpr instanceof And) {
+      return canBeDecidedOnEdge(((And) pExpr).a);
+    } else if (pExpr instanceof Or) {
+      return canBeDecidedOnEdge(((Or) pExpr).a);
+    } else if (pExpr instanceof Negation) {
+      return canBeDecidedOnEdge(((Negation) pExpr).getA());
+    }
+    return false;
+  }
+
+  /**
+   * Evaluate the given expression as far as possible with only the given edge. Conjunctions and
+   * disjunctions are evaluated from left to right as in {@link And#eval} and {@link Or#eval}. An
+   * operand may only decide the value if all operands that {@link And#eval} and {@link Or#eval}
+   * would evaluate before it are decided on the edge, too: other operands may bind transition
+   * variables (e.g., {@link AutomatonBoolExpr.MatchCFAEdgeASTComparison}) that the actions of the
+   * transition use, and these bindings would be missing if the transfer relation skips the
+   * evaluation of the trigger.
+   *
+   * @return the value of the expression, or null if it depends on more than the edge
+   */
+  private @Nullable Boolean evalOnEdge(AutomatonBoolExpr pExpr, CFAEdge pEdge)
+      throws CPATransferException {
+    if (pExpr.isEdgeOnly()) {
+      ResultValue<Boolean> result =
+          pExpr.eval(new AutomatonExpressionArguments(null, null, null, pEdge, logger));
+      return result.canNotEvaluate() ? null : result.getValue();
+
+    } else if (pExpr instanceof And) {
+      Boolean a = evalOnEdge(((And) pExpr).a, pEdge);
+      if (a == null) {
+        return null;
+      }
+      return a ? evalOnEdge(((And) pExpr).b, pEdge) : Boolean.FALSE;
+
+    } else if (pExpr instanceof Or) {
+      Boolean a = evalOnEdge(((Or) pExpr).a, pEdge);
+      if (a == null) {
+        return null;
+      }
+      return a ? Boolean.TRUE : evalOnEdge(((Or) pExpr).b, pEdge);
+
+    } else if (pExpr instanceof Negation) {
+      Boolean a = evalOnEdge(((Negation) pExpr).getA(), pEdge);
+      return a == null ? null : !a;
+    }
+    return null;
+  }
+}
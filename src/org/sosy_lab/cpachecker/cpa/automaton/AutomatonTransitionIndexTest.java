@@ -0,0 +1,103 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+
+public class AutomatonTransitionIndexTest {
+
+  private final AutomatonTransitionIndex index =
+      new AutomatonTransitionIndex(LogManager.createTestLogManager());
+
+  private final CFAEdge edge =
+      new BlankEdge("x = 1;", FileLocation.DUMMY, new CFANode("f"), new CFANode("f"), "x = 1;");
+
+  private static AutomatonTransition transition(AutomatonBoolExpr pTrigger) {
+    return new AutomatonTransition(
+        pTrigger, ImmutableList.of(), ImmutableList.of(), AutomatonInternalState.BOTTOM);
+  }
+
+  @Test
+  public void testEdgeOnlyTriggers() throws CPATransferException {
+    AutomatonInternalState state =
+        new AutomatonInternalState(
+            "S",
+            ImmutableList.of(
+                transition(new AutomatonBoolExpr.MatchCFAEdgeExact("x = 1;")),
+                transition(new AutomatonBoolExpr.MatchCFAEdgeRegEx("y.*")),
+                transition(AutomatonBoolExpr.CheckAllCpasForTargetState.INSTANCE),
+                transition(
+                    new AutomatonBoolExpr.And(
+                        AutomatonBoolExpr.MatchAssumeEdge.INSTANCE,
+                        AutomatonBoolExpr.CheckAllCpasForTargetState.INSTANCE)),
+                transition(
+                    new AutomatonBoolExpr.Or(
+                        new AutomatonBoolExpr.MatchCFAEdgeRegEx("x.*"),
+                        AutomatonBoolExpr.CheckAllCpasForTargetState.INSTANCE)),
+                // the first operand is evaluated first and might bind transition variables
+                transition(
+                    new AutomatonBoolExpr.Or(
+                        AutomatonBoolExpr.CheckAllCpasForTargetState.INSTANCE,
+                        new AutomatonBoolExpr.MatchCFAEdgeRegEx("x.*"))),
+                transition(
+                    new AutomatonBoolExpr.And(
+                        AutomatonBoolExpr.CheckAllCpasForTargetState.INSTANCE,
+                        AutomatonBoolExpr.MatchAssumeEdge.INSTANCE))));
+
+    byte[] matches = index.getMatches(state, edge);
+    assertThat(matches)
+        .isEqualTo(
+            new byte[] {
+              AutomatonTransitionIndex.MATCHES,
+              AutomatonTransitionIndex.DOES_NOT_MATCH,
+              AutomatonTransitionIndex.UNKNOWN,
+              AutomatonTransitionIndex.DOES_NOT_MATCH,
+              AutomatonTransitionIndex.MATCHES,
+              AutomatonTransitionIndex.UNKNOWN,
+              AutomatonTransitionIndex.UNKNOWN
+            });
+
+    // computed only once
+    assertThat(index.getMatches(state, edge)).isSameAs(matches);
+  }
+
+  @Test
+  public void testStateWithoutEdgeOnlyTriggers() throws CPATransferException {
+    AutomatonInternalState state =
+        new AutomatonInternalState(
+            "S",
+            ImmutableList.of(transition(AutomatonBoolExpr.CheckAllCpasForTargetState.INSTANCE)));
+
+    assertThat(index.getMatches(state, edge)).isNull();
+  }
+}
@@ -30,6 +30,7 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -126,6 +127,14 @@ public class ControlAutomatonCPA
   )
   private boolean topOnFinalSelfLoopingState = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Cache for each automaton state and CFA edge which transitions can match, "
+            + "based on the parts of the transition triggers that only depend on the edge."
+  )
+  private boolean useTransitionIndex = true;
+
   private final Automaton automaton;
   private final AutomatonState topState = new AutomatonState.TOP(this);
   private final AutomatonState bottomState = new AutomatonState.BOTTOM(this);
@@ -134,6 +143,7 @@ public class ControlAutomatonCPA
   final AutomatonStatistics stats = new AutomatonStatistics(this);
   private final CFA cfa;
   private final LogManager logger;
+  private final @Nullable AutomatonTransitionIndex transitionIndex;
 
   protected ControlAutomatonCPA(@OptionalAnnotation Automaton pAutomaton,
       Configuration pConfig, LogManager pLogger, CFA pCFA)
@@ -155,6 +165,9 @@ public class ControlAutomatonCPA
 
     pLogger.log(Level.FINEST, "Automaton", automaton.getName(), "loaded.");
 
+    // shared by all transfer relations of this CPA
+    transitionIndex = useTransitionIndex ? new AutomatonTransitionIndex(pLogger) : null;
+
     if (export) {
       if (dotExportFile != null) {
         try (Writer w =
@@ -200,6 +213,11 @@ public class ControlAutomatonCPA
     return this.automaton;
   }
 
+  @Nullable
+  AutomatonTransitionIndex getTransitionIndex() {
+    return transitionIndex;
+  }
+
   public void registerInAutomatonInfo(AutomatonInfo info) {
     info.register(automaton, this);
   }
@@ -0,0 +1,108 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+
+/**
+ * Compact representation of a GraphML element (a graph, node, or edge) of a witness, consisting
+ * of its attributes and its data entries. In contrast to a DOM element, it does not store any
+ * whitespace, the element structure, or the key attributes of the data elements, and all strings
+ * are expected to be interned by the reader that creates the elements.
+ */
+final class GraphMLElement {
+
+  private final String tag;
+
+  private final ImmutableMap<String, String> attributes;
+
+  /** keys and values of the data entries in document order, in two parallel arrays. */
+  private final String[] dataKeys;
+
+  private final String[] dataValues;
+
+  GraphMLElement(
+      String pTag, Map<String, String> pAttributes, List<String> pDataKeys, List<String> pValues) {
+    checkArgument(pDataKeys.size() == pValues.size());
+    tag = Objects.requireNonNull(pTag);
+    attributes = ImmutableMap.copyOf(pAttributes);
+    dataKeys = pDataKeys.toArray(new String[pDataKeys.size()]);
+    dataValues = pValues.toArray(new String[pValues.size()]);
+  }
+
+  String getTag() {
+    return tag;
+  }
+
+  @Nullable
+  String getAttribute(String pName) {
+    return attributes.get(pName);
+  }
+
+  /** Return the keys of all data entries of this element. */
+  List<String> getDataKeys() {
+    return Arrays.asList(dataKeys);
+  }
+
+  /**
+   * Return the values of all data entries with the given key. For backwards compatibility, the
+   * key "type" is accepted for the witness type if there is no entry with the proper key.
+   */
+  Set<String> getData(KeyDef pKey) {
+    ImmutableSet.Builder<String> result = ImmutableSet.builder();
+    boolean found = false;
+    String alternative = null;
+    for (int i = 0; i < dataKeys.length; i++) {
+      if (dataKeys[i].equals(pKey.id)) {
+        result.add(dataValues[i]);
+        found = true;
+      } else if (!found
+          && alternative == null
+          && pKey.equals(KeyDef.WITNESS_TYPE)
+          && dataKeys[i].equals("type")) {
+        alternative = dataValues[i];
+      }
+    }
+    if (!found && alternative != null) {
+      return ImmutableSet.of(alternative);
+    }
+    return result.build();
+  }
+
+  @Override
+  public String toString() {
+    String id = attributes.get("id");
+    return id != null ? id : tag + attributes;
+  }
+}
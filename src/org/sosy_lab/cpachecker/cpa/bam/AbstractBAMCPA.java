@@ -29,10 +29,12 @@ import com.google.common.collect.Iterables;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -51,7 +53,9 @@ import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBA
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.cpa.arg.ARGStatistics;
 import org.sosy_lab.cpachecker.cpa.bam.TimedReducer.ReducerStatistics;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheWithEviction;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMSummaryStore;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 @Options(prefix = "cpa.bam")
@@ -99,6 +103,17 @@ public abstract class AbstractBAMCPA extends AbstractSingleWrapperCPA {
   )
   private boolean useCopyOnWriteRefinement = false;
 
+  @Option(
+    secure = true,
+    description =
+        "Memory limit (in MB) for the reached sets stored in the BAM cache. "
+            + "If the estimated size of the cache exceeds this limit, completed entries are "
+            + "evicted and recomputed when needed again. Zero means no limit. "
+            + "Aggressive caching is not supported together with a memory limit."
+  )
+  @IntegerOption(min = 0)
+  private int cacheMemoryLimit = 0;
+
   final Timer blockPartitioningTimer = new Timer();
   final ReducerStatistics reducerStatistics;
 
@@ -177,6 +192,26 @@ public abstract class AbstractBAMCPA extends AbstractSingleWrapperCPA {
     }
   }
 
+  /**
+   * Create a cache that evicts entries when the configured memory limit is exceeded.
+   *
+   * @return the new cache, or null if no memory limit is configured.
+   */
+  protected @Nullable BAMCacheWithEviction createCacheWithEviction(Configuration pConfig)
+      throws InvalidConfigurationException {
+    if (cacheMemoryLimit == 0) {
+      return null;
+    }
+    BAMCacheWithEviction cache =
+        new BAMCacheWithEviction(pConfig, getReducer(), logger, cacheMemoryLimit * 1024L * 1024L);
+    if (cache.evictsReferencedEntries() && useCopyOnWriteRefinement) {
+      throw new InvalidConfigurationException(
+          "Evicting referenced entries of the BAM cache is not supported "
+              + "together with copy-on-write refinement.");
+    }
+    return cache;
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     assert !Iterables.any(pStatsCollection, Predicates.instanceOf(ARGStatistics.class))
@@ -185,6 +220,9 @@ public abstract class AbstractBAMCPA extends AbstractSingleWrapperCPA {
     pStatsCollection.add(argStats);
     pStatsCollection.add(exporter);
     pStatsCollection.add(getData().getCache());
+    if (getSummaryStore() != null) {
+      pStatsCollection.add(getSummaryStore());
+    }
     super.collectStatistics(pStatsCollection);
   }
 
@@ -195,6 +233,12 @@ public abstract class AbstractBAMCPA extends AbstractSingleWrapperCPA {
   /** only public for statistics */
   public abstract BAMDataManager getData();
 
+  /** Return the persistent store for block summaries, if one is used. */
+  @Nullable
+  BAMSummaryStore getSummaryStore() {
+    return null;
+  }
+
   boolean doPrecisionRefinementForAllStates() {
     return doPrecisionRefinementForAllStates;
   }
@@ -25,9 +25,13 @@ package org.sosy_lab.cpachecker.cpa.bam;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -48,8 +52,10 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheAggressiveImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheWithEviction;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerImpl;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMSummaryStore;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
@@ -64,6 +70,7 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
   private final ProofChecker wrappedProofChecker;
   private final BAMDataManager data;
   private final BAMPCCManager bamPccManager;
+  private final @Nullable BAMSummaryStore summaryStore;
 
   @Option(name = "handleRecursiveProcedures", secure = true,
       description = "BAM allows to analyse recursive procedures. This strongly depends on the underlying CPA. "
@@ -77,6 +84,27 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
   )
   private boolean aggressiveCaching = true;
 
+  @Option(
+    secure = true,
+    description =
+        "File with summaries of analyzed blocks from earlier runs with the same configuration "
+            + "and specification, e.g., for other revisions of the same program. "
+            + "Summaries are only reused for blocks with identical CFA, "
+            + "and only if the abstract states and precisions are serializable."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path summaryStoreInputFile = null;
+
+  @Option(
+    secure = true,
+    description =
+        "File for storing summaries of analyzed blocks, such that they can be reused in later "
+            + "runs (cf. option cpa.bam.summaryStoreInputFile). If this is the same file as "
+            + "the input file, new summaries are appended to it, otherwise it is overwritten."
+  )
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path summaryStoreOutputFile = null;
+
   private BAMCPA(
       ConfigurableProgramAnalysis pCpa,
       Configuration config,
@@ -95,13 +123,41 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
       this.wrappedProofChecker = null;
     }
 
-    final BAMCache cache;
-    if (aggressiveCaching) {
+    BAMCacheWithEviction cacheWithEviction = createCacheWithEviction(config);
+    BAMCache cache = cacheWithEviction;
+    if (cache != null) {
+      if (aggressiveCaching) {
+        logger.log(Level.INFO, "Aggressive caching is disabled due to the BAM cache memory limit.");
+      }
+    } else if (aggressiveCaching) {
       cache = new BAMCacheAggressiveImpl(config, getReducer(), logger);
     } else {
       cache = new BAMCacheImpl(config, getReducer(), logger);
     }
     data = new BAMDataManagerImpl(cache, pReachedSetFactory, pLogger);
+    if (cacheWithEviction != null) {
+      cacheWithEviction.setDataManager(data);
+    }
+
+    boolean useSummaryStore = summaryStoreInputFile != null || summaryStoreOutputFile != null;
+    if (useSummaryStore && (handleRecursiveProcedures || useCopyOnWriteRefinement())) {
+      logger.log(
+          Level.WARNING,
+          "BAM summary store is not supported for recursive procedures "
+              + "or copy-on-write refinement.");
+      summaryStore = null;
+    } else if (useSummaryStore) {
+      summaryStore =
+          new BAMSummaryStore(
+              summaryStoreInputFile,
+              summaryStoreOutputFile,
+              config,
+              pSpecification,
+              logger,
+              this);
+    } else {
+      summaryStore = null;
+    }
 
     bamPccManager = new BAMPCCManager(
         wrappedProofChecker,
@@ -159,6 +215,12 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
     return data;
   }
 
+  @Override
+  @Nullable
+  BAMSummaryStore getSummaryStore() {
+    return summaryStore;
+  }
+
   public BAMPCCManager getBamPccManager() {
     return bamPccManager;
   }
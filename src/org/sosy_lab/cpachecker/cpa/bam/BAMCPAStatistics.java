@@ -29,6 +29,8 @@ import java.util.List;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheWithEviction;
 
 /**
  * Prints some BAM related statistics
@@ -70,6 +72,17 @@ class BAMCPAStatistics implements Statistics {
       put(out, 1, refiner.removeCachedSubtreeTimer);
     }
 
+    BAMCache cache = cpa.getData().getCache();
+    if (cache instanceof BAMCacheWithEviction) {
+      BAMCacheWithEviction cacheWithEviction = (BAMCacheWithEviction) cache;
+      out.println();
+      put(out, 0, cacheWithEviction.getCacheHits());
+      put(out, 0, cacheWithEviction.getPartialCacheHits());
+      put(out, 0, cacheWithEviction.getCacheMisses());
+      put(out, 0, cacheWithEviction.getEvictions());
+      put(out, 1, cacheWithEviction.getReferencedEvictions());
+    }
+
     //Add to reached set all states from BAM cache
     // These lines collect all states for 'Coverage Reporting'
 //    Collection<ReachedSet> cachedStates = data.bamCache.getAllCachedReachedStates();
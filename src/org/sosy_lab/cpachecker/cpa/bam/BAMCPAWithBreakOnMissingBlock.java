@@ -39,6 +39,7 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheSynchronized;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheWithEviction;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerSynchronized;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -71,8 +72,17 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
     super(pCpa, pConfig, pLogger, pShutdownNotifier, pSpecification, pCfa);
     pConfig.inject(this);
 
-    cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+    BAMCacheWithEviction cacheWithEviction = createCacheWithEviction(pConfig);
+    if (cacheWithEviction != null) {
+      // already thread-safe
+      cache = cacheWithEviction;
+    } else {
+      cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+    }
     data = new BAMDataManagerSynchronized(cache, reachedsetFactory, pLogger);
+    if (cacheWithEviction != null) {
+      cacheWithEviction.setDataManager(data);
+    }
   }
 
   @Override
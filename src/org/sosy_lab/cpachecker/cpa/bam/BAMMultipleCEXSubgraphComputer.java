@@ -126,6 +126,10 @@ public class BAMMultipleCEXSubgraphComputer extends BAMSubgraphComputer{
       // add parent for further processing
       openElements.addAll(currentState.getParents());
 
+      if (data.hasEvictedInitialState(currentState)) {
+        throw new MissingBlockException();
+      }
+
       if (data.hasInitialState(currentState) && !inCallstackFunction) {
 
         // If child-state is an expanded state, the child is at the exit-location of a block.
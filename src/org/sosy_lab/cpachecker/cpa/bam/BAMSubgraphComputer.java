@@ -38,6 +38,7 @@ import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.cfa.blocks.BlockPartitioning;
@@ -50,6 +51,7 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMSummaryStore;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.Pair;
 
@@ -60,6 +62,7 @@ public class BAMSubgraphComputer {
   protected final BAMDataManager data;
   private final LogManager logger;
   private final boolean useCopyOnWriteRefinement;
+  private final @Nullable BAMSummaryStore summaryStore;
 
   BAMSubgraphComputer(AbstractBAMCPA bamCpa) {
     this.partitioning = bamCpa.getBlockPartitioning();
@@ -67,6 +70,7 @@ public class BAMSubgraphComputer {
     this.data = bamCpa.getData();
     this.logger = bamCpa.getLogger();
     useCopyOnWriteRefinement = bamCpa.useCopyOnWriteRefinement();
+    summaryStore = bamCpa.getSummaryStore();
   }
 
   /**
@@ -157,6 +161,15 @@ public class BAMSubgraphComputer {
         }
       }
 
+      if (data.hasEvictedInitialState(currentState)) {
+        // the reached-set of the block was evicted from the cache, so we analyze it again.
+        logger.log(
+            Level.FINE,
+            "Block entry refers to an evicted reached-set, i.e., the block is re-analyzed.");
+        ARGInPlaceSubtreeRemover.removeSubtree(reachedSet, currentState);
+        throw new MissingBlockException();
+      }
+
       if (data.hasInitialState(currentState)) {
 
         // If child-state is an expanded state, the child is at the exit-location of a block.
@@ -238,6 +251,15 @@ public class BAMSubgraphComputer {
         throw new MissingBlockException();
       }
 
+      // summaries from the summary store do not contain the ARG of the block.
+      if (summaryStore != null && summaryStore.isLoadedState(reducedTarget)) {
+        logger.log(
+            Level.FINE,
+            "Target state refers to a stored summary without ARG, i.e., the block is re-analyzed.");
+        summaryStore.discardLoadedSummary(reducedTarget);
+        throw new MissingBlockException();
+      }
+
       final ReachedSet reachedSet = data.getReachedSetForInitialState(expandedRoot, reducedTarget);
       assert reachedSet.contains(reducedTarget)
           : String.format(
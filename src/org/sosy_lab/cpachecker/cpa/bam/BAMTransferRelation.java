@@ -27,6 +27,7 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.isTargetState;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -51,6 +52,7 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMSummaryStore;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackCPA;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -67,6 +69,7 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
 
   private final CPAAlgorithmFactory algorithmFactory;
   protected final BAMPCCManager bamPccManager;
+  private final @Nullable BAMSummaryStore summaryStore;
 
   // Callstack-CPA is used for additional recursion handling
   private final CallstackTransferRelation callstackTransfer;
@@ -88,6 +91,7 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
                 .getTransferRelation();
     bamPccManager = new BAMPCCManager(
         wrappedChecker, pConfig, partitioning, wrappedReducer, bamCpa, data);
+    summaryStore = bamCpa.getSummaryStore();
   }
 
   @Override
@@ -293,11 +297,23 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
       entry =
           data.createAndRegisterNewReachedSet(
               reducedInitialState, reducedInitialPrecision, innerSubtree);
-      logger.log(
-          Level.FINEST,
-          "Cache miss: starting recursive CPAAlgorithm with new initial reached-set.");
       reached = entry.getReachedSet();
-      reducedResult = performCompositeAnalysisWithCPAAlgorithm(reached, innerSubtree);
+      final HashCode summaryKey =
+          getSummaryKey(reducedInitialState, reducedInitialPrecision, innerSubtree);
+      final Collection<AbstractState> storedResult =
+          summaryKey == null ? null : summaryStore.load(summaryKey, entry, innerSubtree);
+      if (storedResult != null) {
+        logger.log(Level.FINEST, "Cache miss: using summary from the summary store.");
+        reducedResult = storedResult;
+      } else {
+        logger.log(
+            Level.FINEST,
+            "Cache miss: starting recursive CPAAlgorithm with new initial reached-set.");
+        reducedResult = performCompositeAnalysisWithCPAAlgorithm(reached, innerSubtree);
+        if (summaryKey != null) {
+          summaryStore.store(summaryKey, reached, reducedResult, innerSubtree);
+        }
+      }
       assert reducedResult != null;
       statesForFurtherAnalysis = filterResultStatesForFurtherAnalysis(reducedResult, null);
 
@@ -349,6 +365,16 @@ public class BAMTransferRelation extends AbstractBAMTransferRelation<CPAExceptio
     return Pair.of(statesForFurtherAnalysis, reached);
   }
 
+  /** Return the key for the summary store, or null if the summary store can not be used. */
+  private @Nullable HashCode getSummaryKey(
+      AbstractState reducedInitialState, Precision reducedInitialPrecision, Block innerSubtree) {
+    if (summaryStore == null || bamPccManager.isPCCEnabled()) {
+      return null;
+    }
+    return summaryStore.computeKey(
+        (ARGState) reducedInitialState, reducedInitialPrecision, innerSubtree);
+  }
+
   /**
    * We try to get a smaller set of states for further analysis.
    *
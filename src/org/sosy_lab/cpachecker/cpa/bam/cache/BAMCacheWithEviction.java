@@ -0,0 +1,405 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Collections2;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+/**
+ * A thread-safe BAM cache with a memory budget.
+ *
+ * <p>The size of the cache is the number of states in all cached reached sets, and the budget is
+ * converted into a number of states with a fixed estimated size per state. Whenever the cache
+ * contains more states than that, completed entries are evicted until the size drops below the
+ * budget again. An evicted block is simply recomputed on its next use.
+ *
+ * <p>An evicted reached set is also removed from the {@link BAMDataManager}, such that it can be
+ * garbage-collected. Entries that are still being analyzed (i.e., that have no exit states) are
+ * never evicted. Entries whose reached set is still needed for reconstructing the ARG (i.e., that
+ * are referenced from a block entry in the current ARG) are only evicted if this is enabled and
+ * evicting all other entries does not suffice. Such blocks are re-analyzed when a counterexample
+ * passes through them.
+ *
+ * <p>Lookups do not lock, only the eviction itself is guarded by a lock, which is never waited
+ * for: if one thread is already evicting, other threads just continue.
+ */
+@Options(prefix = "cpa.bam")
+public class BAMCacheWithEviction implements BAMCache {
+
+  public enum EvictionStrategy {
+    /** evict the least-recently used entries first */
+    LRU,
+    /** evict the entries with the smallest ratio of computation time to size first */
+    COST_BENEFIT,
+  }
+
+  @Option(
+    secure = true,
+    name = "cache.evictionStrategy",
+    description = "which entries of the BAM cache to evict first when the memory limit is reached"
+  )
+  private EvictionStrategy evictionStrategy = EvictionStrategy.LRU;
+
+  @Option(
+    secure = true,
+    name = "cache.estimatedStateSize",
+    description =
+        "estimated number of bytes retained by a single abstract state in a cached reached set, "
+            + "used for converting the memory limit of the BAM cache into a number of states"
+  )
+  @IntegerOption(min = 1)
+  private int estimatedStateSize = 2048;
+
+  @Option(
+    secure = true,
+    name = "cache.evictReferencedEntries",
+    description =
+        "also evict reached sets of the BAM cache that are still referenced from the ARG "
+            + "if evicting all other entries does not suffice for the memory limit. "
+            + "These blocks are analyzed again when a counterexample passes through them. "
+            + "Not supported together with copy-on-write refinement."
+  )
+  private boolean evictReferencedEntries = false;
+
+  /** Fraction of the memory limit that remains used after an eviction. */
+  private static final double EVICTION_TARGET = 0.9;
+
+  private final Map<CacheKey, TimedCacheEntry> cache = new ConcurrentHashMap<>();
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicLong cachedStates = new AtomicLong();
+  private final Lock evictionLock = new ReentrantLock();
+  private final long stateLimit;
+
+  private volatile @Nullable BAMCacheEntry lastAnalyzedEntry = null;
+  private volatile @Nullable BAMDataManager data = null;
+  private final Reducer reducer;
+  private final LogManager logger;
+
+  private final StatCounter cacheHits = new StatCounter("Number of cache hits");
+  private final StatCounter partialCacheHits = new StatCounter("Number of partial cache hits");
+  private final StatCounter cacheMisses = new StatCounter("Number of cache misses");
+  private final StatCounter evictions = new StatCounter("Number of evicted cache entries");
+  private final StatCounter referencedEvictions =
+      new StatCounter("Number of evicted cache entries referenced from the ARG");
+  private final StatTimer evictionTimer = new StatTimer("Time for cache eviction");
+
+  /**
+   * @param pMemoryLimit the memory budget of the cache in bytes
+   */
+  public BAMCacheWithEviction(
+      Configuration pConfig, Reducer pReducer, LogManager pLogger, long pMemoryLimit)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    checkArgument(pMemoryLimit > 0, "memory limit must be positive");
+    reducer = checkNotNull(pReducer);
+    logger = checkNotNull(pLogger);
+    stateLimit = Math.max(1, pMemoryLimit / estimatedStateSize);
+  }
+
+  /** Whether reached sets that are still referenced from the ARG can be evicted. */
+  public boolean evictsReferencedEntries() {
+    return evictReferencedEntries;
+  }
+
+  /**
+   * Set the data manager that references the cached reached sets. Evicted reached sets are removed
+   * from it, and reached sets it still needs are not evicted.
+   */
+  public void setDataManager(BAMDataManager pData) {
+    data = checkNotNull(pData);
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext, ReachedSet pItem) {
+    TimedCacheEntry entry = new TimedCacheEntry(pItem);
+    TimedCacheEntry previous = cache.put(new CacheKey(pStateKey, pPrecisionKey, pContext), entry);
+    if (previous != null) {
+      cachedStates.addAndGet(-previous.accountedStates);
+    }
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    TimedCacheEntry entry = cache.get(new CacheKey(pStateKey, pPrecisionKey, pContext));
+    lastAnalyzedEntry = entry;
+    if (entry == null) {
+      cacheMisses.inc();
+      logger.log(Level.FINEST, "CACHE_ACCESS: entry not available");
+      return null;
+    }
+    entry.lastAccess = clock.incrementAndGet();
+    if (entry.getExitStates() == null) {
+      partialCacheHits.inc();
+    } else {
+      cacheHits.inc();
+    }
+    logger.log(Level.FINEST, "CACHE_ACCESS: precise entry");
+    return entry;
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    BAMCacheEntry entry = lastAnalyzedEntry;
+    return entry == null ? null : entry.getRootOfBlock();
+  }
+
+  @Override
+  public boolean containsPreciseKey(
+      AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+    return cache.containsKey(new CacheKey(pStateKey, pPrecisionKey, pContext));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return Collections2.transform(cache.values(), BAMCacheEntry::getReachedSet);
+  }
+
+  @Override
+  public void clear() {
+    cache.clear();
+    cachedStates.set(0);
+    lastAnalyzedEntry = null;
+  }
+
+  /**
+   * Evict completed entries if the cache contains more states than allowed by the memory limit.
+   *
+   * @param pCurrentEntry the entry that was just completed, which is not evicted, because its
+   *     reached set is about to be registered for the ARG
+   */
+  private void evictIfNecessary(TimedCacheEntry pCurrentEntry) {
+    if (cachedStates.get() <= stateLimit || !evictionLock.tryLock()) {
+      return;
+    }
+    evictionTimer.start();
+    try {
+      // re-compute all sizes, because reached sets can shrink during refinement
+      long states = 0;
+      List<Entry<CacheKey, TimedCacheEntry>> candidates = new ArrayList<>();
+      for (Entry<CacheKey, TimedCacheEntry> entry : cache.entrySet()) {
+        TimedCacheEntry value = entry.getValue();
+        states += value.updateSize();
+        if (value.getExitStates() != null && value != pCurrentEntry) {
+          candidates.add(entry);
+        }
+      }
+
+      candidates.sort(Comparator.comparing(Entry::getValue, getComparator()));
+      long targetStates = (long) (stateLimit * EVICTION_TARGET);
+      states = evict(candidates, states, targetStates, false);
+      if (states > targetStates && evictReferencedEntries) {
+        states = evict(candidates, states, targetStates, true);
+      }
+      cachedStates.set(states);
+      logger.log(Level.FINER, "BAM cache evicted entries, it now contains", states, "states");
+    } finally {
+      evictionTimer.stop();
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Evict candidates in the given order until the cache contains at most the target number of
+   * states. Evicted candidates are removed from the list.
+   *
+   * @param pEvictReferenced whether reached sets that are referenced from the ARG are evicted
+   * @return the number of states remaining in the cache
+   */
+  private long evict(
+      List<Entry<CacheKey, TimedCacheEntry>> pCandidates,
+      long pStates,
+      long pTargetStates,
+      boolean pEvictReferenced) {
+    long states = pStates;
+    // Removing an evicted reached set from the data manager can release the reached sets
+    // of blocks that were entered from it, so we repeat until nothing changes anymore.
+    boolean changed = true;
+    while (changed && states > pTargetStates) {
+      changed = false;
+      List<ReachedSet> evicted = new ArrayList<>();
+      Iterator<Entry<CacheKey, TimedCacheEntry>> it = pCandidates.iterator();
+      while (it.hasNext() && states > pTargetStates) {
+        Entry<CacheKey, TimedCacheEntry> entry = it.next();
+        ReachedSet reached = entry.getValue().getReachedSet();
+        BAMDataManager currentData = data;
+        boolean referenced = currentData != null && currentData.isReachedSetReferenced(reached);
+        if (referenced && !pEvictReferenced) {
+          continue;
+        }
+        it.remove();
+        if (cache.remove(entry.getKey(), entry.getValue())) {
+          states -= entry.getValue().accountedStates;
+          evicted.add(reached);
+          evictions.inc();
+          if (referenced) {
+            referencedEvictions.inc();
+          }
+        }
+      }
+      BAMDataManager currentData = data;
+      if (!evicted.isEmpty() && currentData != null) {
+        currentData.removeReachedSets(evicted);
+        changed = true;
+      }
+    }
+    return states;
+  }
+
+  private Comparator<TimedCacheEntry> getComparator() {
+    Comparator<TimedCacheEntry> lru = Comparator.comparingLong(e -> e.lastAccess);
+    switch (evictionStrategy) {
+      case LRU:
+        return lru;
+      case COST_BENEFIT:
+        return Comparator.<TimedCacheEntry>comparingDouble(
+                e -> (double) e.computationTime / Math.max(1, e.accountedStates))
+            .thenComparing(lru);
+      default:
+        throw new AssertionError("unhandled eviction strategy " + evictionStrategy);
+    }
+  }
+
+  public StatCounter getCacheHits() {
+    return cacheHits;
+  }
+
+  public StatCounter getPartialCacheHits() {
+    return partialCacheHits;
+  }
+
+  public StatCounter getCacheMisses() {
+    return cacheMisses;
+  }
+
+  public StatCounter getEvictions() {
+    return evictions;
+  }
+
+  public StatCounter getReferencedEvictions() {
+    return referencedEvictions;
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    put(pOut, "Number of cached reached sets", cache.size());
+    put(pOut, "Number of states in cached reached sets", cachedStates.get());
+    put(pOut, "Maximal number of states in cached reached sets", stateLimit);
+    put(pOut, 0, evictionTimer);
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+
+  /** A cache entry that tracks its size and how long the analysis of its block took. */
+  private class TimedCacheEntry extends BAMCacheEntry {
+
+    private final long creationTime = System.nanoTime();
+    private volatile long lastAccess = clock.incrementAndGet();
+    private volatile long computationTime = 0;
+    private volatile long accountedStates = 0;
+
+    private TimedCacheEntry(ReachedSet pRs) {
+      super(pRs);
+    }
+
+    @Override
+    public void setExitStates(Collection<AbstractState> pExitStates) {
+      super.setExitStates(pExitStates);
+      computationTime = System.nanoTime() - creationTime;
+      long oldStates = accountedStates;
+      cachedStates.addAndGet(updateSize() - oldStates);
+      evictIfNecessary(this);
+    }
+
+    private long updateSize() {
+      accountedStates = getReachedSet().size();
+      return accountedStates;
+    }
+  }
+
+  private final class CacheKey {
+
+    private final Object wrappedHash;
+    private final Block context;
+
+    private CacheKey(AbstractState pStateKey, Precision pPrecisionKey, Block pContext) {
+      wrappedHash = reducer.getHashCodeForState(pStateKey, pPrecisionKey);
+      context = checkNotNull(pContext);
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      return context.equals(other.context) && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+  }
+}
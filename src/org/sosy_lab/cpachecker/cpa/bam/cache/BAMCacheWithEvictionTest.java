@@ -0,0 +1,173 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+public class BAMCacheWithEvictionTest {
+
+  private static final int STATES_PER_BLOCK = 4;
+
+  private final Precision precision = SingletonPrecision.getInstance();
+  private final Block block = mock(Block.class);
+
+  private BAMCacheWithEviction cache;
+  private BAMDataManager data;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    createCache(false);
+  }
+
+  private void createCache(boolean pEvictReferenced) throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("analysis.reachedSet", "NORMAL")
+            .setOption("cpa.bam.cache.estimatedStateSize", "100")
+            .setOption("cpa.bam.cache.evictReferencedEntries", Boolean.toString(pEvictReferenced))
+            .build();
+    LogManager logger = LogManager.createTestLogManager();
+    Reducer reducer = mock(Reducer.class);
+    when(reducer.getHashCodeForState(any(), any())).thenAnswer(call -> call.getArgument(0));
+
+    // 10 states fit into the cache
+    cache = new BAMCacheWithEviction(config, reducer, logger, 10 * 100);
+    data = new BAMDataManagerImpl(cache, new ReachedSetFactory(config, logger), logger);
+    cache.setDataManager(data);
+  }
+
+  /** Analyze a block that is entered from the given state of the main ARG. */
+  private ReachedSet analyzeBlock(ARGState pBlockEntry) {
+    ARGState root = new ARGState(mock(AbstractState.class), null);
+    BAMCacheEntry entry = data.createAndRegisterNewReachedSet(root, precision, block);
+    ReachedSet reached = entry.getReachedSet();
+    ARGState exit = root;
+    for (int i = 1; i < STATES_PER_BLOCK; i++) {
+      exit = new ARGState(mock(AbstractState.class), exit);
+      reached.add(exit, precision);
+    }
+    data.registerInitialState(pBlockEntry, exit, reached);
+    entry.setExitStates(ImmutableList.of(exit));
+    return reached;
+  }
+
+  @Test
+  public void referencedReachedSetsAreNotEvicted() {
+    List<ARGState> blockEntries = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      ARGState blockEntry = new ARGState(mock(AbstractState.class), null);
+      blockEntries.add(blockEntry);
+      analyzeBlock(blockEntry);
+    }
+
+    // the cache is over its limit, but all reached sets are needed for the ARG
+    assertThat(cache.getAllCachedReachedStates()).hasSize(5);
+    assertThat(cache.getEvictions().getValue()).isEqualTo(0);
+    for (ARGState blockEntry : blockEntries) {
+      assertThat(data.hasInitialState(blockEntry)).isTrue();
+    }
+  }
+
+  @Test
+  public void evictedReachedSetsAreReleased() {
+    List<ARGState> blockEntries = new ArrayList<>();
+    List<ReachedSet> reachedSets = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      ARGState blockEntry = new ARGState(mock(AbstractState.class), null);
+      blockEntries.add(blockEntry);
+      reachedSets.add(analyzeBlock(blockEntry));
+    }
+    assertThat(cache.getAllCachedReachedStates()).hasSize(5);
+
+    // refinement removes the first three block entries from the ARG
+    for (ARGState blockEntry : blockEntries.subList(0, 3)) {
+      blockEntry.removeFromARG();
+    }
+    ReachedSet current = analyzeBlock(new ARGState(mock(AbstractState.class), null));
+
+    assertThat(cache.getEvictions().getValue()).isEqualTo(3);
+    assertThat(cache.getAllCachedReachedStates())
+        .containsExactly(reachedSets.get(3), reachedSets.get(4), current);
+    for (ARGState blockEntry : blockEntries.subList(0, 3)) {
+      assertThat(data.hasInitialState(blockEntry)).isFalse();
+    }
+    for (ReachedSet reached : reachedSets.subList(0, 3)) {
+      assertThat(data.getNonReducedInitialStates(reached.getFirstState())).isEmpty();
+    }
+    for (ARGState blockEntry : blockEntries.subList(3, 5)) {
+      assertThat(data.hasInitialState(blockEntry)).isTrue();
+    }
+  }
+
+  @Test
+  public void referencedReachedSetsAreEvictedIfEnabled() throws InvalidConfigurationException {
+    createCache(true);
+    List<ARGState> blockEntries = new ArrayList<>();
+    List<ReachedSet> reachedSets = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      ARGState blockEntry = new ARGState(mock(AbstractState.class), null);
+      blockEntries.add(blockEntry);
+      reachedSets.add(analyzeBlock(blockEntry));
+    }
+
+    // all reached sets are needed for the ARG, so the oldest ones are evicted nevertheless
+    assertThat(cache.getEvictions().getValue()).isEqualTo(3);
+    assertThat(cache.getReferencedEvictions().getValue()).isEqualTo(3);
+    assertThat(cache.getAllCachedReachedStates())
+        .containsExactly(reachedSets.get(3), reachedSets.get(4));
+    for (ARGState blockEntry : blockEntries.subList(0, 3)) {
+      assertThat(data.hasInitialState(blockEntry)).isFalse();
+      assertThat(data.hasEvictedInitialState(blockEntry)).isTrue();
+    }
+    for (ARGState blockEntry : blockEntries.subList(3, 5)) {
+      assertThat(data.hasInitialState(blockEntry)).isTrue();
+      assertThat(data.hasEvictedInitialState(blockEntry)).isFalse();
+    }
+
+    // block entries removed by the refinement are no longer reported
+    blockEntries.get(0).removeFromARG();
+    assertThat(data.hasEvictedInitialState(blockEntries.get(0))).isFalse();
+  }
+}
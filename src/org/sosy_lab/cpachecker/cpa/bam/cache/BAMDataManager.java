@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.bam.cache;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
@@ -117,6 +118,27 @@ public interface BAMDataManager {
 
   BAMCache getCache();
 
+  /**
+   * Check whether the reached-set is still needed for reconstructing the ARG, i.e., whether a
+   * non-reduced initial state that is still part of the ARG is mapped to it.
+   */
+  boolean isReachedSetReferenced(ReachedSet reachedSet);
+
+  /**
+   * Remove all mappings that refer to the given reached-sets or to their states, such that the
+   * reached-sets can be garbage-collected after they were evicted from the cache. Non-reduced
+   * initial states that still referenced one of the reached-sets are remembered, see {@link
+   * #hasEvictedInitialState}.
+   */
+  void removeReachedSets(Collection<ReachedSet> reachedSets);
+
+  /**
+   * Check whether the abstract state is a non-reduced initial state whose reached-set was evicted
+   * while it was still referenced. The block has to be analyzed again before the ARG can be
+   * reconstructed through this state.
+   */
+  boolean hasEvictedInitialState(AbstractState state);
+
   /** Some benchmarks are complicated and
    *  all intermediate cache entries can not be stored due to large memory consumption,
    *  then there is a way to clear all caches and to restore ARG completely. */
@@ -28,11 +28,14 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Table;
 import com.google.common.collect.Table.Cell;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -80,6 +83,9 @@ public class BAMDataManagerImpl implements BAMDataManager {
 
   private final Map<AbstractState, BlockExitData> expandedStateToBlockExit = new HashMap<>();
 
+  /** Non-reduced initial states whose reached-set was evicted while it was still referenced. */
+  private final Set<AbstractState> evictedInitialStates = Sets.newIdentityHashSet();
+
 
   private static class BlockExitData {
 
@@ -234,6 +240,7 @@ public class BAMDataManagerImpl implements BAMDataManager {
           reachedSet.getFirstState());
     }
     initialStateToReachedSet.put(initialState, exitState, reachedSet);
+    evictedInitialStates.remove(initialState);
     reducedToNonReduced.put(reachedSet.getFirstState(), initialState);
   }
 
@@ -275,6 +282,64 @@ public class BAMDataManagerImpl implements BAMDataManager {
     return expandedStateToBlockExit.containsKey(state);
   }
 
+  @Override
+  public boolean isReachedSetReferenced(ReachedSet reachedSet) {
+    for (AbstractState initialState : reducedToNonReduced.get(reachedSet.getFirstState())) {
+      if (!((ARGState) initialState).isDestroyed()
+          && initialStateToReachedSet.row(initialState).containsValue(reachedSet)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void removeReachedSets(Collection<ReachedSet> reachedSets) {
+    Set<ReachedSet> removed = Sets.newIdentityHashSet();
+    Set<AbstractState> removedStates = Sets.newIdentityHashSet();
+    for (ReachedSet reachedSet : reachedSets) {
+      removed.add(reachedSet);
+      Iterables.addAll(removedStates, reachedSet);
+    }
+
+    // block entries in the remaining ARG that lose their reached-set
+    for (Cell<AbstractState, AbstractState, ReachedSet> cell : initialStateToReachedSet.cellSet()) {
+      AbstractState initialState = cell.getRowKey();
+      if (removed.contains(cell.getValue())
+          && !removedStates.contains(initialState)
+          && !((ARGState) initialState).isDestroyed()) {
+        evictedInitialStates.add(initialState);
+      }
+    }
+    evictedInitialStates.removeIf(
+        state -> removedStates.contains(state) || ((ARGState) state).isDestroyed());
+
+    // mappings of block entries inside the removed reached-sets and of block entries to them
+    initialStateToReachedSet
+        .cellSet()
+        .removeIf(
+            cell ->
+                removedStates.contains(cell.getRowKey()) || removed.contains(cell.getValue()));
+    reducedToNonReduced
+        .entries()
+        .removeIf(
+            entry ->
+                removedStates.contains(entry.getKey())
+                    || removedStates.contains(entry.getValue()));
+    // expanded states inside the removed reached-sets and expanded results of them
+    expandedStateToBlockExit
+        .entrySet()
+        .removeIf(
+            entry ->
+                removedStates.contains(entry.getKey())
+                    || removedStates.contains(entry.getValue().reducedState));
+  }
+
+  @Override
+  public boolean hasEvictedInitialState(AbstractState state) {
+    return evictedInitialStates.contains(state) && !((ARGState) state).isDestroyed();
+  }
+
   private static int getId(AbstractState state) {
     return ((ARGState) state).getStateId();
   }
@@ -326,6 +391,7 @@ public class BAMDataManagerImpl implements BAMDataManager {
   public void clear() {
     initialStateToReachedSet.clear();
     expandedStateToBlockExit.clear();
+    evictedInitialStates.clear();
     bamCache.clear();
     reducedToNonReduced.clear();
   }
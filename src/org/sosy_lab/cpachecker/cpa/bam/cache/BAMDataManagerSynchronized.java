@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.bam.cache;
 
 import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.log.LogManager;
@@ -171,6 +172,27 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
     }
   }
 
+  @Override
+  public boolean isReachedSetReferenced(ReachedSet pReachedSet) {
+    synchronized (this) {
+      return manager.isReachedSetReferenced(pReachedSet);
+    }
+  }
+
+  @Override
+  public void removeReachedSets(Collection<ReachedSet> pReachedSets) {
+    synchronized (this) {
+      manager.removeReachedSets(pReachedSets);
+    }
+  }
+
+  @Override
+  public boolean hasEvictedInitialState(AbstractState pState) {
+    synchronized (this) {
+      return manager.hasEvictedInitialState(pState);
+    }
+  }
+
   @Override
   public boolean addUncachedBlockEntry(CFANode pNode) {
     //Not sure how the option works with ParallelBAM
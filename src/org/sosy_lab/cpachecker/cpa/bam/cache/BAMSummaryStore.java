@@ -0,0 +1,501 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
+import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+
+/**
+ * Persistent store for summaries of BAM blocks, which allows to reuse block summaries across
+ * several runs of the analysis, e.g., for different revisions of the same program.
+ *
+ * <p>A summary consists of the (reduced) exit states of a block together with their precisions. It
+ * is identified by a hash over the relevant configuration options, the contents of the
+ * specification files, the CFA of the block, and the serialized reduced initial state and
+ * precision. States and precisions are serialized with Java serialization as it is done for
+ * proof-carrying code, so only analyses with serializable states and precisions can use the store.
+ *
+ * <p>The global node numbers change with every modification of the program, so they are not
+ * used for summaries. Instead, the nodes of each block are numbered locally in the order of a
+ * breadth-first search from the call nodes of the block, and this numbering is used for hashing
+ * the block and for (de-)serializing states and precisions (cf. {@link
+ * CFAInfo#setSerialNumbering}). States or precisions that refer to CFA nodes outside of the block
+ * cannot be serialized. In this case, or if the serialization fails for another reason, the block
+ * is simply analyzed as usual.
+ *
+ * <p>Summaries are loaded from an input file and stored into an output file, which may be the
+ * same. Both are append-only files of records. The input file is indexed lazily on the first
+ * lookup and each stored summary costs a single disk read when it is loaded.
+ *
+ * <p>Loaded summaries do not contain the inner ARG of the block. If a counterexample passes
+ * through a loaded summary, the summary is discarded with {@link #discardLoadedSummary} and the
+ * block is analyzed again.
+ */
+public class BAMSummaryStore implements Statistics {
+
+  private static final int VERSION = 2;
+
+  private final @Nullable Path inputFile;
+  private final @Nullable Path outputFile;
+  private final LogManager logger;
+  private final ConfigurableProgramAnalysis cpa;
+  private final String configuration;
+  private final HashCode specification;
+
+  /** offsets of the summaries in the input file, initialized lazily. */
+  private @Nullable Map<HashCode, Long> index = null;
+
+  /** keys of the summaries that were written to the output file in this run. */
+  private final Set<HashCode> storedKeys = new HashSet<>();
+
+  /** local numbering of the nodes of each block. */
+  private final Map<Block, ImmutableBiMap<Integer, CFANode>> blockNumberings = new HashMap<>();
+
+  /** loaded exit states, mapped to the reached set and cache entry they belong to. */
+  private final Map<ARGState, BAMCacheEntry> loadedStates = new HashMap<>();
+
+  private final StatTimer indexTimer = new StatTimer("Time for reading the summary index");
+  private final StatTimer loadTimer = new StatTimer("Time for loading summaries");
+  private final StatTimer storeTimer = new StatTimer("Time for storing summaries");
+  private final StatCounter loadedSummaries = new StatCounter("Number of loaded summaries");
+  private final StatCounter storedSummaries = new StatCounter("Number of stored summaries");
+  private final StatCounter discardedSummaries =
+      new StatCounter("Number of discarded loaded summaries");
+  private final StatCounter unserializableKeys =
+      new StatCounter("Number of blocks with unserializable keys");
+
+  /**
+   * Create a new summary store.
+   *
+   * @param pInputFile the file from which summaries are loaded, or null
+   * @param pOutputFile the file into which summaries are stored, or null. If it is different from
+   *     the input file, it is overwritten.
+   */
+  public BAMSummaryStore(
+      @Nullable Path pInputFile,
+      @Nullable Path pOutputFile,
+      Configuration pConfig,
+      Specification pSpecification,
+      LogManager pLogger,
+      ConfigurableProgramAnalysis pCpa)
+      throws InvalidConfigurationException {
+    inputFile = pInputFile;
+    outputFile = pOutputFile;
+    logger = checkNotNull(pLogger);
+    cpa = checkNotNull(pCpa);
+    configuration = getRelevantOptions(pConfig);
+    specification = hashSpecification(pSpecification);
+  }
+
+  /**
+   * Return whether an option may change the summary of a block. This is not the case for options
+   * that only control output, and for the specification, whose files are hashed by their contents.
+   */
+  private static boolean isRelevantOption(String pName) {
+    return !(pName.startsWith("cpa.bam.summaryStore")
+        || pName.startsWith("output.")
+        || pName.startsWith("statistics.")
+        || pName.startsWith("log.")
+        || pName.equals("analysis.programNames")
+        || pName.equals("specification"));
+  }
+
+  private static String getRelevantOptions(Configuration pConfig) {
+    TreeSet<String> options = new TreeSet<>();
+    try (Scanner s = new Scanner(pConfig.asPropertiesString())) {
+      while (s.hasNextLine()) {
+        String line = s.nextLine();
+        int separator = line.indexOf('=');
+        if (separator > 0 && isRelevantOption(line.substring(0, separator).trim())) {
+          options.add(line);
+        }
+      }
+    }
+    return String.join("\n", options);
+  }
+
+  /** Hash the contents of all specification files independently of their names and order. */
+  private static HashCode hashSpecification(Specification pSpecification)
+      throws InvalidConfigurationException {
+    List<HashCode> fileHashes = new ArrayList<>();
+    for (Path specFile : pSpecification.getSpecFiles()) {
+      try {
+        fileHashes.add(Hashing.sha256().hashBytes(Files.readAllBytes(specFile)));
+      } catch (IOException e) {
+        throw new InvalidConfigurationException(
+            "Cannot read specification file " + specFile + " for BAM summary store: "
+                + e.getMessage(),
+            e);
+      }
+    }
+    fileHashes.sort((h1, h2) -> h1.toString().compareTo(h2.toString()));
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (HashCode fileHash : fileHashes) {
+      hasher.putBytes(fileHash.asBytes());
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Compute the key of a block summary.
+   *
+   * @return the key, or null if the state or precision cannot be serialized.
+   */
+  public @Nullable HashCode computeKey(
+      ARGState pReducedState, Precision pReducedPrecision, Block pBlock) {
+    setUpGlobalInfo();
+    ImmutableBiMap<Integer, CFANode> numbering = getNumbering(pBlock);
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(VERSION).putString(configuration, UTF_8).putBytes(specification.asBytes());
+    hashBlock(hasher, pBlock, numbering);
+    CFAInfo.setSerialNumbering(numbering);
+    try {
+      hasher.putBytes(serialize(pReducedState.getWrappedState()));
+      hasher.putBytes(serialize(pReducedPrecision));
+    } catch (IOException e) {
+      logger.logDebugException(e, "Cannot serialize key of BAM block summary");
+      unserializableKeys.inc();
+      return null;
+    } finally {
+      CFAInfo.setSerialNumbering(null);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Number the nodes of a block in the order of a breadth-first search from its call nodes, such
+   * that the numbering depends only on the structure of the block.
+   */
+  private ImmutableBiMap<Integer, CFANode> getNumbering(Block pBlock) {
+    return blockNumberings.computeIfAbsent(pBlock, BAMSummaryStore::computeNumbering);
+  }
+
+  private static ImmutableBiMap<Integer, CFANode> computeNumbering(Block pBlock) {
+    Set<CFANode> blockNodes = pBlock.getNodes();
+    Map<CFANode, Integer> numbering = new HashMap<>();
+    Queue<CFANode> waitlist = new ArrayDeque<>();
+    // the remaining nodes are only relevant for blocks whose nodes are not all reachable
+    for (CFANode start : Iterables.concat(pBlock.getCallNodes(), blockNodes)) {
+      if (numbering.containsKey(start)) {
+        continue;
+      }
+      numbering.put(start, numbering.size());
+      waitlist.add(start);
+      while (!waitlist.isEmpty()) {
+        CFANode node = waitlist.poll();
+        for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+          CFANode successor = edge.getSuccessor();
+          if (blockNodes.contains(successor) && !numbering.containsKey(successor)) {
+            numbering.put(successor, numbering.size());
+            waitlist.add(successor);
+          }
+        }
+      }
+    }
+    return ImmutableBiMap.copyOf(numbering).inverse();
+  }
+
+  private static void hashBlock(
+      Hasher pHasher, Block pBlock, ImmutableBiMap<Integer, CFANode> pNumbering) {
+    for (int i = 0; i < pNumbering.size(); i++) {
+      CFANode node = pNumbering.get(i);
+      pHasher
+          .putString(node.getFunctionName(), UTF_8)
+          .putBoolean(pBlock.isCallNode(node))
+          .putBoolean(pBlock.isReturnNode(node));
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        Integer successor = pNumbering.inverse().get(edge.getSuccessor());
+        pHasher
+            .putInt(successor == null ? -1 : successor)
+            .putString(edge.getEdgeType().name(), UTF_8)
+            .putString(edge.getCode(), UTF_8)
+            .putString(edge.getDescription(), UTF_8);
+      }
+    }
+  }
+
+  /**
+   * Load a summary into the reached set of a new cache entry. The reached set has to contain only
+   * its root state. The loaded exit states are added as children of the root and no state is left
+   * in the waitlist.
+   *
+   * @return the loaded exit states, or null if there is no summary for the key.
+   */
+  public @Nullable Collection<AbstractState> load(
+      HashCode pKey, BAMCacheEntry pEntry, Block pBlock) {
+    Long offset = getIndex().get(pKey);
+    if (offset == null) {
+      return null;
+    }
+
+    final List<AbstractState> states = new ArrayList<>();
+    final List<Precision> precisions = new ArrayList<>();
+    loadTimer.start();
+    CFAInfo.setSerialNumbering(getNumbering(pBlock));
+    try (RandomAccessFile in = new RandomAccessFile(inputFile.toFile(), "r")) {
+      in.seek(offset);
+      byte[] value = new byte[in.readInt()];
+      in.readFully(value);
+      try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(value))) {
+        int size = objects.readInt();
+        for (int i = 0; i < size; i++) {
+          states.add((AbstractState) objects.readObject());
+          precisions.add((Precision) objects.readObject());
+        }
+      }
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.logUserException(Level.WARNING, e, "Could not load BAM block summary");
+      return null;
+    } finally {
+      CFAInfo.setSerialNumbering(null);
+      loadTimer.stop();
+    }
+
+    ReachedSet reached = pEntry.getReachedSet();
+    ARGState root = (ARGState) reached.getFirstState();
+    checkState(reached.size() == 1, "summaries can only be loaded into new reached sets");
+    reached.removeOnlyFromWaitlist(root);
+    List<AbstractState> exitStates = new ArrayList<>(states.size());
+    for (int i = 0; i < states.size(); i++) {
+      ARGState exitState = new ARGState(states.get(i), root);
+      reached.add(exitState, precisions.get(i));
+      reached.removeOnlyFromWaitlist(exitState);
+      loadedStates.put(exitState, pEntry);
+      exitStates.add(exitState);
+    }
+    loadedSummaries.inc();
+    return exitStates;
+  }
+
+  /**
+   * Append the summary of a completely analyzed block to the output file. Summaries that contain
+   * target states or that already exist in the output file are ignored. If the output file is
+   * different from the input file, it contains only the summaries that were computed in this run.
+   */
+  public void store(
+      HashCode pKey, ReachedSet pReached, Collection<AbstractState> pExitStates, Block pBlock) {
+    if (outputFile == null
+        || pReached.hasWaitingState()
+        || pExitStates.stream().anyMatch(AbstractStates::isTargetState)
+        || storedKeys.contains(pKey)
+        || (outputFile.equals(inputFile) && getIndex().containsKey(pKey))) {
+      return;
+    }
+
+    storeTimer.start();
+    CFAInfo.setSerialNumbering(getNumbering(pBlock));
+    try {
+      ByteArrayOutputStream value = new ByteArrayOutputStream();
+      try (ObjectOutputStream objects = new ObjectOutputStream(value)) {
+        objects.writeInt(pExitStates.size());
+        for (AbstractState exitState : pExitStates) {
+          objects.writeObject(((ARGState) exitState).getWrappedState());
+          objects.writeObject(pReached.getPrecision(exitState));
+        }
+      }
+
+      boolean isInputFile = outputFile.equals(inputFile);
+      // a separate output file is overwritten by the first summary of this run
+      StandardOpenOption mode =
+          isInputFile || !storedKeys.isEmpty()
+              ? StandardOpenOption.APPEND
+              : StandardOpenOption.TRUNCATE_EXISTING;
+      long offset =
+          mode == StandardOpenOption.APPEND && Files.exists(outputFile)
+              ? Files.size(outputFile)
+              : 0;
+      byte[] key = pKey.asBytes();
+      try (OutputStream fileOut =
+              Files.newOutputStream(
+                  outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode);
+          DataOutputStream out = new DataOutputStream(fileOut)) {
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeInt(value.size());
+        value.writeTo(out);
+      }
+      storedKeys.add(pKey);
+      if (isInputFile) {
+        // the value starts after the key and the length of the key
+        getIndex().put(pKey, offset + Integer.BYTES + key.length);
+      }
+      storedSummaries.inc();
+    } catch (IOException e) {
+      logger.logDebugException(e, "Cannot store BAM block summary");
+    } finally {
+      CFAInfo.setSerialNumbering(null);
+      storeTimer.stop();
+    }
+  }
+
+  /** Check whether the given state is an exit state of a summary that was loaded from disk. */
+  public boolean isLoadedState(AbstractState pState) {
+    return loadedStates.containsKey(pState);
+  }
+
+  /**
+   * Remove a loaded summary from its reached set, such that the block is analyzed again from its
+   * root state on the next access of its cache entry.
+   *
+   * @param pExitState an exit state of the loaded summary
+   */
+  public void discardLoadedSummary(ARGState pExitState) {
+    BAMCacheEntry entry = loadedStates.get(pExitState);
+    checkState(entry != null, "state %s was not loaded from the summary store", pExitState);
+    ReachedSet reached = entry.getReachedSet();
+    ARGState root = (ARGState) reached.getFirstState();
+    for (ARGState exitState : new ArrayList<>(root.getChildren())) {
+      if (loadedStates.remove(exitState) != null) {
+        reached.remove(exitState);
+        exitState.removeFromARG();
+      }
+    }
+    reached.reAddToWaitlist(root);
+    entry.deleteInfo();
+    discardedSummaries.inc();
+  }
+
+  private Map<HashCode, Long> getIndex() {
+    if (index == null) {
+      index = new HashMap<>();
+      if (inputFile != null && Files.exists(inputFile)) {
+        indexTimer.start();
+        try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(Files.newInputStream(inputFile)))) {
+          long offset = 0;
+          while (true) {
+            int keyLength;
+            try {
+              keyLength = in.readInt();
+            } catch (EOFException e) {
+              break; // end of file
+            }
+            byte[] key = new byte[keyLength];
+            in.readFully(key);
+            offset += Integer.BYTES + keyLength;
+            index.put(HashCode.fromBytes(key), offset);
+            int valueLength = in.readInt();
+            in.skipBytes(valueLength);
+            offset += Integer.BYTES + valueLength;
+          }
+        } catch (IOException e) {
+          logger.logUserException(
+              Level.WARNING, e, "Could not read BAM summary store, ignoring remaining summaries");
+        } finally {
+          indexTimer.stop();
+        }
+      }
+      logger.log(Level.FINE, "Found", index.size(), "summaries in BAM summary store");
+    }
+    return index;
+  }
+
+  /** Formula managers etc. are needed for (de-)serializing states. */
+  private void setUpGlobalInfo() {
+    if (!GlobalInfo.getInstance().getCPA().isPresent()) {
+      GlobalInfo.getInstance().setUpInfoFromCPA(cpa);
+    }
+  }
+
+  private static byte[] serialize(Object pObject) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(pObject);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    put(pOut, 0, loadedSummaries);
+    put(pOut, 0, storedSummaries);
+    put(pOut, 0, discardedSummaries);
+    put(pOut, 0, unserializableKeys);
+    put(pOut, 0, indexTimer);
+    put(pOut, 0, loadTimer);
+    put(pOut, 0, storeTimer);
+  }
+
+  @Override
+  public String getName() {
+    return "BAM summary store";
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Collection;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+public class BAMSummaryStoreTest {
+
+  private static class TestState implements AbstractState, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int value;
+
+    private TestState(int pValue) {
+      value = pValue;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof TestState && ((TestState) pObj).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value;
+    }
+  }
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final Precision precision = SingletonPrecision.getInstance();
+  private final LogManager logger = LogManager.createTestLogManager();
+
+  private Configuration config;
+  private ReachedSetFactory reachedSetFactory;
+  private Path file;
+
+  @Before
+  public void setUp() throws Exception {
+    config = Configuration.builder().setOption("analysis.reachedSet", "NORMAL").build();
+    reachedSetFactory = new ReachedSetFactory(config, logger);
+    file = tempFolder.newFile("summaries").toPath();
+  }
+
+  private BAMSummaryStore createStore(Path pInputFile, Path pOutputFile)
+      throws InvalidConfigurationException {
+    return new BAMSummaryStore(
+        pInputFile,
+        pOutputFile,
+        config,
+        Specification.alwaysSatisfied(),
+        logger,
+        mock(ConfigurableProgramAnalysis.class));
+  }
+
+  /** Create a new block with fresh CFA nodes, i.e., with different node numbers each time. */
+  private static Block createBlock(String pStatement) {
+    CFANode entry = new CFANode("f");
+    CFANode exit = new CFANode("f");
+    BlankEdge edge = new BlankEdge(pStatement, FileLocation.DUMMY, entry, exit, pStatement);
+    entry.addLeavingEdge(edge);
+    exit.addEnteringEdge(edge);
+    return new Block(
+        ImmutableList.of(),
+        ImmutableSet.of(entry),
+        ImmutableSet.of(exit),
+        ImmutableList.of(entry, exit));
+  }
+
+  private BAMCacheEntry createEntry(ARGState pRoot) {
+    ReachedSet reached = reachedSetFactory.create();
+    reached.add(pRoot, precision);
+    return new BAMCacheEntry(reached);
+  }
+
+  /** Analyze a block with a single exit state and store its summary. */
+  private HashCode analyzeAndStore(BAMSummaryStore pStore, Block pBlock) {
+    ARGState root = new ARGState(new TestState(1), null);
+    HashCode key = pStore.computeKey(root, precision, pBlock);
+    assertThat(key).isNotNull();
+
+    ReachedSet reached = createEntry(root).getReachedSet();
+    ARGState exit = new ARGState(new TestState(2), root);
+    reached.add(exit, precision);
+    reached.popFromWaitlist();
+    reached.popFromWaitlist();
+    pStore.store(key, reached, ImmutableList.of(exit), pBlock);
+    return key;
+  }
+
+  @Test
+  public void storeAndReload() throws InvalidConfigurationException {
+    analyzeAndStore(createStore(null, file), createBlock("x = 1;"));
+
+    BAMSummaryStore store = createStore(file, null);
+    Block block = createBlock("x = 1;");
+    ARGState root = new ARGState(new TestState(1), null);
+    HashCode key = store.computeKey(root, precision, block);
+    BAMCacheEntry entry = createEntry(root);
+    Collection<AbstractState> exitStates = store.load(key, entry, block);
+
+    assertThat(exitStates).hasSize(1);
+    ARGState exit = (ARGState) exitStates.iterator().next();
+    assertThat(exit.getWrappedState()).isEqualTo(new TestState(2));
+    assertThat(exit.getParents()).containsExactly(root);
+    assertThat(store.isLoadedState(exit)).isTrue();
+    assertThat(entry.getReachedSet().hasWaitingState()).isFalse();
+  }
+
+  @Test
+  public void keyIndependentOfNodeNumbers() throws InvalidConfigurationException {
+    BAMSummaryStore store = createStore(null, file);
+    ARGState root = new ARGState(new TestState(1), null);
+    Block block1 = createBlock("x = 1;");
+    Block block2 = createBlock("x = 1;");
+    assertThat(block1.getCallNode().getNodeNumber())
+        .isNotEqualTo(block2.getCallNode().getNodeNumber());
+
+    assertThat(store.computeKey(root, precision, block1))
+        .isEqualTo(store.computeKey(root, precision, block2));
+  }
+
+  @Test
+  public void keyMismatch() throws InvalidConfigurationException {
+    analyzeAndStore(createStore(null, file), createBlock("x = 1;"));
+    BAMSummaryStore store = createStore(file, null);
+
+    // different block
+    Block otherBlock = createBlock("x = 2;");
+    ARGState root = new ARGState(new TestState(1), null);
+    HashCode key = store.computeKey(root, precision, otherBlock);
+    assertThat(store.load(key, createEntry(root), otherBlock)).isNull();
+
+    // different initial state
+    Block block = createBlock("x = 1;");
+    ARGState otherRoot = new ARGState(new TestState(3), null);
+    key = store.computeKey(otherRoot, precision, block);
+    assertThat(store.load(key, createEntry(otherRoot), block)).isNull();
+  }
+}
@@ -37,6 +37,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
+import org.sosy_lab.cpachecker.util.globalinfo.CFAInfo;
 import org.sosy_lab.cpachecker.util.globalinfo.GlobalInfo;
 
 /**
@@ -147,7 +148,7 @@ public class CallstackState
 
   private void writeObject(java.io.ObjectOutputStream out) throws IOException {
     out.defaultWriteObject();
-    out.writeInt(callerNode.getNodeNumber());
+    out.writeInt(CFAInfo.getSerialNumber(callerNode));
   }
 
   private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
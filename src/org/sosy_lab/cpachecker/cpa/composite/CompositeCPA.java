@@ -30,6 +30,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -53,6 +54,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.interfaces.WrapperCPA;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
@@ -61,7 +63,12 @@ import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
-public class CompositeCPA implements StatisticsProvider, WrapperCPA, ConfigurableProgramAnalysisWithBAM, ProofChecker {
+public class CompositeCPA
+    implements StatisticsProvider,
+        WrapperCPA,
+        ConfigurableProgramAnalysisWithBAM,
+        ProofChecker,
+        ThreadSafeConfigurableProgramAnalysis {
 
   @Options(prefix="cpa.composite")
   private static class CompositeOptions {
@@ -268,7 +275,26 @@ public class CompositeCPA implements StatisticsProvider, WrapperCPA, Configurabl
       initialStates.add(sp.getInitialState(pNode, pPartition));
     }
 
-    return new CompositeState(initialStates.build());
+    return new CompositeState(initialStates.build(), getMergeKeyComponents());
+  }
+
+  /**
+   * Returns the indices of the components whose merge keys make up the merge key of the composite
+   * states, or null if the composite states must not have a merge key. This is only the case for
+   * {@link CompositeMergeAgreeOperator}: with merge-plain, a reached state may be changed even if
+   * the key of a component differs, because the other components are merged nevertheless.
+   */
+  private @Nullable ImmutableList<Integer> getMergeKeyComponents() {
+    if (!options.merge.equals("AGREE") || options.inCPAEnabledAnalysis) {
+      return null;
+    }
+    ImmutableList.Builder<Integer> components = ImmutableList.builder();
+    for (int i = 0; i < cpas.size(); i++) {
+      if (cpas.get(i).getMergeOperator() != MergeSepOperator.getInstance()) {
+        components.add(i);
+      }
+    }
+    return components.build();
   }
 
   @Override
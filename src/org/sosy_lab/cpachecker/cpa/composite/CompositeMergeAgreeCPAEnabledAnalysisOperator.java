@@ -173,7 +173,7 @@ public class CompositeMergeAgreeCPAEnabledAnalysisOperator implements MergeOpera
       return reachedState;
     } else {
       // TODO check if merge results in target state?
-      return new CompositeState(mergedStates.build());
+      return compReachedState.withWrappedStates(mergedStates.build());
     }
   }
 
@@ -119,7 +119,7 @@ class CompositeMergeAgreeOperator implements MergeOperator {
     if (identicalStates) {
       return reachedState;
     } else {
-      return new CompositeState(mergedStates.build());
+      return compReachedState.withWrappedStates(mergedStates.build());
     }
   }
 }
@@ -76,7 +76,7 @@ class CompositeMergePlainOperator implements MergeOperator {
     if (identicalStates) {
       return reachedState;
     } else {
-      return new CompositeState(mergedStates.build());
+      return compReachedState.withWrappedStates(mergedStates.build());
     }
   }
 }
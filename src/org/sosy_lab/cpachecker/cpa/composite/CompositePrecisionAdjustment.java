@@ -109,7 +109,7 @@ class CompositePrecisionAdjustment implements PrecisionAdjustment {
       outPrecisions.add(newPrecision);
     }
 
-    CompositeState outElement = modified ? new CompositeState(outElements.build()) : comp;
+    CompositeState outElement = modified ? comp.withWrappedStates(outElements.build()) : comp;
     CompositePrecision outPrecision =
         modified ? new CompositePrecision(outPrecisions.build()) : prec;
     Optional<CompositeState> outElementStrengthened = callStrengthen(outElement, outPrecision);
@@ -156,7 +156,8 @@ class CompositePrecisionAdjustment implements PrecisionAdjustment {
       }
       newElements.add(unwrapped);
     }
-    CompositeState outState = modified ? new CompositeState(newElements.build()) : pCompositeState;
+    CompositeState outState =
+        modified ? pCompositeState.withWrappedStates(newElements.build()) : pCompositeState;
     return Optional.of(outState);
   }
 }
@@ -37,9 +37,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractWrapperState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
+import org.sosy_lab.cpachecker.core.interfaces.MergePartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
@@ -47,16 +49,40 @@ import org.sosy_lab.cpachecker.core.interfaces.Targetable;
 import org.sosy_lab.cpachecker.cpa.arg.Splitable;
 
 public class CompositeState
-    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable, Serializable,
-        Graphable, Splitable {
+    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable,
+        MergePartitionable, Serializable, Graphable, Splitable {
   private static final long serialVersionUID = -5143296331663510680L;
   private final ImmutableList<AbstractState> states;
   private transient Object partitionKey; // lazily initialized
   private transient Comparable<?> pseudoPartitionKey; // lazily initialized
   private transient Object pseudoHashCode; // lazily initialized
+  private transient Object mergePartitionKey; // lazily initialized
+
+  /**
+   * The indices of the components whose merge keys make up the merge key of this state, or null if
+   * this state does not have a merge key (cf. {@link #getMergePartitionKey()}).
+   */
+  private final @Nullable ImmutableList<Integer> mergeKeyComponents;
 
   public CompositeState(List<AbstractState> elements) {
+    this(elements, null);
+  }
+
+  /**
+   * Create a composite state with a merge key.
+   *
+   * @param pMergeKeyComponents the indices of the components whose merge keys make up the merge
+   *     key of this state, or null if the composite merge operator does not allow a merge key
+   */
+  CompositeState(
+      List<AbstractState> elements, @Nullable ImmutableList<Integer> pMergeKeyComponents) {
     this.states = ImmutableList.copyOf(elements);
+    this.mergeKeyComponents = pMergeKeyComponents;
+  }
+
+  /** Create a new composite state with the same merge key components as this state. */
+  CompositeState withWrappedStates(List<AbstractState> pElements) {
+    return new CompositeState(pElements, mergeKeyComponents);
   }
 
   int getNumberOfStates() {
@@ -200,6 +226,38 @@ public class CompositeState
     return pseudoHashCode;
   }
 
+  /**
+   * Returns a merge key only if the composite merge operator is {@link
+   * CompositeMergeAgreeOperator}, and only if all components that are not merged with merge-sep
+   * provide a key. Components with merge-sep are ignored, because their merge operator never
+   * changes the reached state.
+   */
+  @Override
+  public @Nullable Object getMergePartitionKey() {
+    if (mergeKeyComponents == null) {
+      return null;
+    }
+    if (mergePartitionKey == null) {
+      Object[] keys = new Object[mergeKeyComponents.size()];
+
+      for (int i = 0; i < keys.length; i++) {
+        AbstractState element = states.get(mergeKeyComponents.get(i));
+        if (!(element instanceof MergePartitionable)) {
+          return null;
+        }
+        keys[i] = ((MergePartitionable) element).getMergePartitionKey();
+        if (keys[i] == null) {
+          return null;
+        }
+      }
+
+      // wrap array of keys in object to enable overriding of equals and hashCode
+      mergePartitionKey = new CompositePartitionKey(keys);
+    }
+
+    return mergePartitionKey;
+  }
+
   private static final class CompositePartitionKey implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -304,7 +362,7 @@ public class CompositeState
         }
       }
     }
-    CompositeState newState = new CompositeState(newWrappedStates);
+    CompositeState newState = withWrappedStates(newWrappedStates);
     return newState;
   }
 }
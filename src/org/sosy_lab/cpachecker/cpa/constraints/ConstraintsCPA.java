@@ -228,6 +228,8 @@ public class ConstraintsCPA
 
   @Override
   public void close() {
+    // the prover of the constraints solver belongs to the solver context
+    constraintsSolver.close();
     solver.close();
   }
 }
@@ -23,17 +23,15 @@
  */
 package org.sosy_lab.cpachecker.cpa.constraints.domain;
 
-import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -64,6 +62,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
@@ -74,7 +73,7 @@ import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
 @Options(prefix = "cpa.constraints")
-public class ConstraintsSolver implements StatisticsProvider {
+public class ConstraintsSolver implements StatisticsProvider, AutoCloseable {
 
   @Option(
     secure = true,
@@ -110,6 +109,14 @@ public class ConstraintsSolver implements StatisticsProvider {
       name = "useLastModel")
   private boolean useLastModel = true;
 
+  @Option(
+      secure = true,
+      description =
+          "Keep the prover environment between satisfiability checks and only push the"
+              + " constraints that differ from the constraints of the last check",
+      name = "incrementalSolving")
+  private boolean incrementalSolving = false;
+
   private final StatTimer
       timeForSolving = new StatTimer(StatKind.SUM, "Time for solving constraints");
   private final StatTimer timeForIndependentComputation =
@@ -122,10 +129,20 @@ public class ConstraintsSolver implements StatisticsProvider {
       new StatTimer(StatKind.SUM, "Time for SMT check");
 
   private final StatCounter modelReuseSuccesses = new StatCounter("Successful model re-uses");
+  private final StatInt reusedStackLevels =
+      new StatInt(StatKind.AVG, "Constraints re-used from prover stack");
 
   private ConstraintsCache cache;
   private Solver solver;
   private ProverEnvironment prover;
+
+  /**
+   * Constraint formulas on the stack of the prover, one per level, if incremental solving is
+   * used. Above these, there are {@link #additionalLevels} levels with other formulas.
+   */
+  private final List<BooleanFormula> pushedConstraints = new ArrayList<>();
+
+  private int additionalLevels = 0;
   private FormulaManagerView formulaManager;
   private BooleanFormulaManagerView booleanFormulaManager;
 
@@ -186,13 +203,14 @@ public class ConstraintsSolver implements StatisticsProvider {
       return false;
     }
 
+    boolean keepProver = false;
     try {
       timeForSolving.start();
 
       Boolean unsat = null; // assign null to fail fast if assignment is missed
-      Set<Constraint> relevantConstraints = getRelevantConstraints(pConstraints);
+      Collection<Constraint> relevantConstraints = getRelevantConstraints(pConstraints);
 
-      Collection<BooleanFormula> constraintsAsFormulas =
+      List<BooleanFormula> constraintsAsFormulas =
           getFullFormula(relevantConstraints, pFunctionName);
       CacheResult res = cache.getCachedResult(constraintsAsFormulas);
 
@@ -204,10 +222,14 @@ public class ConstraintsSolver implements StatisticsProvider {
         pConstraints.setModel(res.getModelAssignment());
 
       } else {
-        prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
-        BooleanFormula definitesAndConstraints =
-            combineWithDefinites(constraintsAsFormulas, pConstraints);
-        prover.push(definitesAndConstraints);
+        if (incrementalSolving) {
+          pushIncrementally(constraintsAsFormulas, getDefAssignmentsFormula(pConstraints));
+        } else {
+          prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+          BooleanFormula definitesAndConstraints =
+              combineWithDefinites(constraintsAsFormulas, pConstraints);
+          prover.push(definitesAndConstraints);
+        }
 
         ImmutableList<ValueAssignment> newModelAsAssignment;
         ImmutableList<ValueAssignment> modelAsAssignment = pConstraints.getModel();
@@ -223,6 +245,7 @@ public class ConstraintsSolver implements StatisticsProvider {
                     .collect(booleanFormulaManager.toConjunction());
             modelFormula = createLiteralLabel(literalForModel, modelFormula);
             prover.push(modelFormula);
+            additionalLevels++;
             unsat = prover.isUnsatWithAssumptions(
                 ImmutableList.of(literalForModel));
             if (!unsat) {
@@ -267,14 +290,52 @@ public class ConstraintsSolver implements StatisticsProvider {
         }
       }
 
+      keepProver = incrementalSolving;
       return unsat;
 
     } finally {
-      closeProver();
+      if (!keepProver) {
+        // without incremental solving or after an exception, the stack is not re-used
+        closeProver();
+      }
       timeForSolving.stop();
     }
   }
 
+  /**
+   * Bring the stack of the prover into the state for checking the given constraints, re-using the
+   * longest prefix of constraints that are already on the stack. The definite assignments are
+   * pushed on a separate level on top.
+   */
+  private void pushIncrementally(List<BooleanFormula> pConstraints, BooleanFormula pDefinites)
+      throws InterruptedException {
+    if (prover == null) {
+      prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+    }
+    for (; additionalLevels > 0; additionalLevels--) {
+      prover.pop();
+    }
+
+    int common = 0;
+    int maxCommon = Math.min(pushedConstraints.size(), pConstraints.size());
+    while (common < maxCommon && pushedConstraints.get(common).equals(pConstraints.get(common))) {
+      common++;
+    }
+    reusedStackLevels.setNextValue(common);
+
+    while (pushedConstraints.size() > common) {
+      prover.pop();
+      pushedConstraints.remove(pushedConstraints.size() - 1);
+    }
+    for (BooleanFormula constraint : pConstraints.subList(common, pConstraints.size())) {
+      prover.push(constraint);
+      pushedConstraints.add(constraint);
+    }
+
+    prover.push(pDefinites);
+    additionalLevels++;
+  }
+
   private BooleanFormula combineWithDefinites(
       Collection<BooleanFormula> pConstraintsAsFormulas,
       ConstraintsState pConstraints) {
@@ -297,7 +358,12 @@ public class ConstraintsSolver implements StatisticsProvider {
     return booleanFormulaManager.implication(pLiteral, pFormula);
   }
 
-  private Set<Constraint> getRelevantConstraints(ConstraintsState pConstraints) {
+  /**
+   * Returns the constraints that are relevant for the satisfiability check, in the order in which
+   * they were added to the given state. This order allows to re-use the prover stack of the
+   * previous check with incremental solving.
+   */
+  private Collection<Constraint> getRelevantConstraints(ConstraintsState pConstraints) {
     Set<Constraint> relevantConstraints = new HashSet<>();
     if (performMinimalSatCheck && pConstraints.getLastAddedConstraint().isPresent()) {
       try {
@@ -325,15 +391,27 @@ public class ConstraintsSolver implements StatisticsProvider {
           }
         } while (!newRelevantIdentifiers.equals(relevantIdentifiers));
 
+        List<Constraint> orderedConstraints = new ArrayList<>(relevantConstraints.size());
+        for (Constraint c : pConstraints) {
+          if (relevantConstraints.contains(c)) {
+            orderedConstraints.add(c);
+          }
+        }
+        return orderedConstraints;
+
       } finally {
         timeForIndependentComputation.stop();
       }
 
     } else {
-      relevantConstraints = pConstraints;
+      return pConstraints;
     }
+  }
 
-    return relevantConstraints;
+  /** Close the prover that is kept between satisfiability checks with incremental solving. */
+  @Override
+  public void close() {
+    closeProver();
   }
 
   private void closeProver() {
@@ -341,6 +419,8 @@ public class ConstraintsSolver implements StatisticsProvider {
       prover.close();
       prover = null;
     }
+    pushedConstraints.clear();
+    additionalLevels = 0;
   }
 
   private ImmutableCollection<ValueAssignment> resolveDefiniteAssignments(
@@ -400,7 +480,7 @@ public class ConstraintsSolver implements StatisticsProvider {
    * @throws UnrecognizedCodeException see {@link FormulaCreator#createFormula(Constraint)}
    * @throws InterruptedException see {@link FormulaCreator#createFormula(Constraint)}
    */
-  private Collection<BooleanFormula> getFullFormula(
+  private List<BooleanFormula> getFullFormula(
       Collection<Constraint> pConstraints, String pFunctionName)
       throws UnrecognizedCodeException, InterruptedException {
 
@@ -439,7 +519,8 @@ public class ConstraintsSolver implements StatisticsProvider {
                 .put(timeForSatCheck)
                 .put(timeForDefinitesComputation)
                 .endLevel()
-                .put(modelReuseSuccesses);
+                .put(modelReuseSuccesses)
+                .putIf(incrementalSolving, reusedStackLevels);
           }
 
           @Override
@@ -523,19 +604,25 @@ public class ConstraintsSolver implements StatisticsProvider {
     }
   }
 
+  /**
+   * Cache that also returns results for subsets and supersets of the queried constraints: if a
+   * subset is unsatisfiable, the queried constraints are unsatisfiable, too, and a model of a
+   * superset is also a model of the queried constraints. Both directions are answered by a {@link
+   * SetTrie} over the IDs of the constraint formulas.
+   */
   private static class SubsetConstraintsCache implements ConstraintsCache, StatisticsProvider {
 
     private MatchingConstraintsCache delegate;
 
-    /**
-     * Multimap that maps each constraint to all sets of constraints that it occurred in
-     */
-    private Multimap<BooleanFormula, Set<BooleanFormula>> constraintContainedIn =
-        HashMultimap.create();
+    private final Map<BooleanFormula, Integer> formulaIds = new HashMap<>();
+    private final SetTrie<ImmutableList<ValueAssignment>> satSets = new SetTrie<>();
+    private final SetTrie<Boolean> unsatSets = new SetTrie<>();
 
     private StatCounter cacheLookups = new StatCounter("Cache lookups");
     private StatCounter directCacheHits = new StatCounter("Direct cache hits");
     private StatCounter cacheHits = new StatCounter("Subset cache hits");
+    private StatCounter unsatSubsetHits = new StatCounter("Hits for unsat subsets");
+    private StatCounter satSupersetHits = new StatCounter("Hits for sat supersets");
     private StatTimer lookupTime = new StatTimer(StatKind.SUM, "Subset lookup time");
 
     public SubsetConstraintsCache() {
@@ -565,50 +652,58 @@ public class ConstraintsSolver implements StatisticsProvider {
     @Override
     public void addSat(
         Collection<BooleanFormula> pConstraints, ImmutableList<ValueAssignment> pModelAssignment) {
-      add(pConstraints);
+      satSets.put(toIds(pConstraints, true), pModelAssignment);
       delegate.addSat(pConstraints, pModelAssignment);
     }
 
     @Override
     public void addUnsat(Collection<BooleanFormula> pConstraints) {
-      add(pConstraints);
+      unsatSets.put(toIds(pConstraints, true), Boolean.TRUE);
       delegate.addUnsat(pConstraints);
     }
 
-    private void add(Collection<BooleanFormula> pConstraints) {
+    /**
+     * Return the sorted IDs of the given formulas. Formulas without ID get a new one if requested
+     * and are left out otherwise.
+     */
+    private int[] toIds(Collection<BooleanFormula> pConstraints, boolean pCreateMissing) {
+      int[] ids = new int[pConstraints.size()];
+      int count = 0;
       for (BooleanFormula c : pConstraints) {
-        constraintContainedIn.put(c, ImmutableSet.copyOf(pConstraints));
+        Integer id =
+            pCreateMissing
+                ? formulaIds.computeIfAbsent(c, k -> formulaIds.size())
+                : formulaIds.get(c);
+        if (id != null) {
+          ids[count++] = id;
+        }
       }
+      Arrays.sort(ids, 0, count);
+      // remove duplicates
+      int distinct = 0;
+      for (int i = 0; i < count; i++) {
+        if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+          ids[distinct++] = ids[i];
+        }
+      }
+      return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
     }
 
     CacheResult getCachedResultOfSubset(Collection<BooleanFormula> pConstraints) {
       checkState(!pConstraints.isEmpty());
 
-      Set<Set<BooleanFormula>> containAllConstraints = null;
-      for (BooleanFormula c : pConstraints) {
-        Set<Set<BooleanFormula>> containC = ImmutableSet.copyOf(constraintContainedIn.get(c));
-        if (containAllConstraints == null) {
-          containAllConstraints = containC;
-        } else {
-          containAllConstraints = Sets.intersection(containAllConstraints, containC);
-        }
-
-        if (containAllConstraints.isEmpty()) {
-          return CacheResult.getUnknown();
-        }
+      // formulas that were never stored are left out, which is sound for the subset check
+      int[] knownIds = toIds(pConstraints, false);
+      if (unsatSets.findSubsetOf(knownIds) != null) {
+        unsatSubsetHits.inc();
+        return CacheResult.getUnsat();
       }
 
-      checkNotNull(containAllConstraints);
-      int sizeOfQuery = pConstraints.size();
-      for (Set<BooleanFormula> col : containAllConstraints) {
-        CacheResult cachedResult = delegate.getCachedResult(col);
-        if (sizeOfQuery <= col.size() && cachedResult.isSat()) {
-          // currently considered collection is a superset of the queried collection
-          return cachedResult;
-
-        } else if (sizeOfQuery >= col.size() && cachedResult.isUnsat()) {
-          // currently considered collection is a subset of the queried collection
-          return cachedResult;
+      if (formulaIds.keySet().containsAll(pConstraints)) {
+        ImmutableList<ValueAssignment> model = satSets.findSupersetOf(knownIds);
+        if (model != null) {
+          satSupersetHits.inc();
+          return CacheResult.getSat(model);
         }
       }
       return CacheResult.getUnknown();
@@ -625,6 +720,12 @@ public class ConstraintsSolver implements StatisticsProvider {
                   .put(cacheLookups)
                   .put(directCacheHits)
                   .put(cacheHits)
+                  .beginLevel()
+                  .put(unsatSubsetHits)
+                  .put(satSupersetHits)
+                  .endLevel()
+                  .put("Cached sat sets", satSets.size())
+                  .put("Cached unsat sets", unsatSets.size())
                   .put(lookupTime);
             }
 
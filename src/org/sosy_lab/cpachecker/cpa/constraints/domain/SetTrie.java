@@ -0,0 +1,162 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Index of sets of integers that allows to find stored subsets and supersets of a given set
+ * without looking at all stored sets. Each stored set is a path of ascending elements in a trie,
+ * so a query only follows the paths that can still become a subset or superset of the queried set.
+ *
+ * <p>All sets are given as sorted arrays without duplicates.
+ *
+ * @param <V> the type of the values associated with the stored sets
+ */
+final class SetTrie<V> {
+
+  private static final class Node<V> {
+    private final NavigableMap<Integer, Node<V>> children = new TreeMap<>();
+
+    /** value of the set that ends at this node */
+    private @Nullable V value = null;
+
+    /** value of some set that ends at this node or one of its descendants */
+    private @Nullable V anyValue = null;
+  }
+
+  private final Node<V> root = new Node<>();
+  private int size = 0;
+
+  /** Associate the given set with the given value, replacing any previous value. */
+  void put(int[] pSet, V pValue) {
+    checkNotNull(pValue);
+    assert isSorted(pSet);
+    Node<V> node = root;
+    for (int element : pSet) {
+      if (node.anyValue == null) {
+        node.anyValue = pValue;
+      }
+      node = node.children.computeIfAbsent(element, k -> new Node<>());
+    }
+    if (node.value == null) {
+      size++;
+    }
+    node.value = pValue;
+    node.anyValue = pValue;
+  }
+
+  /** Return the value of exactly the given set, or null. */
+  @Nullable V get(int[] pSet) {
+    Node<V> node = root;
+    for (int element : pSet) {
+      node = node.children.get(element);
+      if (node == null) {
+        return null;
+      }
+    }
+    return node.value;
+  }
+
+  /** Return the value of some stored set that is a subset of the given set, or null. */
+  @Nullable V findSubsetOf(int[] pSet) {
+    assert isSorted(pSet);
+    return findSubsetOf(root, pSet, 0);
+  }
+
+  private @Nullable V findSubsetOf(Node<V> pNode, int[] pSet, int pStart) {
+    if (pNode.value != null) {
+      return pNode.value;
+    }
+    if (pStart >= pSet.length || pNode.children.isEmpty()) {
+      return null;
+    }
+
+    // iterate over whatever is smaller: the remaining elements or the children of the node
+    if (pNode.children.size() < pSet.length - pStart) {
+      for (Entry<Integer, Node<V>> child : pNode.children.tailMap(pSet[pStart]).entrySet()) {
+        int index = Arrays.binarySearch(pSet, pStart, pSet.length, child.getKey());
+        if (index >= 0) {
+          V result = findSubsetOf(child.getValue(), pSet, index + 1);
+          if (result != null) {
+            return result;
+          }
+        }
+      }
+    } else {
+      for (int i = pStart; i < pSet.length; i++) {
+        Node<V> child = pNode.children.get(pSet[i]);
+        if (child != null) {
+          V result = findSubsetOf(child, pSet, i + 1);
+          if (result != null) {
+            return result;
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Return the value of some stored set that is a superset of the given set, or null. */
+  @Nullable V findSupersetOf(int[] pSet) {
+    assert isSorted(pSet);
+    return findSupersetOf(root, pSet, 0);
+  }
+
+  private @Nullable V findSupersetOf(Node<V> pNode, int[] pSet, int pStart) {
+    if (pStart == pSet.length) {
+      return pNode.anyValue;
+    }
+    int next = pSet[pStart];
+    // only children up to the next element can lead to a superset
+    for (Entry<Integer, Node<V>> child : pNode.children.headMap(next, true).entrySet()) {
+      int nextStart = child.getKey() == next ? pStart + 1 : pStart;
+      V result = findSupersetOf(child.getValue(), pSet, nextStart);
+      if (result != null) {
+        return result;
+      }
+    }
+    return null;
+  }
+
+  /** Return the number of stored sets. */
+  int size() {
+    return size;
+  }
+
+  private static boolean isSorted(int[] pSet) {
+    for (int i = 1; i < pSet.length; i++) {
+      if (pSet[i - 1] >= pSet[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+/** Unit tests for {@link SetTrie} */
+public class SetTrieTest {
+
+  @Test
+  public void testExactLookup() {
+    SetTrie<String> trie = new SetTrie<>();
+    trie.put(new int[] {1, 3, 5}, "a");
+    trie.put(new int[] {1, 3}, "b");
+    trie.put(new int[] {}, "empty");
+
+    assertThat(trie.get(new int[] {1, 3, 5})).isEqualTo("a");
+    assertThat(trie.get(new int[] {1, 3})).isEqualTo("b");
+    assertThat(trie.get(new int[] {})).isEqualTo("empty");
+    assertThat(trie.get(new int[] {1})).isNull();
+    assertThat(trie.get(new int[] {1, 3, 5, 7})).isNull();
+    assertThat(trie.size()).isEqualTo(3);
+
+    trie.put(new int[] {1, 3}, "c");
+    assertThat(trie.get(new int[] {1, 3})).isEqualTo("c");
+    assertThat(trie.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void testFindSubset() {
+    SetTrie<String> trie = new SetTrie<>();
+    trie.put(new int[] {2, 4, 6}, "a");
+    trie.put(new int[] {3, 9}, "b");
+
+    assertThat(trie.findSubsetOf(new int[] {1, 2, 3, 4, 5, 6})).isEqualTo("a");
+    assertThat(trie.findSubsetOf(new int[] {2, 4, 6})).isEqualTo("a");
+    assertThat(trie.findSubsetOf(new int[] {0, 3, 8, 9, 10})).isEqualTo("b");
+    assertThat(trie.findSubsetOf(new int[] {2, 3, 4, 8})).isNull();
+    assertThat(trie.findSubsetOf(new int[] {})).isNull();
+  }
+
+  @Test
+  public void testFindSuperset() {
+    SetTrie<String> trie = new SetTrie<>();
+    trie.put(new int[] {2, 4, 6}, "a");
+    trie.put(new int[] {1, 3, 9}, "b");
+
+    assertThat(trie.findSupersetOf(new int[] {4})).isEqualTo("a");
+    assertThat(trie.findSupersetOf(new int[] {2, 6})).isEqualTo("a");
+    assertThat(trie.findSupersetOf(new int[] {1, 9})).isEqualTo("b");
+    assertThat(trie.findSupersetOf(new int[] {1, 3, 9})).isEqualTo("b");
+    assertThat(trie.findSupersetOf(new int[] {1, 2})).isNull();
+    assertThat(trie.findSupersetOf(new int[] {1, 3, 9, 10})).isNull();
+    assertThat(trie.findSupersetOf(new int[] {})).isAnyOf("a", "b");
+  }
+
+  @Test
+  public void testEmptyTrie() {
+    SetTrie<String> trie = new SetTrie<>();
+    assertThat(trie.findSubsetOf(new int[] {1, 2})).isNull();
+    assertThat(trie.findSupersetOf(new int[] {})).isNull();
+    assertThat(trie.size()).isEqualTo(0);
+  }
+}
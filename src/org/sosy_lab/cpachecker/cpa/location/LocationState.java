@@ -36,6 +36,7 @@ import com.google.common.base.Splitter;
 import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
@@ -202,8 +203,8 @@ public class LocationState implements AbstractStateWithLocation, AbstractQueryab
 
   // no equals and hashCode because there is always only one element per CFANode
 
-  private Object writeReplace() {
-    return new SerialProxy(locationNode.getNodeNumber());
+  private Object writeReplace() throws ObjectStreamException {
+    return new SerialProxy(CFAInfo.getSerialNumber(locationNode));
   }
 
   /**
@@ -0,0 +1,196 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Pool of long-lived incremental provers for abstraction computations, one per abstraction
+ * location. Consecutive abstractions at the same location thus share the solver state, i.e., the
+ * definitions of the predicates and everything the solver has learned about them.
+ *
+ * <p>Each instantiated predicate is defined once on the bottom level of the prover stack by an
+ * equivalence with a fresh selector variable. The formula that is abstracted is pushed on top of
+ * these definitions, and the truth value of a predicate is then checked by a query with the
+ * selector (or its negation) as assumption, which does not modify the stack. Boolean abstraction
+ * enumerates the models over the selectors of the predicates.
+ *
+ * <p>Only the most recently used locations keep their prover, and a prover is recreated if too
+ * many predicate definitions have accumulated on it.
+ */
+final class AbstractionProverPool implements AutoCloseable {
+
+  private static final String SELECTOR_VAR_TEMPLATE = "__ABS_SEL_";
+
+  private final Solver solver;
+  private final BooleanFormulaManagerView bfmgr;
+  private final int maxDefinitionsPerProver;
+
+  private final LinkedHashMap<CFANode, LocationProver> provers;
+
+  private int selectorCounter = 0;
+
+  private boolean assumptionsSupported = true;
+
+  private final PredicateAbstractionManager.Stats stats;
+
+  AbstractionProverPool(
+      Solver pSolver,
+      int pMaxProvers,
+      int pMaxDefinitionsPerProver,
+      PredicateAbstractionManager.Stats pStats) {
+    solver = pSolver;
+    stats = pStats;
+    bfmgr = pSolver.getFormulaManager().getBooleanFormulaManager();
+    maxDefinitionsPerProver = pMaxDefinitionsPerProver;
+    provers =
+        new LinkedHashMap<CFANode, LocationProver>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CFANode, LocationProver> pEldest) {
+            if (size() > pMaxProvers) {
+              pEldest.getValue().close();
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /**
+   * Get the prover for a location, with the given instantiated predicates already defined on its
+   * bottom level. The caller is responsible for leaving the prover stack as it was, or for calling
+   * {@link #invalidate(CFANode)} if this is not possible.
+   */
+  LocationProver getProver(CFANode location, Iterable<BooleanFormula> instantiatedPredicates) {
+    LocationProver prover = provers.get(location);
+    if (prover != null && prover.selectors.size() > maxDefinitionsPerProver) {
+      invalidate(location);
+      prover = null;
+    }
+    if (prover == null) {
+      prover = new LocationProver(solver.newProverEnvironment(ProverOptions.GENERATE_MODELS));
+      provers.put(location, prover);
+      stats.numCreatedProvers++;
+    } else {
+      stats.numReusedProvers++;
+    }
+
+    for (BooleanFormula pred : instantiatedPredicates) {
+      prover.define(pred);
+    }
+    return prover;
+  }
+
+  /** Throw away the prover of a location, e.g., after its stack was left in an unknown state. */
+  void invalidate(CFANode location) {
+    LocationProver prover = provers.remove(location);
+    if (prover != null) {
+      prover.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    for (Iterator<LocationProver> it = provers.values().iterator(); it.hasNext(); ) {
+      it.next().close();
+      it.remove();
+    }
+  }
+
+  final class LocationProver {
+
+    private final ProverEnvironment prover;
+
+    /** Selector variable for each instantiated predicate that is defined on the bottom level. */
+    private final Map<BooleanFormula, BooleanFormula> selectors = new HashMap<>();
+
+    private LocationProver(ProverEnvironment pProver) {
+      prover = pProver;
+    }
+
+    ProverEnvironment getProverEnvironment() {
+      return prover;
+    }
+
+    /** Returns the selector variable of an instantiated predicate defined on this prover. */
+    BooleanFormula getSelector(BooleanFormula pred) {
+      BooleanFormula selector = selectors.get(pred);
+      checkState(selector != null, "predicate %s is not defined on this prover", pred);
+      return selector;
+    }
+
+    private void define(BooleanFormula pred) {
+      if (!selectors.containsKey(pred)) {
+        BooleanFormula selector = bfmgr.makeVariable(SELECTOR_VAR_TEMPLATE + selectorCounter++);
+        prover.addConstraint(bfmgr.equivalence(selector, pred));
+        selectors.put(pred, selector);
+      }
+    }
+
+    /**
+     * Check whether the formula on the stack is unsatisfiable together with the given predicate
+     * having the given value. Uses the selector of the predicate as assumption if possible, and
+     * push/pop otherwise.
+     */
+    boolean isUnsatWith(BooleanFormula pred, boolean value)
+        throws SolverException, InterruptedException {
+      @Nullable BooleanFormula selector = selectors.get(pred);
+      if (selector != null && assumptionsSupported) {
+        try {
+          return prover.isUnsatWithAssumptions(
+              ImmutableList.of(value ? selector : bfmgr.not(selector)));
+        } catch (UnsupportedOperationException e) {
+          // solver does not support assumptions, fall back to push/pop from now on
+          assumptionsSupported = false;
+        }
+      }
+      prover.push(value ? pred : bfmgr.not(pred));
+      try {
+        return prover.isUnsat();
+      } finally {
+        prover.pop();
+      }
+    }
+
+    private void close() {
+      prover.close();
+    }
+  }
+}
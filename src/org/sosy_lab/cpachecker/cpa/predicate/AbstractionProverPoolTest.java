@@ -0,0 +1,130 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cpa.predicate.AbstractionProverPool.LocationProver;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+public class AbstractionProverPoolTest extends SolverViewBasedTest0 {
+
+  private final CFANode location1 = new CFANode("f");
+  private final CFANode location2 = new CFANode("f");
+  private final CFANode location3 = new CFANode("f");
+
+  private PredicateAbstractionManager.Stats stats;
+  private AbstractionProverPool pool;
+  private BooleanFormula a;
+  private BooleanFormula b;
+
+  @Before
+  public void setUp() {
+    stats = new PredicateAbstractionManager.Stats();
+    a = bmgrv.makeVariable("a");
+    b = bmgrv.makeVariable("b");
+  }
+
+  @After
+  public void closePool() {
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  private void createPool(int pMaxProvers, int pMaxDefinitionsPerProver) {
+    pool = new AbstractionProverPool(solver, pMaxProvers, pMaxDefinitionsPerProver, stats);
+  }
+
+  @Test
+  public void leastRecentlyUsedProverIsClosed() {
+    createPool(2, 10);
+    LocationProver prover1 = pool.getProver(location1, ImmutableList.of(a));
+    LocationProver prover2 = pool.getProver(location2, ImmutableList.of(a));
+
+    // location 1 was used more recently than location 2
+    assertThat(pool.getProver(location1, ImmutableList.of(a))).isSameAs(prover1);
+    pool.getProver(location3, ImmutableList.of(a));
+
+    assertThat(pool.getProver(location1, ImmutableList.of(a))).isSameAs(prover1);
+    assertThat(pool.getProver(location2, ImmutableList.of(a))).isNotSameAs(prover2);
+    assertThat(stats.numCreatedProvers).isEqualTo(4);
+    assertThat(stats.numReusedProvers).isEqualTo(2);
+  }
+
+  @Test
+  public void predicatesAreDefinedOnlyOnce() {
+    createPool(2, 1);
+    LocationProver prover = pool.getProver(location1, ImmutableList.of(a));
+
+    // redefining the same predicate does not count towards the limit of definitions
+    assertThat(pool.getProver(location1, ImmutableList.of(a))).isSameAs(prover);
+    assertThat(pool.getProver(location1, ImmutableList.of(a, b))).isSameAs(prover);
+    assertThat(prover.getSelector(a)).isNotEqualTo(prover.getSelector(b));
+
+    // now there are too many definitions, so the prover is recreated
+    assertThat(pool.getProver(location1, ImmutableList.of(a))).isNotSameAs(prover);
+    assertThat(stats.numCreatedProvers).isEqualTo(2);
+  }
+
+  @Test
+  public void invalidatedProverIsRecreated() {
+    createPool(2, 10);
+    LocationProver prover = pool.getProver(location1, ImmutableList.of(a));
+    pool.invalidate(location1);
+
+    assertThat(pool.getProver(location1, ImmutableList.of(a))).isNotSameAs(prover);
+    assertThat(stats.numCreatedProvers).isEqualTo(2);
+    assertThat(stats.numReusedProvers).isEqualTo(0);
+
+    // invalidating a location without prover is allowed
+    pool.invalidate(location2);
+  }
+
+  @Test
+  public void predicateValuesDoNotModifyStack() throws SolverException, InterruptedException {
+    createPool(2, 10);
+    LocationProver prover = pool.getProver(location1, ImmutableList.of(a, b));
+    ProverEnvironment env = prover.getProverEnvironment();
+
+    env.push(a);
+    assertThat(prover.isUnsatWith(a, false)).isTrue();
+    assertThat(prover.isUnsatWith(a, true)).isFalse();
+    assertThat(prover.isUnsatWith(b, false)).isFalse();
+    assertThat(prover.isUnsatWith(b, true)).isFalse();
+    env.pop();
+
+    // the definitions remain, but the abstracted formula is gone
+    assertThat(prover.isUnsatWith(a, false)).isFalse();
+    assertThat(env.isUnsat()).isFalse();
+  }
+}
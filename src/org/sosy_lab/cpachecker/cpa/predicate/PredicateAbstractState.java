@@ -36,6 +36,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
+import org.sosy_lab.cpachecker.core.interfaces.MergePartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.NonMergeableAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.util.AbstractStates;
@@ -49,7 +50,8 @@ import java.io.Serializable;
 /**
  * AbstractState for Symbolic Predicate Abstraction CPA
  */
-public abstract class PredicateAbstractState implements AbstractState, Partitionable, Serializable {
+public abstract class PredicateAbstractState
+    implements AbstractState, Partitionable, MergePartitionable, Serializable {
 
   private static final long serialVersionUID = -265763837277453447L;
 
@@ -93,6 +95,12 @@ public abstract class PredicateAbstractState implements AbstractState, Partition
       }
     }
 
+    @Override
+    public Object getMergePartitionKey() {
+      // abstraction states are never merged
+      return this;
+    }
+
     @Override
     public boolean isAbstractionState() {
       return true;
@@ -153,6 +161,12 @@ public abstract class PredicateAbstractState implements AbstractState, Partition
       return getAbstractionFormula();
     }
 
+    @Override
+    public Object getMergePartitionKey() {
+      // PredicateMergeOperator merges only states within the same block
+      return getAbstractionFormula();
+    }
+
     @Override
     public String toString() {
       return "Abstraction location: false";
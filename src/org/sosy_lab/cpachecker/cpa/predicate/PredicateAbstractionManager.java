@@ -29,6 +29,7 @@ import static com.google.common.base.Predicates.equalTo;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -57,6 +58,7 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -69,6 +71,7 @@ import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier.TrivialInvariantSupplier;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.cpa.predicate.AbstractionProverPool.LocationProver;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicateAbstractionsStorage.AbstractionNode;
 import org.sosy_lab.cpachecker.cpa.predicate.persistence.PredicatePersistenceUtils.PredicateParsingFailedException;
@@ -115,6 +118,8 @@ public class PredicateAbstractionManager {
     public int numCartesianAbsPredicates = 0;
     public int numCartesianAbsPredicatesCached = 0;
     public int numBooleanAbsPredicates = 0;
+    public int numReusedProvers = 0;
+    public int numCreatedProvers = 0;
     public final Timer abstractionReuseTime = new Timer();
     public final StatTimer abstractionReuseImplicationTime = new StatTimer("Time for checking reusability of abstractions");
     public final Timer trivialPredicatesTime = new Timer();
@@ -189,6 +194,25 @@ public class PredicateAbstractionManager {
       description="Simplify the abstraction formula that is stored to represent the state space. Helpful when debugging (formulas get smaller).")
   private boolean simplifyAbstractionFormula = false;
 
+  @Option(secure=true, name = "abstraction.reuseProvers",
+      description="Keep one incremental prover per abstraction location and reuse it for "
+          + "consecutive abstractions at this location. The predicates are defined once per "
+          + "prover, cartesian abstraction checks them by assumptions instead of push/pop, "
+          + "and boolean abstraction enumerates the models over their selector variables.")
+  private boolean reuseProvers = false;
+
+  @Option(secure=true, name = "abstraction.reuseProvers.maxLocations",
+      description="Maximal number of locations for which a prover is kept "
+          + "(the least recently used ones are closed).")
+  @IntegerOption(min=1)
+  private int maxReusedProvers = 20;
+
+  @Option(secure=true, name = "abstraction.reuseProvers.maxDefinitions",
+      description="Maximal number of predicate definitions on a reused prover "
+          + "before it is recreated.")
+  @IntegerOption(min=1)
+  private int maxDefinitionsPerProver = 1000;
+
   private boolean warnedOfCartesianAbstraction = false;
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
@@ -204,6 +228,8 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  private final @Nullable AbstractionProverPool proverPool;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -253,6 +279,15 @@ public class PredicateAbstractionManager {
       cartesianAbstractionCache = null;
     }
 
+    if (reuseProvers
+        && abstractionType != AbstractionType.ELIMINATION
+        && abstractionType != AbstractionType.CARTESIAN_BY_WEAKENING) {
+      proverPool =
+          new AbstractionProverPool(solver, maxReusedProvers, maxDefinitionsPerProver, stats);
+    } else {
+      proverPool = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
@@ -297,6 +332,14 @@ public class PredicateAbstractionManager {
       unsatisfiabilityCache.clear();
     }
   }
+
+  /** Close the provers that are kept for abstraction computations, if any. */
+  void close() {
+    if (proverPool != null) {
+      proverPool.close();
+    }
+  }
+
   /**
    * Compute an abstraction of the conjunction of an AbstractionFormula and
    * a PathFormula. The AbstractionFormula will be used in its instantiated form,
@@ -433,7 +476,8 @@ public class PredicateAbstractionManager {
       abs = rmgr.makeAnd(abs, buildCartesianAbstractionUsingWeakening(f, ssa, remainingPredicates));
 
     } else {
-      abs = rmgr.makeAnd(abs, computeAbstraction(f, remainingPredicates, instantiator));
+      abs =
+          rmgr.makeAnd(abs, computeAbstraction(f, remainingPredicates, instantiator, location));
     }
 
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
@@ -494,7 +538,7 @@ public class PredicateAbstractionManager {
     final Collection<AbstractionPredicate> predicates =
         getRelevantPredicates(pPredicates, pF, dummyInstantiator);
 
-    Region abs = computeAbstraction(pF, predicates, dummyInstantiator);
+    Region abs = computeAbstraction(pF, predicates, dummyInstantiator, null);
 
     BooleanFormula symbolicAbs = amgr.convertRegionToFormula(abs);
 
@@ -750,63 +794,101 @@ public class PredicateAbstractionManager {
    *     Each predicate that is handled will be removed from the set.
    * @param instantiator A function that will be applied to instantiate each abstraction predicate,
    *     should yield the same SSA indices that f has (or none, if f has no SSA indices).
+   * @param location The location of the abstraction, if known.
+   *     Used for reusing the prover of previous abstractions at this location.
    * @return An over-approximation of f using the predicates from remainingPredicates.
    */
   private Region computeAbstraction(
       final BooleanFormula f,
       final Collection<AbstractionPredicate> remainingPredicates,
-      final Function<BooleanFormula, BooleanFormula> instantiator)
+      final Function<BooleanFormula, BooleanFormula> instantiator,
+      final @Nullable CFANode location)
       throws SolverException, InterruptedException {
-    Region abs = rmgr.makeTrue();
+
+    if (proverPool != null && location != null) {
+      Collection<BooleanFormula> definitions =
+          Collections2.transform(remainingPredicates, p -> instantiator.apply(p.getSymbolicAtom()));
+      LocationProver locationProver = proverPool.getProver(location, definitions);
+      ProverEnvironment thmProver = locationProver.getProverEnvironment();
+      thmProver.push(f);
+      Region abs;
+      try {
+        abs = computeAbstraction(f, thmProver, locationProver, remainingPredicates, instantiator);
+      } catch (SolverException | InterruptedException | RuntimeException e) {
+        // the stack of the prover is in an unknown state now
+        proverPool.invalidate(location);
+        throw e;
+      }
+      thmProver.pop();
+      return abs;
+    }
 
     try (ProverEnvironment thmProver = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
       thmProver.push(f);
+      return computeAbstraction(f, thmProver, null, remainingPredicates, instantiator);
+    }
+  }
+
+  /**
+   * Compute an abstraction of a formula that was already pushed onto the given prover.
+   * If a reused prover is given, the stack is left as it was, otherwise it is not cleaned up.
+   */
+  private Region computeAbstraction(
+      final BooleanFormula f,
+      final ProverEnvironment thmProver,
+      final @Nullable LocationProver locationProver,
+      final Collection<AbstractionPredicate> remainingPredicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator)
+      throws SolverException, InterruptedException {
+    Region abs = rmgr.makeTrue();
+
+    if (remainingPredicates.isEmpty()) {
+      stats.numSatCheckAbstractions++;
+
+      stats.abstractionSolveTime.start();
+      boolean feasibility;
+      try {
+        feasibility = !thmProver.isUnsat();
+      } finally {
+        stats.abstractionSolveTime.stop();
+      }
 
-      if (remainingPredicates.isEmpty()) {
-        stats.numSatCheckAbstractions++;
+      if (!feasibility) {
+        abs = rmgr.makeFalse();
+      }
 
-        stats.abstractionSolveTime.start();
-        boolean feasibility;
+    } else {
+      if (abstractionType != AbstractionType.BOOLEAN) {
+        // First do cartesian abstraction if desired
+        stats.cartesianAbstractionTime.start();
         try {
-          feasibility = !thmProver.isUnsat();
+          abs =
+              rmgr.makeAnd(
+                  abs,
+                  computeCartesianAbstraction(
+                      f, thmProver, locationProver, remainingPredicates, instantiator));
         } finally {
-          stats.abstractionSolveTime.stop();
-        }
-
-        if (!feasibility) {
-          abs = rmgr.makeFalse();
+          stats.cartesianAbstractionTime.stop();
         }
+      }
 
-      } else {
-        if (abstractionType != AbstractionType.BOOLEAN) {
-          // First do cartesian abstraction if desired
-          stats.cartesianAbstractionTime.start();
-          try {
-            abs =
-                rmgr.makeAnd(
-                    abs,
-                    computeCartesianAbstraction(f, thmProver, remainingPredicates, instantiator));
-          } finally {
-            stats.cartesianAbstractionTime.stop();
-          }
+      if (abstractionType != AbstractionType.CARTESIAN && !remainingPredicates.isEmpty()) {
+        // Last do boolean abstraction if desired and necessary
+        stats.numBooleanAbsPredicates += remainingPredicates.size();
+        stats.booleanAbstractionTime.start();
+        try {
+          abs =
+              rmgr.makeAnd(
+                  abs,
+                  computeBooleanAbstraction(
+                      thmProver, locationProver, remainingPredicates, instantiator));
+        } finally {
+          stats.booleanAbstractionTime.stop();
         }
 
-        if (abstractionType != AbstractionType.CARTESIAN && !remainingPredicates.isEmpty()) {
-          // Last do boolean abstraction if desired and necessary
-          stats.numBooleanAbsPredicates += remainingPredicates.size();
-          stats.booleanAbstractionTime.start();
-          try {
-            abs =
-                rmgr.makeAnd(
-                    abs, computeBooleanAbstraction(thmProver, remainingPredicates, instantiator));
-          } finally {
-            stats.booleanAbstractionTime.stop();
-          }
-
-          // Warning:
-          // buildBooleanAbstraction() does not clean up thmProver, so do not use it here.
-          // remainingPredicates is now empty.
-        }
+        // Warning:
+        // buildBooleanAbstraction() does not clean up a fresh thmProver, so do not use it here.
+        // remainingPredicates is now empty.
       }
     }
     return abs;
@@ -818,6 +900,8 @@ public class PredicateAbstractionManager {
    *
    * @param f The (instantiated) formula to abstract, only used as cache key.
    * @param thmProver The solver to use with the input formula on the stack.
+   * @param locationProver The reused prover that thmProver belongs to, if any.
+   *     Its predicate selectors are used for checking the predicates by assumptions.
    * @param pPredicates The set of predicates. Each predicate that is handled will be removed from the set.
    * @param instantiator A function that will be applied to instantiate each abstraction predicate.
    * @return A over-approximation of f.
@@ -825,6 +909,7 @@ public class PredicateAbstractionManager {
   private Region computeCartesianAbstraction(
       final BooleanFormula f,
       final ProverEnvironment thmProver,
+      final @Nullable LocationProver locationProver,
       final Collection<AbstractionPredicate> pPredicates,
       final Function<BooleanFormula, BooleanFormula> instantiator)
       throws SolverException, InterruptedException {
@@ -885,9 +970,14 @@ public class PredicateAbstractionManager {
           // state
           byte predVal = 0; // pred is neither true nor false
 
-          thmProver.push(predFalse);
-          boolean isTrue = thmProver.isUnsat();
-          thmProver.pop();
+          boolean isTrue;
+          if (locationProver != null) {
+            isTrue = locationProver.isUnsatWith(predTrue, false);
+          } else {
+            thmProver.push(predFalse);
+            isTrue = thmProver.isUnsat();
+            thmProver.pop();
+          }
 
           if (isTrue) {
             stats.numCartesianAbsPredicates++;
@@ -900,9 +990,14 @@ public class PredicateAbstractionManager {
             predVal = 1;
           } else {
             // check whether it's false...
-            thmProver.push(predTrue);
-            boolean isFalse = thmProver.isUnsat();
-            thmProver.pop();
+            boolean isFalse;
+            if (locationProver != null) {
+              isFalse = locationProver.isUnsatWith(predTrue, true);
+            } else {
+              thmProver.push(predTrue);
+              isFalse = thmProver.isUnsat();
+              thmProver.pop();
+            }
 
             if (isFalse) {
               stats.numCartesianAbsPredicates++;
@@ -986,6 +1081,9 @@ public class PredicateAbstractionManager {
    * The abstracted formula is expected to have been pushed onto the solver stack already.
    *
    * @param thmProver The solver to use with the input formula on the stack.
+   * @param locationProver The reused prover that thmProver belongs to, if any.
+   *    Its stack is restored afterwards, and the models are enumerated over the selectors
+   *    of the predicates instead of defining the predicates again.
    * @param predicates The set of predicates.
    *    Each predicate that is handled will be removed from the set
    *    (and Boolean abstraction handles all predicates so the set is empty afterwards!).
@@ -994,10 +1092,27 @@ public class PredicateAbstractionManager {
    */
   private Region computeBooleanAbstraction(
       final ProverEnvironment thmProver,
+      final @Nullable LocationProver locationProver,
       final Collection<AbstractionPredicate> predicates,
       final Function<BooleanFormula, BooleanFormula> instantiator)
       throws InterruptedException, SolverException {
 
+    if (locationProver != null) {
+      // the predicates are already defined on the bottom level of the prover
+      Map<BooleanFormula, Region> selectorToRegion = new HashMap<>();
+      for (AbstractionPredicate p : predicates) {
+        selectorToRegion.put(
+            locationProver.getSelector(instantiator.apply(p.getSymbolicAtom())),
+            p.getAbstractVariable());
+      }
+      AllSatCallbackImpl callback = new AllSatCallbackImpl(selectorToRegion::get);
+      Region result =
+          thmProver.allSat(callback, ImmutableList.copyOf(selectorToRegion.keySet()));
+      updateAllSatStatistics(callback);
+      predicates.clear();
+      return result;
+    }
+
     // build the definition of the predicates, and instantiate them
     // also collect all predicate variables so that the solver knows for which
     // variables we want to have the satisfying assignments
@@ -1018,38 +1133,43 @@ public class PredicateAbstractionManager {
     }
 
     // the formula is (abstractionFormula & pathFormula & predDef)
+    // pop() is actually costly sometimes, and the fresh environment is not reused
     thmProver.push(predDef);
-    AllSatCallbackImpl callback = new AllSatCallbackImpl();
+    AllSatCallbackImpl callback =
+        new AllSatCallbackImpl(var -> amgr.getPredicate(var).getAbstractVariable());
     Region result = thmProver.allSat(callback, predVars);
+    updateAllSatStatistics(callback);
+
+    // Not strictly necessary, but mark all predicates as handled
+    predicates.clear();
 
-    // pop() is actually costly sometimes, and we delete the environment anyway
-    // thmProver.pop();
+    return result;
+  }
 
-    // update statistics
+  private void updateAllSatStatistics(AllSatCallbackImpl callback) {
     int numModels = callback.getCount();
     if (numModels < Integer.MAX_VALUE) {
       stats.maxAllSatCount = Math.max(numModels, stats.maxAllSatCount);
       stats.allSatCount += numModels;
     }
-
-    // Not strictly necessary, but mark all predicates as handled
-    predicates.clear();
-
-    return result;
   }
 
   private class AllSatCallbackImpl implements AllSatCallback<Region> {
 
     private final RegionBuilder builder;
 
+    /** The region of each predicate variable (or selector) that appears in the models. */
+    private final Function<BooleanFormula, Region> variableToRegion;
+
     private Timer regionTime = null;
 
     private int count = 0;
 
     private Region formula;
 
-    private AllSatCallbackImpl() {
+    private AllSatCallbackImpl(Function<BooleanFormula, Region> pVariableToRegion) {
       builder = rmgr.builder(shutdownNotifier);
+      variableToRegion = pVariableToRegion;
 
       stats.abstractionSolveTime.start();
     }
@@ -1070,7 +1190,7 @@ public class PredicateAbstractionManager {
       builder.startNewConjunction();
       for (BooleanFormula f : model) {
         Optional<BooleanFormula> inner = fmgr.stripNegation(f);
-        Region region = amgr.getPredicate(inner.orElse(f)).getAbstractVariable();
+        Region region = variableToRegion.apply(inner.orElse(f));
         if (inner.isPresent()) {
           // TODO: possible bug if the predicate itself contains the negation.
           builder.addNegativeRegion(region);
@@ -56,6 +56,7 @@ import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.blocking.BlockedCFAReducer;
 import org.sosy_lab.cpachecker.util.blocking.interfaces.BlockComputer;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
@@ -71,7 +72,9 @@ import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.refinement.PrefixProvider;
 import org.sosy_lab.java_smt.api.SolverException;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.logging.Level;
 
 /**
@@ -129,6 +132,9 @@ public class PredicateCPA
   private final PredicateCPAInvariantsManager invariantsManager;
   private final BlockOperator blk;
 
+  /** Components created for this CPA (e.g., by refiners) that use its solver. */
+  private final List<AutoCloseable> dependentResources = new ArrayList<>();
+
   protected PredicateCPA(
       Configuration config,
       LogManager logger,
@@ -159,7 +165,7 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, config);
     }
     pathFormulaManager = pfMgr;
 
@@ -322,8 +328,27 @@ public class PredicateCPA
     invariantsManager.collectStatistics(pStatsCollection);
   }
 
+  /**
+   * Create a new path-formula manager with the same configuration as the one of this CPA, but for
+   * the given formula manager (e.g., of another solver instance).
+   */
+  PathFormulaManager createPathFormulaManager(FormulaManagerView pFmgr)
+      throws InvalidConfigurationException {
+    return new PathFormulaManagerImpl(pFmgr, config, logger, shutdownNotifier, cfa, direction);
+  }
+
+  /** Close the given resource when this CPA is closed, before its solver is closed. */
+  void closeTogetherWithCpa(AutoCloseable pResource) {
+    dependentResources.add(pResource);
+  }
+
   @Override
   public void close() {
+    for (AutoCloseable resource : dependentResources) {
+      CPAs.closeIfPossible(resource, logger);
+    }
+    // the provers of the abstraction manager belong to the solver context
+    predicateManager.close();
     solver.close();
   }
 
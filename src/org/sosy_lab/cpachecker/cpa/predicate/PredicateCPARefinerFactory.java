@@ -145,7 +145,15 @@ public class PredicateCPARefinerFactory {
 
     InterpolationManager interpolationManager =
         new InterpolationManager(
-            pfmgr, solver, loopStructure, variableClassification, config, shutdownNotifier, logger);
+            pfmgr,
+            predicateCpa::createPathFormulaManager,
+            solver,
+            loopStructure,
+            variableClassification,
+            config,
+            shutdownNotifier,
+            logger);
+    predicateCpa.closeTogetherWithCpa(interpolationManager);
 
     PathChecker pathChecker =
         new PathChecker(config, logger, shutdownNotifier, machineModel, pfmgr, solver);
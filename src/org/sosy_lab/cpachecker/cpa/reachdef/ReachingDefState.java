@@ -447,8 +447,8 @@ public class ReachingDefState implements AbstractState, Serializable,
     }
 
     private void writeObject(java.io.ObjectOutputStream out) throws IOException {
-      out.writeInt(entry.getNodeNumber());
-      out.writeInt(exit.getNodeNumber());
+      out.writeInt(CFAInfo.getSerialNumber(entry));
+      out.writeInt(CFAInfo.getSerialNumber(exit));
     }
 
     private void readObject(java.io.ObjectInputStream in) throws IOException {
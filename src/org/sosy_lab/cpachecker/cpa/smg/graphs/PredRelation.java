@@ -23,41 +23,56 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGExplicitValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownAddressValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 import org.sosy_lab.cpachecker.util.Pair;
 
+/**
+ * Predicates about symbolic values, implemented as immutable data structure. All modifying
+ * methods return a new instance and share all unchanged parts with the old one, such that copying
+ * an SMG does not require to copy its predicates.
+ */
 public class PredRelation {
-  /** The Multimap is used as Bi-Map, i.e. each pair (K,V) is also inserted as pair (V,K). */
-  private final SetMultimap<Pair<SMGValue, SMGValue>, SymbolicRelation> smgValuesRelation =
-      HashMultimap.create();
-
-  private final SetMultimap<SMGValue, SMGValue> smgValuesDependency = HashMultimap.create();
-  private final SetMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation =
-      HashMultimap.create();
-  private final Map<SMGValue, Integer> smgValueSizeInBits = new HashMap<>();
-
-  /** Copy PredRelation */
-  public void putAll(PredRelation pPred) {
-    smgValuesRelation.putAll(pPred.smgValuesRelation);
-    smgValuesDependency.putAll(pPred.smgValuesDependency);
-    smgExplicitValueRelation.putAll(pPred.smgExplicitValueRelation);
-    smgValueSizeInBits.putAll(pPred.smgValueSizeInBits);
+  /** Each relation is stored for both of its values, i.e. for (K,V) under K and under V. */
+  private final PersistentMultimap<SMGValue, SymbolicRelation> smgValuesRelation;
+
+  private final PersistentMultimap<SMGValue, SMGValue> smgValuesDependency;
+  private final PersistentMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation;
+  private final PersistentMap<SMGValue, Integer> smgValueSizeInBits;
+
+  public PredRelation() {
+    this(
+        PersistentMultimap.of(),
+        PersistentMultimap.of(),
+        PersistentMultimap.of(),
+        PathCopyingPersistentTreeMap.of());
+  }
+
+  private PredRelation(
+      PersistentMultimap<SMGValue, SymbolicRelation> pValuesRelation,
+      PersistentMultimap<SMGValue, SMGValue> pValuesDependency,
+      PersistentMultimap<SMGValue, ExplicitRelation> pExplicitValueRelation,
+      PersistentMap<SMGValue, Integer> pValueSizeInBits) {
+    smgValuesRelation = pValuesRelation;
+    smgValuesDependency = pValuesDependency;
+    smgExplicitValueRelation = pExplicitValueRelation;
+    smgValueSizeInBits = pValueSizeInBits;
   }
 
-  public void addRelation(SMGSymbolicValue pOne, int pCType1,
+  public PredRelation addRelationAndCopy(SMGSymbolicValue pOne, int pCType1,
                           SMGSymbolicValue pTwo, int pCType2,
                           BinaryOperator pOperator) {
     // TODO: track address values
@@ -65,74 +80,119 @@ public class PredRelation {
         && !pTwo.isUnknown()
         && !(pOne instanceof SMGKnownAddressValue)
         && !(pTwo instanceof SMGKnownAddressValue)) {
-      addRelation(pOne, pTwo, pOperator);
-      addValueSize(pOne, pCType1);
-      addValueSize(pTwo, pCType2);
+      return addRelationAndCopy(pOne, pTwo, pOperator)
+          .addValueSizeAndCopy(pOne, pCType1)
+          .addValueSizeAndCopy(pTwo, pCType2);
     }
+    return this;
   }
 
-  private void addValueSize(SMGValue pValue, Integer pCType2) {
-    if (!smgValueSizeInBits.containsKey(pValue)) {
-      smgValueSizeInBits.put(pValue, pCType2);
+  private PredRelation addValueSizeAndCopy(SMGValue pValue, Integer pCType2) {
+    if (smgValueSizeInBits.containsKey(pValue)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation,
+        smgValuesDependency,
+        smgExplicitValueRelation,
+        smgValueSizeInBits.putAndCopy(pValue, pCType2));
   }
 
-  public void addRelation(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
+  public PredRelation addRelationAndCopy(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
     SymbolicRelation relation = new SymbolicRelation(pOne, pTwo, pOperator);
-    if (!smgValuesDependency.containsEntry(pOne, pTwo)) {
-      smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-      smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      smgValuesDependency.put(pOne, pTwo);
-      smgValuesDependency.put(pTwo, pOne);
-    } else {
-      if (!smgValuesRelation.containsEntry(Pair.of(pOne, pTwo), relation)) {
-        smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-        smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      }
+    if (smgValuesRelation.contains(pOne, relation)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation.putAndCopy(pOne, relation).putAndCopy(pTwo, relation),
+        smgValuesDependency.putAndCopy(pOne, pTwo).putAndCopy(pTwo, pOne),
+        smgExplicitValueRelation,
+        smgValueSizeInBits);
   }
 
-  public void addExplicitRelation(SMGSymbolicValue pSymbolicValue, Integer pCType1,
+  public PredRelation addExplicitRelationAndCopy(SMGSymbolicValue pSymbolicValue, Integer pCType1,
                                   SMGExplicitValue pExplicitValue, Integer pCType2,
                                   BinaryOperator pOp) {
     assert(pCType1.equals(pCType2));
-    addExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    addValueSize(pSymbolicValue, pCType1);
+    return addExplicitRelationAndCopy(pSymbolicValue, pExplicitValue, pOp)
+        .addValueSizeAndCopy(pSymbolicValue, pCType1);
   }
 
-  public void addExplicitRelation(
+  public PredRelation addExplicitRelationAndCopy(
       SMGValue pSymbolicValue, SMGExplicitValue pExplicitValue, BinaryOperator pOp) {
     ExplicitRelation relation = new ExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    if (!smgExplicitValueRelation.containsEntry(pSymbolicValue, relation)) {
-      smgExplicitValueRelation.put(pSymbolicValue, relation);
+    if (smgExplicitValueRelation.contains(pSymbolicValue, relation)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation,
+        smgValuesDependency,
+        smgExplicitValueRelation.putAndCopy(pSymbolicValue, relation),
+        smgValueSizeInBits);
   }
 
-  public void removeValue(SMGValue pValue) {
-    for (SMGValue pOposit : smgValuesDependency.removeAll(pValue)) {
+  /** remove all relations between the given value and other values. */
+  private PredRelation removeSymbolicRelationsAndCopy(SMGValue pValue) {
+    PersistentMultimap<SMGValue, SMGValue> dependency = smgValuesDependency.removeAndCopy(pValue);
+    for (SMGValue pOposit : smgValuesDependency.get(pValue)) {
+      dependency = dependency.removeAndCopy(pOposit, pValue);
+    }
 
-      smgValuesDependency.remove(pOposit, pValue);
+    PersistentMultimap<SMGValue, SymbolicRelation> relations =
+        smgValuesRelation.removeAndCopy(pValue);
+    for (SymbolicRelation relation : smgValuesRelation.get(pValue)) {
+      SMGValue pOposit =
+          relation.valueOne.equals(pValue) ? relation.valueTwo : relation.valueOne;
+      relations = relations.removeAndCopy(pOposit, relation);
+    }
 
-      smgValuesRelation.removeAll(Pair.of(pOposit, pValue));
-      smgValuesRelation.removeAll(Pair.of(pValue, pOposit));
+    return new PredRelation(relations, dependency, smgExplicitValueRelation, smgValueSizeInBits);
+  }
+
+  private boolean containsValue(SMGValue pValue) {
+    return !smgValuesDependency.get(pValue).isEmpty()
+        || !smgValuesRelation.get(pValue).isEmpty()
+        || !smgExplicitValueRelation.get(pValue).isEmpty()
+        || smgValueSizeInBits.containsKey(pValue);
+  }
+
+  public PredRelation removeValueAndCopy(SMGValue pValue) {
+    if (!containsValue(pValue)) {
+      return this;
     }
-    smgExplicitValueRelation.removeAll(pValue);
-    smgValueSizeInBits.remove(pValue);
+    PredRelation result = removeSymbolicRelationsAndCopy(pValue);
+    return new PredRelation(
+        result.smgValuesRelation,
+        result.smgValuesDependency,
+        smgExplicitValueRelation.removeAndCopy(pValue),
+        smgValueSizeInBits.removeAndCopy(pValue));
   }
 
   /** replace the old value with a fresh value. */
-  public void replace(SMGValue fresh, SMGValue old) {
-    for (SMGValue relatedValue : smgValuesDependency.removeAll(old)) {
-      smgValuesDependency.remove(relatedValue, old);
-      smgValuesRelation.removeAll(Pair.of(old, relatedValue));
-        //TODO: modify predicates on merge values
-      smgValuesRelation.removeAll(Pair.of(relatedValue, old));
-    }
-    for (ExplicitRelation explicitRelation: smgExplicitValueRelation.removeAll(old)) {
-      addExplicitRelation(fresh, explicitRelation.explicitValue, explicitRelation.getOperator());
-      addValueSize(fresh, getSymbolicSize(old));
-    }
-    smgValueSizeInBits.remove(old);
+  public PredRelation replaceValueAndCopy(SMGValue fresh, SMGValue old) {
+    if (!containsValue(old)) {
+      return this;
+    }
+    //TODO: modify predicates on merge values
+    PredRelation result = removeSymbolicRelationsAndCopy(old);
+    result =
+        new PredRelation(
+            result.smgValuesRelation,
+            result.smgValuesDependency,
+            smgExplicitValueRelation.removeAndCopy(old),
+            smgValueSizeInBits);
+    for (ExplicitRelation explicitRelation : smgExplicitValueRelation.get(old)) {
+      result =
+          result
+              .addExplicitRelationAndCopy(
+                  fresh, explicitRelation.explicitValue, explicitRelation.getOperator())
+              .addValueSizeAndCopy(fresh, getSymbolicSize(old));
+    }
+    return new PredRelation(
+        result.smgValuesRelation,
+        result.smgValuesDependency,
+        result.smgExplicitValueRelation,
+        result.smgValueSizeInBits.removeAndCopy(old));
   }
 
   public Integer getSymbolicSize(SMGValue pSymbolic) {
@@ -142,12 +202,14 @@ public class PredRelation {
   /** Returns closure list of symbolic values which affects pRelation */
   public Set<SMGValue> closureDependencyFor(PredRelation pRelation) {
     Set<SMGValue> toAdd = new HashSet<>();
-    for (Entry<SMGValue, SMGValue> entry : pRelation.smgValuesDependency.entries()) {
+    for (Entry<SMGValue, ImmutableSet<SMGValue>> entry :
+        pRelation.smgValuesDependency.entries()) {
       SMGValue key = entry.getKey();
-      SMGValue value = entry.getValue();
-      if (key.compareTo(value) > 0) {
-        toAdd.add(key);
-        toAdd.add(value);
+      for (SMGValue value : entry.getValue()) {
+        if (key.compareTo(value) > 0) {
+          toAdd.add(key);
+          toAdd.add(value);
+        }
       }
     }
     Set<SMGValue> result = new HashSet<>();
@@ -164,7 +226,7 @@ public class PredRelation {
   }
 
   public boolean isEmpty() {
-    return smgExplicitValueRelation.isEmpty() && smgValuesRelation.isEmpty();
+    return smgExplicitValueRelation.size() == 0 && smgValuesRelation.size() == 0;
   }
 
   @Override
@@ -195,27 +257,61 @@ public class PredRelation {
     return smgExplicitValueRelation.values();
   }
 
+  /**
+   * Returns all symbolic relations, each of them twice: once for the pair of its values and once
+   * for the reversed pair.
+   */
   public Set<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> getValuesRelations() {
-    return smgValuesRelation.entries();
+    ImmutableSet.Builder<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> result =
+        ImmutableSet.builder();
+    for (Entry<SMGValue, ImmutableSet<SymbolicRelation>> entry : smgValuesRelation.entries()) {
+      SMGValue value = entry.getKey();
+      for (SymbolicRelation relation : entry.getValue()) {
+        SMGValue oposit = relation.valueOne.equals(value) ? relation.valueTwo : relation.valueOne;
+        result.add(Maps.immutableEntry(Pair.of(value, oposit), relation));
+      }
+    }
+    return result.build();
+  }
+
+  private static <K, V> int countEntries(PersistentMultimap<K, V> pMultimap) {
+    int result = 0;
+    for (Entry<K, ImmutableSet<V>> entry : pMultimap.entries()) {
+      result += entry.getValue().size();
+    }
+    return result;
+  }
+
+  private static <K, V> boolean containsAllEntries(
+      PersistentMultimap<K, V> pContaining, PersistentMultimap<K, V> pContained) {
+    for (Entry<K, ImmutableSet<V>> entry : pContained.entries()) {
+      if (!pContaining.get(entry.getKey()).containsAll(entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
   }
 
   public boolean isLessOrEqual(PredRelation pPathPredicateRelation) {
-    if (smgValuesDependency.size() > pPathPredicateRelation.smgValuesDependency.size()) {
+    int otherDependencySize = countEntries(pPathPredicateRelation.smgValuesDependency);
+    if (countEntries(smgValuesDependency) > otherDependencySize) {
       return false;
     }
-    if (smgExplicitValueRelation.size() > pPathPredicateRelation.smgExplicitValueRelation.size()) {
+    if (countEntries(smgExplicitValueRelation)
+        > countEntries(pPathPredicateRelation.smgExplicitValueRelation)) {
       return false;
     }
-    if (smgValuesRelation.size() > pPathPredicateRelation.smgValuesDependency.size()) {
+    if (countEntries(smgValuesRelation) > otherDependencySize) {
       return false;
     }
-    if (!pPathPredicateRelation.smgValuesDependency.entries().containsAll(smgValuesDependency.entries())) {
+    if (!containsAllEntries(pPathPredicateRelation.smgValuesDependency, smgValuesDependency)) {
       return false;
     }
-    if (!pPathPredicateRelation.smgExplicitValueRelation.entries().containsAll(smgExplicitValueRelation.entries())) {
+    if (!containsAllEntries(
+        pPathPredicateRelation.smgExplicitValueRelation, smgExplicitValueRelation)) {
       return false;
     }
-    if (!pPathPredicateRelation.smgValuesRelation.entries().containsAll(smgValuesRelation.entries())) {
+    if (!containsAllEntries(pPathPredicateRelation.smgValuesRelation, smgValuesRelation)) {
       return false;
     }
     return true;
@@ -328,10 +424,4 @@ public class PredRelation {
           '}';
     }
   }
-
-  public void clear() {
-    smgExplicitValueRelation.clear();
-    smgValuesDependency.clear();
-    smgValuesRelation.clear();
-  }
 }
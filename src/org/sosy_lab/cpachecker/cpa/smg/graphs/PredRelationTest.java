@@ -0,0 +1,82 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
+
+public class PredRelationTest {
+
+  private final SMGSymbolicValue val1 = SMGKnownSymValue.valueOf(1);
+  private final SMGSymbolicValue val2 = SMGKnownSymValue.valueOf(2);
+  private final SMGSymbolicValue val3 = SMGKnownSymValue.valueOf(3);
+
+  @Test
+  public void testPersistence() {
+    PredRelation empty = new PredRelation();
+    PredRelation relation =
+        empty
+            .addRelationAndCopy(val1, 32, val2, 32, BinaryOperator.LESS_THAN)
+            .addExplicitRelationAndCopy(
+                val3, 32, SMGKnownExpValue.valueOf(5), 32, BinaryOperator.EQUALS);
+
+    assertThat(empty.isEmpty()).isTrue();
+    assertThat(relation.isEmpty()).isFalse();
+    assertThat(relation.getValuesRelations()).hasSize(2);
+    assertThat(relation.getExplicitRelations()).hasSize(1);
+    assertThat(relation.getSymbolicSize(val1)).isEqualTo(32);
+    assertThat(empty.isLessOrEqual(relation)).isTrue();
+    assertThat(relation.isLessOrEqual(empty)).isFalse();
+
+    assertThat(relation.removeValueAndCopy(SMGKnownSymValue.valueOf(4))).isSameAs(relation);
+
+    PredRelation removed = relation.removeValueAndCopy(val2);
+    assertThat(removed.getValuesRelations()).isEmpty();
+    assertThat(removed.getExplicitRelations()).hasSize(1);
+    assertThat(relation.getValuesRelations()).hasSize(2);
+  }
+
+  @Test
+  public void testReplaceValue() {
+    SMGSymbolicValue fresh = SMGKnownSymValue.valueOf(4);
+    PredRelation relation =
+        new PredRelation()
+            .addRelationAndCopy(val1, 32, val2, 32, BinaryOperator.LESS_THAN)
+            .addExplicitRelationAndCopy(
+                val1, 32, SMGKnownExpValue.valueOf(5), 32, BinaryOperator.EQUALS);
+
+    PredRelation replaced = relation.replaceValueAndCopy(fresh, val1);
+    assertThat(replaced.getValuesRelations()).isEmpty();
+    assertThat(replaced.getExplicitRelations()).hasSize(1);
+    assertThat(replaced.getExplicitRelations().iterator().next().getSymbolicValue())
+        .isEqualTo(fresh);
+    assertThat(replaced.getSymbolicSize(fresh)).isEqualTo(32);
+    assertThat(replaced.getSymbolicSize(val1)).isNull();
+  }
+}
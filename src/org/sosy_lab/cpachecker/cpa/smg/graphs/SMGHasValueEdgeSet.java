@@ -23,53 +23,119 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
-import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 
+/**
+ * Immutable set of has-value-edges, indexed by object and offset. Modifications only copy the
+ * path to the changed object and offset, all other parts are shared with the original set.
+ */
 public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
-  private final PersistentMultimap<SMGObject, SMGEdgeHasValue> map;
+  private final PersistentMap<SMGObject, PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>>> map;
+
+  /** lazily computed set of all edges, valid because this instance is immutable. */
+  private @Nullable ImmutableSet<SMGEdgeHasValue> allEdges = null;
 
   public SMGHasValueEdgeSet() {
-    map = PersistentMultimap.of();
+    map = PathCopyingPersistentTreeMap.of();
   }
 
-  private SMGHasValueEdgeSet(PersistentMultimap<SMGObject, SMGEdgeHasValue> pMap) {
+  private SMGHasValueEdgeSet(
+      PersistentMap<SMGObject, PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>>> pMap) {
     map = pMap;
   }
 
   @Override
   public SMGHasValueEdgeSet removeAllEdgesOfObjectAndCopy(SMGObject obj) {
+    if (!map.containsKey(obj)) {
+      return this;
+    }
     return new SMGHasValueEdgeSet(map.removeAndCopy(obj));
   }
 
   @Override
   public SMGHasValueEdgeSet addEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    return new SMGHasValueEdgeSet(map.putAndCopy(pEdge.getObject(), pEdge));
+    PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>> offsets = map.get(pEdge.getObject());
+    if (offsets == null) {
+      offsets = PathCopyingPersistentTreeMap.of();
+    }
+    ImmutableSet<SMGEdgeHasValue> old = offsets.get(pEdge.getOffset());
+    ImmutableSet<SMGEdgeHasValue> updated;
+    if (old == null) {
+      updated = ImmutableSet.of(pEdge);
+    } else if (old.contains(pEdge)) {
+      return this;
+    } else {
+      updated = ImmutableSet.<SMGEdgeHasValue>builder().addAll(old).add(pEdge).build();
+    }
+    return new SMGHasValueEdgeSet(
+        map.putAndCopy(pEdge.getObject(), offsets.putAndCopy(pEdge.getOffset(), updated)));
   }
 
   @Override
   public SMGHasValueEdgeSet removeEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    PersistentMultimap<SMGObject, SMGEdgeHasValue> updated =
-        map.removeAndCopy(pEdge.getObject(), pEdge);
-    if (map == updated) {
+    PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>> offsets = map.get(pEdge.getObject());
+    if (offsets == null) {
       return this;
+    }
+    ImmutableSet<SMGEdgeHasValue> old = offsets.get(pEdge.getOffset());
+    if (old == null || !old.contains(pEdge)) {
+      return this;
+    }
+
+    if (old.size() == 1) {
+      offsets = offsets.removeAndCopy(pEdge.getOffset());
     } else {
-      return new SMGHasValueEdgeSet(updated);
+      offsets =
+          offsets.putAndCopy(
+              pEdge.getOffset(),
+              FluentIterable.from(old).filter(e -> !e.equals(pEdge)).toSet());
+    }
+
+    if (offsets.isEmpty()) {
+      return new SMGHasValueEdgeSet(map.removeAndCopy(pEdge.getObject()));
+    } else {
+      return new SMGHasValueEdgeSet(map.putAndCopy(pEdge.getObject(), offsets));
     }
   }
 
   @Override
   public ImmutableSet<SMGEdgeHasValue> getHvEdges() {
-    return map.values();
+    if (allEdges == null) {
+      ImmutableSet.Builder<SMGEdgeHasValue> builder = ImmutableSet.builder();
+      for (PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>> offsets : map.values()) {
+        for (ImmutableSet<SMGEdgeHasValue> edges : offsets.values()) {
+          builder.addAll(edges);
+        }
+      }
+      allEdges = builder.build();
+    }
+    return allEdges;
   }
 
   @Override
-  public @Nullable ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
-    return map.get(pObject);
+  public Iterable<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
+    PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>> offsets = map.get(pObject);
+    if (offsets == null) {
+      return ImmutableSet.of();
+    }
+    return FluentIterable.concat(offsets.values());
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset) {
+    PersistentMap<Long, ImmutableSet<SMGEdgeHasValue>> offsets = map.get(pObject);
+    if (offsets == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet<SMGEdgeHasValue> edges = offsets.get(pOffset);
+    return edges == null ? ImmutableSet.of() : edges;
   }
 
   @Override
@@ -90,4 +156,4 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
   public String toString() {
     return map.toString();
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.cpa.smg.TypeUtils;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+
+public class SMGHasValueEdgeSetTest {
+
+  private final CType type = TypeUtils.createTypeWithLength(32);
+  private final SMGObject obj1 = new SMGRegion(64, "object1");
+  private final SMGObject obj2 = new SMGRegion(64, "object2");
+  private final SMGValue val1 = SMGKnownSymValue.valueOf(1);
+  private final SMGValue val2 = SMGKnownSymValue.valueOf(2);
+
+  @Test
+  public void testIndexByObjectAndOffset() {
+    SMGEdgeHasValue hv1 = new SMGEdgeHasValue(type, 0, obj1, val1);
+    SMGEdgeHasValue hv2 = new SMGEdgeHasValue(type, 32, obj1, val2);
+    SMGEdgeHasValue hv3 = new SMGEdgeHasValue(type, 32, obj1, val1);
+    SMGEdgeHasValue hv4 = new SMGEdgeHasValue(type, 0, obj2, val1);
+
+    SMGHasValueEdgeSet empty = new SMGHasValueEdgeSet();
+    SMGHasValueEdgeSet edges =
+        empty.addEdgeAndCopy(hv1).addEdgeAndCopy(hv2).addEdgeAndCopy(hv3).addEdgeAndCopy(hv4);
+
+    assertThat(empty.getHvEdges()).isEmpty();
+    assertThat(edges.getHvEdges()).containsExactly(hv1, hv2, hv3, hv4);
+    assertThat(edges.getEdgesForObject(obj1)).containsExactly(hv1, hv2, hv3);
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 32)).containsExactly(hv2, hv3);
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 64)).isEmpty();
+    assertThat(edges.addEdgeAndCopy(hv1)).isSameAs(edges);
+
+    SMGHasValueEdgeSet removed = edges.removeEdgeAndCopy(hv2).removeEdgeAndCopy(hv3);
+    assertThat(removed.getEdgesForObject(obj1)).containsExactly(hv1);
+    assertThat(removed.getEdgesForObjectAtOffset(obj1, 32)).isEmpty();
+    assertThat(removed.removeEdgeAndCopy(hv2)).isSameAs(removed);
+    assertThat(removed).isEqualTo(empty.addEdgeAndCopy(hv4).addEdgeAndCopy(hv1));
+
+    SMGHasValueEdgeSet withoutObject = edges.removeAllEdgesOfObjectAndCopy(obj1);
+    assertThat(withoutObject.getHvEdges()).containsExactly(hv4);
+    assertThat(withoutObject.getEdgesForObject(obj1)).isEmpty();
+
+    // the original set is not modified
+    assertThat(edges.getHvEdges()).containsExactly(hv1, hv2, hv3, hv4);
+  }
+}
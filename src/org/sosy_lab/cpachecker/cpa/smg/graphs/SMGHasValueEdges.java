@@ -24,7 +24,6 @@
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import com.google.common.collect.ImmutableSet;
-import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 
@@ -43,6 +42,9 @@ public interface SMGHasValueEdges {
 
   ImmutableSet<SMGEdgeHasValue> getHvEdges();
 
-  @Nullable
-  ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+  /** Returns all edges of the given object, or an empty iterable if there are none. */
+  Iterable<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+
+  /** Returns all edges of the given object at the given offset. */
+  ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset);
 }
\ No newline at end of file
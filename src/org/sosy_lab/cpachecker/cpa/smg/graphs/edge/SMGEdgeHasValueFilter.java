@@ -24,9 +24,7 @@
 package org.sosy_lab.cpachecker.cpa.smg.graphs.edge;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import java.util.Set;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.SMGHasValueEdges;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
@@ -97,19 +95,21 @@ public class SMGEdgeHasValueFilter {
   }
 
   public Iterable<SMGEdgeHasValue> filter(SMGHasValueEdges pEdges) {
-    Set<SMGEdgeHasValue> filtered;
-    if (object != null) {
+    Iterable<SMGEdgeHasValue> filtered;
+    if (object != null && offset != null) {
+      filtered = pEdges.getEdgesForObjectAtOffset(object, offset);
+    } else if (object != null) {
       filtered = pEdges.getEdgesForObject(object);
-      if (filtered == null) {
-        return ImmutableSet.of();
-      }
     } else {
       filtered = pEdges.getHvEdges();
     }
     return filter(filtered);
   }
 
-  /** Info: Please use SMG.getHVEdges(filter) for better performance when filtering for objects. */
+  /**
+   * Info: Please use SMG.getHVEdges(filter) for better performance when filtering for objects
+   * and offsets.
+   */
   @VisibleForTesting
   public Iterable<SMGEdgeHasValue> filter(Iterable<SMGEdgeHasValue> pEdges) {
     return Iterables.filter(pEdges, this::holdsFor);
@@ -23,6 +23,11 @@
  */
 package org.sosy_lab.cpachecker.cpa.testtargets;
 
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.AbstractCPA;
@@ -32,8 +37,24 @@ import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 
+@Options(prefix = "cpa.testtargets")
 public class TestTargetCPA extends AbstractCPA {
 
+  @Option(
+    secure = true,
+    description =
+        "Only consider the test targets of the given partition (-1 for all test targets). "
+            + "This is set for the analyses started by testcase.parallel.workers."
+  )
+  private int partition = -1;
+
+  @Option(
+    secure = true,
+    description = "Number of partitions into which the test targets are divided."
+  )
+  @IntegerOption(min = 1)
+  private int numberOfPartitions = 1;
+
   private final TestTargetPrecisionAdjustment precisionAdjustment;
   private final TransferRelation transferRelation;
 
@@ -41,11 +62,26 @@ public class TestTargetCPA extends AbstractCPA {
     return AutomaticCPAFactory.forType(TestTargetCPA.class);
   }
 
-  public TestTargetCPA(final CFA pCfa) {
+  public TestTargetCPA(final CFA pCfa, final Configuration pConfig)
+      throws InvalidConfigurationException {
     super("sep", "sep", null);
+    pConfig.inject(this);
 
     precisionAdjustment = new TestTargetPrecisionAdjustment();
-    transferRelation = new TestTargetTransferRelation(TestTargetProvider.getTestTargets(pCfa));
+    if (partition < 0) {
+      transferRelation = new TestTargetTransferRelation(TestTargetProvider.getTestTargets(pCfa));
+    } else if (partition < numberOfPartitions) {
+      transferRelation =
+          new TestTargetTransferRelation(
+              TestTargetProvider.getTestTargets(pCfa, partition, numberOfPartitions));
+    } else {
+      throw new InvalidConfigurationException(
+          "Invalid test-target partition "
+              + partition
+              + " for "
+              + numberOfPartitions
+              + " partitions");
+    }
   }
 
   @Override
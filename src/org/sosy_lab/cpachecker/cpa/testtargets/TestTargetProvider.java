@@ -24,9 +24,13 @@
 package org.sosy_lab.cpachecker.cpa.testtargets;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import com.google.common.collect.Sets;
+import com.google.common.collect.TreeMultiset;
 import java.io.PrintStream;
-import java.util.HashSet;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.CFA;
@@ -44,9 +48,13 @@ public class TestTargetProvider implements Statistics {
 
   private final CFA cfa;
   private final ImmutableSet<CFAEdge> initialTestTargets;
+  // concurrent, because test targets may be covered by several analyses in parallel
   private final Set<CFAEdge> uncoveredTargets;
   private boolean printTargets = false;
 
+  private ImmutableMap<String, Integer> functionPartitions = null;
+  private int numberOfPartitions = 0;
+
   private TestTargetProvider(final CFA pCfa) {
     cfa = pCfa;
     uncoveredTargets = extractAssumeEdges();
@@ -54,20 +62,67 @@ public class TestTargetProvider implements Statistics {
   }
 
   private Set<CFAEdge> extractAssumeEdges() {
-    Set<CFAEdge> edges = new HashSet<>();
+    Set<CFAEdge> edges = Sets.newConcurrentHashSet();
     for (CFANode node : cfa.getAllNodes()) {
       edges.addAll(CFAUtils.allLeavingEdges(node).filter(AssumeEdge.class).toSet());
     }
     return edges;
   }
 
-  public static Set<CFAEdge> getTestTargets(final CFA pCfa) {
+  public static synchronized Set<CFAEdge> getTestTargets(final CFA pCfa) {
     if (instance == null || pCfa != instance.cfa) {
       instance = new TestTargetProvider(pCfa);
     }
     return instance.uncoveredTargets;
   }
 
+  /**
+   * Get the uncovered test targets of one partition. The test targets are partitioned by function,
+   * such that all partitions contain roughly the same number of test targets. The returned set is
+   * a view: test targets removed from it are also removed from all other partitions.
+   */
+  public static synchronized Set<CFAEdge> getTestTargets(
+      final CFA pCfa, final int pPartition, final int pNumberOfPartitions) {
+    Preconditions.checkArgument(0 <= pPartition && pPartition < pNumberOfPartitions);
+    Set<CFAEdge> uncoveredTargets = getTestTargets(pCfa);
+    if (instance.numberOfPartitions != pNumberOfPartitions) {
+      instance.functionPartitions = instance.partitionByFunction(pNumberOfPartitions);
+      instance.numberOfPartitions = pNumberOfPartitions;
+    }
+    ImmutableMap<String, Integer> functionPartitions = instance.functionPartitions;
+    return Sets.filter(
+        uncoveredTargets,
+        target ->
+            Integer.valueOf(pPartition)
+                .equals(functionPartitions.get(target.getPredecessor().getFunctionName())));
+  }
+
+  /**
+   * Assign each function with test targets to a partition, largest functions first and always to
+   * the partition with the fewest test targets so far.
+   */
+  private ImmutableMap<String, Integer> partitionByFunction(final int pNumberOfPartitions) {
+    Multiset<String> targetsPerFunction = TreeMultiset.create();
+    for (CFAEdge target : initialTestTargets) {
+      targetsPerFunction.add(target.getPredecessor().getFunctionName());
+    }
+
+    int[] partitionSizes = new int[pNumberOfPartitions];
+    ImmutableMap.Builder<String, Integer> result = ImmutableMap.builder();
+    for (Multiset.Entry<String> function :
+        Multisets.copyHighestCountFirst(targetsPerFunction).entrySet()) {
+      int smallest = 0;
+      for (int i = 1; i < pNumberOfPartitions; i++) {
+        if (partitionSizes[i] < partitionSizes[smallest]) {
+          smallest = i;
+        }
+      }
+      result.put(function.getElement(), smallest);
+      partitionSizes[smallest] += function.getCount();
+    }
+    return result.build();
+  }
+
   public static String getCoverageInfo() {
     Preconditions.checkNotNull(instance);
     return (instance.initialTestTargets.size() - instance.uncoveredTargets.size())
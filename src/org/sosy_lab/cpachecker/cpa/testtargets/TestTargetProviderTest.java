@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.testtargets;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class TestTargetProviderTest {
+
+  private static final int PARTITIONS = 2;
+
+  private CFA cfa;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa =
+        TestDataTools.makeCFA(
+            "int f(int x) {",
+            "  if (x > 0) { return 1; }",
+            "  if (x > 1) { return 2; }",
+            "  return 0;",
+            "}",
+            "int g(int x) {",
+            "  if (x > 0) { return 1; }",
+            "  return 0;",
+            "}",
+            "int main() {",
+            "  int x;",
+            "  if (x) { f(x); }",
+            "  g(x);",
+            "  return 0;",
+            "}");
+  }
+
+  @Test
+  public void partitionsCoverAllTargets() {
+    Set<CFAEdge> allTargets = ImmutableSet.copyOf(TestTargetProvider.getTestTargets(cfa));
+    assertThat(allTargets).hasSize(8);
+
+    Set<CFAEdge> union = new HashSet<>();
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      Set<CFAEdge> targets = TestTargetProvider.getTestTargets(cfa, partition, PARTITIONS);
+      // f has as many test targets as main and g together
+      assertThat(targets).hasSize(4);
+      for (CFAEdge target : targets) {
+        assertThat(union.add(target)).isTrue();
+      }
+    }
+    assertThat(union).containsExactlyElementsIn(allTargets);
+  }
+
+  @Test
+  public void partitionsContainWholeFunctions() {
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      Set<String> functions = new HashSet<>();
+      for (CFAEdge target : TestTargetProvider.getTestTargets(cfa, partition, PARTITIONS)) {
+        functions.add(target.getPredecessor().getFunctionName());
+      }
+      for (CFAEdge target : TestTargetProvider.getTestTargets(cfa)) {
+        if (functions.contains(target.getPredecessor().getFunctionName())) {
+          assertThat(TestTargetProvider.getTestTargets(cfa, partition, PARTITIONS))
+              .contains(target);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void coveredTargetsAreRemovedFromAllPartitions() {
+    Set<CFAEdge> partition = TestTargetProvider.getTestTargets(cfa, 0, PARTITIONS);
+    CFAEdge covered = partition.iterator().next();
+
+    partition.remove(covered);
+
+    assertThat(TestTargetProvider.getTestTargets(cfa)).doesNotContain(covered);
+    assertThat(TestTargetProvider.getTestTargets(cfa, 0, PARTITIONS)).doesNotContain(covered);
+    assertThat(TestTargetProvider.getTestTargets(cfa, 1, PARTITIONS)).doesNotContain(covered);
+    assertThat(TestTargetProvider.getCoverageInfo()).isEqualTo("1 of 8 covered");
+  }
+}
@@ -34,6 +34,7 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -68,6 +69,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.ThreadSafeConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentOptions;
@@ -80,12 +82,13 @@ import org.sosy_lab.cpachecker.cpa.value.symbolic.SymbolicValueAnalysisPrecision
 import org.sosy_lab.cpachecker.cpa.value.symbolic.SymbolicValueAssigner;
 import org.sosy_lab.cpachecker.util.StateToFormulaWriter;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.states.MemoryLocationHashTrieMap;
 import org.sosy_lab.cpachecker.util.states.MemoryLocationValueHandler;
 
 @Options(prefix = "cpa.value")
 public class ValueAnalysisCPA
     implements ConfigurableProgramAnalysisWithBAM, StatisticsProvider, ProofCheckerCPA,
-        ConfigurableProgramAnalysisWithConcreteCex {
+        ConfigurableProgramAnalysisWithConcreteCex, ThreadSafeConfigurableProgramAnalysis {
 
   @Option(secure=true, name="merge", toUppercase=true, values={"SEP", "JOIN"},
       description="which merge operator to use for ValueAnalysisCPA")
@@ -106,6 +109,13 @@ public class ValueAnalysisCPA
           + " Otherwise, symbolic values will be created, but not evaluated.")
   private boolean useSymbolicValues = false;
 
+  @Option(secure=true, name="stateMap", toUppercase=true, values={"TREE", "HASH_TRIE"},
+      description="which map implementation to use for the values in the abstract states:"
+          + " TREE is a sorted persistent tree map, HASH_TRIE is a hash trie over the IDs of the"
+          + " memory locations that allows faster comparison and merge of similar states,"
+          + " but does not iterate over the variables in a stable order")
+  private String stateMapType = "TREE";
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -281,6 +291,10 @@ public class ValueAnalysisCPA
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
+    if (stateMapType.equals("HASH_TRIE")) {
+      return new ValueAnalysisState(
+          Optional.of(cfa.getMachineModel()), MemoryLocationHashTrieMap.of());
+    }
     return new ValueAnalysisState(cfa.getMachineModel());
   }
 
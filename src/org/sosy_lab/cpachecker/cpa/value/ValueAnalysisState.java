@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Sets;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -67,6 +68,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FloatingPointFormulaManagerVi
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.refinement.ForgetfulState;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.states.MemoryLocationHashTrieMap;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
@@ -81,7 +83,8 @@ public class ValueAnalysisState
 
   private static final long serialVersionUID = -3152134511524554358L;
 
-  private static final Set<MemoryLocation> blacklist = new HashSet<>();
+  // concurrent, because the transfer relations of a parallel refinement add to it
+  private static final Set<MemoryLocation> blacklist = Sets.newConcurrentHashSet();
 
   static void addToBlacklist(MemoryLocation var) {
     blacklist.add(checkNotNull(var));
@@ -336,7 +339,21 @@ public class ValueAnalysisState
    * @return a new state representing the join of this element and the other element
    */
   @Override
+  @SuppressWarnings("unchecked")
   public ValueAnalysisState join(ValueAnalysisState reachedState) {
+    if (constantsMap instanceof MemoryLocationHashTrieMap
+        && reachedState.constantsMap instanceof MemoryLocationHashTrieMap) {
+      // shared subtrees of both maps are taken over without looking at single entries
+      MemoryLocationHashTrieMap<ValueAndType> newConstantsMap =
+          ((MemoryLocationHashTrieMap<ValueAndType>) constantsMap)
+              .retainEqualEntries(
+                  (MemoryLocationHashTrieMap<ValueAndType>) reachedState.constantsMap);
+      if (newConstantsMap == reachedState.constantsMap) {
+        return reachedState;
+      }
+      return new ValueAnalysisState(machineModel, newConstantsMap);
+    }
+
     PersistentMap<MemoryLocation, ValueAndType> newConstantsMap = PathCopyingPersistentTreeMap.of();
 
     for (Entry<MemoryLocation, ValueAndType> otherEntry : reachedState.constantsMap.entrySet()) {
@@ -363,6 +380,7 @@ public class ValueAnalysisState
    * @return true, if this element is less or equal than the other element, based on the order imposed by the lattice
    */
   @Override
+  @SuppressWarnings("unchecked")
   public boolean isLessOrEqual(ValueAnalysisState other) {
 
     // also, this element is not less or equal than the other element, if it contains less elements
@@ -380,6 +398,13 @@ public class ValueAnalysisState
     // }
 
     // the tolerant way: ignore all type information. TODO really correct?
+    if (constantsMap instanceof MemoryLocationHashTrieMap
+        && other.constantsMap instanceof MemoryLocationHashTrieMap) {
+      return ((MemoryLocationHashTrieMap<ValueAndType>) constantsMap)
+          .containsAllEntriesOf(
+              (MemoryLocationHashTrieMap<ValueAndType>) other.constantsMap,
+              (thisValue, otherValue) -> otherValue.getValue().equals(thisValue.getValue()));
+    }
     for (Entry<MemoryLocation, ValueAndType> otherEntry : other.constantsMap.entrySet()) {
       MemoryLocation key = otherEntry.getKey();
       Value otherValue = otherEntry.getValue().getValue();
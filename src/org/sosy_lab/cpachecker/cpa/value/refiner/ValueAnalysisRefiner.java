@@ -198,6 +198,26 @@ public class ValueAnalysisRefiner
 
     pConfig.inject(this, ValueAnalysisRefiner.class);
 
+    // the transfer relation, checker and interpolator are not thread-safe, so each thread of a
+    // parallel refinement gets its own instances
+    enableParallelRefinement(
+        () -> {
+          StrongestPostOperator<ValueAnalysisState> strongestPostOp =
+              new ValueAnalysisStrongestPostOperator(pLogger, pConfig, pCfa);
+          ValueAnalysisFeasibilityChecker workerChecker =
+              new ValueAnalysisFeasibilityChecker(strongestPostOp, pLogger, pCfa, pConfig);
+          return Pair.of(
+              workerChecker,
+              new ValueAnalysisPathInterpolator(
+                  workerChecker,
+                  strongestPostOp,
+                  new ValueAnalysisPrefixProvider(pLogger, pCfa, pConfig, pShutdownNotifier),
+                  pConfig,
+                  pLogger,
+                  pShutdownNotifier,
+                  pCfa));
+        });
+
     checker = pFeasibilityChecker;
     concreteErrorPathAllocator = new ValueAnalysisConcreteErrorPathAllocator(pConfig, logger, pCfa.getMachineModel());
     shutdownNotifier = pShutdownNotifier;
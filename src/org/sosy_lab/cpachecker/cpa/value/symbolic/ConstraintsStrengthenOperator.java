@@ -29,6 +29,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
@@ -36,7 +37,6 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
-import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.types.Type;
@@ -55,6 +55,8 @@ import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicValueFactory;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.util.SymbolicValues;
 import org.sosy_lab.cpachecker.cpa.value.type.Value;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
 /**
  * Strengthener for ValueAnalysis with {@link ConstraintsCPA}.
@@ -65,9 +67,12 @@ public class ConstraintsStrengthenOperator implements Statistics {
   @Option(description = "Whether to simplify symbolic expressions, if possible.")
   private boolean simplifySymbolics = true;
 
-  // statistics
-  private final Timer totalTime = new Timer();
-  private int replacedSymbolicExpressions = 0;
+  // statistics, this operator is shared by the transfer relations of all worker threads
+  private final ThreadSafeTimerContainer totalTime =
+      new ThreadSafeTimerContainer("Total time for strengthening by ConstraintsCPA");
+  private final ThreadLocal<TimerWrapper> timer =
+      ThreadLocal.withInitial(totalTime::getNewTimer);
+  private final LongAdder replacedSymbolicExpressions = new LongAdder();
 
   private final LogManager logger;
 
@@ -97,7 +102,8 @@ public class ConstraintsStrengthenOperator implements Statistics {
       final ConstraintsState pStrengtheningState,
       final CFAEdge pEdge
   ) {
-    totalTime.start();
+    TimerWrapper strengthenTimer = timer.get();
+    strengthenTimer.start();
     try {
       ValueAnalysisState newState = pStateToStrengthen;
 
@@ -112,7 +118,7 @@ public class ConstraintsStrengthenOperator implements Statistics {
         return null;
       }
     } finally {
-      totalTime.stop();
+      strengthenTimer.stop();
     }
 
   }
@@ -152,7 +158,7 @@ public class ConstraintsStrengthenOperator implements Statistics {
             factory.asConstant(factory.newIdentifier(e.getKey()), valueType);
         pValueState.assignConstant(currLoc, newIdentifier, valueType);
         logger.log(Level.FINE, "Replaced %s with %s", currV, newIdentifier);
-        replacedSymbolicExpressions++;
+        replacedSymbolicExpressions.increment();
       }
     }
 
@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.cpa.value.symbolic.type;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.Type;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
@@ -42,7 +43,7 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 public class SymbolicValueFactory {
 
   private static final SymbolicValueFactory SINGLETON = new SymbolicValueFactory();
-  private int idCounter = 0;
+  private final AtomicInteger idCounter = new AtomicInteger();
 
   private SymbolicValueFactory() {
     // DO NOTHING
@@ -53,11 +54,11 @@ public class SymbolicValueFactory {
   }
 
   public static void reset() {
-    SINGLETON.idCounter = 0;
+    SINGLETON.idCounter.set(0);
   }
 
   public SymbolicIdentifier newIdentifier(MemoryLocation pMemoryLocation) {
-    return new SymbolicIdentifier(idCounter++, pMemoryLocation);
+    return new SymbolicIdentifier(idCounter.getAndIncrement(), pMemoryLocation);
   }
 
   public SymbolicExpression asConstant(Value pValue, Type pType) {
@@ -40,6 +40,7 @@ import java.util.logging.Level;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -83,6 +84,23 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
       description = "writes the validation configuration required for checking to proof")
   boolean storeConfig = false;
 
+  public enum ProofFormat {
+    /** one zip entry per proof entry, entries can only be read sequentially */
+    ZIP,
+    /** independently compressed chunks with an index, see {@link ChunkedProofFile} */
+    CHUNKED
+  }
+
+  @Option(secure=true,
+      name="proofFormat",
+      description = "file format used for writing the proof. CHUNKED compresses every entry"
+          + " separately and stores an index such that partitions can be read in parallel."
+          + " The format of a proof is detected automatically when reading it.")
+  private ProofFormat proofFormat = ProofFormat.ZIP;
+
+  private @Nullable ChunkedProofFile.Reader chunkedProofReader = null;
+  private boolean proofFormatDetected = false;
+
   public AbstractStrategy(Configuration pConfig, LogManager pLogger, Path pProofFile) throws InvalidConfigurationException {
     pConfig.inject(this, AbstractStrategy.class);
     config = pConfig;
@@ -96,7 +114,6 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   }
 
   @Override
-  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps stream zos/fos which need to remain open and would be closed if o.close() is called.")
   public void writeProof(UnmodifiableReachedSet pReached) {
 
     Path dir = proofFile.getParent();
@@ -106,44 +123,41 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
         Files.createDirectories(dir);
       }
 
-      try (final OutputStream fos = Files.newOutputStream(proofFile);
-          final ZipOutputStream zos = new ZipOutputStream(fos)) {
-        zos.setLevel(9);
-
-        ZipEntry ze = new ZipEntry(PROOF_ZIPENTRY_NAME);
-        zos.putNextEntry(ze);
-        ObjectOutputStream o = new ObjectOutputStream(zos);
-        //TODO might also want to write used configuration to the file so that proof checker does not need to get it as an argument
-        //write ARG
-        writeProofToStream(o, pReached);
-        o.flush();
-        zos.closeEntry();
-
-        // write additional proof information
-        int index = 0;
-        boolean continueWriting;
-        do {
-          ze = new ZipEntry(ADDITIONAL_PROOFINFO_ZIPENTRY_NAME + index);
-          zos.putNextEntry(ze);
-          o = new ObjectOutputStream(zos);
-          continueWriting = writeAdditionalProofStream(o);
-          o.flush();
-          zos.closeEntry();
-          index++;
-        } while (continueWriting);
-
-        if (storeConfig) {
-          ze = new ZipEntry(CONFIG_ZIPENTRY_NAME);
-          zos.putNextEntry(ze);
-          o = new ObjectOutputStream(zos);
-          try {
-            writeConfiguration(o);
-          } catch (ValidationConfigurationConstructionFailed eIC) {
-            logger.log(Level.WARNING, "Construction of validation configuration failed. Validation configuration is empty.");
+      try (final OutputStream fos = Files.newOutputStream(proofFile)) {
+        if (proofFormat == ProofFormat.CHUNKED) {
+          try (final ChunkedProofFile.Writer cos = new ChunkedProofFile.Writer(fos, 9)) {
+            writeProofEntries(
+                new ProofEntryWriter() {
+                  @Override
+                  public OutputStream putNextEntry(String pName) {
+                    return cos.putNextChunk(pName);
+                  }
+
+                  @Override
+                  public void closeEntry() throws IOException {
+                    cos.closeChunk();
+                  }
+                },
+                pReached);
+          }
+        } else {
+          try (final ZipOutputStream zos = new ZipOutputStream(fos)) {
+            zos.setLevel(9);
+            writeProofEntries(
+                new ProofEntryWriter() {
+                  @Override
+                  public OutputStream putNextEntry(String pName) throws IOException {
+                    zos.putNextEntry(new ZipEntry(pName));
+                    return zos;
+                  }
+
+                  @Override
+                  public void closeEntry() throws IOException {
+                    zos.closeEntry();
+                  }
+                },
+                pReached);
           }
-
-          o.flush();
-          zos.closeEntry();
         }
       } catch (NotSerializableException eS) {
         logger.log(Level.SEVERE, "Proof cannot be written. Class " + eS.getMessage()
@@ -162,13 +176,54 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     logger.log(Level.INFO, proofInfo.getInfoAsString());
   }
 
+  private interface ProofEntryWriter {
+    OutputStream putNextEntry(String pName) throws IOException;
+
+    void closeEntry() throws IOException;
+  }
+
+  @SuppressFBWarnings(value="OS_OPEN_STREAM", justification="Do not close stream o because it wraps the entry stream which needs to remain open and would be closed if o.close() is called.")
+  private void writeProofEntries(ProofEntryWriter pWriter, UnmodifiableReachedSet pReached)
+      throws IOException, InvalidConfigurationException, InterruptedException {
+    ObjectOutputStream o = new ObjectOutputStream(pWriter.putNextEntry(PROOF_ZIPENTRY_NAME));
+    //TODO might also want to write used configuration to the file so that proof checker does not need to get it as an argument
+    //write ARG
+    writeProofToStream(o, pReached);
+    o.flush();
+    pWriter.closeEntry();
+
+    // write additional proof information
+    int index = 0;
+    boolean continueWriting;
+    do {
+      o = new ObjectOutputStream(
+          pWriter.putNextEntry(ADDITIONAL_PROOFINFO_ZIPENTRY_NAME + index));
+      continueWriting = writeAdditionalProofStream(o);
+      o.flush();
+      pWriter.closeEntry();
+      index++;
+    } while (continueWriting);
+
+    if (storeConfig) {
+      o = new ObjectOutputStream(pWriter.putNextEntry(CONFIG_ZIPENTRY_NAME));
+      try {
+        writeConfiguration(o);
+      } catch (ValidationConfigurationConstructionFailed eIC) {
+        logger.log(Level.WARNING, "Construction of validation configuration failed. Validation configuration is empty.");
+      }
+
+      o.flush();
+      pWriter.closeEntry();
+    }
+  }
+
   protected abstract void writeProofToStream(ObjectOutputStream out, UnmodifiableReachedSet reached)
       throws IOException, InvalidConfigurationException, InterruptedException;
 
 
   @Override
   public void readProof() throws IOException, ClassNotFoundException, InvalidConfigurationException {
-    Triple<InputStream, ZipInputStream, ObjectInputStream> proofStream = openProofStream();
+    Triple<InputStream, InputStream, ObjectInputStream> proofStream = openProofStream();
     readProofFromStream(proofStream.getThird());
     proofStream.getThird().close();
     proofStream.getSecond().close();
@@ -190,7 +245,34 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
   }
 
 
-  protected Triple<InputStream, ZipInputStream, ObjectInputStream> openProofStream() throws IOException {
+  /**
+   * Returns the reader for the proof file if it is stored in the chunked format
+   * and null if it is stored as zip file.
+   */
+  private synchronized @Nullable ChunkedProofFile.Reader getChunkedProofReader()
+      throws IOException {
+    if (!proofFormatDetected) {
+      if (ChunkedProofFile.isChunkedProofFile(proofFile)) {
+        chunkedProofReader = new ChunkedProofFile.Reader(proofFile);
+      }
+      proofFormatDetected = true;
+    }
+    return chunkedProofReader;
+  }
+
+  private Triple<InputStream, InputStream, ObjectInputStream> openChunk(
+      ChunkedProofFile.Reader pReader, String pName) throws IOException {
+    InputStream chunk = pReader.openChunk(pName);
+    return Triple.of(chunk, chunk, new ObjectInputStream(chunk));
+  }
+
+  protected Triple<InputStream, InputStream, ObjectInputStream> openProofStream()
+      throws IOException {
+    ChunkedProofFile.Reader reader = getChunkedProofReader();
+    if (reader != null) {
+      return openChunk(reader, PROOF_ZIPENTRY_NAME);
+    }
+
     InputStream fis = Files.newInputStream(proofFile);
     ZipInputStream zis = new ZipInputStream(fis);
     ZipEntry entry = zis.getNextEntry();
@@ -198,9 +280,19 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     return Triple.of(fis, zis, new ObjectInputStream(zis));
   }
 
-  public Triple<InputStream, ZipInputStream, ObjectInputStream> openAdditionalProofStream(final int index)
-      throws IOException {
+  /**
+   * Opens the additional proof information with the given index. For proofs in the chunked
+   * format, the entry is accessed directly and this method may be called concurrently. For proofs
+   * in the zip format, all entries before the requested one need to be decompressed.
+   */
+  public Triple<InputStream, InputStream, ObjectInputStream> openAdditionalProofStream(
+      final int index) throws IOException {
     if (index < 0) { throw new IllegalArgumentException("Not a valid index. Indices must be at least zero."); }
+    ChunkedProofFile.Reader reader = getChunkedProofReader();
+    if (reader != null) {
+      return openChunk(reader, ADDITIONAL_PROOFINFO_ZIPENTRY_NAME + index);
+    }
+
     InputStream fis = Files.newInputStream(proofFile);
     ZipInputStream zis = new ZipInputStream(fis);
     ZipEntry entry = null;
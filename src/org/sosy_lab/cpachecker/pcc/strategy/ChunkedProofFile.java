@@ -0,0 +1,306 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Proof file format that stores every proof entry (proof, additional proof information,
+ * configuration) as an independently compressed, length-prefixed chunk and appends an index of
+ * all chunks to the file.
+ *
+ * <p>In contrast to the zip format, a chunk can be located via the index without decompressing
+ * the chunks stored before it. Thus, partitions can be read by several threads in parallel, each
+ * of them working on its own memory-mapped region of the proof file.
+ *
+ * <p>Layout of the file:
+ *
+ * <pre>
+ * magic (int), version (int)
+ * for every chunk: length of compressed data (int), compressed data
+ * index: number of chunks (int), for every chunk: name (UTF), offset of data (long),
+ *        length of compressed data (int), CRC32 of compressed data (long)
+ * offset of index (long)
+ * </pre>
+ */
+public final class ChunkedProofFile {
+
+  private static final int MAGIC = 0x43504346; // "CPCF"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+  private static final int TRAILER_SIZE = Long.BYTES;
+
+  private ChunkedProofFile() {}
+
+  /** Check whether the given file starts with the header of a chunked proof file. */
+  public static boolean isChunkedProofFile(Path pFile) throws IOException {
+    try (DataInputStream in = new DataInputStream(Files.newInputStream(pFile))) {
+      return in.readInt() == MAGIC;
+    } catch (EOFException e) {
+      return false;
+    }
+  }
+
+  private static final class ChunkInfo {
+    private final long offset;
+    private final int length;
+    private final long checksum;
+
+    private ChunkInfo(long pOffset, int pLength, long pChecksum) {
+      offset = pOffset;
+      length = pLength;
+      checksum = pChecksum;
+    }
+  }
+
+  /**
+   * Writes chunks to an underlying stream. Usage is similar to {@link
+   * java.util.zip.ZipOutputStream}: a chunk is started with {@link #putNextChunk(String)}, its
+   * content is written to the stream returned by this method, and the chunk is completed with
+   * {@link #closeChunk()}. The index is written when the writer is closed.
+   */
+  public static final class Writer implements Closeable {
+
+    private final DataOutputStream out;
+    private final Map<String, ChunkInfo> index = new LinkedHashMap<>();
+    private final int compressionLevel;
+    private long position;
+
+    private @Nullable String currentChunk = null;
+    private @Nullable ByteArrayOutputStream currentData = null;
+    private @Nullable Deflater currentDeflater = null;
+    private @Nullable DeflaterOutputStream currentStream = null;
+
+    public Writer(OutputStream pOut, int pCompressionLevel) throws IOException {
+      out = new DataOutputStream(pOut);
+      compressionLevel = pCompressionLevel;
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      position = HEADER_SIZE;
+    }
+
+    /**
+     * Start a new chunk and return the stream to which its (uncompressed) content should be
+     * written. Closing the returned stream has no effect on the writer.
+     */
+    public OutputStream putNextChunk(String pName) {
+      checkState(currentChunk == null, "Chunk %s was not closed", currentChunk);
+      checkArgument(!index.containsKey(pName), "Duplicate chunk %s", pName);
+      currentChunk = pName;
+      currentData = new ByteArrayOutputStream();
+      currentDeflater = new Deflater(compressionLevel);
+      currentStream = new DeflaterOutputStream(currentData, currentDeflater);
+      final OutputStream chunkStream = currentStream;
+      return new FilterOutputStream(chunkStream) {
+        @Override
+        public void write(byte[] pB, int pOff, int pLen) throws IOException {
+          chunkStream.write(pB, pOff, pLen);
+        }
+
+        @Override
+        public void close() throws IOException {
+          flush();
+        }
+      };
+    }
+
+    /** Compress the current chunk and append it to the underlying stream. */
+    public void closeChunk() throws IOException {
+      checkState(currentChunk != null, "No chunk was started");
+      currentStream.finish();
+      currentDeflater.end();
+      byte[] data = currentData.toByteArray();
+      CRC32 crc = new CRC32();
+      crc.update(data);
+
+      out.writeInt(data.length);
+      out.write(data);
+      index.put(currentChunk, new ChunkInfo(position + Integer.BYTES, data.length, crc.getValue()));
+      position += Integer.BYTES + data.length;
+
+      currentChunk = null;
+      currentData = null;
+      currentDeflater = null;
+      currentStream = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (currentChunk != null) {
+        closeChunk();
+      }
+      out.writeInt(index.size());
+      for (Map.Entry<String, ChunkInfo> entry : index.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeLong(entry.getValue().offset);
+        out.writeInt(entry.getValue().length);
+        out.writeLong(entry.getValue().checksum);
+      }
+      out.writeLong(position);
+      out.close();
+    }
+  }
+
+  /**
+   * Gives random access to the chunks of a proof file. The index is read once on construction,
+   * afterwards chunks can be opened concurrently from several threads.
+   */
+  public static final class Reader {
+
+    private final Path file;
+    private final ImmutableMap<String, ChunkInfo> index;
+
+    public Reader(Path pFile) throws IOException {
+      file = pFile;
+      try (FileChannel channel = FileChannel.open(pFile, StandardOpenOption.READ)) {
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+          throw new IOException("Proof file " + pFile + " is too short.");
+        }
+        ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+          throw new IOException(
+              "Proof file " + pFile + " is not a chunked proof of version " + VERSION);
+        }
+        long indexOffset = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE).getLong();
+        if (indexOffset < HEADER_SIZE || indexOffset > size - TRAILER_SIZE) {
+          throw new IOException("Proof file " + pFile + " has an invalid chunk index.");
+        }
+
+        ByteBuffer indexData =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY, indexOffset, size - TRAILER_SIZE - indexOffset);
+        ImmutableMap.Builder<String, ChunkInfo> builder = ImmutableMap.builder();
+        try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(indexData))) {
+          int numChunks = in.readInt();
+          for (int i = 0; i < numChunks; i++) {
+            String name = in.readUTF();
+            ChunkInfo info = new ChunkInfo(in.readLong(), in.readInt(), in.readLong());
+            if (info.offset < HEADER_SIZE || info.offset + info.length > indexOffset) {
+              throw new IOException("Chunk " + name + " lies outside of the proof data.");
+            }
+            builder.put(name, info);
+          }
+        }
+        index = builder.build();
+      }
+    }
+
+    public boolean hasChunk(String pName) {
+      return index.containsKey(pName);
+    }
+
+    /**
+     * Open the chunk with the given name and return a stream providing its uncompressed content.
+     * The checksum of the chunk is validated before the stream is returned.
+     */
+    public InputStream openChunk(String pName) throws IOException {
+      ChunkInfo info = index.get(pName);
+      if (info == null) {
+        throw new IOException("Unable to find entry " + pName + " in proof.");
+      }
+
+      ByteBuffer data;
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        data = channel.map(FileChannel.MapMode.READ_ONLY, info.offset, info.length);
+      }
+
+      CRC32 crc = new CRC32();
+      crc.update(data.duplicate());
+      if (crc.getValue() != info.checksum) {
+        throw new IOException("Entry " + pName + " of proof is corrupted.");
+      }
+
+      return new InflaterInputStream(new ByteBufferInputStream(data));
+    }
+
+    private static ByteBuffer readFully(FileChannel pChannel, long pPosition, int pLength)
+        throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(pLength);
+      while (buffer.hasRemaining()) {
+        if (pChannel.read(buffer, pPosition + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of proof file");
+        }
+      }
+      buffer.flip();
+      return buffer;
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer pBuffer) {
+      buffer = pBuffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] pB, int pOff, int pLen) {
+      if (pLen == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int len = Math.min(pLen, buffer.remaining());
+      buffer.get(pB, pOff, len);
+      return len;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
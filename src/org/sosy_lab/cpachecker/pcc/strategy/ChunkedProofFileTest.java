@@ -0,0 +1,93 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.pcc.strategy;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ChunkedProofFileTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path writeChunks(String... pContents) throws IOException {
+    Path file = tempFolder.newFile().toPath();
+    try (ChunkedProofFile.Writer writer =
+        new ChunkedProofFile.Writer(Files.newOutputStream(file), 9)) {
+      for (int i = 0; i < pContents.length; i++) {
+        OutputStream out = writer.putNextChunk("chunk" + i);
+        out.write(pContents[i].getBytes(StandardCharsets.UTF_8));
+        out.close();
+        writer.closeChunk();
+      }
+    }
+    return file;
+  }
+
+  private static String read(ChunkedProofFile.Reader pReader, String pName) throws IOException {
+    try (InputStream in = pReader.openChunk(pName)) {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  public void testRandomAccess() throws IOException {
+    Path file = writeChunks("first", "", "third chunk");
+    assertThat(ChunkedProofFile.isChunkedProofFile(file)).isTrue();
+
+    ChunkedProofFile.Reader reader = new ChunkedProofFile.Reader(file);
+    assertThat(read(reader, "chunk2")).isEqualTo("third chunk");
+    assertThat(read(reader, "chunk0")).isEqualTo("first");
+    assertThat(read(reader, "chunk1")).isEmpty();
+    assertThat(reader.hasChunk("chunk3")).isFalse();
+  }
+
+  @Test
+  public void testOtherFile() throws IOException {
+    Path file = tempFolder.newFile().toPath();
+    assertThat(ChunkedProofFile.isChunkedProofFile(file)).isFalse();
+    Files.write(file, "not a proof".getBytes(StandardCharsets.UTF_8));
+    assertThat(ChunkedProofFile.isChunkedProofFile(file)).isFalse();
+  }
+
+  @Test(expected = IOException.class)
+  public void testCorruptedChunk() throws IOException {
+    Path file = writeChunks("some content of the proof");
+    byte[] data = Files.readAllBytes(file);
+    // first byte of compressed data follows header (8 bytes) and length prefix (4 bytes)
+    data[12] ^= 0xFF;
+    Files.write(file, data);
+
+    new ChunkedProofFile.Reader(file).openChunk("chunk0");
+  }
+}
@@ -42,6 +42,7 @@ import org.sosy_lab.common.configuration.ConfigurationBuilder;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.cpachecker.exceptions.ValidationConfigurationConstructionFailed;
 import org.sosy_lab.cpachecker.pcc.strategy.AbstractStrategy;
+import org.sosy_lab.cpachecker.pcc.strategy.ChunkedProofFile;
 
 public class ValidationConfigurationBuilder {
 
@@ -219,6 +220,13 @@ public class ValidationConfigurationBuilder {
   public static Configuration readConfigFromProof(Path proofFile)
       throws IOException, InvalidConfigurationException {
 
+    if (ChunkedProofFile.isChunkedProofFile(proofFile)) {
+      try (InputStream chunk =
+          new ChunkedProofFile.Reader(proofFile).openChunk(AbstractStrategy.CONFIG_ZIPENTRY_NAME)) {
+        return readConfig(chunk);
+      }
+    }
+
     try (InputStream fis = Files.newInputStream(proofFile);
         ZipInputStream zis = new ZipInputStream(fis);) {
       ZipEntry entry;
@@ -230,17 +238,22 @@ public class ValidationConfigurationBuilder {
 
       if (entry == null) { throw new IOException("Unable to find configuration entry in proof."); }
 
-      Path valConfig = Files.createTempFile("pcc-check-config", "properties");
+      return readConfig(zis);
+    }
+  }
 
-      try (ObjectInputStream in = new ObjectInputStream(zis);
-          PrintStream out = new PrintStream(new FileOutputStream(valConfig.toFile()), false, "UTF-8")) {
-        out.print(in.readObject());
-      } catch (ClassNotFoundException e) {
-        throw new IOException("Failed to read configuration");
-      }
+  private static Configuration readConfig(InputStream pConfigEntry)
+      throws IOException, InvalidConfigurationException {
+    Path valConfig = Files.createTempFile("pcc-check-config", "properties");
 
-      return Configuration.builder().loadFromFile(valConfig).build();
+    try (ObjectInputStream in = new ObjectInputStream(pConfigEntry);
+        PrintStream out = new PrintStream(new FileOutputStream(valConfig.toFile()), false, "UTF-8")) {
+      out.print(in.readObject());
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Failed to read configuration");
     }
+
+    return Configuration.builder().loadFromFile(valConfig).build();
   }
 
 }
@@ -46,6 +46,7 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.SortedSetMultimap;
 import com.google.common.collect.TreeMultimap;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -56,6 +57,7 @@ import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -88,6 +90,8 @@ import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.livevar.LiveVariablesCPA;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflowResult;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflowSolver;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimit;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.resources.WalltimeLimit;
@@ -154,6 +158,17 @@ public class LiveVariables {
                     min=0)
     private TimeSpan partwiseLivenessCheckTime = TimeSpan.ofSeconds(20);
 
+    @Option(secure=true, description="Compute the live variables with a bit-vector dataflow"
+        + " analysis instead of the LiveVariablesCPA if the evaluation strategy is function-wise."
+        + " This is much faster on large programs, but assignments to array elements, struct"
+        + " fields, and through pointers are handled less precisely.")
+    private boolean useBitVectorDataflow = false;
+
+    @Option(secure=true, description="Number of threads for computing the live variables"
+        + " of different functions in parallel with the bit-vector dataflow analysis.")
+    @IntegerOption(min = 1)
+    private int dataflowThreads = 1;
+
     public LiveVariablesConfiguration(Configuration config) throws InvalidConfigurationException {
       config.inject(this);
     }
@@ -428,13 +443,22 @@ public class LiveVariables {
       limitChecker = null;
     }
 
-    Optional<AnalysisParts> parts =
-        getNecessaryAnalysisComponents(cfa, logger, shutdownNotifier, config.evaluationStrategy);
     Multimap<CFANode, Wrapper<ASimpleDeclaration>> liveVariables = null;
 
     // create live variables
-    if (parts.isPresent()) {
-      liveVariables = addLiveVariablesFromCFA(cfa, logger, parts.get(), config.evaluationStrategy);
+    if (config.useBitVectorDataflow
+        && config.evaluationStrategy == EvaluationStrategy.FUNCTION_WISE) {
+      liveVariables =
+          addLiveVariablesFromDataflow(
+              cfa, variableClassification, logger, shutdownNotifier, config.dataflowThreads);
+
+    } else {
+      Optional<AnalysisParts> parts =
+          getNecessaryAnalysisComponents(cfa, logger, shutdownNotifier, config.evaluationStrategy);
+      if (parts.isPresent()) {
+        liveVariables =
+            addLiveVariablesFromCFA(cfa, logger, parts.get(), config.evaluationStrategy);
+      }
     }
 
     if (limitChecker != null) {
@@ -551,6 +575,47 @@ public class LiveVariables {
     return liveVarCPA.getLiveVariables();
   }
 
+  private static Multimap<CFANode, Wrapper<ASimpleDeclaration>> addLiveVariablesFromDataflow(
+      final CFA pCfa,
+      final VariableClassification variableClassification,
+      final LogManager logger,
+      final ShutdownNotifier shutdownNotifier,
+      final int threads) {
+
+    final Set<String> addressedVariables =
+        pCfa.getLanguage() == Language.C
+            ? variableClassification.getAddressedVariables()
+            : ImmutableSet.of();
+
+    logger.log(Level.INFO, "Starting live variables collection ...");
+    List<BitVectorDataflowResult<LiveVariablesDataflowProblem>> results;
+    try {
+      results =
+          BitVectorDataflowSolver.solveFunctionWise(
+              pCfa.getAllFunctionHeads(),
+              (function, nodes) ->
+                  new LiveVariablesDataflowProblem(function, nodes, addressedVariables),
+              threads,
+              shutdownNotifier);
+    } catch (InterruptedException e) {
+      logger.logUserException(Level.WARNING, e, "Could not compute live variables.");
+      return null;
+    }
+    logger.log(Level.INFO, "Stopping live variables collection ...");
+
+    ImmutableSetMultimap.Builder<CFANode, Wrapper<ASimpleDeclaration>> liveVariables =
+        ImmutableSetMultimap.builder();
+    for (BitVectorDataflowResult<LiveVariablesDataflowProblem> result : results) {
+      for (CFANode node : result.getNodes()) {
+        BitSet facts = result.getFacts(node);
+        for (int i = facts.nextSetBit(0); i >= 0; i = facts.nextSetBit(i + 1)) {
+          liveVariables.put(node, result.getProblem().getDeclaration(i));
+        }
+      }
+    }
+    return liveVariables.build();
+  }
+
   private static Optional<AnalysisParts> getNecessaryAnalysisComponents(final CFA cfa,
       final LogManager logger,
       final ShutdownNotifier shutdownNotifier,
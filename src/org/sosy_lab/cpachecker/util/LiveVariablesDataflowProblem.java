@@ -0,0 +1,317 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util;
+
+import static org.sosy_lab.cpachecker.util.LiveVariables.LIVE_DECL_EQUIVALENCE;
+
+import com.google.common.base.Equivalence.Wrapper;
+import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.AAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
+import org.sosy_lab.cpachecker.cfa.ast.AExpression;
+import org.sosy_lab.cpachecker.cfa.ast.AExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.AExpressionStatement;
+import org.sosy_lab.cpachecker.cfa.ast.AFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.AFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.AIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.AInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.ALeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.ASimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.AStatement;
+import org.sosy_lab.cpachecker.cfa.ast.AVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.ADeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.AReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.AStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.AssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflowProblem;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectors;
+
+/**
+ * Intraprocedural liveness of the variables of one function as a bit-vector dataflow problem.
+ *
+ * <p>Like the function-wise analysis with the LiveVariablesCPA, the right-hand side of an
+ * assignment to a local variable only becomes live if the assigned variable is live, and global or
+ * addressed variables are always considered live. Assignments to anything else than a local
+ * variable (e.g., to array elements, struct fields, or through pointers) are handled
+ * conservatively by making all variables of the statement live without killing any.
+ */
+final class LiveVariablesDataflowProblem implements BitVectorDataflowProblem {
+
+  /**
+   * The effect of an edge on the live variables: First, the variable {@code kill} is removed and
+   * {@code gen} is added. Then, if {@code conditional} is live, it is removed and {@code
+   * conditionalGen} is added.
+   */
+  private static final class EdgeEffect {
+
+    private int kill = -1;
+    private final long[] gen;
+    private int conditional = -1;
+    private @Nullable long[] conditionalGen = null;
+
+    private EdgeEffect(int pWords) {
+      gen = new long[pWords];
+    }
+  }
+
+  private final FunctionEntryNode function;
+  private final Set<String> addressedVariables;
+
+  private final Map<Wrapper<ASimpleDeclaration>, Integer> declarationIndex = new HashMap<>();
+  private final ImmutableList<Wrapper<ASimpleDeclaration>> declarations;
+  private final int words;
+  private final ImmutableMap<CFAEdge, EdgeEffect> edgeEffects;
+
+  /**
+   * @param pFunction the function to analyze
+   * @param pNodes the nodes of the function
+   * @param pAddressedVariables the qualified names of variables whose address is taken
+   */
+  LiveVariablesDataflowProblem(
+      FunctionEntryNode pFunction, Collection<CFANode> pNodes, Set<String> pAddressedVariables) {
+    function = pFunction;
+    addressedVariables = pAddressedVariables;
+
+    List<CFAEdge> edges =
+        FluentIterable.from(pNodes)
+            .transformAndConcat(CFAUtils::allLeavingEdges)
+            .filter(e -> !(e instanceof FunctionCallEdge || e instanceof FunctionReturnEdge))
+            .toList();
+
+    // first number all variables of the function, then compute the effects of the edges
+    ImmutableList.Builder<Wrapper<ASimpleDeclaration>> declarationsBuilder =
+        ImmutableList.builder();
+    Optional<? extends AVariableDeclaration> returnVariable = function.getReturnVariable();
+    if (returnVariable.isPresent()) {
+      addDeclaration(returnVariable.get(), declarationsBuilder);
+    }
+    for (CFAEdge edge : edges) {
+      if (edge instanceof ADeclarationEdge) {
+        addDeclaration(((ADeclarationEdge) edge).getDeclaration(), declarationsBuilder);
+      }
+      for (AAstNode astNode : CFAUtils.getAstNodesFromCfaEdge(edge)) {
+        for (AIdExpression id : CFAUtils.traverseRecursively(astNode).filter(AIdExpression.class)) {
+          addDeclaration(id.getDeclaration(), declarationsBuilder);
+        }
+      }
+    }
+    declarations = declarationsBuilder.build();
+    words = BitVectors.wordsFor(declarations.size());
+
+    ImmutableMap.Builder<CFAEdge, EdgeEffect> effects = ImmutableMap.builder();
+    for (CFAEdge edge : edges) {
+      EdgeEffect effect = computeEffect(edge);
+      if (effect != null) {
+        effects.put(edge, effect);
+      }
+    }
+    edgeEffects = effects.build();
+  }
+
+  private void addDeclaration(
+      @Nullable ASimpleDeclaration pDeclaration,
+      ImmutableList.Builder<Wrapper<ASimpleDeclaration>> pDeclarations) {
+    if (pDeclaration != null) {
+      Wrapper<ASimpleDeclaration> wrapped = LIVE_DECL_EQUIVALENCE.wrap(pDeclaration);
+      if (!declarationIndex.containsKey(wrapped)) {
+        declarationIndex.put(wrapped, declarationIndex.size());
+        pDeclarations.add(wrapped);
+      }
+    }
+  }
+
+  /** Returns the effect of the given edge, or null if it does not change the live variables. */
+  private @Nullable EdgeEffect computeEffect(CFAEdge pEdge) {
+    EdgeEffect effect = new EdgeEffect(words);
+    switch (pEdge.getEdgeType()) {
+      case AssumeEdge:
+        markVariables(((AssumeEdge) pEdge).getExpression(), effect.gen);
+        return effect;
+
+      case DeclarationEdge:
+        if (!(((ADeclarationEdge) pEdge).getDeclaration() instanceof AVariableDeclaration)) {
+          return null;
+        }
+        AVariableDeclaration declaration =
+            (AVariableDeclaration) ((ADeclarationEdge) pEdge).getDeclaration();
+        int variable = declarationIndex.get(LIVE_DECL_EQUIVALENCE.wrap(declaration));
+        AInitializer initializer = declaration.getInitializer();
+        if (initializer == null) {
+          effect.kill = variable;
+        } else {
+          effect.conditional = variable;
+          effect.conditionalGen = new long[words];
+          markVariables(initializer, effect.conditionalGen);
+          BitVectors.clear(effect.conditionalGen, variable);
+        }
+        return effect;
+
+      case StatementEdge:
+        return computeEffect(((AStatementEdge) pEdge).getStatement(), effect);
+
+      case ReturnStatementEdge:
+        AAssignment assignment = ((AReturnStatementEdge) pEdge).asAssignment().orNull();
+        return assignment == null ? null : computeEffect(assignment, effect);
+
+      case CallToReturnEdge:
+        return computeEffect(((FunctionSummaryEdge) pEdge).getExpression(), effect);
+
+      default:
+        return null;
+    }
+  }
+
+  private @Nullable EdgeEffect computeEffect(AStatement pStatement, EdgeEffect pEffect) {
+    if (pStatement instanceof AExpressionStatement) {
+      return null;
+
+    } else if (pStatement instanceof AExpressionAssignmentStatement
+        || pStatement instanceof AFunctionCallAssignmentStatement) {
+      AAssignment assignment = (AAssignment) pStatement;
+      ALeftHandSide lhs = assignment.getLeftHandSide();
+      long[] rhsVariables = new long[words];
+      if (assignment instanceof AFunctionCallAssignmentStatement) {
+        markParameters((AFunctionCall) assignment, rhsVariables);
+      } else {
+        markVariables(
+            ((AExpressionAssignmentStatement) assignment).getRightHandSide(), rhsVariables);
+      }
+
+      ASimpleDeclaration assigned =
+          lhs instanceof AIdExpression ? ((AIdExpression) lhs).getDeclaration() : null;
+      if (assigned != null && !isAlwaysLive(assigned)) {
+        int variable = declarationIndex.get(LIVE_DECL_EQUIVALENCE.wrap(assigned));
+        if (assignment instanceof AFunctionCallAssignmentStatement) {
+          // the function call has to be evaluated anyway, so its parameters are always live
+          pEffect.kill = variable;
+          BitVectors.or(pEffect.gen, rhsVariables);
+        } else {
+          pEffect.conditional = variable;
+          pEffect.conditionalGen = rhsVariables;
+        }
+      } else {
+        markVariables(lhs, pEffect.gen);
+        BitVectors.or(pEffect.gen, rhsVariables);
+      }
+      return pEffect;
+
+    } else if (pStatement instanceof AFunctionCall) {
+      markParameters((AFunctionCall) pStatement, pEffect.gen);
+      return pEffect;
+
+    } else {
+      // unknown kind of statement, be conservative
+      markVariables(pStatement, pEffect.gen);
+      return pEffect;
+    }
+  }
+
+  private boolean isAlwaysLive(ASimpleDeclaration pDeclaration) {
+    return (pDeclaration instanceof AVariableDeclaration
+            && ((AVariableDeclaration) pDeclaration).isGlobal())
+        || addressedVariables.contains(pDeclaration.getQualifiedName());
+  }
+
+  private void markParameters(AFunctionCall pCall, long[] pFacts) {
+    for (AExpression parameter : pCall.getFunctionCallExpression().getParameterExpressions()) {
+      markVariables(parameter, pFacts);
+    }
+  }
+
+  private void markVariables(AAstNode pAstNode, long[] pFacts) {
+    for (AIdExpression id : CFAUtils.traverseRecursively(pAstNode).filter(AIdExpression.class)) {
+      if (id.getDeclaration() != null) {
+        BitVectors.set(
+            pFacts, declarationIndex.get(LIVE_DECL_EQUIVALENCE.wrap(id.getDeclaration())));
+      }
+    }
+  }
+
+  /** Returns the variable that is represented by the given fact. */
+  Wrapper<ASimpleDeclaration> getDeclaration(int pFact) {
+    return declarations.get(pFact);
+  }
+
+  @Override
+  public Direction getDirection() {
+    return Direction.BACKWARD;
+  }
+
+  @Override
+  public Confluence getConfluence() {
+    return Confluence.UNION;
+  }
+
+  @Override
+  public int getNumberOfFacts() {
+    return declarations.size();
+  }
+
+  @Override
+  public boolean isBoundary(CFANode pNode) {
+    return pNode instanceof FunctionExitNode;
+  }
+
+  @Override
+  public void initializeBoundary(CFANode pNode, long[] pFacts) {
+    // the return value is live at the end of the function
+    Optional<? extends AVariableDeclaration> returnVariable = function.getReturnVariable();
+    if (returnVariable.isPresent()) {
+      BitVectors.set(
+          pFacts, declarationIndex.get(LIVE_DECL_EQUIVALENCE.wrap(returnVariable.get())));
+    }
+  }
+
+  @Override
+  public void transfer(CFAEdge pEdge, long[] pFacts) {
+    EdgeEffect effect = edgeEffects.get(pEdge);
+    if (effect == null) {
+      return;
+    }
+    if (effect.kill >= 0) {
+      BitVectors.clear(pFacts, effect.kill);
+    }
+    BitVectors.or(pFacts, effect.gen);
+    if (effect.conditional >= 0 && BitVectors.get(pFacts, effect.conditional)) {
+      BitVectors.clear(pFacts, effect.conditional);
+      BitVectors.or(pFacts, effect.conditionalGen);
+    }
+  }
+}
@@ -105,6 +105,7 @@ import org.sosy_lab.cpachecker.util.CFATraversal;
 import org.sosy_lab.cpachecker.util.CFATraversal.CFAVisitor;
 import org.sosy_lab.cpachecker.util.CFATraversal.TraversalProcess;
 import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.SpecificationProperty;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
@@ -339,6 +340,50 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  /** Return the data of the graph element of a witness, in the order in which it is written. */
+  private static List<Pair<KeyDef, String>> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    List<Pair<KeyDef, String>> result = new ArrayList<>();
+    result.add(Pair.of(KeyDef.WITNESS_TYPE, pGraphType.toString()));
+    result.add(Pair.of(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
+    result.add(Pair.of(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.add(Pair.of(KeyDef.SPECIFICATION, property.toString()));
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.add(
+          Pair.of(
+              KeyDef.SPECIFICATION,
+              MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.add(Pair.of(KeyDef.SPECIFICATION, "TRUE"));
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.add(Pair.of(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Pair.of(KeyDef.PROGRAMFILE, programFile.toString()));
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.add(Pair.of(KeyDef.PROGRAMHASH, computeHash(programFile)));
+    }
+
+    result.add(Pair.of(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
+    ZonedDateTime now = ZonedDateTime.now().withNano(0);
+    result.add(Pair.of(KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
+    return result;
+  }
+
   public static class GraphMlBuilder {
 
     private final Document doc;
@@ -371,47 +416,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, "CPAchecker " + CPAchecker.getCPAcheckerVersion()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
+      for (Pair<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData)) {
+        graph.appendChild(createDataElement(data.getFirst(), data.getSecond()));
       }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
-      }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
-      }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
-      }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
-      }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now().withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -516,6 +524,163 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a witness directly to an {@link Appendable} instead of building a DOM tree like {@link
+   * GraphMlBuilder} does, such that large witnesses can be written with little memory. The output
+   * has the same structure and format as the one of {@link GraphMlBuilder}. Because the key
+   * definitions precede the graph, all keys that are used for nodes and edges have to be known
+   * when the writer is created.
+   */
+  public static class GraphMlStreamWriter {
+
+    private final Appendable target;
+    private final Set<KeyDef> definedKeys;
+
+    public GraphMlStreamWriter(
+        Appendable pTarget,
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData,
+        Set<KeyDef> pUsedKeys)
+        throws IOException {
+      target = Preconditions.checkNotNull(pTarget);
+      List<Pair<KeyDef, String>> graphData =
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData);
+
+      // same keys as GraphMlBuilder would define, written in the same order
+      EnumSet<KeyDef> keys = EnumSet.of(KeyDef.ORIGINFILE);
+      for (KeyDef keyDef : KeyDef.values()) {
+        if (keyDef.keyFor == ElementType.GRAPH) {
+          keys.add(keyDef);
+        }
+      }
+      keys.addAll(pUsedKeys);
+      definedKeys = keys;
+
+      target.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+      target.append(
+          "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\""
+              + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n");
+      for (KeyDef keyDef : keys) {
+        String defaultValue =
+            keyDef == KeyDef.ORIGINFILE ? pDefaultSourceFileName : keyDef.defaultValue;
+        target
+            .append(" <key attr.name=\"")
+            .append(escape(keyDef.attrName))
+            .append("\" attr.type=\"")
+            .append(escape(keyDef.attrType))
+            .append("\" for=\"")
+            .append(keyDef.keyFor.toString())
+            .append("\" id=\"")
+            .append(escape(keyDef.id))
+            .append('"');
+        if (defaultValue == null) {
+          target.append("/>\n");
+        } else {
+          target
+              .append(">\n  <default>")
+              .append(escape(defaultValue))
+              .append("</default>\n </key>\n");
+        }
+      }
+      target.append(" <graph edgedefault=\"directed\">\n");
+      for (Pair<KeyDef, String> data : graphData) {
+        writeData("  ", data.getFirst(), data.getSecond());
+      }
+    }
+
+    public void writeNode(String pNodeId, NodeType pNodeType, List<Pair<KeyDef, String>> pData)
+        throws IOException {
+      target.append("  <node id=\"").append(escape(pNodeId)).append('"');
+      if (pNodeType == defaultNodeType && pData.isEmpty()) {
+        target.append("/>\n");
+        return;
+      }
+      target.append(">\n");
+      if (pNodeType != defaultNodeType) {
+        writeData("   ", KeyDef.NODETYPE, pNodeType.toString());
+      }
+      for (Pair<KeyDef, String> data : pData) {
+        writeData("   ", data.getFirst(), data.getSecond());
+      }
+      target.append("  </node>\n");
+    }
+
+    public void writeEdge(String pFrom, String pTo, List<Pair<KeyDef, String>> pData)
+        throws IOException {
+      target
+          .append("  <edge source=\"")
+          .append(escape(pFrom))
+          .append("\" target=\"")
+          .append(escape(pTo))
+          .append('"');
+      if (pData.isEmpty()) {
+        target.append("/>\n");
+        return;
+      }
+      target.append(">\n");
+      for (Pair<KeyDef, String> data : pData) {
+        writeData("   ", data.getFirst(), data.getSecond());
+      }
+      target.append("  </edge>\n");
+    }
+
+    /** Write the end of the document, no more nodes or edges can be written afterwards. */
+    public void finish() throws IOException {
+      target.append(" </graph>\n</graphml>\n");
+    }
+
+    private void writeData(String pIndentation, KeyDef pKey, String pValue) throws IOException {
+      Preconditions.checkArgument(definedKeys.contains(pKey), "Undefined key %s", pKey);
+      target
+          .append(pIndentation)
+          .append("<data key=\"")
+          .append(escape(pKey.id))
+          .append("\">")
+          .append(escape(pValue))
+          .append("</data>\n");
+    }
+
+    private static String escape(String pText) {
+      StringBuilder result = null;
+      for (int i = 0; i < pText.length(); i++) {
+        char c = pText.charAt(i);
+        final String replacement;
+        switch (c) {
+          case '&':
+            replacement = "&amp;";
+            break;
+          case '<':
+            replacement = "&lt;";
+            break;
+          case '>':
+            replacement = "&gt;";
+            break;
+          case '"':
+            replacement = "&quot;";
+            break;
+          case '\r':
+            replacement = "&#13;";
+            break;
+          default:
+            replacement = null;
+        }
+        if (replacement != null && result == null) {
+          result = new StringBuilder(pText.length() + 16).append(pText, 0, i);
+        }
+        if (result != null) {
+          if (replacement != null) {
+            result.append(replacement);
+          } else {
+            result.append(c);
+          }
+        }
+      }
+      return result == null ? pText : result.toString();
+    }
+  }
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
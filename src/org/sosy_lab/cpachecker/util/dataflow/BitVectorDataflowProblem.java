@@ -0,0 +1,73 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+/**
+ * A dataflow problem over a finite set of facts that are numbered from 0 to {@link
+ * #getNumberOfFacts()} - 1, to be solved by {@link BitVectorDataflowSolver}. Sets of facts are
+ * represented as bit vectors in a {@code long[]}, which can be manipulated with {@link BitVectors}.
+ *
+ * <p>The value of a node that is not a boundary node is the meet of the values that flow into it
+ * over its edges (the entering edges for a forward problem and the leaving edges for a backward
+ * problem), each transformed by {@link #transfer(CFAEdge, long[])}.
+ */
+public interface BitVectorDataflowProblem {
+
+  enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  enum Confluence {
+    /** The facts that hold on any incoming path (e.g., liveness, reaching definitions). */
+    UNION,
+    /** The facts that hold on all incoming paths (e.g., dominators, available expressions). */
+    INTERSECTION
+  }
+
+  Direction getDirection();
+
+  Confluence getConfluence();
+
+  int getNumberOfFacts();
+
+  /**
+   * Whether the value of the given node is fixed by {@link #initializeBoundary(CFANode, long[])}
+   * instead of computed from its edges, e.g., the function entry of a forward problem.
+   */
+  boolean isBoundary(CFANode pNode);
+
+  /** Write the facts that hold at the given boundary node into the empty bit vector. */
+  void initializeBoundary(CFANode pNode, long[] pFacts);
+
+  /**
+   * Apply the effect of the given edge in the direction of the problem to the given facts, in
+   * place. Implementations need to be monotone, and if the problem is solved for several functions
+   * in parallel, also thread-safe.
+   */
+  void transfer(CFAEdge pEdge, long[] pFacts);
+}
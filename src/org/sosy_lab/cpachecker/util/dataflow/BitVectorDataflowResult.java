@@ -0,0 +1,67 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.BitSet;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+/** The fixpoint of a {@link BitVectorDataflowProblem}, i.e., the facts that hold at each node. */
+public final class BitVectorDataflowResult<P extends BitVectorDataflowProblem> {
+
+  private final P problem;
+  private final ImmutableMap<CFANode, long[]> facts;
+
+  BitVectorDataflowResult(P pProblem, ImmutableMap<CFANode, long[]> pFacts) {
+    problem = pProblem;
+    facts = pFacts;
+  }
+
+  public P getProblem() {
+    return problem;
+  }
+
+  /** Returns the nodes for which the problem was solved. */
+  public ImmutableSet<CFANode> getNodes() {
+    return facts.keySet();
+  }
+
+  public boolean holds(CFANode pNode, int pFact) {
+    return BitVectors.get(getFactsOf(pNode), pFact);
+  }
+
+  /** Returns a copy of the facts that hold at the given node. */
+  public BitSet getFacts(CFANode pNode) {
+    return BitSet.valueOf(getFactsOf(pNode));
+  }
+
+  private long[] getFactsOf(CFANode pNode) {
+    long[] result = facts.get(pNode);
+    checkArgument(result != null, "Node %s is not part of the dataflow problem", pNode);
+    return result;
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionReturnEdge;
+import org.sosy_lab.cpachecker.util.CFATraversal;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflowProblem.Confluence;
+import org.sosy_lab.cpachecker.util.dataflow.BitVectorDataflowProblem.Direction;
+
+/**
+ * Worklist solver for {@link BitVectorDataflowProblem}s on the CFA of single functions.
+ *
+ * <p>The nodes of a function are numbered densely in reverse postorder (in postorder for backward
+ * problems), and the worklist is a bit vector over these numbers that is swept in ascending order,
+ * such that each node is usually processed after the nodes it depends on. The analysis is
+ * intraprocedural: function call and return edges are ignored, summary edges are used instead.
+ */
+public final class BitVectorDataflowSolver {
+
+  private BitVectorDataflowSolver() {}
+
+  /**
+   * Solve the given problem for the given nodes of one function. Edges to nodes outside of the
+   * given collection are ignored.
+   */
+  public static <P extends BitVectorDataflowProblem> BitVectorDataflowResult<P> solve(
+      P pProblem, Collection<CFANode> pNodes, ShutdownNotifier pShutdownNotifier)
+      throws InterruptedException {
+    final boolean forward = pProblem.getDirection() == Direction.FORWARD;
+    final boolean union = pProblem.getConfluence() == Confluence.UNION;
+    final int numberOfFacts = pProblem.getNumberOfFacts();
+    final int words = BitVectors.wordsFor(numberOfFacts);
+
+    // CFAReversePostorder assigns the highest id to the function entry
+    Comparator<CFANode> order =
+        Comparator.comparingInt(CFANode::getReversePostorderId)
+            .thenComparingInt(CFANode::getNodeNumber);
+    CFANode[] nodes = pNodes.toArray(new CFANode[0]);
+    Arrays.sort(nodes, forward ? order.reversed() : order);
+    final int size = nodes.length;
+    Map<CFANode, Integer> index = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      checkArgument(index.put(nodes[i], i) == null, "Duplicate node %s", nodes[i]);
+    }
+
+    // For each node the edges whose transformed values are met, and the nodes that depend on it.
+    int[][] inputNodes = new int[size][];
+    CFAEdge[][] inputEdges = new CFAEdge[size][];
+    List<List<Integer>> dependents = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      dependents.add(new ArrayList<>(2));
+    }
+    for (int i = 0; i < size; i++) {
+      List<CFAEdge> edges = new ArrayList<>(2);
+      List<Integer> sources = new ArrayList<>(2);
+      for (CFAEdge edge : forward ? enteringEdges(nodes[i]) : leavingEdges(nodes[i])) {
+        Integer source = index.get(forward ? edge.getPredecessor() : edge.getSuccessor());
+        if (source != null) {
+          edges.add(edge);
+          sources.add(source);
+          dependents.get(source).add(i);
+        }
+      }
+      inputEdges[i] = edges.toArray(new CFAEdge[0]);
+      inputNodes[i] = sources.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    long[][] values = new long[size][];
+    boolean[] boundary = new boolean[size];
+    long[] worklist = new long[BitVectors.wordsFor(size)];
+    for (int i = 0; i < size; i++) {
+      values[i] = new long[words];
+      boundary[i] = pProblem.isBoundary(nodes[i]);
+      if (boundary[i]) {
+        pProblem.initializeBoundary(nodes[i], values[i]);
+      } else {
+        if (!union) {
+          BitVectors.setAll(values[i], numberOfFacts);
+        }
+        BitVectors.set(worklist, i);
+      }
+    }
+
+    long[] newValue = new long[words];
+    long[] edgeValue = new long[words];
+    int next = 0;
+    while (true) {
+      next = BitVectors.nextSetBit(worklist, next);
+      if (next < 0) {
+        // start the next sweep
+        next = BitVectors.nextSetBit(worklist, 0);
+        if (next < 0) {
+          break;
+        }
+      }
+      pShutdownNotifier.shutdownIfNecessary();
+      BitVectors.clear(worklist, next);
+
+      if (union) {
+        Arrays.fill(newValue, 0L);
+      } else {
+        BitVectors.setAll(newValue, numberOfFacts);
+      }
+      for (int j = 0; j < inputEdges[next].length; j++) {
+        System.arraycopy(values[inputNodes[next][j]], 0, edgeValue, 0, words);
+        pProblem.transfer(inputEdges[next][j], edgeValue);
+        if (union) {
+          BitVectors.or(newValue, edgeValue);
+        } else {
+          BitVectors.and(newValue, edgeValue);
+        }
+      }
+
+      if (!Arrays.equals(newValue, values[next])) {
+        long[] oldValue = values[next];
+        values[next] = newValue;
+        newValue = oldValue;
+        for (int dependent : dependents.get(next)) {
+          if (!boundary[dependent]) {
+            BitVectors.set(worklist, dependent);
+          }
+        }
+      }
+    }
+
+    ImmutableMap.Builder<CFANode, long[]> result = ImmutableMap.builder();
+    for (int i = 0; i < size; i++) {
+      result.put(nodes[i], values[i]);
+    }
+    return new BitVectorDataflowResult<>(pProblem, result.build());
+  }
+
+  /**
+   * Solve a problem for each of the given functions, using up to the given number of threads.
+   *
+   * @param pProblemFactory creates the problem for a function and its nodes, may be called
+   *     concurrently
+   */
+  public static <P extends BitVectorDataflowProblem>
+      ImmutableList<BitVectorDataflowResult<P>> solveFunctionWise(
+          Collection<FunctionEntryNode> pFunctions,
+          BiFunction<? super FunctionEntryNode, Collection<CFANode>, ? extends P> pProblemFactory,
+          int pThreads,
+          ShutdownNotifier pShutdownNotifier)
+          throws InterruptedException {
+    checkArgument(pThreads >= 1, "Number of threads has to be positive");
+
+    if (pThreads == 1 || pFunctions.size() <= 1) {
+      ImmutableList.Builder<BitVectorDataflowResult<P>> results = ImmutableList.builder();
+      for (FunctionEntryNode function : pFunctions) {
+        results.add(solveFunction(function, pProblemFactory, pShutdownNotifier));
+      }
+      return results.build();
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(pThreads, pFunctions.size()),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("dataflow-solver-%d")
+                .build());
+    try {
+      List<Future<BitVectorDataflowResult<P>>> futures = new ArrayList<>(pFunctions.size());
+      for (FunctionEntryNode function : pFunctions) {
+        futures.add(
+            executor.submit(() -> solveFunction(function, pProblemFactory, pShutdownNotifier)));
+      }
+      ImmutableList.Builder<BitVectorDataflowResult<P>> results = ImmutableList.builder();
+      for (Future<BitVectorDataflowResult<P>> future : futures) {
+        results.add(future.get());
+      }
+      return results.build();
+
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), InterruptedException.class);
+      throw new UnexpectedCheckedException("dataflow analysis", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <P extends BitVectorDataflowProblem> BitVectorDataflowResult<P> solveFunction(
+      FunctionEntryNode pFunction,
+      BiFunction<? super FunctionEntryNode, Collection<CFANode>, ? extends P> pProblemFactory,
+      ShutdownNotifier pShutdownNotifier)
+      throws InterruptedException {
+    // the nodes of the function that are reachable from its entry
+    Collection<CFANode> nodes =
+        CFATraversal.dfs().ignoreFunctionCalls().collectNodesReachableFrom(pFunction);
+    return solve(pProblemFactory.apply(pFunction, nodes), nodes, pShutdownNotifier);
+  }
+
+  private static FluentIterable<CFAEdge> leavingEdges(CFANode pNode) {
+    return CFAUtils.allLeavingEdges(pNode).filter(BitVectorDataflowSolver::isIntraprocedural);
+  }
+
+  private static FluentIterable<CFAEdge> enteringEdges(CFANode pNode) {
+    return CFAUtils.allEnteringEdges(pNode).filter(BitVectorDataflowSolver::isIntraprocedural);
+  }
+
+  private static boolean isIntraprocedural(CFAEdge pEdge) {
+    return !(pEdge instanceof FunctionCallEdge || pEdge instanceof FunctionReturnEdge);
+  }
+}
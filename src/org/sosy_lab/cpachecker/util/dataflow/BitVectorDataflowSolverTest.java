@@ -0,0 +1,188 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+
+public class BitVectorDataflowSolverTest {
+
+  /** Dominators as a forward problem with one fact per node. */
+  private class Dominators implements BitVectorDataflowProblem {
+
+    @Override
+    public Direction getDirection() {
+      return Direction.FORWARD;
+    }
+
+    @Override
+    public Confluence getConfluence() {
+      return Confluence.INTERSECTION;
+    }
+
+    @Override
+    public int getNumberOfFacts() {
+      return nodes.size();
+    }
+
+    @Override
+    public boolean isBoundary(CFANode pNode) {
+      return pNode == nodes.get(0);
+    }
+
+    @Override
+    public void initializeBoundary(CFANode pNode, long[] pFacts) {
+      BitVectors.set(pFacts, nodes.indexOf(pNode));
+    }
+
+    @Override
+    public void transfer(CFAEdge pEdge, long[] pFacts) {
+      BitVectors.set(pFacts, nodes.indexOf(pEdge.getSuccessor()));
+    }
+  }
+
+  /** Nodes that can be reached from a node, as a backward problem with one fact per node. */
+  private class ReachableNodes extends Dominators {
+
+    @Override
+    public Direction getDirection() {
+      return Direction.BACKWARD;
+    }
+
+    @Override
+    public Confluence getConfluence() {
+      return Confluence.UNION;
+    }
+
+    @Override
+    public boolean isBoundary(CFANode pNode) {
+      return false;
+    }
+  }
+
+  private List<CFANode> nodes;
+
+  @Before
+  public void setUp() {
+    // 0 -> 1 -> {2, 3} -> 4 -> 1, 4 -> 5, and 6 is unreachable
+    ImmutableList.Builder<CFANode> builder = ImmutableList.builder();
+    for (int i = 0; i < 7; i++) {
+      builder.add(new CFANode("test"));
+    }
+    nodes = builder.build();
+    addEdge(0, 1);
+    addEdge(1, 2);
+    addEdge(1, 3);
+    addEdge(2, 4);
+    addEdge(3, 4);
+    addEdge(4, 1);
+    addEdge(4, 5);
+    addEdge(6, 5);
+  }
+
+  private void addEdge(int pFrom, int pTo) {
+    CFAEdge edge =
+        new BlankEdge("", FileLocation.DUMMY, nodes.get(pFrom), nodes.get(pTo), "test");
+    nodes.get(pFrom).addLeavingEdge(edge);
+    nodes.get(pTo).addEnteringEdge(edge);
+  }
+
+  private static BitSet bits(int... pIndices) {
+    BitSet result = new BitSet();
+    for (int i : pIndices) {
+      result.set(i);
+    }
+    return result;
+  }
+
+  @Test
+  public void testForwardIntersection() throws InterruptedException {
+    BitVectorDataflowResult<Dominators> result =
+        BitVectorDataflowSolver.solve(
+            new Dominators(), nodes.subList(0, 6), ShutdownNotifier.createDummy());
+
+    assertThat(result.getNodes()).containsExactlyElementsIn(nodes.subList(0, 6));
+    assertThat(result.getFacts(nodes.get(0))).isEqualTo(bits(0));
+    assertThat(result.getFacts(nodes.get(1))).isEqualTo(bits(0, 1));
+    assertThat(result.getFacts(nodes.get(2))).isEqualTo(bits(0, 1, 2));
+    assertThat(result.getFacts(nodes.get(3))).isEqualTo(bits(0, 1, 3));
+    assertThat(result.getFacts(nodes.get(4))).isEqualTo(bits(0, 1, 4));
+    assertThat(result.getFacts(nodes.get(5))).isEqualTo(bits(0, 1, 4, 5));
+  }
+
+  @Test
+  public void testBackwardUnion() throws InterruptedException {
+    BitVectorDataflowResult<ReachableNodes> result =
+        BitVectorDataflowSolver.solve(
+            new ReachableNodes(), nodes, ShutdownNotifier.createDummy());
+
+    assertThat(result.getFacts(nodes.get(0))).isEqualTo(bits(1, 2, 3, 4, 5));
+    assertThat(result.getFacts(nodes.get(1))).isEqualTo(bits(1, 2, 3, 4, 5));
+    assertThat(result.getFacts(nodes.get(5))).isEqualTo(bits());
+    assertThat(result.getFacts(nodes.get(6))).isEqualTo(bits(5));
+    assertThat(result.holds(nodes.get(6), 4)).isFalse();
+  }
+
+  @Test
+  public void testResultIndependentOfNodeOrder() throws InterruptedException {
+    for (int i = 0; i < nodes.size(); i++) {
+      nodes.get(i).setReversePostorderId(i % 3);
+    }
+    BitVectorDataflowResult<Dominators> result =
+        BitVectorDataflowSolver.solve(
+            new Dominators(), nodes.subList(0, 6), ShutdownNotifier.createDummy());
+
+    assertThat(result.getFacts(nodes.get(4))).isEqualTo(bits(0, 1, 4));
+    assertThat(result.getFacts(nodes.get(5))).isEqualTo(bits(0, 1, 4, 5));
+  }
+
+  @Test
+  public void testBitVectors() {
+    long[] bits = new long[BitVectors.wordsFor(130)];
+    assertThat(bits).hasLength(3);
+    BitVectors.setAll(bits, 130);
+    assertThat(BitSet.valueOf(bits).cardinality()).isEqualTo(130);
+    BitVectors.clear(bits, 64);
+    assertThat(BitVectors.get(bits, 64)).isFalse();
+    assertThat(BitVectors.get(bits, 129)).isTrue();
+
+    long[] other = new long[3];
+    BitVectors.set(other, 64);
+    BitVectors.set(other, 100);
+    BitVectors.andNot(bits, other);
+    assertThat(BitVectors.nextSetBit(bits, 64)).isEqualTo(65);
+    assertThat(BitVectors.nextSetBit(bits, 100)).isEqualTo(101);
+    assertThat(BitVectors.nextSetBit(other, 101)).isEqualTo(-1);
+  }
+}
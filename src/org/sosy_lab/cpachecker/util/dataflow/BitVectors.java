@@ -0,0 +1,113 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.dataflow;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/** Operations on bit vectors that are stored in a {@code long[]}, 64 bits per element. */
+public final class BitVectors {
+
+  private BitVectors() {}
+
+  /** Returns the number of {@code long} elements needed for a bit vector of the given length. */
+  public static int wordsFor(int pNumberOfBits) {
+    checkArgument(pNumberOfBits >= 0);
+    return (pNumberOfBits + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  public static boolean get(long[] pBits, int pIndex) {
+    return (pBits[pIndex / Long.SIZE] & (1L << pIndex)) != 0;
+  }
+
+  public static void set(long[] pBits, int pIndex) {
+    pBits[pIndex / Long.SIZE] |= 1L << pIndex;
+  }
+
+  public static void clear(long[] pBits, int pIndex) {
+    pBits[pIndex / Long.SIZE] &= ~(1L << pIndex);
+  }
+
+  /** Set the first {@code pNumberOfBits} bits and clear all others. */
+  public static void setAll(long[] pBits, int pNumberOfBits) {
+    int fullWords = pNumberOfBits / Long.SIZE;
+    for (int i = 0; i < pBits.length; i++) {
+      if (i < fullWords) {
+        pBits[i] = -1L;
+      } else if (i == fullWords && pNumberOfBits % Long.SIZE != 0) {
+        pBits[i] = (1L << pNumberOfBits) - 1;
+      } else {
+        pBits[i] = 0L;
+      }
+    }
+  }
+
+  /** Store the union of both bit vectors into the first one. */
+  public static void or(long[] pTarget, long[] pOther) {
+    for (int i = 0; i < pTarget.length; i++) {
+      pTarget[i] |= pOther[i];
+    }
+  }
+
+  /** Store the intersection of both bit vectors into the first one. */
+  public static void and(long[] pTarget, long[] pOther) {
+    for (int i = 0; i < pTarget.length; i++) {
+      pTarget[i] &= pOther[i];
+    }
+  }
+
+  /** Remove all bits of the second bit vector from the first one. */
+  public static void andNot(long[] pTarget, long[] pOther) {
+    for (int i = 0; i < pTarget.length; i++) {
+      pTarget[i] &= ~pOther[i];
+    }
+  }
+
+  /**
+   * Apply a classic gen/kill transfer function to the given bit vector in place, i.e., compute
+   * {@code (facts \ kill) + gen}.
+   */
+  public static void genKill(long[] pFacts, long[] pGen, long[] pKill) {
+    for (int i = 0; i < pFacts.length; i++) {
+      pFacts[i] = (pFacts[i] & ~pKill[i]) | pGen[i];
+    }
+  }
+
+  /**
+   * Returns the index of the first set bit at or after the given index, or -1 if there is none.
+   */
+  public static int nextSetBit(long[] pBits, int pFromIndex) {
+    int word = pFromIndex / Long.SIZE;
+    if (word >= pBits.length) {
+      return -1;
+    }
+    long current = pBits[word] & (-1L << pFromIndex);
+    while (current == 0) {
+      if (++word == pBits.length) {
+        return -1;
+      }
+      current = pBits[word];
+    }
+    return word * Long.SIZE + Long.numberOfTrailingZeros(current);
+  }
+}
@@ -23,12 +23,23 @@
  */
 package org.sosy_lab.cpachecker.util.globalinfo;
 
+import com.google.common.collect.ImmutableBiMap;
 import com.google.common.collect.ImmutableMap;
+import java.io.NotSerializableException;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cpa.location.LocationStateFactory;
 
 public class CFAInfo {
+
+  /**
+   * Numbering of CFA nodes that is used instead of the node numbers while (de-)serializing
+   * objects in the current thread, e.g., to store states independently of the rest of the CFA.
+   */
+  private static final ThreadLocal<ImmutableBiMap<Integer, CFANode>> serialNumbering =
+      new ThreadLocal<>();
+
   private final ImmutableMap<Integer, CFANode> nodeNumberToNode;
   private LocationStateFactory locationStateFactory;
   private final CFA cfa;
@@ -43,9 +54,43 @@ public class CFAInfo {
   }
 
   public CFANode getNodeByNodeNumber(int nodeNumber) {
+    ImmutableBiMap<Integer, CFANode> numbering = serialNumbering.get();
+    if (numbering != null) {
+      return numbering.get(nodeNumber);
+    }
     return nodeNumberToNode.get(nodeNumber);
   }
 
+  /**
+   * Get the number that identifies a CFA node in serialized objects. This is the node number,
+   * unless a different numbering was set with {@link #setSerialNumbering}.
+   *
+   * @throws NotSerializableException if the node is not part of the current numbering.
+   */
+  public static int getSerialNumber(CFANode pNode) throws NotSerializableException {
+    ImmutableBiMap<Integer, CFANode> numbering = serialNumbering.get();
+    if (numbering == null) {
+      return pNode.getNodeNumber();
+    }
+    Integer number = numbering.inverse().get(pNode);
+    if (number == null) {
+      throw new NotSerializableException("CFA node " + pNode + " is not part of the numbering");
+    }
+    return number;
+  }
+
+  /**
+   * Set the numbering of CFA nodes that is used while (de-)serializing objects in the current
+   * thread. Callers have to reset the numbering with <code>null</code> afterwards.
+   */
+  public static void setSerialNumbering(@Nullable ImmutableBiMap<Integer, CFANode> pNumbering) {
+    if (pNumbering == null) {
+      serialNumbering.remove();
+    } else {
+      serialNumbering.set(pNumbering);
+    }
+  }
+
   public void storeLocationStateFactory(LocationStateFactory pElementFactory) {
     locationStateFactory = pElementFactory;
   }
@@ -48,6 +48,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -88,7 +89,13 @@ import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
 @Options(prefix="cpa.predicate.refinement")
-public final class InterpolationManager {
+public final class InterpolationManager implements AutoCloseable {
+
+  /** Creates path-formula managers for solver contexts other than the one of the analysis. */
+  @FunctionalInterface
+  public interface PathFormulaManagerFactory {
+    PathFormulaManager create(FormulaManagerView pFmgr) throws InvalidConfigurationException;
+  }
 
   private final Timer cexAnalysisTimer = new Timer();
   private final Timer satCheckTimer = new Timer();
@@ -111,6 +118,9 @@ public final class InterpolationManager {
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
       w1.put("Interpolant verification", interpolantVerificationTimer);
     }
+    if (portfolio != null) {
+      portfolio.printStatistics(w1);
+    }
   }
 
 
@@ -123,6 +133,8 @@ public final class InterpolationManager {
 
   private final Interpolator<?> interpolator;
 
+  private final @Nullable InterpolationPortfolio portfolio;
+
   @Option(secure=true, description="apply deletion-filter to the abstract counterexample, to get "
     + "a minimal set of blocks, before applying interpolation-based refinement")
   private boolean getUsefulBlocks = false;
@@ -149,7 +161,7 @@ public final class InterpolationManager {
           "\n- TREE_CPACHECKER: similar to TREE_NESTED, but the algorithm is taken from 'Tree Interpolation in Vampire'.")
   private InterpolationStrategy strategy = InterpolationStrategy.SEQ_CPACHECKER;
 
-  private enum InterpolationStrategy {
+  enum InterpolationStrategy {
     SEQ, SEQ_CPACHECKER,
     TREE,
     TREE_WELLSCOPED,
@@ -195,6 +207,31 @@ public final class InterpolationManager {
       Configuration config,
       ShutdownNotifier pShutdownNotifier,
       LogManager pLogger) throws InvalidConfigurationException {
+    this(
+        pPmgr,
+        null,
+        pSolver,
+        pLoopStructure,
+        pVarClassification,
+        config,
+        pShutdownNotifier,
+        pLogger);
+  }
+
+  /**
+   * Create an interpolation manager that can race several interpolation variants (cf. {@link
+   * InterpolationPortfolio}). Each variant gets its own path-formula manager from the given
+   * factory. The manager needs to be closed afterwards.
+   */
+  public InterpolationManager(
+      PathFormulaManager pPmgr,
+      @Nullable PathFormulaManagerFactory pPmgrFactory,
+      Solver pSolver,
+      Optional<LoopStructure> pLoopStructure,
+      Optional<VariableClassification> pVarClassification,
+      Configuration config,
+      ShutdownNotifier pShutdownNotifier,
+      LogManager pLogger) throws InvalidConfigurationException {
     config.inject(this, InterpolationManager.class);
 
     logger = pLogger;
@@ -219,6 +256,28 @@ public final class InterpolationManager {
     } else {
       interpolator = null;
     }
+
+    if (pPmgrFactory == null) {
+      portfolio = null;
+    } else {
+      portfolio =
+          InterpolationPortfolio.create(
+              config,
+              fmgr,
+              pPmgrFactory,
+              pLoopStructure,
+              pVarClassification,
+              pShutdownNotifier,
+              pLogger);
+    }
+  }
+
+  /** Release the solvers and threads of the interpolation portfolio, if there is one. */
+  @Override
+  public void close() {
+    if (portfolio != null) {
+      portfolio.close();
+    }
   }
 
   /**
@@ -288,6 +347,14 @@ public final class InterpolationManager {
     try {
       final BlockFormulas f = prepareCounterexampleFormulas(pFormulas);
 
+      if (portfolio != null) {
+        CounterexampleTraceInfo raceResult = portfolio.race(f, pAbstractionStates);
+        if (raceResult != null) {
+          return raceResult;
+        }
+        // feasible counterexample or all variants failed, analyze it with our own solver
+      }
+
       final Interpolator<?> currentInterpolator;
       if (reuseInterpolationEnvironment) {
         currentInterpolator = checkNotNull(interpolator);
@@ -0,0 +1,494 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import static org.sosy_lab.common.collect.Collections3.transformedImmutableListCopy;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.cpa.predicate.BlockFormulaStrategy.BlockFormulas;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager.InterpolationStrategy;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager.PathFormulaManagerFactory;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Runs several combinations of interpolation strategy and counterexample-analysis direction
+ * in parallel and takes the interpolants of the variant that finishes first.
+ *
+ * <p>Each variant has its own solver instance and path-formula manager, which are only accessed by
+ * the single thread of the variant, because solver contexts must not be shared between threads.
+ * Formulas are exchanged between the contexts as SMT-LIB strings. As soon as a race is decided,
+ * the variants that are still running are interrupted. An interrupted solver cannot be used
+ * anymore, so it is closed and the variant creates a new one for the next race. Variants that
+ * rarely win are removed from the portfolio during the analysis. All solvers and threads of the
+ * portfolio are released by {@link #close()}.
+ */
+@Options(prefix = "cpa.predicate.refinement.portfolio")
+final class InterpolationPortfolio {
+
+  @Option(
+    secure = true,
+    description =
+        "Combinations of interpolation strategy and direction of counterexample analysis "
+            + "(e.g., 'TREE_NESTED:BACKWARDS') that are run in parallel on separate solver "
+            + "instances during each refinement. The interpolants of the first variant "
+            + "that proves the counterexample infeasible are used. "
+            + "Racing is disabled if this list is empty."
+  )
+  private List<String> variants = ImmutableList.of();
+
+  @Option(
+    secure = true,
+    description =
+        "Remove a variant from the portfolio after this many races "
+            + "if its win rate is below cpa.predicate.refinement.portfolio.minWinRate "
+            + "(0 to never remove variants)."
+  )
+  @IntegerOption(min = 0)
+  private int pruneAfter = 20;
+
+  @Option(
+    secure = true,
+    description = "Minimal ratio of won races for a variant to stay in the portfolio."
+  )
+  private double minWinRate = 0.05;
+
+  private static final Splitter VARIANT_SPLITTER = Splitter.on(':').trimResults();
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+  private final FormulaManagerView fmgr;
+  private final PathFormulaManagerFactory pmgrFactory;
+  private final Optional<LoopStructure> loopStructure;
+  private final Optional<VariableClassification> variableClassification;
+
+  private final List<Variant> portfolio = new ArrayList<>();
+
+  private int races = 0;
+  private int undecidedRaces = 0;
+
+  private volatile boolean closed = false;
+
+  private static final class Variant {
+    private final String name;
+    private final Configuration config;
+
+    /** Runs all computations of this variant, such that its solver is used by one thread. */
+    private final ExecutorService executor;
+
+    // only accessed by the thread of the executor, created lazily
+    private @Nullable Solver solver = null;
+    private @Nullable InterpolationManager itpMgr = null;
+
+    /**
+     * Interrupts the current computation of the variant. It is replaced together with the solver
+     * after an interrupt, because the solver is bound to it.
+     */
+    private volatile ShutdownManager shutdownManager;
+
+    /** Forwards shutdown requests of the analysis to {@link #shutdownManager}. */
+    private ShutdownRequestListener shutdownListener;
+
+    /** Whether the variant still works on a counterexample from a previous race. */
+    private volatile boolean busy = false;
+
+    private int races = 0;
+    private int wins = 0;
+    private int skipped = 0;
+    private boolean pruned = false;
+
+    private Variant(String pName, Configuration pConfig, ExecutorService pExecutor) {
+      name = pName;
+      config = pConfig;
+      executor = pExecutor;
+    }
+  }
+
+  private InterpolationPortfolio(
+      Configuration pConfig,
+      FormulaManagerView pFmgr,
+      PathFormulaManagerFactory pPmgrFactory,
+      Optional<LoopStructure> pLoopStructure,
+      Optional<VariableClassification> pVarClassification,
+      ShutdownNotifier pShutdownNotifier,
+      LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    fmgr = pFmgr;
+    pmgrFactory = pPmgrFactory;
+    loopStructure = pLoopStructure;
+    variableClassification = pVarClassification;
+
+    // daemon threads, because interrupted variants may still be running when the analysis ends
+    ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setNameFormat("interpolation-portfolio-%d")
+            .setDaemon(true)
+            .build();
+
+    for (String variant : variants) {
+      List<String> parts = VARIANT_SPLITTER.splitToList(variant);
+      if (parts.size() != 2) {
+        throw new InvalidConfigurationException(
+            "Invalid interpolation variant '" + variant + "', expected 'STRATEGY:DIRECTION'");
+      }
+      try {
+        InterpolationStrategy.valueOf(parts.get(0));
+        CexTraceAnalysisDirection.valueOf(parts.get(1));
+      } catch (IllegalArgumentException e) {
+        throw new InvalidConfigurationException(
+            "Invalid interpolation variant '" + variant + "': " + e.getMessage(), e);
+      }
+      Configuration variantConfig =
+          Configuration.builder()
+              .copyFrom(pConfig)
+              .setOption("cpa.predicate.refinement.strategy", parts.get(0))
+              .setOption("cpa.predicate.refinement.cexTraceCheckDirection", parts.get(1))
+              .setOption("cpa.predicate.refinement.portfolio.variants", "")
+              .setOption("cpa.predicate.refinement.timelimit", "0")
+              .setOption("cpa.predicate.refinement.reuseInterpolationEnvironment", "false")
+              .build();
+      Variant v =
+          new Variant(
+              parts.get(0) + ":" + parts.get(1),
+              variantConfig,
+              Executors.newSingleThreadExecutor(threadFactory));
+      newShutdownManager(v);
+      portfolio.add(v);
+    }
+  }
+
+  /**
+   * Create a portfolio from the configuration.
+   *
+   * @return the portfolio, or null if racing of interpolation variants is disabled
+   */
+  static @Nullable InterpolationPortfolio create(
+      Configuration pConfig,
+      FormulaManagerView pFmgr,
+      PathFormulaManagerFactory pPmgrFactory,
+      Optional<LoopStructure> pLoopStructure,
+      Optional<VariableClassification> pVarClassification,
+      ShutdownNotifier pShutdownNotifier,
+      LogManager pLogger)
+      throws InvalidConfigurationException {
+    InterpolationPortfolio portfolio =
+        new InterpolationPortfolio(
+            pConfig,
+            pFmgr,
+            pPmgrFactory,
+            pLoopStructure,
+            pVarClassification,
+            pShutdownNotifier,
+            pLogger);
+    if (portfolio.portfolio.isEmpty()) {
+      return null;
+    }
+    return portfolio;
+  }
+
+  /**
+   * Race all remaining variants on the given counterexample.
+   *
+   * <p>If a variant finds the counterexample feasible, the race is stopped immediately and the
+   * caller has to analyze the counterexample again with its own solver. This is necessary because
+   * the model and the error path of a feasible counterexample live in the solver context of the
+   * variant and cannot be transferred. Feasible counterexamples are rare compared to spurious ones
+   * (typically only the last one of an analysis), so this is not worth a special case.
+   *
+   * @return the interpolants of the first variant that proved the counterexample infeasible,
+   *     or null if the counterexample is feasible or no variant succeeded. In this case the caller
+   *     needs to analyze the counterexample itself.
+   */
+  @Nullable
+  CounterexampleTraceInfo race(BlockFormulas pFormulas, List<AbstractState> pAbstractionStates)
+      throws InterruptedException {
+    List<Variant> participants = new ArrayList<>();
+    for (Variant variant : portfolio) {
+      if (variant.pruned) {
+        continue;
+      }
+      if (variant.busy) {
+        variant.skipped++;
+        continue;
+      }
+      participants.add(variant);
+    }
+    if (participants.isEmpty()) {
+      logger.log(Level.FINE, "All interpolation variants are still busy");
+      undecidedRaces++;
+      return null;
+    }
+
+    // formulas of our own solver context must not be accessed from other threads
+    List<String> formulas =
+        transformedImmutableListCopy(pFormulas.getFormulas(), f -> fmgr.dumpFormula(f).toString());
+    String branchingFormula =
+        pFormulas.hasBranchingFormula()
+            ? fmgr.dumpFormula(pFormulas.getBranchingFormula()).toString()
+            : null;
+
+    // one completion queue for all variants, each variant runs on its own executor
+    BlockingQueue<Future<Optional<List<String>>>> completed = new LinkedBlockingQueue<>();
+    List<Future<Optional<List<String>>>> futures = new ArrayList<>();
+    for (Variant variant : participants) {
+      CompletionService<Optional<List<String>>> completionService =
+          new ExecutorCompletionService<>(variant.executor, completed);
+      variant.busy = true;
+      futures.add(
+          completionService.submit(
+              () -> {
+                try {
+                  variant.shutdownManager.getNotifier().shutdownIfNecessary();
+                  return runVariant(variant, formulas, branchingFormula, pAbstractionStates);
+                } finally {
+                  if (variant.shutdownManager.getNotifier().shouldShutdown()) {
+                    // the solver cannot be used anymore after an interrupt
+                    closeSolver(variant);
+                    if (!closed) {
+                      newShutdownManager(variant);
+                    }
+                  }
+                  variant.busy = false;
+                }
+              }));
+    }
+
+    races++;
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        Future<Optional<List<String>>> finished = completed.take();
+        Variant variant = participants.get(futures.indexOf(finished));
+        Optional<List<String>> result;
+        try {
+          result = finished.get();
+        } catch (ExecutionException e) {
+          logger.logDebugException(
+              e.getCause(), "Interpolation variant " + variant.name + " failed");
+          continue;
+        }
+
+        if (!result.isPresent()) {
+          // the counterexample is feasible, the caller computes the error path
+          logger.log(Level.FINEST, "Interpolation variant", variant.name, "found feasible trace");
+          undecidedRaces++;
+          return null;
+        }
+
+        List<BooleanFormula> interpolants;
+        try {
+          interpolants = transformedImmutableListCopy(result.get(), fmgr::parse);
+        } catch (IllegalArgumentException e) {
+          // the solver of the variant may print formulas that our solver does not understand
+          logger.logDebugException(
+              e, "Could not read interpolants of interpolation variant " + variant.name);
+          undecidedRaces++;
+          return null;
+        }
+
+        logger.log(Level.FINEST, "Interpolation variant", variant.name, "won the race");
+        variant.wins++;
+        return CounterexampleTraceInfo.infeasible(interpolants);
+      }
+
+      logger.log(Level.FINE, "All interpolation variants failed");
+      undecidedRaces++;
+      return null;
+
+    } finally {
+      for (int i = 0; i < participants.size(); i++) {
+        Variant variant = participants.get(i);
+        if (!futures.get(i).isDone()) {
+          variant.shutdownManager.requestShutdown("Interpolation race was already decided");
+        }
+        variant.races++;
+      }
+      prune(participants);
+    }
+  }
+
+  /**
+   * Analyze the counterexample with the solver instance of the given variant. This method must
+   * only be called from the executor of the variant.
+   *
+   * @return the interpolants as SMT-LIB strings, or an empty Optional if the counterexample is
+   *     feasible
+   */
+  private Optional<List<String>> runVariant(
+      Variant pVariant,
+      List<String> pFormulas,
+      @Nullable String pBranchingFormula,
+      List<AbstractState> pAbstractionStates)
+      throws Exception {
+    if (pVariant.itpMgr == null) {
+      ShutdownNotifier variantShutdownNotifier = pVariant.shutdownManager.getNotifier();
+      Solver solver = Solver.create(pVariant.config, logger, variantShutdownNotifier);
+      try {
+        pVariant.itpMgr =
+            new InterpolationManager(
+                pmgrFactory.create(solver.getFormulaManager()),
+                solver,
+                loopStructure,
+                variableClassification,
+                pVariant.config,
+                variantShutdownNotifier,
+                logger);
+      } catch (InvalidConfigurationException | RuntimeException e) {
+        solver.close();
+        throw e;
+      }
+      pVariant.solver = solver;
+    }
+    FormulaManagerView variantFmgr = pVariant.solver.getFormulaManager();
+    List<BooleanFormula> formulas = transformedImmutableListCopy(pFormulas, variantFmgr::parse);
+    BlockFormulas blockFormulas =
+        pBranchingFormula == null
+            ? new BlockFormulas(formulas)
+            : new BlockFormulas(formulas, variantFmgr.parse(pBranchingFormula));
+
+    CounterexampleTraceInfo info =
+        pVariant.itpMgr.buildCounterexampleTrace(blockFormulas, pAbstractionStates);
+    if (!info.isSpurious()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        transformedImmutableListCopy(
+            info.getInterpolants(), itp -> variantFmgr.dumpFormula(itp).toString()));
+  }
+
+  /**
+   * Create a new shutdown manager for the given variant that is notified about shutdown requests
+   * of the analysis.
+   */
+  private void newShutdownManager(Variant pVariant) {
+    ShutdownManager shutdownManager = ShutdownManager.create();
+    pVariant.shutdownListener = shutdownManager::requestShutdown;
+    pVariant.shutdownManager = shutdownManager;
+    shutdownNotifier.registerAndCheckImmediately(pVariant.shutdownListener);
+  }
+
+  /**
+   * Close the solver of the given variant, if it has one. This method must only be called from the
+   * executor of the variant.
+   */
+  private void closeSolver(Variant pVariant) {
+    shutdownNotifier.unregister(pVariant.shutdownListener);
+    if (pVariant.solver != null) {
+      pVariant.itpMgr.close();
+      pVariant.itpMgr = null;
+      pVariant.solver.close();
+      pVariant.solver = null;
+    }
+  }
+
+  /**
+   * Interrupt all running variants and close their solvers and threads. The portfolio must not be
+   * used afterwards.
+   */
+  void close() {
+    closed = true;
+    for (Variant variant : portfolio) {
+      variant.shutdownManager.requestShutdown("Interpolation portfolio was closed");
+      // the solver of a variant must be closed by its own thread after the current computation
+      variant.executor.execute(() -> closeSolver(variant));
+      variant.executor.shutdown();
+    }
+  }
+
+  /** Remove variants with a low win rate, but always keep the best one. */
+  private void prune(List<Variant> pParticipants) {
+    if (pruneAfter == 0 || pParticipants.size() <= 1) {
+      return;
+    }
+    Variant best = pParticipants.get(0);
+    for (Variant variant : pParticipants) {
+      if (variant.wins > best.wins) {
+        best = variant;
+      }
+    }
+    for (Variant variant : pParticipants) {
+      if (variant != best
+          && variant.races >= pruneAfter
+          && (double) variant.wins / variant.races < minWinRate) {
+        logger.log(
+            Level.FINE,
+            "Removing interpolation variant",
+            variant.name,
+            "from portfolio after",
+            variant.wins,
+            "wins in",
+            variant.races,
+            "races");
+        variant.pruned = true;
+      }
+    }
+  }
+
+  void printStatistics(StatisticsWriter w0) {
+    w0.put("Interpolation races", races + " (undecided: " + undecidedRaces + ")");
+    StatisticsWriter w1 = w0.beginLevel();
+    for (Variant variant : portfolio) {
+      w1.put(
+          "Variant " + variant.name,
+          variant.wins
+              + " wins in "
+              + variant.races
+              + " races"
+              + (variant.skipped > 0 ? ", skipped " + variant.skipped + " times while busy" : "")
+              + (variant.pruned ? " (removed)" : ""));
+    }
+  }
+}
@@ -25,12 +25,23 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.sosy_lab.common.time.Timer;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -41,6 +52,8 @@ import org.sosy_lab.cpachecker.exceptions.UnrecognizedCFAEdgeException;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.Formula;
 import org.sosy_lab.java_smt.api.Model.ValueAssignment;
@@ -48,46 +61,111 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * <p>The caches can be bounded by the number of entries or by their weight (the length of the
+ * cached path formulas), and can hold their values with soft references. Like the delegate, this
+ * class is not thread-safe.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
-  public final Timer pathFormulaComputationTimer = new Timer();
-  public int pathFormulaCacheHits = 0;
+  @Option(
+    secure = true,
+    description = "maximum number of entries in each cache for path formulas (0 for no limit)"
+  )
+  @IntegerOption(min = 0)
+  private long maximumSize = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "maximum total weight of the entries in each cache for path formulas, "
+            + "where the weight of an entry is the length of the cached path formula "
+            + "(0 for no limit)"
+  )
+  @IntegerOption(min = 0)
+  private long maximumWeight = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "reference cached path formulas only softly, "
+            + "such that the garbage collector can remove them if memory gets low"
+  )
+  private boolean softValues = false;
+
+  public final ThreadSafeTimerContainer pathFormulaComputationTimer =
+      new ThreadSafeTimerContainer("Time for path formula computation");
+  private final ThreadLocal<TimerWrapper> computationTimer =
+      ThreadLocal.withInitial(pathFormulaComputationTimer::getNewTimer);
 
   public final PathFormulaManager delegate;
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
-
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
-
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>>
+      andFormulaWithConditionsCache;
+  private final Cache<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache;
+  // the key is unordered, because the disjunction is commutative
+  private final Cache<Set<PathFormula>, PathFormula> orFormulaCache;
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
   private final PathFormula emptyFormula;
 
-  public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (maximumSize > 0 && maximumWeight > 0) {
+      throw new InvalidConfigurationException(
+          "Path-formula caches can be bounded either by size or by weight, but not both.");
+    }
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+
+    andFormulaWithConditionsCache = createCache(Pair::getFirst);
+    andFormulaCache = createCache(Function.identity());
+    orFormulaCache = createCache(Function.identity());
+    emptyFormulaCache = createCache(Function.identity());
+  }
+
+  private <K, V> Cache<K, V> createCache(Function<V, PathFormula> pGetPathFormula) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maximumSize > 0) {
+      builder.maximumSize(maximumSize);
+    }
+    if (maximumWeight > 0) {
+      builder
+          .maximumWeight(maximumWeight)
+          .weigher((K key, V value) -> Math.max(1, pGetPathFormula.apply(value).getLength()));
+    }
+    if (softValues) {
+      builder.softValues();
+    }
+    return builder.build();
+  }
+
+  /** Return the number of cache hits of all caches. */
+  public long getCacheHits() {
+    return andFormulaWithConditionsCache.stats().hitCount()
+        + andFormulaCache.stats().hitCount()
+        + orFormulaCache.stats().hitCount()
+        + emptyFormulaCache.stats().hitCount();
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
 
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result =
+        andFormulaWithConditionsCache.getIfPresent(formulaCacheKey);
     if (result == null) {
-      pathFormulaComputationTimer.start();
-      // compute new pathFormula with the operation on the edge
-      result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
-      pathFormulaComputationTimer.stop();
-      andFormulaWithConditionsCache.put(formulaCacheKey, result);
-
-    } else {
-      pathFormulaCacheHits++;
+      TimerWrapper timer = computationTimer.get();
+      timer.start();
+      try {
+        // compute new pathFormula with the operation on the edge
+        result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
+        andFormulaWithConditionsCache.put(formulaCacheKey, result);
+      } finally {
+        timer.stop();
+      }
     }
     return result;
   }
@@ -95,40 +173,30 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
+      TimerWrapper timer = computationTimer.get();
+      timer.start();
       try {
-      pathFormulaComputationTimer.start();
-      // compute new pathFormula with the operation on the edge
-      result = delegate.makeAnd(pOldFormula, pEdge);
-      andFormulaCache.put(formulaCacheKey, result);
+        // compute new pathFormula with the operation on the edge
+        result = delegate.makeAnd(pOldFormula, pEdge);
+        andFormulaCache.put(formulaCacheKey, result);
       } finally {
-        pathFormulaComputationTimer.stop();
+        timer.stop();
       }
-
-    } else {
-      pathFormulaCacheHits++;
     }
     return result;
   }
 
   @Override
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
-    final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
-
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
-    if (result == null) {
-      // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
-    }
-
-    if (result == null) {
-      result = delegate.makeOr(pF1, pF2);
-      orFormulaCache.put(formulaCacheKey, result);
-    } else {
-      pathFormulaCacheHits++;
+    final Set<PathFormula> formulaCacheKey = ImmutableSet.of(pF1, pF2);
+    try {
+      return orFormulaCache.get(formulaCacheKey, () -> delegate.makeOr(pF1, pF2));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), InterruptedException.class);
+      throw new AssertionError("Unexpected exception during disjunction of path formulas", e);
     }
-    return result;
   }
 
   @Override
@@ -138,12 +206,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormula(pOldFormula);
       emptyFormulaCache.put(pOldFormula, result);
-    } else {
-      pathFormulaCacheHits++;
     }
     return result;
   }
@@ -196,10 +262,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    andFormulaWithConditionsCache.invalidateAll();
+    andFormulaCache.invalidateAll();
+    orFormulaCache.invalidateAll();
+    emptyFormulaCache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -216,8 +282,8 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void printStatistics(PrintStream out) {
-    int cacheHits = this.pathFormulaCacheHits;
-    int totalPathFormulaComputations =
+    long cacheHits = getCacheHits();
+    long totalPathFormulaComputations =
         this.pathFormulaComputationTimer.getNumberOfIntervals() + cacheHits;
     out.println(
         "Number of path formula cache hits:   "
@@ -225,6 +291,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    printCacheStatistics(out, "conjunction with error conditions", andFormulaWithConditionsCache);
+    printCacheStatistics(out, "conjunction", andFormulaCache);
+    printCacheStatistics(out, "disjunction", orFormulaCache);
+    printCacheStatistics(out, "empty formula", emptyFormulaCache);
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -235,6 +305,16 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     delegate.printStatistics(out);
   }
 
+  private static void printCacheStatistics(PrintStream out, String name, Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    if (stats.requestCount() > 0) {
+      out.println(
+          String.format(
+              "  Cache for %s: %d hits, %d misses, %d evictions, %d entries",
+              name, stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size()));
+    }
+  }
+
   @Override
   public BooleanFormula addBitwiseAxiomsIfNeeded(final BooleanFormula pMainFormula, final BooleanFormula pExtractionFormula) {
     return delegate.addBitwiseAxiomsIfNeeded(pMainFormula, pExtractionFormula);
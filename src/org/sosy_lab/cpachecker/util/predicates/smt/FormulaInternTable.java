@@ -0,0 +1,200 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.MapMaker;
+import java.io.PrintStream;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.java_smt.api.Formula;
+
+/**
+ * Thread-safe hash-consing layer for the formulas of a {@link FormulaManagerView}.
+ *
+ * <p>The intern table maps all equal formulas to one canonical instance and holds it only weakly.
+ * Each canonical instance gets a unique numeric id. The id of a formula stays the same as long as
+ * its canonical instance is reachable, so clients that key their maps on ids need to keep the
+ * canonical instance returned by {@link #intern(Formula)}.
+ *
+ * <p>Additionally, the results of rewriting operations of {@link FormulaManagerView} can be
+ * memoized. The memoization tables are keyed on canonical instances (and on the identity of SSA
+ * maps) and hold their keys only weakly, such that an entry is dropped as soon as its input
+ * formula is not used anymore and no lookup needs to compare formulas or SSA maps structurally.
+ * The results are interned, too.
+ */
+@Options(prefix = "cpa.predicate.hashConsing")
+final class FormulaInternTable {
+
+  @Option(
+    secure = true,
+    description =
+        "memoize the results of instantiating, uninstantiating, and simplifying formulas"
+  )
+  private boolean memoize = true;
+
+  @Option(
+    secure = true,
+    description =
+        "maximum number of entries per memoized operation on formulas (0 for no limit), "
+            + "for instantiation this is the number of SSA maps"
+  )
+  @IntegerOption(min = 0)
+  private long maximumSize = 100000;
+
+  /**
+   * Marks memoized results that are identical to their input. Storing the input itself as value
+   * would keep the weak key reachable forever.
+   */
+  private static final Object UNCHANGED = new Object();
+
+  private final Interner<Formula> interner = Interners.newWeakInterner();
+
+  // weak keys are compared by identity, which is correct for canonical instances
+  private final ConcurrentMap<Formula, Long> ids = new MapMaker().weakKeys().makeMap();
+  private final AtomicLong nextId = new AtomicLong();
+
+  private final @Nullable Cache<SSAMap, ConcurrentMap<Formula, Object>> instantiateCache;
+  private final @Nullable Cache<Formula, Object> uninstantiateCache;
+  private final @Nullable Cache<Formula, Object> simplifyCache;
+
+  private final StatCounter hits = new StatCounter("Cache hits for memoized formula operations");
+  private final StatCounter misses =
+      new StatCounter("Cache misses for memoized formula operations");
+
+  FormulaInternTable(Configuration pConfig) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (memoize) {
+      instantiateCache = newCache();
+      uninstantiateCache = newCache();
+      simplifyCache = newCache();
+    } else {
+      instantiateCache = null;
+      uninstantiateCache = null;
+      simplifyCache = null;
+    }
+  }
+
+  private <K, V> Cache<K, V> newCache() {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().weakKeys();
+    if (maximumSize > 0) {
+      builder.maximumSize(maximumSize);
+    }
+    return builder.build();
+  }
+
+  boolean isMemoizing() {
+    return memoize;
+  }
+
+  /** Return the canonical instance of all formulas that are equal to the given one. */
+  <F extends Formula> F intern(F pFormula) {
+    @SuppressWarnings("unchecked")
+    F result = (F) interner.intern(pFormula);
+    return result;
+  }
+
+  /**
+   * Return the unique id of the canonical instance of the given formula. The id is only stable as
+   * long as the canonical instance is reachable.
+   */
+  long getId(Formula pFormula) {
+    return ids.computeIfAbsent(intern(pFormula), f -> nextId.getAndIncrement());
+  }
+
+  @Nullable
+  <F extends Formula> F getInstantiated(F pFormula, SSAMap pSsa) {
+    ConcurrentMap<Formula, Object> results = instantiateCache.getIfPresent(pSsa);
+    return lookup(pFormula, results == null ? null : results.get(intern(pFormula)));
+  }
+
+  <F extends Formula> F putInstantiated(F pFormula, SSAMap pSsa, F pResult) {
+    ConcurrentMap<Formula, Object> results;
+    try {
+      results = instantiateCache.get(pSsa, () -> new MapMaker().weakKeys().makeMap());
+    } catch (ExecutionException e) {
+      throw new AssertionError(e);
+    }
+    return store(results, pFormula, pResult);
+  }
+
+  @Nullable
+  <F extends Formula> F getUninstantiated(F pFormula) {
+    return lookup(pFormula, uninstantiateCache.getIfPresent(intern(pFormula)));
+  }
+
+  <F extends Formula> F putUninstantiated(F pFormula, F pResult) {
+    return store(uninstantiateCache.asMap(), pFormula, pResult);
+  }
+
+  @Nullable
+  <F extends Formula> F getSimplified(F pFormula) {
+    return lookup(pFormula, simplifyCache.getIfPresent(intern(pFormula)));
+  }
+
+  <F extends Formula> F putSimplified(F pFormula, F pResult) {
+    return store(simplifyCache.asMap(), pFormula, pResult);
+  }
+
+  @Nullable
+  private <F extends Formula> F lookup(F pFormula, @Nullable Object pValue) {
+    if (pValue == null) {
+      misses.inc();
+      return null;
+    }
+    hits.inc();
+    @SuppressWarnings("unchecked")
+    F result = pValue == UNCHANGED ? intern(pFormula) : (F) pValue;
+    return result;
+  }
+
+  private <F extends Formula> F store(
+      ConcurrentMap<Formula, Object> pResults, F pFormula, F pResult) {
+    F key = intern(pFormula);
+    F result = intern(pResult);
+    pResults.put(key, result == key ? UNCHANGED : result);
+    return result;
+  }
+
+  void printStatistics(PrintStream out) {
+    if (memoize) {
+      long total = hits.getValue() + misses.getValue();
+      out.println("  cache hits for formula rewriting: " + toPercent(hits.getValue(), total));
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class FormulaInternTableTest extends SolverViewBasedTest0 {
+
+  private FormulaInternTable table;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    table = new FormulaInternTable(Configuration.defaultConfiguration());
+  }
+
+  @Test
+  public void internEqualFormulas() {
+    BooleanFormula f1 = bmgrv.and(bmgrv.makeVariable("x"), bmgrv.makeVariable("y"));
+    BooleanFormula f2 = bmgrv.and(bmgrv.makeVariable("x"), bmgrv.makeVariable("y"));
+    assertThat(f2).isEqualTo(f1);
+
+    BooleanFormula canonical = table.intern(f1);
+    assertThat(table.intern(f2)).isSameAs(canonical);
+    assertThat(table.getId(f2)).isEqualTo(table.getId(canonical));
+    assertThat(table.getId(bmgrv.makeVariable("x"))).isNotEqualTo(table.getId(canonical));
+  }
+
+  @Test
+  public void memoizeInstantiation() {
+    BooleanFormula f = table.intern(bmgrv.makeVariable("x"));
+    SSAMap ssa = SSAMap.emptySSAMap().builder().setIndex("x", CNumericTypes.INT, 1).build();
+    BooleanFormula instantiated = mgrv.instantiate(f, ssa);
+
+    assertThat(table.getInstantiated(f, ssa)).isNull();
+    BooleanFormula stored = table.putInstantiated(f, ssa, instantiated);
+    assertThat(stored).isEqualTo(instantiated);
+    assertThat(table.getInstantiated(f, ssa)).isSameAs(stored);
+    // equal formulas share the memoized result
+    assertThat(table.getInstantiated(bmgrv.makeVariable("x"), ssa)).isSameAs(stored);
+    assertThat(table.getInstantiated(f, SSAMap.emptySSAMap())).isNull();
+    assertThat(table.getUninstantiated(f)).isNull();
+  }
+
+  @Test
+  public void memoizeUnchangedResult() {
+    BooleanFormula f = table.intern(bmgrv.makeVariable("x"));
+
+    assertThat(table.putSimplified(f, bmgrv.makeVariable("x"))).isSameAs(f);
+    assertThat(table.getSimplified(f)).isSameAs(f);
+  }
+}
@@ -34,6 +34,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
@@ -141,6 +142,7 @@ public class FormulaManagerView {
   private final FunctionFormulaManagerView functionFormulaManager;
   private @Nullable QuantifiedFormulaManagerView quantifiedFormulaManager;
   private @Nullable ArrayFormulaManagerView arrayFormulaManager;
+  private final FormulaInternTable internTable;
 
   @Option(secure=true, name = "formulaDumpFilePattern", description = "where to dump interpolation and abstraction problems (format string)")
   @FileOption(FileOption.Type.OUTPUT_FILE)
@@ -166,6 +168,7 @@ public class FormulaManagerView {
   public FormulaManagerView(FormulaManager pFormulaManager, Configuration config, LogManager pLogger) throws InvalidConfigurationException {
     config.inject(this, FormulaManagerView.class);
     logger = pLogger;
+    internTable = new FormulaInternTable(config);
     manager = checkNotNull(pFormulaManager);
     wrappingHandler = new FormulaWrappingHandler(manager, encodeBitvectorAs, encodeFloatAs);
     booleanFormulaManager = new BooleanFormulaManagerView(wrappingHandler, manager.getBooleanFormulaManager());
@@ -969,6 +972,17 @@ public class FormulaManagerView {
    * are not allowed in the formula.
    */
   public <F extends Formula> F instantiate(F pF, final SSAMap pSsa) {
+    if (internTable.isMemoizing()) {
+      F result = internTable.getInstantiated(pF, pSsa);
+      if (result == null) {
+        result = internTable.putInstantiated(pF, pSsa, instantiate0(pF, pSsa));
+      }
+      return result;
+    }
+    return instantiate0(pF, pSsa);
+  }
+
+  private <F extends Formula> F instantiate0(F pF, final SSAMap pSsa) {
     return wrap(
         getFormulaType(pF),
         myFreeVariableNodeTransformer(
@@ -1040,6 +1054,17 @@ public class FormulaManagerView {
    * @return    Uninstantiated formula
    */
   public <F extends Formula> F uninstantiate(F f) {
+    if (internTable.isMemoizing()) {
+      F result = internTable.getUninstantiated(f);
+      if (result == null) {
+        result = internTable.putUninstantiated(f, uninstantiate0(f));
+      }
+      return result;
+    }
+    return uninstantiate0(f);
+  }
+
+  private <F extends Formula> F uninstantiate0(F f) {
     return wrap(
         getFormulaType(f),
         myFreeVariableNodeTransformer(
@@ -1507,9 +1532,38 @@ public class FormulaManagerView {
   }
 
   public <T extends Formula> T simplify(T input) throws InterruptedException {
+    if (internTable.isMemoizing()) {
+      T result = internTable.getSimplified(input);
+      if (result == null) {
+        result = internTable.putSimplified(input, manager.simplify(input));
+      }
+      return result;
+    }
     return manager.simplify(input);
   }
 
+  /**
+   * Return the canonical instance of all formulas that are equal to the given one. Interned
+   * formulas are held only weakly, so interning does not keep formulas alive.
+   */
+  public <T extends Formula> T intern(T pFormula) {
+    return internTable.intern(pFormula);
+  }
+
+  /**
+   * Return a unique id for the given formula, which is the same for all equal formulas. The id is
+   * taken from the canonical instance of the formula (cf. {@link #intern(Formula)}) and only stays
+   * stable as long as the canonical instance is reachable. Clients that key maps on ids instead of
+   * formulas thus need to keep the result of {@link #intern(Formula)}.
+   */
+  public long getFormulaId(Formula pFormula) {
+    return internTable.getId(pFormula);
+  }
+
+  void printCacheStatistics(PrintStream out) {
+    internTable.printStatistics(out);
+  }
+
   public BooleanFormula substitute(
       BooleanFormula f, Map<? extends Formula, ? extends Formula> replacements) {
     Map<Formula, Formula> m = new HashMap<>();
@@ -28,14 +28,10 @@ import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNS
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import java.util.HashMap;
+import java.io.PrintStream;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -104,20 +100,8 @@ public final class Solver implements AutoCloseable {
   private final SolverContext solvingContext;
   private final SolverContext interpolatingContext;
 
-  private final Map<BooleanFormula, Boolean> unsatCache = Maps.newHashMap();
-
-  /**
-   * More complex unsat cache, grouped by an arbitrary key.
-   *
-   * <p>For each node, map a set of constraints to whether it is unsatisfiable
-   * or satisfiable (maps to |true| <=> |UNSAT|).
-   * If a set of constraints is satisfiable, any subset of it is also
-   * satisfiable.
-   * If a set of constraints is unsatisfiable, any superset of it is also
-   * unsatisfiable.
-   */
-  private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
-      groupedUnsatCache = new HashMap<>();
+  /** Cache for results of satisfiability checks, also grouped by an arbitrary key. */
+  private final SolverQueryCache queryCache;
 
   private final LogManager logger;
 
@@ -153,6 +137,7 @@ public final class Solver implements AutoCloseable {
     );
     bfmgr = fmgr.getBooleanFormulaManager();
     logger = pLogger;
+    queryCache = new SolverQueryCache(config);
 
     if (checkUFs) {
       ufCheckingProverOptions = new UFCheckingProverOptions(config);
@@ -198,6 +183,7 @@ public final class Solver implements AutoCloseable {
     fmgr = new FormulaManagerView(pContext.getFormulaManager(), pConfig, pLogger);
     bfmgr = fmgr.getBooleanFormulaManager();
     logger = pLogger;
+    queryCache = new SolverQueryCache(pConfig);
 
     if (checkUFs) {
       ufCheckingProverOptions = new UFCheckingProverOptions(pConfig);
@@ -328,7 +314,7 @@ public final class Solver implements AutoCloseable {
       trivialSatChecks++;
       return true;
     }
-    Boolean result = unsatCache.get(f);
+    Boolean result = queryCache.getIfPresent(f);
     if (result != null) {
       cachedSatChecks++;
       return result;
@@ -338,7 +324,7 @@ public final class Solver implements AutoCloseable {
     try {
       result = isUnsatUncached(f);
 
-      unsatCache.put(f, result);
+      queryCache.put(f, result);
       return result;
 
     } finally {
@@ -369,32 +355,10 @@ public final class Solver implements AutoCloseable {
       throws InterruptedException, SolverException {
     satChecks++;
 
-    Map<Set<BooleanFormula>, Boolean> stored = groupedUnsatCache.get(cacheKey);
-    if (stored != null) {
-      for (Entry<Set<BooleanFormula>, Boolean> isUnsatResults : stored
-          .entrySet()) {
-        Set<BooleanFormula> cachedConstraints = isUnsatResults.getKey();
-        boolean cachedIsUnsat = isUnsatResults.getValue();
-
-        if (cachedIsUnsat && lemmas.containsAll(cachedConstraints)) {
-
-          // Any superset of unreachable constraints is unreachable.
-          cachedSatChecks++;
-          return true;
-        } else if (!cachedIsUnsat &&
-            cachedConstraints.containsAll(lemmas)) {
-
-          // Any subset of reachable constraints is reachable.
-          cachedSatChecks++;
-          return false;
-        }
-      }
-    }
-
-    if (stored == null) {
-      stored = new HashMap<>();
-    } else {
-      stored = new HashMap<>(stored);
+    Boolean cachedIsUnsat = queryCache.getIfPresent(lemmas, cacheKey);
+    if (cachedIsUnsat != null) {
+      cachedSatChecks++;
+      return cachedIsUnsat;
     }
 
     ProverOptions opts[];
@@ -411,17 +375,15 @@ public final class Solver implements AutoCloseable {
       }
       if (pe.isUnsat()) {
         if (cacheUnsatCores) {
-          stored.put(ImmutableSet.copyOf(pe.getUnsatCore()), true);
+          queryCache.put(ImmutableSet.copyOf(pe.getUnsatCore()), cacheKey, true);
         } else {
-          stored.put(ImmutableSet.copyOf(lemmas), true);
+          queryCache.put(lemmas, cacheKey, true);
         }
         return true;
       } else {
-        stored.put(lemmas, false);
+        queryCache.put(lemmas, cacheKey, false);
         return false;
       }
-    } finally {
-      groupedUnsatCache.put(cacheKey, ImmutableMap.copyOf(stored));
     }
   }
 
@@ -526,7 +488,7 @@ public final class Solver implements AutoCloseable {
    * @param unsat An unsatisfiable formula.
    */
   public void addUnsatisfiableFormulaToCache(BooleanFormula unsat) {
-    if (unsatCache.containsKey(unsat) || bfmgr.isFalse(unsat)) {
+    if (queryCache.contains(unsat) || bfmgr.isFalse(unsat)) {
       return;
     }
     try {
@@ -537,6 +499,12 @@ public final class Solver implements AutoCloseable {
       Thread.currentThread().interrupt();
     }
 
-    unsatCache.put(unsat, true);
+    queryCache.put(unsat, true);
+  }
+
+  /** Print the hit rates of the cache for satisfiability checks. */
+  public void printCacheStatistics(PrintStream out) {
+    queryCache.printStatistics(out);
+    fmgr.printCacheStatistics(out);
   }
 }
@@ -0,0 +1,206 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * Thread-safe and bounded cache for the results of satisfiability queries of a {@link Solver}.
+ *
+ * <p>Results for single formulas are stored in a map. Results for sets of constraints are grouped
+ * by an arbitrary key and exploit monotonicity: if a set of constraints is satisfiable, any subset
+ * of it is also satisfiable, and if it is unsatisfiable, any superset of it is also unsatisfiable.
+ * To avoid checking the subset relation for all stored sets, each set carries a 64-bit signature
+ * with one bit per (hashed) constraint, such that most candidates can be discarded with a single
+ * bit operation.
+ *
+ * <p>The cached formulas belong to the formula manager of the solver, so the cache must not be
+ * shared with solvers that use another formula manager.
+ */
+@Options(prefix = "solver.cache")
+final class SolverQueryCache {
+
+  @Option(
+    secure = true,
+    description =
+        "maximum number of single formulas in the cache of satisfiability results "
+            + "(0 for no limit)"
+  )
+  @IntegerOption(min = 0)
+  private long maximumSize = 0;
+
+  @Option(
+    secure = true,
+    description =
+        "maximum number of constraint sets that are cached per group key "
+            + "for satisfiability checks of sets of constraints (0 for no limit)"
+  )
+  @IntegerOption(min = 0)
+  private int maximumGroupSize = 0;
+
+  private final Cache<BooleanFormula, Boolean> unsatCache;
+  private final ConcurrentMap<Object, Group> groupedUnsatCache = new ConcurrentHashMap<>();
+
+  private final StatCounter singleHits = new StatCounter("Cache hits for formulas");
+  private final StatCounter singleMisses = new StatCounter("Cache misses for formulas");
+  private final StatCounter groupedHits = new StatCounter("Cache hits for constraint sets");
+  private final StatCounter groupedMisses = new StatCounter("Cache misses for constraint sets");
+
+  SolverQueryCache(Configuration pConfig) throws InvalidConfigurationException {
+    pConfig.inject(this);
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+    if (maximumSize > 0) {
+      builder.maximumSize(maximumSize);
+    }
+    unsatCache = builder.build();
+  }
+
+  /** Return the cached result for the formula (true for UNSAT), or null if not cached. */
+  @Nullable
+  Boolean getIfPresent(BooleanFormula pFormula) {
+    Boolean result = unsatCache.getIfPresent(pFormula);
+    if (result == null) {
+      singleMisses.inc();
+    } else {
+      singleHits.inc();
+    }
+    return result;
+  }
+
+  boolean contains(BooleanFormula pFormula) {
+    return unsatCache.getIfPresent(pFormula) != null;
+  }
+
+  void put(BooleanFormula pFormula, boolean pIsUnsat) {
+    unsatCache.put(pFormula, pIsUnsat);
+  }
+
+  /**
+   * Return whether the set of constraints is known to be unsatisfiable (true) or satisfiable
+   * (false) from a cached subset or superset, or null if this is not known.
+   */
+  @Nullable
+  Boolean getIfPresent(Set<BooleanFormula> pConstraints, Object pGroupKey) {
+    Group group = groupedUnsatCache.get(pGroupKey);
+    Boolean result = group == null ? null : group.lookup(pConstraints, signature(pConstraints));
+    if (result == null) {
+      groupedMisses.inc();
+    } else {
+      groupedHits.inc();
+    }
+    return result;
+  }
+
+  /**
+   * Store the result of a satisfiability check of a set of constraints.
+   *
+   * @param pConstraints the checked constraints, or an unsat core of them if they are unsat
+   */
+  void put(Set<BooleanFormula> pConstraints, Object pGroupKey, boolean pIsUnsat) {
+    ImmutableSet<BooleanFormula> constraints = ImmutableSet.copyOf(pConstraints);
+    groupedUnsatCache
+        .computeIfAbsent(pGroupKey, k -> new Group())
+        .add(new CachedResult(constraints, signature(constraints), pIsUnsat), maximumGroupSize);
+  }
+
+  void printStatistics(PrintStream out) {
+    long single = singleHits.getValue() + singleMisses.getValue();
+    long grouped = groupedHits.getValue() + groupedMisses.getValue();
+    out.println("  cache hits for formulas:         " + toPercent(singleHits.getValue(), single));
+    out.println("  cache hits for constraint sets:  " + toPercent(groupedHits.getValue(), grouped));
+  }
+
+  /** Compute a bit-set where each formula of the set is represented by one bit. */
+  private static long signature(Set<BooleanFormula> pConstraints) {
+    long signature = 0;
+    for (BooleanFormula constraint : pConstraints) {
+      // spread the hash code, the shift only uses the lowest 6 bits of the int
+      signature |= 1L << ((constraint.hashCode() * 0x9E3779B9) >>> 26);
+    }
+    return signature;
+  }
+
+  private static final class CachedResult {
+    private final ImmutableSet<BooleanFormula> constraints;
+    private final long signature;
+    private final boolean isUnsat;
+
+    private CachedResult(
+        ImmutableSet<BooleanFormula> pConstraints, long pSignature, boolean pIsUnsat) {
+      constraints = pConstraints;
+      signature = pSignature;
+      isUnsat = pIsUnsat;
+    }
+  }
+
+  /** Cached results for one group key, the oldest results are evicted first. */
+  private static final class Group {
+
+    // guarded by this
+    private final Deque<CachedResult> unsatResults = new ArrayDeque<>();
+    private final Deque<CachedResult> satResults = new ArrayDeque<>();
+
+    synchronized @Nullable Boolean lookup(Set<BooleanFormula> pConstraints, long pSignature) {
+      for (CachedResult cached : unsatResults) {
+        // any superset of unsatisfiable constraints is unsatisfiable
+        if ((cached.signature & ~pSignature) == 0 && pConstraints.containsAll(cached.constraints)) {
+          return true;
+        }
+      }
+      for (CachedResult cached : satResults) {
+        // any subset of satisfiable constraints is satisfiable
+        if ((pSignature & ~cached.signature) == 0 && cached.constraints.containsAll(pConstraints)) {
+          return false;
+        }
+      }
+      return null;
+    }
+
+    synchronized void add(CachedResult pResult, int pMaximumSize) {
+      (pResult.isUnsat ? unsatResults : satResults).addLast(pResult);
+      while (pMaximumSize > 0 && unsatResults.size() + satResults.size() > pMaximumSize) {
+        // evict the oldest result of the larger deque
+        (unsatResults.size() >= satResults.size() ? unsatResults : satResults).removeFirst();
+      }
+    }
+  }
+}
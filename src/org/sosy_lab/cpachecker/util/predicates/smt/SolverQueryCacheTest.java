@@ -0,0 +1,75 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class SolverQueryCacheTest extends SolverViewBasedTest0 {
+
+  private SolverQueryCache cache;
+  private BooleanFormula a;
+  private BooleanFormula b;
+  private BooleanFormula c;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    cache = new SolverQueryCache(config);
+    a = bmgrv.makeVariable("a");
+    b = bmgrv.makeVariable("b");
+    c = bmgrv.makeVariable("c");
+  }
+
+  @Test
+  public void supersetOfUnsat() {
+    cache.put(ImmutableSet.of(a, b), "key", true);
+
+    assertThat(cache.getIfPresent(ImmutableSet.of(a, b, c), "key")).isTrue();
+    assertThat(cache.getIfPresent(ImmutableSet.of(a, c), "key")).isNull();
+    assertThat(cache.getIfPresent(ImmutableSet.of(a, b, c), "otherKey")).isNull();
+  }
+
+  @Test
+  public void subsetOfSat() {
+    cache.put(ImmutableSet.of(a, b), "key", false);
+
+    assertThat(cache.getIfPresent(ImmutableSet.of(a), "key")).isFalse();
+    assertThat(cache.getIfPresent(ImmutableSet.of(a, b), "key")).isFalse();
+    assertThat(cache.getIfPresent(ImmutableSet.of(a, c), "key")).isNull();
+  }
+
+  @Test
+  public void singleFormulas() {
+    cache.put(a, false);
+
+    assertThat(cache.getIfPresent(a)).isFalse();
+    assertThat(cache.getIfPresent(b)).isNull();
+    assertThat(cache.contains(a)).isTrue();
+  }
+}
@@ -23,15 +23,28 @@
  */
 package org.sosy_lab.cpachecker.util.refinement;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.errorprone.annotations.ForOverride;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -43,6 +56,7 @@ import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.counterexample.CFAPathWithAssumptions;
 import org.sosy_lab.cpachecker.core.counterexample.CounterexampleInfo;
 import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
@@ -54,6 +68,8 @@ import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException.Reason;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
@@ -101,6 +117,16 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
       + " e.g., for supporting counterexample checks")
   private boolean addAssumptionsToCex = true;
 
+  @Option(
+      secure = true,
+      description =
+          "number of threads for refining the error paths to all target states of the reached set"
+              + " at once, if the given error path is spurious. Each thread uses its own"
+              + " feasibility checker and interpolator, and the interpolants of all spurious"
+              + " paths are combined into a single precision update. With 1, only the given"
+              + " error path is refined. Only supported by some refiners.")
+  private int parallelRefinementThreads = 1;
+
   protected final LogManager logger;
 
   private final PathInterpolator<I> interpolator;
@@ -113,10 +139,20 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
 
   private Set<Integer> previousErrorPathIds = Sets.newHashSet();
 
+  /** Feasibility checkers and interpolators that are currently not used by a thread. */
+  private final BlockingQueue<Pair<FeasibilityChecker<S>, PathInterpolator<I>>> idleWorkers =
+      new LinkedBlockingQueue<>();
+
+  private @Nullable ExecutorService refinementExecutor = null;
+
+  private static final long IDLE_THREAD_TIMEOUT_SECONDS = 10;
+
   // statistics
   private final StatCounter refinementCounter = new StatCounter("Number of refinements");
   private final StatInt numberOfTargets = new StatInt(StatKind.SUM, "Number of targets found");
   private final StatTimer refinementTime = new StatTimer("Time for completing refinement");
+  private final StatInt parallelRefinedPaths =
+      new StatInt(StatKind.SUM, "Number of paths refined in parallel");
 
   public GenericRefiner(
       final FeasibilityChecker<S> pFeasibilityChecker,
@@ -136,6 +172,41 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     pathExtractor = pPathExtractor;
   }
 
+  /**
+   * Allow the refinement of several error paths in parallel, if configured. The given supplier is
+   * called once per thread and has to return a feasibility checker and a path interpolator that
+   * do not share any mutable state with other instances.
+   */
+  protected void enableParallelRefinement(
+      RefinementWorkerSupplier<S, I> pWorkerSupplier) throws InvalidConfigurationException {
+    if (parallelRefinementThreads <= 1) {
+      return;
+    }
+    for (int i = 0; i < parallelRefinementThreads; i++) {
+      idleWorkers.add(pWorkerSupplier.get());
+    }
+    // The refiner has no end of life, so idle threads time out instead of waiting for a shutdown.
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            parallelRefinementThreads,
+            parallelRefinementThreads,
+            IDLE_THREAD_TIMEOUT_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(getClass().getSimpleName() + "-%d")
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+    refinementExecutor = executor;
+  }
+
+  /** Supplier for independent instances of the components used for refining an error path. */
+  @FunctionalInterface
+  protected interface RefinementWorkerSupplier<S, I> {
+    Pair<FeasibilityChecker<S>, PathInterpolator<I>> get() throws InvalidConfigurationException;
+  }
+
   private boolean madeProgress(ARGPath path) {
     boolean progress = (previousErrorPathIds.isEmpty() || !previousErrorPathIds.contains(obtainErrorPathId(path)));
 
@@ -185,7 +256,12 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     CounterexampleInfo cex = isPathFeasible(targetPathToUse);
 
     if (cex.isSpurious()) {
-      refineUsingInterpolants(pReached, obtainInterpolants(targetPathToUse));
+      if (refinementExecutor != null && isPathToUseOfArg(targetPathToUse)) {
+        refineUsingInterpolants(
+            pReached, obtainInterpolantsInParallel(pReached, targetPathToUse));
+      } else {
+        refineUsingInterpolants(pReached, obtainInterpolants(targetPathToUse));
+      }
     }
 
     refinementTime.stop();
@@ -212,6 +288,89 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     return interpolationTree;
   }
 
+  /**
+   * Check whether the given path is the one that the interpolation tree for several paths would
+   * contain, which is not necessarily the case for paths given from outside.
+   */
+  private boolean isPathToUseOfArg(ARGPath pTargetPath) {
+    return pTargetPath
+        .asStatesList()
+        .equals(ARGUtils.getOnePathTo(pTargetPath.getLastState()).asStatesList());
+  }
+
+  /**
+   * Interpolate the given spurious error path together with the error paths to all other target
+   * states of the reached set, using one thread per path. Feasible paths are ignored, they are
+   * reported by a later refinement. The given path was already checked to be infeasible.
+   */
+  private InterpolationTree<S, I> obtainInterpolantsInParallel(
+      ARGReachedSet pReached, ARGPath pTargetPath) throws CPAException, InterruptedException {
+
+    List<ARGPath> paths = new ArrayList<>();
+    paths.add(pTargetPath);
+    for (AbstractState target : AbstractStates.getTargetStates(pReached.asReachedSet())) {
+      if (target != pTargetPath.getLastState()) {
+        paths.add(ARGUtils.getOnePathTo((ARGState) target));
+      }
+    }
+
+    List<Future<Map<ARGState, I>>> futures = new ArrayList<>(paths.size());
+    for (ARGPath path : paths) {
+      boolean checkFeasibility = path != pTargetPath;
+      futures.add(refinementExecutor.submit(() -> interpolateIfSpurious(path, checkFeasibility)));
+    }
+
+    List<ARGPath> spuriousPaths = new ArrayList<>(paths.size());
+    List<Map<ARGState, I>> interpolants = new ArrayList<>(paths.size());
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        Map<ARGState, I> pathInterpolants = futures.get(i).get();
+        if (pathInterpolants != null) {
+          spuriousPaths.add(paths.get(i));
+          interpolants.add(pathInterpolants);
+        }
+      }
+    } catch (ExecutionException e) {
+      Throwables.propagateIfPossible(e.getCause(), CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel refinement", e.getCause());
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    parallelRefinedPaths.setNextValue(spuriousPaths.size());
+
+    // the interpolants are added in a fixed order, so the result does not depend on scheduling
+    InterpolationTree<S, I> interpolationTree = createInterpolationTree(spuriousPaths);
+    for (Map<ARGState, I> pathInterpolants : interpolants) {
+      interpolationTree.addInterpolants(pathInterpolants);
+    }
+
+    exportTree(interpolationTree, "FINAL");
+    return interpolationTree;
+  }
+
+  /**
+   * Interpolate the given path from the root with a worker that is not used by another thread.
+   *
+   * @param pCheckFeasibility whether the path still needs to be checked for feasibility
+   * @return the interpolants, or null if the path is feasible
+   */
+  private @Nullable Map<ARGState, I> interpolateIfSpurious(
+      ARGPath pPath, boolean pCheckFeasibility) throws CPAException, InterruptedException {
+    Pair<FeasibilityChecker<S>, PathInterpolator<I>> worker = idleWorkers.take();
+    try {
+      if (pCheckFeasibility && worker.getFirst().isFeasible(pPath)) {
+        return null;
+      }
+      return worker
+          .getSecond()
+          .performInterpolation(pPath, interpolantManager.createInitialInterpolant());
+    } finally {
+      idleWorkers.add(worker);
+    }
+  }
+
   /**
    * This method creates the interpolation tree.
    */
@@ -322,6 +481,7 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
     writer.put(refinementCounter)
         .put(numberOfTargets)
+        .putIf(refinementExecutor != null, parallelRefinedPaths)
         .put(refinementTime);
     printAdditionalStatistics(pOut, pResult, pReached); //hook
   }
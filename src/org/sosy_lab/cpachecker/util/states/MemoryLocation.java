@@ -26,35 +26,51 @@ package org.sosy_lab.cpachecker.util.states;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.ComparisonChain;
-import com.google.common.collect.Ordering;
+import com.google.common.collect.MapMaker;
 import java.io.Serializable;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 
 /**
-* This class describes a location in the memory.
-*/
+ * This class describes a location in the memory.
+ *
+ * <p>All instances created by the static factory methods are interned, i.e., there exists at
+ * most one such instance for each memory location, and each of them has a unique integer ID (cf.
+ * {@link #getId()}). Thus equality checks are mostly identity checks. Interned instances are held
+ * only weakly, so memory locations of previous analyses do not stay in memory.
+ */
 public class MemoryLocation implements Comparable<MemoryLocation>, Serializable {
 
   private static final long serialVersionUID = -8910967707373729034L;
+
+  /** ID of instances that are not interned (lookup keys and instances of subclasses) */
+  private static final int NOT_INTERNED = 0;
+
+  private static final ConcurrentMap<MemoryLocation, MemoryLocation> internedLocations =
+      new MapMaker().weakValues().makeMap();
+  private static final AtomicInteger nextId = new AtomicInteger(NOT_INTERNED + 1);
+
   private final String functionName;
   private final String identifier;
   private final @Nullable Long offset;
 
-  private MemoryLocation(String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
-    checkNotNull(pFunctionName);
+  private final transient int id;
+  private transient int hash = 0; // lazily computed
+
+  private MemoryLocation(
+      @Nullable String pFunctionName, String pIdentifier, @Nullable Long pOffset, int pId) {
     checkNotNull(pIdentifier);
 
     functionName = pFunctionName;
     identifier = pIdentifier;
     offset = pOffset;
+    id = pId;
   }
 
   protected MemoryLocation(String pIdentifier, @Nullable Long pOffset) {
@@ -69,6 +85,62 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
       identifier = pIdentifier;
     }
     offset = pOffset;
+    id = NOT_INTERNED;
+  }
+
+  private static MemoryLocation intern(
+      @Nullable String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
+    MemoryLocation key = new MemoryLocation(pFunctionName, pIdentifier, pOffset, NOT_INTERNED);
+    MemoryLocation result = internedLocations.get(key);
+    if (result == null) {
+      result =
+          internedLocations.computeIfAbsent(
+              key,
+              k ->
+                  new MemoryLocation(
+                      k.functionName, k.identifier, k.offset, nextId.getAndIncrement()));
+    }
+    return result;
+  }
+
+  private static MemoryLocation internScoped(String pIdentifier, @Nullable Long pOffset) {
+    int separatorIndex = pIdentifier.indexOf("::");
+    if (separatorIndex >= 0) {
+      return intern(
+          pIdentifier.substring(0, separatorIndex),
+          pIdentifier.substring(separatorIndex + 2),
+          pOffset);
+    } else {
+      return intern(null, pIdentifier, pOffset);
+    }
+  }
+
+  /** Deserialized instances are replaced by the interned instance. */
+  private Object readResolve() {
+    return intern(functionName, identifier, offset);
+  }
+
+  /**
+   * Returns an integer that uniquely identifies this memory location during the current run.
+   * IDs are assigned starting at 1 in the order in which memory locations are created, so they can
+   * be used as key for primitive maps. A memory location that is not referenced anymore may be
+   * garbage collected and gets a new ID when it is created again, so the ID is only stable as long
+   * as the instance is kept. IDs are not stable across runs and do not reflect the natural
+   * ordering of memory locations.
+   */
+  public int getId() {
+    return getInterned().id;
+  }
+
+  /**
+   * Returns the interned instance that is equal to this memory location. Its ID stays the same as
+   * long as it is referenced (cf. {@link #getId()}).
+   */
+  public MemoryLocation getInterned() {
+    if (id != NOT_INTERNED) {
+      return this;
+    }
+    return intern(functionName, identifier, offset);
   }
 
   @Override
@@ -84,6 +156,11 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
 
     MemoryLocation otherLocation = (MemoryLocation) other;
 
+    if (id != NOT_INTERNED && otherLocation.id != NOT_INTERNED) {
+      // there are no two different interned instances with the same content
+      return false;
+    }
+
     return Objects.equals(functionName, otherLocation.functionName)
         && Objects.equals(identifier, otherLocation.identifier)
         && Objects.equals(offset, otherLocation.offset);
@@ -91,49 +168,59 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
 
   @Override
   public int hashCode() {
-    return Objects.hash(functionName, identifier, offset);
+    int result = hash;
+    if (result == 0) {
+      result = Objects.hash(functionName, identifier, offset);
+      hash = result;
+    }
+    return result;
   }
 
   public static MemoryLocation valueOf(String pFunctionName, String pIdentifier) {
-    return new MemoryLocation(pFunctionName, pIdentifier, null);
+    checkNotNull(pFunctionName);
+    return intern(pFunctionName, pIdentifier, null);
   }
 
   public static MemoryLocation valueOf(String pFunctionName, String pIdentifier, long pOffset) {
-    return new MemoryLocation(pFunctionName, pIdentifier, pOffset);
+    checkNotNull(pFunctionName);
+    return intern(pFunctionName, pIdentifier, pOffset);
   }
 
   public static MemoryLocation valueOf(String pIdentifier, long pOffset) {
-    return new MemoryLocation(pIdentifier, pOffset);
+    return internScoped(pIdentifier, pOffset);
   }
 
   public static MemoryLocation valueOf(String pIdentifier, OptionalLong pOffset) {
-    return new MemoryLocation(pIdentifier, pOffset.isPresent() ? pOffset.getAsLong() : null);
+    return internScoped(pIdentifier, pOffset.isPresent() ? pOffset.getAsLong() : null);
   }
 
   public static MemoryLocation valueOf(String pVariableName) {
 
-    List<String> nameParts = Splitter.on("::").splitToList(pVariableName);
-    List<String> offsetParts = Splitter.on('/').splitToList(pVariableName);
+    int scopeSeparator = pVariableName.indexOf("::");
+    int offsetSeparator = pVariableName.indexOf('/');
 
-    boolean isScoped = nameParts.size() == 2;
-    boolean hasOffset = offsetParts.size() == 2;
+    boolean isScoped = scopeSeparator >= 0 && pVariableName.indexOf("::", scopeSeparator + 2) < 0;
+    boolean hasOffset = offsetSeparator >= 0 && pVariableName.indexOf('/', offsetSeparator + 1) < 0;
 
-    @Nullable Long offset = hasOffset ? Long.parseLong(offsetParts.get(1)) : null;
+    @Nullable
+    Long offset = hasOffset ? Long.parseLong(pVariableName.substring(offsetSeparator + 1)) : null;
 
     if (isScoped) {
-      String functionName = nameParts.get(0);
-      String varName = nameParts.get(1);
+      String functionName = pVariableName.substring(0, scopeSeparator);
+      String varName = pVariableName.substring(scopeSeparator + 2);
       if (hasOffset) {
         varName = varName.replace("/" + offset, "");
       }
-      return new MemoryLocation(functionName, varName, offset);
+      return intern(functionName, varName, offset);
 
     } else {
-      String varName = nameParts.get(0);
+      String varName = scopeSeparator >= 0
+          ? pVariableName.substring(0, scopeSeparator)
+          : pVariableName;
       if (hasOffset) {
         varName = varName.replace("/" + offset, "");
       }
-      return new MemoryLocation(varName.replace("/" + offset, ""), offset);
+      return internScoped(varName, offset);
     }
   }
 
@@ -197,12 +284,35 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
     return result;
   }
 
+  /**
+   * Memory locations are ordered by function name (locations without function first), identifier,
+   * and offset (locations without offset first). This ordering does not depend on the IDs, such
+   * that iteration orders of sorted collections are the same in every run.
+   */
   @Override
   public int compareTo(MemoryLocation other) {
-    return ComparisonChain.start()
-        .compare(functionName, other.functionName, Ordering.natural().nullsFirst())
-        .compare(identifier, other.identifier)
-        .compare(offset, other.offset, Ordering.natural().nullsFirst())
-        .result();
+    if (this == other) {
+      return 0;
+    }
+    int result = compareNullsFirst(functionName, other.functionName);
+    if (result != 0) {
+      return result;
+    }
+    result = identifier.compareTo(other.identifier);
+    if (result != 0) {
+      return result;
+    }
+    return compareNullsFirst(offset, other.offset);
+  }
+
+  private static <T extends Comparable<T>> int compareNullsFirst(@Nullable T a, @Nullable T b) {
+    if (a == b) {
+      return 0;
+    } else if (a == null) {
+      return -1;
+    } else if (b == null) {
+      return 1;
+    }
+    return a.compareTo(b);
   }
 }
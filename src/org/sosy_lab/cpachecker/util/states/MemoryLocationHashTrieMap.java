@@ -0,0 +1,553 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.collect.PersistentMap;
+
+/**
+ * Persistent map with {@link MemoryLocation}s as keys, implemented as hash array mapped trie over
+ * the unique IDs of the memory locations (cf. {@link MemoryLocation#getId()}). Because the IDs are
+ * unique, there are no hash collisions, and because the shape of the trie depends only on the set
+ * of keys, maps with the same keys share the same structure.
+ *
+ * <p>Every inner node caches its size and hash code, so {@link #equals(Object)}, {@link
+ * #containsAllEntriesOf(MemoryLocationHashTrieMap, BiPredicate)} and {@link
+ * #retainEqualEntries(MemoryLocationHashTrieMap)} skip identical subtrees and can often decide
+ * without looking at single entries.
+ *
+ * <p>The iteration order is defined by the IDs of the keys and thus not stable across runs.
+ *
+ * @param <V> the type of the values
+ */
+public final class MemoryLocationHashTrieMap<V> extends AbstractMap<MemoryLocation, V>
+    implements PersistentMap<MemoryLocation, V>, Serializable {
+
+  private static final long serialVersionUID = 6102932475935612338L;
+
+  private static final int BITS_PER_LEVEL = 5;
+  private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+  @SuppressWarnings("rawtypes")
+  private static final MemoryLocationHashTrieMap EMPTY = new MemoryLocationHashTrieMap<>(null);
+
+  /** null, a {@link Leaf}, or a {@link Node} */
+  private final transient @Nullable Object root;
+
+  private transient @Nullable Set<Map.Entry<MemoryLocation, V>> entrySet = null;
+
+  @SuppressWarnings("unchecked")
+  public static <V> MemoryLocationHashTrieMap<V> of() {
+    return EMPTY;
+  }
+
+  private MemoryLocationHashTrieMap(@Nullable Object pRoot) {
+    root = pRoot;
+  }
+
+  private MemoryLocationHashTrieMap<V> withRoot(@Nullable Object pRoot) {
+    if (pRoot == root) {
+      return this;
+    }
+    return pRoot == null ? of() : new MemoryLocationHashTrieMap<>(pRoot);
+  }
+
+  /**
+   * Entry of the map, stored in the trie. The key is always the interned memory location, which
+   * keeps its ID valid for as long as the entry exists.
+   */
+  private static final class Leaf implements Map.Entry<MemoryLocation, Object> {
+    private final MemoryLocation key;
+    private final int id;
+    private final Object value;
+
+    private Leaf(MemoryLocation pKey, Object pValue) {
+      key = pKey.getInterned();
+      id = key.getId();
+      value = pValue;
+    }
+
+    @Override
+    public MemoryLocation getKey() {
+      return key;
+    }
+
+    @Override
+    public Object getValue() {
+      return value;
+    }
+
+    @Override
+    public Object setValue(Object pValue) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (!(pObj instanceof Map.Entry<?, ?>)) {
+        return false;
+      }
+      Map.Entry<?, ?> other = (Map.Entry<?, ?>) pObj;
+      return key.equals(other.getKey()) && value.equals(other.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  /** Inner node of the trie with cached size and hash code. */
+  private static final class Node {
+    private final int bitmap;
+    private final Object[] children; // Leaf or Node
+    private final int size;
+    private final int hashCode;
+
+    private Node(int pBitmap, Object[] pChildren) {
+      bitmap = pBitmap;
+      children = pChildren;
+      int s = 0;
+      int h = 0;
+      for (Object child : pChildren) {
+        s += size(child);
+        h += hash(child);
+      }
+      size = s;
+      hashCode = h;
+    }
+
+    private int index(int pBit) {
+      return Integer.bitCount(bitmap & (pBit - 1));
+    }
+  }
+
+  private static int size(@Nullable Object pTrie) {
+    if (pTrie == null) {
+      return 0;
+    }
+    return pTrie instanceof Leaf ? 1 : ((Node) pTrie).size;
+  }
+
+  private static int hash(@Nullable Object pTrie) {
+    if (pTrie == null) {
+      return 0;
+    }
+    return pTrie instanceof Leaf ? pTrie.hashCode() : ((Node) pTrie).hashCode;
+  }
+
+  private static int bit(int pId, int pShift) {
+    return 1 << ((pId >>> pShift) & LEVEL_MASK);
+  }
+
+  /** Create the smallest trie containing the two leaves with different IDs. */
+  private static Object merge(Leaf pLeaf1, Leaf pLeaf2, int pShift) {
+    int bit1 = bit(pLeaf1.id, pShift);
+    int bit2 = bit(pLeaf2.id, pShift);
+    if (bit1 == bit2) {
+      return new Node(bit1, new Object[] {merge(pLeaf1, pLeaf2, pShift + BITS_PER_LEVEL)});
+    } else if (Integer.compareUnsigned(bit1, bit2) < 0) {
+      return new Node(bit1 | bit2, new Object[] {pLeaf1, pLeaf2});
+    } else {
+      return new Node(bit1 | bit2, new Object[] {pLeaf2, pLeaf1});
+    }
+  }
+
+  private static @Nullable Leaf find(@Nullable Object pTrie, int pId, int pShift) {
+    Object current = pTrie;
+    int shift = pShift;
+    while (current instanceof Node) {
+      Node node = (Node) current;
+      int bit = bit(pId, shift);
+      if ((node.bitmap & bit) == 0) {
+        return null;
+      }
+      current = node.children[node.index(bit)];
+      shift += BITS_PER_LEVEL;
+    }
+    Leaf leaf = (Leaf) current;
+    return leaf != null && leaf.id == pId ? leaf : null;
+  }
+
+  private static Object put(@Nullable Object pTrie, Leaf pLeaf, int pShift) {
+    if (pTrie == null) {
+      return pLeaf;
+    } else if (pTrie instanceof Leaf) {
+      Leaf leaf = (Leaf) pTrie;
+      if (leaf.id == pLeaf.id) {
+        return leaf.value.equals(pLeaf.value) ? leaf : pLeaf;
+      }
+      return merge(leaf, pLeaf, pShift);
+    }
+
+    Node node = (Node) pTrie;
+    int bit = bit(pLeaf.id, pShift);
+    int index = node.index(bit);
+    if ((node.bitmap & bit) == 0) {
+      Object[] children = new Object[node.children.length + 1];
+      System.arraycopy(node.children, 0, children, 0, index);
+      children[index] = pLeaf;
+      System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+      return new Node(node.bitmap | bit, children);
+    }
+
+    Object oldChild = node.children[index];
+    Object newChild = put(oldChild, pLeaf, pShift + BITS_PER_LEVEL);
+    if (newChild == oldChild) {
+      return node;
+    }
+    Object[] children = node.children.clone();
+    children[index] = newChild;
+    return new Node(node.bitmap, children);
+  }
+
+  private static @Nullable Object remove(@Nullable Object pTrie, int pId, int pShift) {
+    if (pTrie == null) {
+      return null;
+    } else if (pTrie instanceof Leaf) {
+      return ((Leaf) pTrie).id == pId ? null : pTrie;
+    }
+
+    Node node = (Node) pTrie;
+    int bit = bit(pId, pShift);
+    if ((node.bitmap & bit) == 0) {
+      return node;
+    }
+    int index = node.index(bit);
+    Object oldChild = node.children[index];
+    Object newChild = remove(oldChild, pId, pShift + BITS_PER_LEVEL);
+    if (newChild == oldChild) {
+      return node;
+    }
+    if (newChild != null) {
+      if (node.children.length == 1 && newChild instanceof Leaf) {
+        return newChild; // keep the trie canonical
+      }
+      Object[] children = node.children.clone();
+      children[index] = newChild;
+      return new Node(node.bitmap, children);
+    }
+    return removeChild(node, bit, index);
+  }
+
+  private static @Nullable Object removeChild(Node pNode, int pBit, int pIndex) {
+    if (pNode.children.length == 1) {
+      return null;
+    } else if (pNode.children.length == 2 && pNode.children[1 - pIndex] instanceof Leaf) {
+      return pNode.children[1 - pIndex]; // keep the trie canonical
+    }
+    Object[] children = new Object[pNode.children.length - 1];
+    System.arraycopy(pNode.children, 0, children, 0, pIndex);
+    System.arraycopy(
+        pNode.children, pIndex + 1, children, pIndex, pNode.children.length - pIndex - 1);
+    return new Node(pNode.bitmap & ~pBit, children);
+  }
+
+  private static boolean equalTries(@Nullable Object pTrie1, @Nullable Object pTrie2) {
+    if (pTrie1 == pTrie2) {
+      return true;
+    }
+    if (pTrie1 == null
+        || pTrie2 == null
+        || size(pTrie1) != size(pTrie2)
+        || hash(pTrie1) != hash(pTrie2)) {
+      return false;
+    }
+    if (pTrie1 instanceof Leaf || pTrie2 instanceof Leaf) {
+      // both are leaves because the size is equal
+      Leaf leaf1 = (Leaf) pTrie1;
+      Leaf leaf2 = (Leaf) pTrie2;
+      return leaf1.id == leaf2.id && leaf1.value.equals(leaf2.value);
+    }
+    Node node1 = (Node) pTrie1;
+    Node node2 = (Node) pTrie2;
+    if (node1.bitmap != node2.bitmap) {
+      return false;
+    }
+    for (int i = 0; i < node1.children.length; i++) {
+      if (!equalTries(node1.children[i], node2.children[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <V> boolean containsAll(
+      @Nullable Object pTrie,
+      @Nullable Object pOther,
+      int pShift,
+      BiPredicate<? super V, ? super V> pEquivalence) {
+    if (pOther == null || pTrie == pOther) {
+      return true;
+    } else if (pTrie == null || size(pTrie) < size(pOther)) {
+      return false;
+    } else if (pOther instanceof Leaf) {
+      Leaf otherLeaf = (Leaf) pOther;
+      Leaf leaf = find(pTrie, otherLeaf.id, pShift);
+      return leaf != null && pEquivalence.test((V) leaf.value, (V) otherLeaf.value);
+    } else if (pTrie instanceof Leaf) {
+      return false; // the other trie has more entries
+    }
+
+    Node node = (Node) pTrie;
+    Node other = (Node) pOther;
+    if ((other.bitmap & ~node.bitmap) != 0) {
+      return false;
+    }
+    int i = 0;
+    for (int bits = other.bitmap; bits != 0; bits &= bits - 1) {
+      int bit = Integer.lowestOneBit(bits);
+      Object child = node.children[node.index(bit)];
+      if (!containsAll(child, other.children[i++], pShift + BITS_PER_LEVEL, pEquivalence)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns all entries of pOther that are also contained in pTrie. */
+  private static @Nullable Object intersect(
+      @Nullable Object pTrie, @Nullable Object pOther, int pShift) {
+    if (pTrie == pOther) {
+      return pOther;
+    } else if (pTrie == null || pOther == null) {
+      return null;
+    } else if (pOther instanceof Leaf) {
+      Leaf otherLeaf = (Leaf) pOther;
+      Leaf leaf = find(pTrie, otherLeaf.id, pShift);
+      return leaf != null && leaf.value.equals(otherLeaf.value) ? otherLeaf : null;
+    } else if (pTrie instanceof Leaf) {
+      Leaf leaf = (Leaf) pTrie;
+      Leaf otherLeaf = find(pOther, leaf.id, pShift);
+      return otherLeaf != null && leaf.value.equals(otherLeaf.value) ? otherLeaf : null;
+    }
+
+    Node node = (Node) pTrie;
+    Node other = (Node) pOther;
+    int commonBits = node.bitmap & other.bitmap;
+    Object[] children = new Object[Integer.bitCount(commonBits)];
+    int resultBitmap = 0;
+    int count = 0;
+    boolean sameAsOther = commonBits == other.bitmap;
+    for (int bits = commonBits; bits != 0; bits &= bits - 1) {
+      int bit = Integer.lowestOneBit(bits);
+      Object otherChild = other.children[other.index(bit)];
+      Object child =
+          intersect(node.children[node.index(bit)], otherChild, pShift + BITS_PER_LEVEL);
+      sameAsOther &= child == otherChild;
+      if (child != null) {
+        children[count++] = child;
+        resultBitmap |= bit;
+      }
+    }
+
+    if (sameAsOther) {
+      return other;
+    } else if (count == 0) {
+      return null;
+    } else if (count == 1 && children[0] instanceof Leaf) {
+      return children[0]; // keep the trie canonical
+    }
+    Object[] result = count == children.length ? children : Arrays.copyOf(children, count);
+    return new Node(resultBitmap, result);
+  }
+
+  @Override
+  public MemoryLocationHashTrieMap<V> putAndCopy(MemoryLocation pKey, V pValue) {
+    return withRoot(put(root, new Leaf(checkNotNull(pKey), checkNotNull(pValue)), 0));
+  }
+
+  @Override
+  public MemoryLocationHashTrieMap<V> removeAndCopy(Object pKey) {
+    if (!(pKey instanceof MemoryLocation)) {
+      return this;
+    }
+    return withRoot(remove(root, ((MemoryLocation) pKey).getId(), 0));
+  }
+
+  public MemoryLocationHashTrieMap<V> empty() {
+    return of();
+  }
+
+  /**
+   * Check whether this map contains all keys of the other map, and whether the values for these
+   * keys are equivalent according to the given predicate. The predicate is called with the value
+   * of this map as first argument. Subtrees that are shared between both maps are not visited.
+   */
+  public boolean containsAllEntriesOf(
+      MemoryLocationHashTrieMap<V> pOther, BiPredicate<? super V, ? super V> pEquivalence) {
+    return containsAll(root, pOther.root, 0, pEquivalence);
+  }
+
+  /**
+   * Return a map with all entries of the other map that are also contained in this map. If these
+   * are all entries of the other map, the other map itself is returned.
+   */
+  public MemoryLocationHashTrieMap<V> retainEqualEntries(MemoryLocationHashTrieMap<V> pOther) {
+    return pOther.withRoot(intersect(root, pOther.root, 0));
+  }
+
+  @Override
+  public int size() {
+    return size(root);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  @Override
+  public boolean containsKey(Object pKey) {
+    return pKey instanceof MemoryLocation && find(root, ((MemoryLocation) pKey).getId(), 0) != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public @Nullable V get(Object pKey) {
+    if (!(pKey instanceof MemoryLocation)) {
+      return null;
+    }
+    Leaf leaf = find(root, ((MemoryLocation) pKey).getId(), 0);
+    return leaf == null ? null : (V) leaf.value;
+  }
+
+  @Override
+  public Set<Map.Entry<MemoryLocation, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet =
+          new AbstractSet<Map.Entry<MemoryLocation, V>>() {
+            @Override
+            public Iterator<Map.Entry<MemoryLocation, V>> iterator() {
+              return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+              return MemoryLocationHashTrieMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object pO) {
+              if (!(pO instanceof Map.Entry<?, ?>)) {
+                return false;
+              }
+              Map.Entry<?, ?> entry = (Map.Entry<?, ?>) pO;
+              return entry.getKey() instanceof MemoryLocation
+                  && Objects.equals(get(entry.getKey()), entry.getValue());
+            }
+          };
+    }
+    return entrySet;
+  }
+
+  private static final class EntryIterator<V> implements Iterator<Map.Entry<MemoryLocation, V>> {
+
+    private final Deque<Object> stack = new ArrayDeque<>();
+
+    private EntryIterator(@Nullable Object pRoot) {
+      if (pRoot != null) {
+        stack.push(pRoot);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !stack.isEmpty();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map.Entry<MemoryLocation, V> next() {
+      if (stack.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Object current = stack.pop();
+      while (current instanceof Node) {
+        Object[] children = ((Node) current).children;
+        for (int i = children.length - 1; i > 0; i--) {
+          stack.push(children[i]);
+        }
+        current = children[0];
+      }
+      return (Map.Entry<MemoryLocation, V>) (Map.Entry<MemoryLocation, ?>) current;
+    }
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (pObj instanceof MemoryLocationHashTrieMap<?>) {
+      return equalTries(root, ((MemoryLocationHashTrieMap<?>) pObj).root);
+    }
+    return super.equals(pObj);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash(root);
+  }
+
+  private Object writeReplace() {
+    return new SerialProxy(this);
+  }
+
+  /** IDs are not stable across runs, so only the entries are serialized. */
+  private static final class SerialProxy implements Serializable {
+    private static final long serialVersionUID = -2396528063419934719L;
+    private final ImmutableMap<MemoryLocation, Object> entries;
+
+    private SerialProxy(MemoryLocationHashTrieMap<?> pMap) {
+      entries = ImmutableMap.copyOf(pMap);
+    }
+
+    private Object readResolve() {
+      MemoryLocationHashTrieMap<Object> result = of();
+      for (Map.Entry<MemoryLocation, Object> entry : entries.entrySet()) {
+        result = result.putAndCopy(entry.getKey(), entry.getValue());
+      }
+      return result;
+    }
+  }
+}
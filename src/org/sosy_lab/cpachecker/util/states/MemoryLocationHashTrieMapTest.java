@@ -0,0 +1,172 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class MemoryLocationHashTrieMapTest {
+
+  private static MemoryLocation loc(int i) {
+    return MemoryLocation.valueOf("trie_test", "v" + i);
+  }
+
+  private static MemoryLocationHashTrieMap<Integer> mapOf(int pFrom, int pTo) {
+    MemoryLocationHashTrieMap<Integer> map = MemoryLocationHashTrieMap.of();
+    for (int i = pFrom; i < pTo; i++) {
+      map = map.putAndCopy(loc(i), i);
+    }
+    return map;
+  }
+
+  @Test
+  public void testAgainstHashMap() {
+    Random random = new Random(0);
+    Map<MemoryLocation, Integer> expected = new HashMap<>();
+    MemoryLocationHashTrieMap<Integer> map = MemoryLocationHashTrieMap.of();
+
+    for (int step = 0; step < 5000; step++) {
+      MemoryLocation key = loc(random.nextInt(500));
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.removeAndCopy(key);
+      } else {
+        int value = random.nextInt(5);
+        expected.put(key, value);
+        map = map.putAndCopy(key, value);
+      }
+      assertThat(map.size()).isEqualTo(expected.size());
+      assertThat(map.get(key)).isEqualTo(expected.get(key));
+    }
+
+    assertThat(map).containsExactlyEntriesIn(expected);
+    assertThat(map).isEqualTo(expected);
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+
+    MemoryLocationHashTrieMap<Integer> rebuilt = MemoryLocationHashTrieMap.of();
+    for (Map.Entry<MemoryLocation, Integer> entry : expected.entrySet()) {
+      rebuilt = rebuilt.putAndCopy(entry.getKey(), entry.getValue());
+    }
+    assertThat(rebuilt).isEqualTo(map);
+  }
+
+  @Test
+  public void testCanonicalShape() {
+    MemoryLocationHashTrieMap<Integer> map = mapOf(0, 100);
+    MemoryLocationHashTrieMap<Integer> other = mapOf(0, 200);
+    for (int i = 100; i < 200; i++) {
+      other = other.removeAndCopy(loc(i));
+    }
+    assertThat(other).isEqualTo(map);
+    assertThat(other.hashCode()).isEqualTo(map.hashCode());
+    assertThat(other.removeAndCopy(loc(5))).isNotEqualTo(map);
+    assertThat(other.putAndCopy(loc(5), -1)).isNotEqualTo(map);
+  }
+
+  @Test
+  public void testUnchangedMapIsReturned() {
+    MemoryLocationHashTrieMap<Integer> map = mapOf(0, 50);
+    assertThat(map.putAndCopy(loc(7), 7)).isSameAs(map);
+    assertThat(map.removeAndCopy(loc(70))).isSameAs(map);
+    assertThat(map.removeAndCopy("v7")).isSameAs(map);
+    assertThat(MemoryLocationHashTrieMap.of().removeAndCopy(loc(1))).isEmpty();
+  }
+
+  @Test
+  public void testKeysAreInterned() {
+    // instances of subclasses are not interned themselves
+    MemoryLocation key = new MemoryLocation("trie_test::v_sub", null) {};
+    MemoryLocationHashTrieMap<Integer> map = MemoryLocationHashTrieMap.of();
+    map = map.putAndCopy(key, 1);
+
+    MemoryLocation interned = MemoryLocation.valueOf("trie_test", "v_sub");
+    assertThat(map.keySet().iterator().next()).isSameAs(interned);
+    assertThat(map.get(key)).isEqualTo(1);
+    assertThat(map.get(interned)).isEqualTo(1);
+  }
+
+  @Test
+  public void testContainsAllEntriesOf() {
+    MemoryLocationHashTrieMap<Integer> big = mapOf(0, 100);
+    MemoryLocationHashTrieMap<Integer> small = mapOf(10, 20);
+
+    assertThat(big.containsAllEntriesOf(small, Integer::equals)).isTrue();
+    assertThat(small.containsAllEntriesOf(big, Integer::equals)).isFalse();
+    assertThat(big.containsAllEntriesOf(big, (a, b) -> false)).isTrue();
+    assertThat(big.containsAllEntriesOf(MemoryLocationHashTrieMap.of(), Integer::equals))
+        .isTrue();
+
+    MemoryLocationHashTrieMap<Integer> changed = small.putAndCopy(loc(15), -15);
+    assertThat(big.containsAllEntriesOf(changed, Integer::equals)).isFalse();
+    assertThat(big.containsAllEntriesOf(changed, (a, b) -> Math.abs(a) == Math.abs(b))).isTrue();
+    assertThat(big.containsAllEntriesOf(small.putAndCopy(loc(100), 100), Integer::equals))
+        .isFalse();
+  }
+
+  @Test
+  public void testRetainEqualEntries() {
+    MemoryLocationHashTrieMap<Integer> base = mapOf(0, 100);
+    MemoryLocationHashTrieMap<Integer> changed =
+        base.putAndCopy(loc(3), -3).putAndCopy(loc(200), 0);
+
+    MemoryLocationHashTrieMap<Integer> joined = base.retainEqualEntries(changed);
+    assertThat(joined).isEqualTo(base.removeAndCopy(loc(3)));
+    assertThat(changed.retainEqualEntries(base)).isEqualTo(joined);
+
+    assertThat(changed.retainEqualEntries(base.removeAndCopy(loc(3)))).isEqualTo(joined);
+    MemoryLocationHashTrieMap<Integer> subset = mapOf(40, 60);
+    assertThat(base.retainEqualEntries(subset)).isSameAs(subset);
+    assertThat(base.retainEqualEntries(MemoryLocationHashTrieMap.of())).isEmpty();
+    assertThat(mapOf(0, 10).retainEqualEntries(mapOf(10, 20))).isEmpty();
+  }
+
+  @Test
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    MemoryLocationHashTrieMap<Integer> map = mapOf(0, 40);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(map);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Object read = in.readObject();
+      assertThat(read).isInstanceOf(MemoryLocationHashTrieMap.class);
+      assertThat(read).isEqualTo(map);
+    }
+
+    assertThat(map).isEqualTo(ImmutableMap.copyOf(map));
+    assertThat(ImmutableMap.copyOf(map)).isEqualTo(map);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2018  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.OptionalLong;
+import org.junit.Test;
+
+public class MemoryLocationTest {
+
+  @Test
+  public void testInterning() {
+    MemoryLocation loc = MemoryLocation.valueOf("main", "x");
+    assertThat(MemoryLocation.valueOf("main::x")).isSameAs(loc);
+    assertThat(MemoryLocation.valueOf("main::x", OptionalLong.empty())).isSameAs(loc);
+    assertThat(MemoryLocation.valueOf("main", "x", 4))
+        .isSameAs(MemoryLocation.valueOf("main::x/4"));
+    assertThat(MemoryLocation.valueOf("y", 8)).isSameAs(MemoryLocation.valueOf("y/8"));
+
+    assertThat(MemoryLocation.valueOf("main", "x", 4).getId()).isNotEqualTo(loc.getId());
+    assertThat(MemoryLocation.valueOf("main::x").getId()).isEqualTo(loc.getId());
+  }
+
+  @Test
+  public void testParsing() {
+    MemoryLocation loc = MemoryLocation.valueOf("f::a/12");
+    assertThat(loc.getFunctionName()).isEqualTo("f");
+    assertThat(loc.getIdentifier()).isEqualTo("a");
+    assertThat(loc.getOffset()).isEqualTo(12);
+    assertThat(loc.getAsSimpleString()).isEqualTo("f::a/12");
+
+    MemoryLocation global = MemoryLocation.valueOf("g");
+    assertThat(global.isOnFunctionStack()).isFalse();
+    assertThat(global.isReference()).isFalse();
+  }
+
+  @Test
+  public void testOrdering() {
+    MemoryLocation global = MemoryLocation.valueOf("z");
+    MemoryLocation a = MemoryLocation.valueOf("f", "a");
+    MemoryLocation aWithOffset = MemoryLocation.valueOf("f", "a", 0);
+    MemoryLocation b = MemoryLocation.valueOf("f", "b");
+    MemoryLocation otherFunction = MemoryLocation.valueOf("g", "a");
+
+    assertThat(
+            Ordering.natural()
+                .sortedCopy(ImmutableList.of(otherFunction, b, aWithOffset, a, global)))
+        .containsExactly(global, a, aWithOffset, b, otherFunction)
+        .inOrder();
+  }
+
+  @Test
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    MemoryLocation loc = MemoryLocation.valueOf("main", "serialized", 16);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(loc);
+    }
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(in.readObject()).isSameAs(loc);
+    }
+  }
+}